@@ -0,0 +1,242 @@
+package tablasHash;
+
+/**
+ * Indice en forma de arbol AVL de las claves de una cubeta larga. Cada nodo
+ * guarda una clave, su hash y la posicion que ocupa en las listas de la
+ * cubeta, que siguen siendo las que guardan los pares.
+ *
+ * Los nodos se ordenan por hash, despues por nombre de clase y, si las claves
+ * son de la misma clase y Comparable, con compareTo. Los empates se deshacen
+ * con el orden de insercion. Una busqueda que llega a un nodo empatado que no
+ * es su clave tiene que mirar los dos subarboles, asi que solo con claves del
+ * mismo hash que no son Comparable la busqueda vuelve a ser lineal.
+ */
+class ArbolCubeta {
+
+	/**
+	 * Nodo del arbol
+	 */
+	private static class Nodo {
+
+		private final int hash;
+		private final Object clave;
+		private int indice;
+		/**
+		 * Orden de insercion, para deshacer empates
+		 */
+		private final long orden;
+		private int altura = 1;
+		private Nodo izq;
+		private Nodo der;
+
+		public Nodo(Object clave, int hash, int indice, long orden) {
+			this.clave = clave;
+			this.hash = hash;
+			this.indice = indice;
+			this.orden = orden;
+		}
+	}
+
+	private Nodo raiz;
+	private long insertados;
+
+	/**
+	 * Busca una clave
+	 *
+	 * @param clave la clave
+	 * @param hash  el hash de la clave
+	 * @return la posicion de la clave en la cubeta o -1 si no esta
+	 */
+	public int buscar(Object clave, int hash) {
+		Nodo n = buscar(raiz, clave, hash);
+		return n == null ? -1 : n.indice;
+	}
+
+	/**
+	 * Añade una clave que no esta en el arbol
+	 *
+	 * @param clave  la clave
+	 * @param hash   el hash de la clave
+	 * @param indice la posicion de la clave en la cubeta
+	 */
+	public void insertar(Object clave, int hash, int indice) {
+		raiz = insertar(raiz, new Nodo(clave, hash, indice, insertados++));
+	}
+
+	/**
+	 * Quita una clave que esta en el arbol
+	 *
+	 * @param clave la clave
+	 * @param hash  el hash de la clave
+	 */
+	public void eliminar(Object clave, int hash) {
+		raiz = eliminar(raiz, buscar(raiz, clave, hash));
+	}
+
+	/**
+	 * Cambia la posicion en la cubeta de una clave que esta en el arbol
+	 *
+	 * @param clave  la clave
+	 * @param hash   el hash de la clave
+	 * @param indice la nueva posicion
+	 */
+	public void cambiarIndice(Object clave, int hash, int indice) {
+		buscar(raiz, clave, hash).indice = indice;
+	}
+
+	private static Nodo buscar(Nodo n, Object clave, int hash) {
+
+		while (n != null) {
+
+			int c = comparar(clave, hash, n);
+			if (c < 0)
+				n = n.izq;
+			else if (c > 0)
+				n = n.der;
+			else {
+				if (clave.equals(n.clave))
+					return n;
+				// Empate: la clave puede estar a cualquiera de los dos lados
+				Nodo encontrado = buscar(n.der, clave, hash);
+				if (encontrado != null)
+					return encontrado;
+				n = n.izq;
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Compara una clave con la de un nodo sin tener en cuenta el orden de
+	 * insercion
+	 *
+	 * @return negativo, 0 o positivo si la clave va antes, empata o va despues
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static int comparar(Object clave, int hash, Nodo n) {
+
+		if (hash != n.hash)
+			return hash < n.hash ? -1 : 1;
+
+		Class<?> clase = clave.getClass();
+		if (clase != n.clave.getClass())
+			return clase.getName().compareTo(n.clave.getClass().getName());
+
+		if (clave instanceof Comparable) {
+			try {
+				return ((Comparable) clave).compareTo(n.clave);
+			} catch (ClassCastException e) {
+				// Comparable con otro tipo, no sirve para ordenar
+			}
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Orden total entre dos nodos del arbol
+	 */
+	private static int comparar(Nodo a, Nodo b) {
+		int c = comparar(a.clave, a.hash, b);
+		return c != 0 ? c : Long.compare(a.orden, b.orden);
+	}
+
+	private static Nodo insertar(Nodo n, Nodo nuevo) {
+
+		if (n == null)
+			return nuevo;
+
+		if (comparar(nuevo, n) < 0)
+			n.izq = insertar(n.izq, nuevo);
+		else
+			n.der = insertar(n.der, nuevo);
+
+		return equilibrar(n);
+	}
+
+	private static Nodo eliminar(Nodo n, Nodo objetivo) {
+
+		if (n == objetivo) {
+
+			if (n.izq == null)
+				return n.der;
+			if (n.der == null)
+				return n.izq;
+
+			// Se sustituye por el menor del subarbol derecho
+			Nodo menor = n.der;
+			while (menor.izq != null)
+				menor = menor.izq;
+			menor.der = eliminarMenor(n.der);
+			menor.izq = n.izq;
+			return equilibrar(menor);
+		}
+
+		if (comparar(objetivo, n) < 0)
+			n.izq = eliminar(n.izq, objetivo);
+		else
+			n.der = eliminar(n.der, objetivo);
+
+		return equilibrar(n);
+	}
+
+	private static Nodo eliminarMenor(Nodo n) {
+		if (n.izq == null)
+			return n.der;
+		n.izq = eliminarMenor(n.izq);
+		return equilibrar(n);
+	}
+
+	private static int altura(Nodo n) {
+		return n == null ? 0 : n.altura;
+	}
+
+	private static void actualizarAltura(Nodo n) {
+		n.altura = Math.max(altura(n.izq), altura(n.der)) + 1;
+	}
+
+	private static Nodo rotarDerecha(Nodo n) {
+		Nodo izq = n.izq;
+		n.izq = izq.der;
+		izq.der = n;
+		actualizarAltura(n);
+		actualizarAltura(izq);
+		return izq;
+	}
+
+	private static Nodo rotarIzquierda(Nodo n) {
+		Nodo der = n.der;
+		n.der = der.izq;
+		der.izq = n;
+		actualizarAltura(n);
+		actualizarAltura(der);
+		return der;
+	}
+
+	/**
+	 * Recalcula la altura de un nodo y lo rota si sus subarboles difieren en mas
+	 * de uno
+	 *
+	 * @return la nueva raiz del subarbol
+	 */
+	private static Nodo equilibrar(Nodo n) {
+
+		actualizarAltura(n);
+		int factor = altura(n.izq) - altura(n.der);
+
+		if (factor > 1) {
+			if (altura(n.izq.izq) < altura(n.izq.der))
+				n.izq = rotarIzquierda(n.izq);
+			return rotarDerecha(n);
+		}
+		if (factor < -1) {
+			if (altura(n.der.der) < altura(n.der.izq))
+				n.der = rotarDerecha(n.der);
+			return rotarIzquierda(n);
+		}
+
+		return n;
+	}
+
+}
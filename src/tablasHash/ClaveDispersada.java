@@ -0,0 +1,64 @@
+package tablasHash;
+
+/**
+ * Clave con su hash ya calculado, para buscar la misma clave en varios mapas
+ * del paquete llamando a hashCode una sola vez. Guarda el hashCode de la clave
+ * y su version mezclada con {@link Dispersion#esparcir(int)}, asi que sirve
+ * tanto para los mapas en modo potencia de dos como para los que calculan la
+ * posicion con el resto de la division.
+ *
+ * Lo aceptan get y put de {@link HashMapArray}, {@link MultiHash} y
+ * {@link MapaDispersionAbierta}. Como cualquier clave de un mapa, la clave no
+ * puede cambiar de hashCode mientras se use.
+ *
+ * @param <K> clave
+ */
+public final class ClaveDispersada<K> {
+
+	private final K clave;
+	/**
+	 * hashCode de la clave
+	 */
+	private final int hash;
+	/**
+	 * hashCode de la clave con los bits mezclados
+	 */
+	private final int esparcido;
+
+	/**
+	 * Constructor. Llama una vez a hashCode
+	 *
+	 * @param clave la clave, distinta de null
+	 */
+	public ClaveDispersada(K clave) {
+		if (clave == null)
+			throw new IllegalArgumentException();
+		this.clave = clave;
+		hash = clave.hashCode();
+		esparcido = Dispersion.esparcir(hash);
+	}
+
+	/**
+	 * @return la clave
+	 */
+	public K getClave() {
+		return clave;
+	}
+
+	/**
+	 * Hash de la clave tal como lo calcula un mapa del paquete
+	 *
+	 * @param potenciaDos si el mapa esta en modo potencia de dos y mezcla los
+	 *                    bits del hash
+	 * @return el hash
+	 */
+	int hash(boolean potenciaDos) {
+		return potenciaDos ? esparcido : hash;
+	}
+
+	@Override
+	public String toString() {
+		return String.valueOf(clave);
+	}
+
+}
@@ -0,0 +1,30 @@
+package tablasHash;
+
+/**
+ * Desplazamiento por cociente: (h(k) + i · d(k)) % M, donde el paso d(k) es el
+ * cociente de dividir el hash entre el tamaño de la tabla
+ */
+public class DesplazamientoCociente implements EstrategiaExploracion {
+
+	@Override
+	public int posicion(int hash, int intento, int longitud, boolean potenciaDos) {
+
+		// Con tamaño potencia de dos el cociente son los bits altos del hash y
+		// un desplazamiento impar recorre todas las posiciones
+		if (potenciaDos) {
+			int d = (hash >>> Integer.numberOfTrailingZeros(longitud)) | 1;
+			return (hash + intento * d) & (longitud - 1);
+		}
+
+		int d = hash / longitud;
+		int mod = hash % longitud;
+
+		// Un desplazamiento nulo no avanzaria nunca
+		if (mod == 0 || d == 0) {
+			d = 1;
+		}
+
+		return Math.abs((intento * d + hash) % longitud);
+	}
+
+}
@@ -0,0 +1,51 @@
+package tablasHash;
+
+/**
+ * Funciones auxiliares de dispersion compartidas por los mapas del paquete
+ *
+ * En el modo potencia de dos las tablas tienen un tamaño 2^n, de forma que la
+ * posicion se obtiene con una mascara en vez de con el resto de una division.
+ * Como la mascara solo se queda con los bits bajos del hash, antes se mezclan
+ * todos sus bits para que claves consecutivas no caigan en posiciones
+ * consecutivas.
+ */
+final class Dispersion {
+
+	/**
+	 * Tamaño maximo de una tabla potencia de dos
+	 */
+	static final int MAX_POTENCIA_DOS = 1 << 30;
+
+	private Dispersion() {
+	}
+
+	/**
+	 * Mezcla los bits de un hash (paso final fmix32 de MurmurHash3)
+	 *
+	 * @param h el hash original
+	 * @return el hash con los bits mezclados
+	 */
+	static int esparcir(int h) {
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		h ^= h >>> 16;
+		return h;
+	}
+
+	/**
+	 * Obtiene la menor potencia de dos mayor o igual que un numero
+	 *
+	 * @param n el numero
+	 * @return la potencia de dos
+	 */
+	static int potenciaDos(int n) {
+		if (n <= 1)
+			return 1;
+		if (n >= MAX_POTENCIA_DOS)
+			return MAX_POTENCIA_DOS;
+		return Integer.highestOneBit(n - 1) << 1;
+	}
+
+}
@@ -0,0 +1,102 @@
+package tablasHash;
+
+/**
+ * Doble dispersion: (h1(k) + i · h2(k)) % M, donde el paso h2(k) sale de una
+ * segunda funcion hash independiente de la primera. Dos claves que coinciden
+ * en la primera posicion casi nunca siguen la misma secuencia.
+ *
+ * El paso depende solo de la clave y de la tabla, asi que se calcula una vez
+ * por operacion: se guarda el ultimo y los sondeos siguientes de la misma clave
+ * lo reutilizan. La misma instancia la comparten todos los mapas, por eso el
+ * paso guardado es un objeto inmutable que se sustituye entero.
+ */
+public class DobleDispersion implements EstrategiaExploracion {
+
+	/**
+	 * Constante que se suma al hash antes de mezclarlo para obtener un segundo
+	 * hash distinto del primero (parte fraccionaria de la razon aurea)
+	 */
+	private static final int SEMILLA = 0x9e3779b9;
+
+	/**
+	 * Paso de un hash en una tabla
+	 */
+	private static final class Paso {
+
+		private final int hash;
+		private final int longitud;
+		private final boolean potenciaDos;
+		private final long paso;
+
+		private Paso(int hash, int longitud, boolean potenciaDos, long paso) {
+			this.hash = hash;
+			this.longitud = longitud;
+			this.potenciaDos = potenciaDos;
+			this.paso = paso;
+		}
+	}
+
+	/**
+	 * Ultimo paso calculado. Ninguna tabla tiene longitud 0, asi que el inicial
+	 * no coincide con nada
+	 */
+	private Paso ultimo = new Paso(0, 0, false, 0);
+
+	@Override
+	public int posicion(int hash, int intento, int longitud, boolean potenciaDos) {
+
+		if (potenciaDos) {
+			if (intento == 0)
+				return hash & (longitud - 1);
+			return (hash + intento * (int) paso(hash, longitud, true)) & (longitud - 1);
+		}
+
+		int inicio = Math.abs(hash % longitud);
+		if (intento == 0 || longitud == 1)
+			return inicio;
+
+		return (int) ((inicio + intento * paso(hash, longitud, false)) % longitud);
+	}
+
+	/**
+	 * Obtiene el paso de un hash, calculandolo solo si no es el ultimo pedido
+	 *
+	 * @return el paso, que recorre todas las posiciones de la tabla
+	 */
+	private long paso(int hash, int longitud, boolean potenciaDos) {
+
+		Paso p = ultimo;
+		if (p.hash == hash && p.longitud == longitud && p.potenciaDos == potenciaDos)
+			return p.paso;
+
+		int h2 = Dispersion.esparcir(hash + SEMILLA);
+		long paso;
+		if (potenciaDos) {
+			// Un paso impar recorre todas las posiciones de una tabla potencia de dos
+			paso = h2 | 1;
+		} else {
+			// Un paso entre 1 y M - 1 nunca se queda quieto, y si ademas es primo
+			// con M recorre todas las posiciones aunque M no sea primo. M - 1
+			// siempre lo es, asi que el bucle termina
+			paso = 1 + Math.abs(h2 % (longitud - 1));
+			while (mcd(paso, longitud) != 1)
+				paso++;
+		}
+
+		ultimo = new Paso(hash, longitud, potenciaDos, paso);
+		return paso;
+	}
+
+	/**
+	 * Maximo comun divisor de dos numeros positivos
+	 */
+	private static long mcd(long a, long b) {
+		while (b != 0) {
+			long r = a % b;
+			a = b;
+			b = r;
+		}
+		return a;
+	}
+
+}
@@ -0,0 +1,29 @@
+package tablasHash;
+
+/**
+ * Estrategia con la que MultiHash recorre las posiciones de la tabla cuando la
+ * posicion de una clave esta ocupada. La estrategia se fija al construir el
+ * mapa y no cambia durante su vida.
+ *
+ * Se puede registrar una implementacion propia con
+ * {@link MultiHash#registrarEstrategia(String, EstrategiaExploracion)} o
+ * pasarla directamente al constructor del mapa.
+ */
+public interface EstrategiaExploracion {
+
+	/**
+	 * Calcula la posicion del intento-esimo sondeo de una clave. Para un mismo
+	 * hash y longitud tiene que devolver siempre la misma secuencia, y conviene
+	 * que recorra todas las posiciones antes de repetir una.
+	 *
+	 * @param hash        el hash de la clave (ya mezclado si la tabla es potencia
+	 *                    de dos)
+	 * @param intento     el numero de sondeo, empezando en 0
+	 * @param longitud    el tamaño de la tabla
+	 * @param potenciaDos si la longitud es potencia de dos, de forma que la
+	 *                    posicion se puede obtener con la mascara longitud - 1
+	 * @return una posicion entre 0 y longitud - 1
+	 */
+	int posicion(int hash, int intento, int longitud, boolean potenciaDos);
+
+}
@@ -0,0 +1,18 @@
+package tablasHash;
+
+/**
+ * Exploracion cuadratica: el desplazamiento crece con el cuadrado del intento
+ */
+public class ExploracionCuadratica implements EstrategiaExploracion {
+
+	@Override
+	public int posicion(int hash, int intento, int longitud, boolean potenciaDos) {
+		// Con tamaño potencia de dos se usan numeros triangulares, i·(i+1)/2,
+		// que recorren todas las posiciones
+		if (potenciaDos)
+			return (hash + ((intento * (intento + 1)) >>> 1)) & (longitud - 1);
+
+		return Math.abs((intento * intento + hash) % longitud);
+	}
+
+}
@@ -0,0 +1,16 @@
+package tablasHash;
+
+/**
+ * Exploracion lineal: se prueba la posicion siguiente a la anterior
+ */
+public class ExploracionLineal implements EstrategiaExploracion {
+
+	@Override
+	public int posicion(int hash, int intento, int longitud, boolean potenciaDos) {
+		if (potenciaDos)
+			return (hash + intento) & (longitud - 1);
+
+		return Math.abs((intento + hash) % longitud);
+	}
+
+}
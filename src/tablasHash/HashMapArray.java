@@ -1,26 +1,98 @@
 package tablasHash;
 
 import java.util.AbstractMap;
-import java.util.HashSet;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 public class HashMapArray<K, V> extends AbstractMap<K, V> {
 
 	private int tam;
 	private Nodo<K, V> array[];
 	private final int INIT_SIZE = 20;
-	private final float CRECIMIENTO = 1.5F;
-	private final float MAX_CAP = 0.75F;
+
+	/**
+	 * Ocupacion maxima antes de crecer
+	 */
+	private float factorCarga = 0.75F;
+	/**
+	 * Factor por el que se multiplica el tamaño del array al crecer
+	 */
+	private float factorCrecimiento = 1.5F;
+	/**
+	 * Ocupacion por debajo de la cual se reduce el array (0 para no reducir)
+	 */
+	private float cargaMinima = 0.1F;
+	/**
+	 * Tamaño por debajo del cual no se reduce el array
+	 */
+	private int tamMinimo;
+	/**
+	 * Si el array tiene un tamaño potencia de dos y se indexa con mascara
+	 */
+	private boolean potenciaDos = false;
+	/**
+	 * Si al redimensionar las entradas se migran poco a poco en cada operacion
+	 * en vez de todas de golpe
+	 */
+	private boolean incremental = false;
+	/**
+	 * Posiciones del array anterior que se migran como minimo en cada operacion
+	 */
+	private static final int PASOS_MIGRACION = 4;
+	/**
+	 * En modo incremental, array del que se estan migrando las entradas o null
+	 * si no hay ninguna migracion en curso. Solo se consulta y se vacia, las
+	 * entradas nuevas van siempre al array actual
+	 */
+	private Nodo<K, V> arrayAnterior[];
+	/**
+	 * Siguiente posicion del array anterior que se migra
+	 */
+	private int migradas;
+	/**
+	 * Posiciones del array anterior que se migran en cada operacion, calculadas
+	 * para terminar antes de que el array actual tenga que volver a crecer
+	 */
+	private int pasosMigracion;
+	/**
+	 * Marca que deja en el array anterior una entrada migrada o eliminada, para
+	 * no cortar la exploracion de las que quedan
+	 */
+	private final Nodo<K, V> BORRADO = new Nodo<K, V>(null, null, 0);
+	/**
+	 * Claves que getAll y putAll procesan a la vez, fase a fase
+	 */
+	private static final int GRUPO_LOTE = 16;
+	/**
+	 * Numero de cambios que mueven o quitan entradas, con el que los iteradores
+	 * detectan que el mapa se ha modificado por fuera de ellos
+	 */
+	private int modCount;
+	/**
+	 * Vista de las entradas, que se crea la primera vez que se pide
+	 */
+	private Set<Entry<K, V>> entradas;
 
 	@SuppressWarnings("hiding")
 	protected class Nodo<K, V> implements Entry<K, V> {
 
 		private K key;
 		private V val;
+		/**
+		 * Hash de la clave, calculado con {@link HashMapArray#hash(Object)}
+		 */
+		private final int hash;
 
-		public Nodo(K k, V v) {
+		public Nodo(K k, V v, int h) {
 			key = k;
 			val = v;
+			hash = h;
 		}
 
 		@Override
@@ -49,6 +121,7 @@ public class HashMapArray<K, V> extends AbstractMap<K, V> {
 		for (int i = 0; i < INIT_SIZE; i++) {
 			array[i] = null;
 		}
+		tamMinimo = INIT_SIZE;
 
 		// Setup size
 		tam = 0;
@@ -61,28 +134,130 @@ public class HashMapArray<K, V> extends AbstractMap<K, V> {
 		for (int i = 0; i < tam; i++) {
 			array[i] = null;
 		}
+		tamMinimo = tam;
 
 		// Setup size
 		tam = 0;
 	}
 
-	public V get(Object key) {
+	/**
+	 * Constructor
+	 * 
+	 * @param tam               el tamaño inicial del array
+	 * @param factorCarga       ocupacion maxima antes de crecer, entre 0 y 1
+	 * @param factorCrecimiento factor por el que crece el array, mayor que 1
+	 */
+	public HashMapArray(int tam, float factorCarga, float factorCrecimiento) {
+		this(tam, factorCarga, factorCrecimiento, 0F);
+	}
 
-		// Se comprueba si la clave existe en el mapa
-		if (!this.containsKey(key))
-			return null;
+	/**
+	 * Constructor
+	 * 
+	 * @param tam               el tamaño inicial del array
+	 * @param factorCarga       ocupacion maxima antes de crecer, entre 0 y 1
+	 * @param factorCrecimiento factor por el que crece el array, mayor que 1
+	 * @param cargaMinima       ocupacion por debajo de la cual se reduce el
+	 *                          array (0 para no reducirlo nunca). Tiene que ser
+	 *                          menor que factorCarga / factorCrecimiento
+	 */
+	public HashMapArray(int tam, float factorCarga, float factorCrecimiento, float cargaMinima) {
+		this(tam);
 
-		// Se busca la posicion de la clave
-		int hash = key.hashCode() % array.length;
+		if (tam <= 0 || factorCarga <= 0 || factorCarga >= 1 || factorCrecimiento <= 1 || cargaMinima < 0
+				|| cargaMinima >= factorCarga / factorCrecimiento)
+			throw new IllegalArgumentException();
 
-		for (int i = 0; i < array.length; i++) {
-			int currPos = (i + hash) % array.length;
-			if (array[currPos].getKey().equals(key)) {
-				return array[(i + hash) % array.length].getValue();
-			}
+		this.factorCarga = factorCarga;
+		this.factorCrecimiento = factorCrecimiento;
+		this.cargaMinima = cargaMinima;
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param tam         el tamaño inicial del array
+	 * @param potenciaDos si el tamaño del array se redondea a potencias de dos y
+	 *                    las posiciones se calculan con mascara sobre el hash
+	 *                    mezclado en vez de con el resto de la division
+	 */
+	public HashMapArray(int tam, boolean potenciaDos) {
+		this(tam, 0.75F, 1.5F, 0.1F, potenciaDos);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param tam               el tamaño inicial del array
+	 * @param factorCarga       ocupacion maxima antes de crecer, entre 0 y 1
+	 * @param factorCrecimiento factor por el que crece el array, mayor que 1. En
+	 *                          modo potencia de dos el nuevo tamaño se redondea a
+	 *                          la siguiente potencia
+	 * @param cargaMinima       ocupacion por debajo de la cual se reduce el
+	 *                          array (0 para no reducirlo nunca)
+	 * @param potenciaDos       si el tamaño del array se redondea a potencias de
+	 *                          dos y las posiciones se calculan con mascara
+	 */
+	@SuppressWarnings("unchecked")
+	public HashMapArray(int tam, float factorCarga, float factorCrecimiento, float cargaMinima,
+			boolean potenciaDos) {
+		this(tam, factorCarga, factorCrecimiento, cargaMinima);
+
+		if (potenciaDos) {
+			this.potenciaDos = true;
+			array = new Nodo[Dispersion.potenciaDos(tam)];
+			tamMinimo = array.length;
 		}
+	}
 
-		return null;
+	/**
+	 * Constructor
+	 * 
+	 * @param tam               el tamaño inicial del array
+	 * @param factorCarga       ocupacion maxima antes de crecer, entre 0 y 1
+	 * @param factorCrecimiento factor por el que crece el array, mayor que 1
+	 * @param cargaMinima       ocupacion por debajo de la cual se reduce el
+	 *                          array (0 para no reducirlo nunca)
+	 * @param potenciaDos       si el tamaño del array se redondea a potencias de
+	 *                          dos y las posiciones se calculan con mascara
+	 * @param incremental       si al redimensionar se conserva el array anterior
+	 *                          y sus entradas se migran unas pocas en cada put o
+	 *                          remove, de forma que ninguna operacion tenga que
+	 *                          recolocar el mapa entero. Mientras dura la
+	 *                          migracion las busquedas consultan los dos arrays
+	 */
+	public HashMapArray(int tam, float factorCarga, float factorCrecimiento, float cargaMinima,
+			boolean potenciaDos, boolean incremental) {
+		this(tam, factorCarga, factorCrecimiento, cargaMinima, potenciaDos);
+		this.incremental = incremental;
+	}
+
+	/**
+	 * Obtiene el valor asociado a una clave
+	 * 
+	 * @param key la clave
+	 * @return el valor asociado o null si la clave no existe
+	 */
+	@Override
+	public V get(Object key) {
+
+		// Se busca la clave con un unico sondeo
+		Nodo<K, V> n = buscarNodo(key);
+		if (n == null)
+			return null;
+
+		return n.getValue();
+	}
+
+	/**
+	 * Comprueba si una clave existe en el mapa
+	 * 
+	 * @param key la clave
+	 * @return true si existe
+	 */
+	@Override
+	public boolean containsKey(Object key) {
+		return buscarNodo(key) != null;
 	}
 
 	/**
@@ -93,111 +268,766 @@ public class HashMapArray<K, V> extends AbstractMap<K, V> {
 	 */
 	@Override
 	public V put(K key, V value) {
+		return put(key, value, hash(key));
+	}
 
-		// Se almacena el valor antigo
-		V oldValue = get(key);
+	/**
+	 * Inserta un par de clave-valor con el hash calculado de antemano en una
+	 * {@link ClaveDispersada}, sin llamar a hashCode
+	 * 
+	 * @param clave la clave con su hash
+	 * @param value el valor
+	 * @return el valor anterior o null si la clave no existia
+	 */
+	public V put(ClaveDispersada<? extends K> clave, V value) {
+		return put(clave.getClave(), value, clave.hash(potenciaDos));
+	}
 
-		if (oldValue != null)
-			// Si la clave existe machacamos con el nuevo valor
-			array[buscarPosicion(key)].setValue(value);
-		else {
+	/**
+	 * Obtiene el valor de una clave con el hash calculado de antemano en una
+	 * {@link ClaveDispersada}, sin llamar a hashCode
+	 * 
+	 * @param clave la clave con su hash
+	 * @return el valor asociado o null si la clave no existe
+	 */
+	public V get(ClaveDispersada<?> clave) {
+		int pos = localizar(clave.getClave(), clave.hash(potenciaDos));
+		return pos < 0 ? null : nodo(pos).getValue();
+	}
 
-			// insertamos una entrada nueva
-			// ----------------------------
+	/**
+	 * Inserta un par de clave-valor con el hash de la clave ya calculado
+	 * 
+	 * @param key   la clave
+	 * @param value el valor
+	 * @param hash  el hash de la clave
+	 * @return el valor anterior o null si la clave no existia
+	 */
+	private V put(K key, V value, int hash) {
 
-			// Si el array esta al limite de capacidad hay que redimensionar
-			if (getCapacity() >= MAX_CAP) {
-				redimensionar();
-				put(key, value);
-			} else {
-				int calc = exploracionLineal(key);
-				array[calc] = new Nodo<K, V>(key, value);
-				tam++;
+		int pos = localizar(key, hash);
+
+		// Si la clave existe machacamos con el nuevo valor
+		if (pos >= 0)
+			return actualizar(pos, value);
+
+		insertar(key, value, hash, ~pos);
+		return null;
+	}
+
+	/**
+	 * Obtiene el valor asociado a una clave o un valor por defecto si la clave
+	 * no existe
+	 * 
+	 * @param key          la clave
+	 * @param defaultValue el valor por defecto
+	 * @return el valor asociado, que puede ser null, o el valor por defecto
+	 */
+	@Override
+	public V getOrDefault(Object key, V defaultValue) {
+		Nodo<K, V> n = buscarNodo(key);
+		return n == null ? defaultValue : n.getValue();
+	}
+
+	/**
+	 * Inserta un par si la clave no existe o tiene valor null, localizando la
+	 * clave una sola vez
+	 * 
+	 * @param key   la clave
+	 * @param value el valor
+	 * @return el valor que tenia la clave o null si no existia
+	 */
+	@Override
+	public V putIfAbsent(K key, V value) {
+
+		int hash = hash(key);
+		int pos = localizar(key, hash);
+		if (pos < 0) {
+			insertar(key, value, hash, ~pos);
+			return null;
+		}
+
+		V actual = nodo(pos).getValue();
+		return actual != null ? actual : actualizar(pos, value);
+	}
+
+	/**
+	 * Calcula el valor de una clave que no existe o tiene valor null,
+	 * localizando la clave una sola vez
+	 * 
+	 * @param key             la clave
+	 * @param mappingFunction la funcion que calcula el valor a partir de la
+	 *                        clave. Si devuelve null no se cambia nada
+	 * @return el valor que queda asociado a la clave
+	 */
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+
+		if (mappingFunction == null)
+			throw new NullPointerException();
+
+		int hash = hash(key);
+		int pos = localizar(key, hash);
+		V actual = pos < 0 ? null : nodo(pos).getValue();
+		if (actual != null)
+			return actual;
+
+		int esperado = modCount;
+		V nuevo = mappingFunction.apply(key);
+		comprobarCambios(esperado);
+
+		return nuevo == null ? null : guardar(key, hash, pos, nuevo);
+	}
+
+	/**
+	 * Recalcula el valor de una clave que existe con valor distinto de null,
+	 * localizando la clave una sola vez
+	 * 
+	 * @param key               la clave
+	 * @param remappingFunction la funcion que calcula el nuevo valor a partir de
+	 *                          la clave y el actual. Si devuelve null la clave se
+	 *                          elimina
+	 * @return el nuevo valor o null si no hay ninguno
+	 */
+	@Override
+	public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+
+		if (remappingFunction == null)
+			throw new NullPointerException();
+
+		int hash = hash(key);
+		int pos = localizar(key, hash);
+		V actual = pos < 0 ? null : nodo(pos).getValue();
+		if (actual == null)
+			return null;
+
+		int esperado = modCount;
+		V nuevo = remappingFunction.apply(key, actual);
+		comprobarCambios(esperado);
+
+		return guardar(key, hash, pos, nuevo);
+	}
+
+	/**
+	 * Recalcula el valor de una clave, localizandola una sola vez
+	 * 
+	 * @param key               la clave
+	 * @param remappingFunction la funcion que calcula el nuevo valor a partir de
+	 *                          la clave y el actual, que es null si la clave no
+	 *                          existe. Si devuelve null la clave se elimina
+	 * @return el nuevo valor o null si no hay ninguno
+	 */
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+
+		if (remappingFunction == null)
+			throw new NullPointerException();
+
+		int hash = hash(key);
+		int pos = localizar(key, hash);
+
+		int esperado = modCount;
+		V nuevo = remappingFunction.apply(key, pos < 0 ? null : nodo(pos).getValue());
+		comprobarCambios(esperado);
+
+		return guardar(key, hash, pos, nuevo);
+	}
+
+	/**
+	 * Combina un valor con el de una clave, localizandola una sola vez
+	 * 
+	 * @param key               la clave
+	 * @param value             el valor que se guarda si la clave no existe o
+	 *                          tiene valor null, o que se combina con el actual
+	 * @param remappingFunction la funcion que combina el valor actual con el
+	 *                          nuevo. Si devuelve null la clave se elimina
+	 * @return el nuevo valor o null si no hay ninguno
+	 */
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+
+		if (value == null || remappingFunction == null)
+			throw new NullPointerException();
+
+		int hash = hash(key);
+		int pos = localizar(key, hash);
+		V actual = pos < 0 ? null : nodo(pos).getValue();
+		if (actual == null)
+			return guardar(key, hash, pos, value);
+
+		int esperado = modCount;
+		V nuevo = remappingFunction.apply(actual, value);
+		comprobarCambios(esperado);
+
+		return guardar(key, hash, pos, nuevo);
+	}
+
+	/**
+	 * Obtiene los valores de un lote de claves. Las claves se procesan en
+	 * grupos y cada grupo avanza por fases: primero se calculan todos los
+	 * hashes y posiciones iniciales, despues se leen seguidas las posiciones
+	 * del array y despues los nodos. Como ninguna lectura de una fase depende
+	 * de otra de la misma fase, los fallos de cache de las claves del grupo se
+	 * solapan en vez de esperarse uno detras de otro. Al final se comparan las
+	 * claves; las que no estan en su posicion inicial siguen la exploracion
+	 * normal con el hash ya calculado.
+	 * 
+	 * @param keys las claves
+	 * @param out  el array en el que se deja el valor de cada clave, o null si
+	 *             no existe, en la misma posicion que la clave
+	 */
+	@SuppressWarnings("unchecked")
+	public void getAll(K[] keys, V[] out) {
+
+		if (out.length < keys.length)
+			throw new IllegalArgumentException();
+
+		int[] hashes = new int[GRUPO_LOTE];
+		Nodo<K, V>[] nodos = new Nodo[GRUPO_LOTE];
+
+		for (int inicio = 0; inicio < keys.length; inicio += GRUPO_LOTE) {
+
+			int n = Math.min(GRUPO_LOTE, keys.length - inicio);
+			cargarGrupo(keys, inicio, n, hashes, nodos);
+
+			for (int j = 0; j < n; j++) {
+				Nodo<K, V> nodo = nodos[j];
+				K key = keys[inicio + j];
+				if (nodo == null && arrayAnterior == null)
+					out[inicio + j] = null;
+				else if (nodo != null && nodo != BORRADO && nodo.getKey().equals(key))
+					out[inicio + j] = nodo.getValue();
+				else {
+					int pos = localizar(key, hashes[j]);
+					out[inicio + j] = pos < 0 ? null : nodo(pos).getValue();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Inserta un lote de pares clave-valor. Se adelantan por grupos los
+	 * calculos de hash y las lecturas de las posiciones iniciales, como en
+	 * {@link #getAll(Object[], Object[])}, y despues se escribe cada par en
+	 * orden. Una clave repetida en el lote se queda con el ultimo valor.
+	 * 
+	 * @param keys las claves
+	 * @param vals los valores, en la misma posicion que su clave
+	 */
+	@SuppressWarnings("unchecked")
+	public void putAll(K[] keys, V[] vals) {
+
+		if (vals.length < keys.length)
+			throw new IllegalArgumentException();
+
+		int[] hashes = new int[GRUPO_LOTE];
+		Nodo<K, V>[] nodos = new Nodo[GRUPO_LOTE];
+
+		for (int inicio = 0; inicio < keys.length; inicio += GRUPO_LOTE) {
+
+			int n = Math.min(GRUPO_LOTE, keys.length - inicio);
+			cargarGrupo(keys, inicio, n, hashes, nodos);
+
+			// Las escrituras del grupo pueden redimensionar el array, pero un
+			// nodo leido antes sigue siendo el de su clave
+			for (int j = 0; j < n; j++) {
+				Nodo<K, V> nodo = nodos[j];
+				K key = keys[inicio + j];
+				if (nodo != null && nodo != BORRADO && nodo.getKey().equals(key)) {
+					nodo.setValue(vals[inicio + j]);
+					continue;
+				}
+
+				put(key, vals[inicio + j], hashes[j]);
 			}
 		}
+	}
+
+	/**
+	 * Primeras fases de un grupo de un lote: calcula los hashes y lee el nodo
+	 * de la posicion inicial de cada clave, todas las lecturas de cada fase
+	 * seguidas
+	 * 
+	 * @param keys   las claves del lote
+	 * @param inicio la primera clave del grupo
+	 * @param n      el numero de claves del grupo
+	 * @param hashes donde se dejan los hashes
+	 * @param nodos  donde se deja el nodo de la posicion inicial de cada clave
+	 *               si tiene su mismo hash, null si la posicion esta vacia o
+	 *               BORRADO si tiene el nodo de otro hash
+	 */
+	private void cargarGrupo(K[] keys, int inicio, int n, int[] hashes, Nodo<K, V>[] nodos) {
+
+		for (int j = 0; j < n; j++)
+			hashes[j] = hash(keys[inicio + j]);
+
+		for (int j = 0; j < n; j++)
+			nodos[j] = array[indiceInicial(hashes[j])];
+
+		// Se toca cada nodo leyendo su hash para que sus fallos de cache
+		// tambien se solapen
+		for (int j = 0; j < n; j++)
+			if (nodos[j] != null && nodos[j].hash != hashes[j])
+				nodos[j] = BORRADO;
+	}
+
+	/**
+	 * Busca una clave con un solo recorrido de su bloque de exploracion en el
+	 * array actual y, si no esta y hay una migracion en curso, en el anterior
+	 * 
+	 * @param key  la clave
+	 * @param hash el hash de la clave
+	 * @return la posicion de la clave en el array actual, la del array anterior
+	 *         mas la longitud del actual, o ~p siendo p la posicion del array
+	 *         actual en la que termina la exploracion, que esta vacia salvo que
+	 *         el array este lleno
+	 */
+	private int localizar(Object key, int hash) {
+
+		// Se recorre la secuencia de exploracion hasta encontrar la clave
+		// o la primera posicion vacia
+		int pos = indiceInicial(hash);
+		for (int i = 0; i < array.length; i++) {
+
+			if (array[pos] == null)
+				break;
+
+			if (array[pos].hash == hash && array[pos].getKey().equals(key))
+				return pos;
+
+			pos = siguiente(pos);
+		}
+
+		// Durante una migracion la clave puede seguir en el array anterior
+		if (arrayAnterior != null) {
+			int anterior = buscarPosicionAnterior(key, hash);
+			if (anterior != -1)
+				return array.length + anterior;
+		}
+
+		return ~pos;
+	}
+
+	/**
+	 * @param pos una posicion devuelta por {@link #localizar(Object, int)} en
+	 *            la que esta la clave
+	 * @return el nodo de esa posicion
+	 */
+	private Nodo<K, V> nodo(int pos) {
+		return pos < array.length ? array[pos] : arrayAnterior[pos - array.length];
+	}
+
+	/**
+	 * Sustituye el valor de una clave que existe. Si esta en el array anterior
+	 * se aprovecha para avanzar la migracion
+	 * 
+	 * @param pos   la posicion de la clave, devuelta por localizar
+	 * @param value el nuevo valor
+	 * @return el valor anterior
+	 */
+	private V actualizar(int pos, V value) {
+
+		V oldValue = nodo(pos).setValue(value);
+		if (pos >= array.length)
+			migrar(pasosMigracion);
 
 		return oldValue;
 	}
 
+	/**
+	 * Inserta una entrada nueva en la posicion vacia en la que termino su
+	 * exploracion
+	 * 
+	 * @param key   la clave, que no esta en el mapa
+	 * @param value el valor
+	 * @param hash  el hash de la clave
+	 * @param hueco la posicion en la que termino la exploracion
+	 */
+	private void insertar(K key, V value, int hash, int hueco) {
+
+		// Si la nueva entrada supera el factor de carga (o no hay hueco) hay
+		// que crecer y buscar de nuevo la posicion libre
+		if (array[hueco] != null || (float) (tam + 1) / array.length > factorCarga) {
+			redimensionar(tamCrecimiento());
+			hueco = exploracionLineal(hash);
+		}
+
+		array[hueco] = new Nodo<K, V>(key, value, hash);
+		tam++;
+		modCount++;
+
+		migrar(pasosMigracion);
+	}
+
+	/**
+	 * Deja una clave ya localizada con el valor calculado: la inserta si no
+	 * existia, cambia su valor si existia o la elimina si el valor es null
+	 * 
+	 * @param key   la clave
+	 * @param hash  el hash de la clave
+	 * @param pos   la posicion devuelta por localizar
+	 * @param value el valor calculado
+	 * @return el valor calculado
+	 */
+	private V guardar(K key, int hash, int pos, V value) {
+
+		if (value == null) {
+			if (pos >= 0)
+				eliminar(pos);
+		} else if (pos < 0)
+			insertar(key, value, hash, ~pos);
+		else
+			actualizar(pos, value);
+
+		return value;
+	}
+
+	/**
+	 * Comprueba que la funcion de un compute o merge no ha cambiado el mapa, lo
+	 * que invalidaria la posicion localizada antes de llamarla
+	 * 
+	 * @param esperado el modCount antes de llamar a la funcion
+	 */
+	private void comprobarCambios(int esperado) {
+		if (modCount != esperado)
+			throw new ConcurrentModificationException();
+	}
+
 	/**
 	 * Implementacion mediante exploracion lineal
 	 * 
-	 * @param key
-	 * @return
+	 * @param hash el hash de la clave
+	 * @return la primera posicion vacia o -1 si no hay hueco
 	 */
-	private int exploracionLineal(K key) {
+	private int exploracionLineal(int hash) {
 
 		// Se calcula la posicion a partir del hash de la tabla
-		int hash = key.hashCode() % array.length;
+		int pos = indiceInicial(hash);
 
 		// Se busca la siguiente posicion vacia posterior a el en el array
 		for (int i = 0; i < array.length; i++) {
-			int currPos = Math.abs((i + hash) % array.length);
-			if (array[currPos] == null) {
-				return currPos;
+			if (array[pos] == null) {
+				return pos;
 			}
+			pos = siguiente(pos);
 		}
 
 		// No hay hueco
 		return -1;
 	}
 
+	@Override
 	public V remove(Object key) {
 
-		// Se almacena el valor antigo
-		V value = get(key);
+		// Si la clave no existe no hay nada que eliminar
+		int pos = localizar(key, hash(key));
+		if (pos < 0)
+			return null;
 
-		// Si la clave existe se elimina la entrada
-		if (value != null) {
+		return eliminar(pos);
+	}
 
-			// Se elimina la entrada del array
-			array[buscarPosicion((K) key)] = null;
+	/**
+	 * Elimina una clave ya localizada
+	 * 
+	 * @param pos la posicion de la clave, devuelta por localizar
+	 * @return el valor que tenia
+	 */
+	private V eliminar(int pos) {
 
-			// Se vuelven a insertar el resto de elemnetos en un nuevo mapa
-			HashMapArray<K, V> h = new HashMapArray<K, V>(array.length);
-			h.putAll(this);
-			// Se remplaza el array original por el del mapa nuevo
-			this.array = h.array;
+		V value;
 
-			// Se ajusta el tamaño del array
-			tam--;
+		if (pos < array.length) {
+
+			// Se almacena el valor antigo
+			value = array[pos].getValue();
+
+			// Se elimina la entrada del array sin dejar huecos en la exploracion
+			eliminarPosicion(pos);
+
+		} else {
+
+			// En el array anterior se deja una marca, como al migrar
+			pos -= array.length;
+			value = arrayAnterior[pos].getValue();
+			arrayAnterior[pos] = BORRADO;
 		}
 
+		// Se ajusta el tamaño del array
+		tam--;
+		modCount++;
+
+		// Si han quedado pocas entradas se devuelve memoria
+		if (array.length > tamMinimo && getOcupacion() < cargaMinima && tam <= factorCarga * tamReduccion())
+			redimensionar(tamReduccion());
+
+		migrar(pasosMigracion);
+
 		return value;
 	}
 
 	/**
-	 * Implementacion mediante exploracion lineal
+	 * Implementacion mediante exploracion lineal. La busqueda termina en cuanto
+	 * se encuentra la clave o la primera posicion vacia
 	 * 
-	 * @param key
-	 * @return
+	 * @param key  la clave
+	 * @param hash el hash de la clave
+	 * @return la posicion de la clave o -1 si no existe
 	 */
-	private int buscarPosicion(K key) {
+	private int buscarPosicion(Object key, int hash) {
 
 		// Se busca la posicion a partir del hash de la tabla
-		int hash = key.hashCode() % array.length;
+		int pos = indiceInicial(hash);
 
-		// Se busca a partir de la siguiente posicion vacia posterior a el en el array
+		// Se busca a partir de ella hasta la siguiente posicion vacia. Solo se
+		// compara la clave si coincide el hash
 		for (int i = 0; i < array.length; i++) {
-			int currPos = (i + hash) % array.length;
-			if (array[currPos].getKey().equals(key)) {
-				return (i + hash) % array.length;
+			if (array[pos] == null) {
+				return -1;
 			}
+			if (array[pos].hash == hash && array[pos].getKey().equals(key)) {
+				return pos;
+			}
+			pos = siguiente(pos);
 		}
 
 		// No encontrado
 		return -1;
 	}
 
-	private float getCapacity() {
-		return (float) (tam / array.length);
+	/**
+	 * Busca una clave en el array actual y, si hay una migracion en curso, en el
+	 * anterior
+	 * 
+	 * @param key la clave
+	 * @return el nodo de la clave o null si no existe
+	 */
+	private Nodo<K, V> buscarNodo(Object key) {
+
+		int hash = hash(key);
+		int pos = buscarPosicion(key, hash);
+		if (pos != -1)
+			return array[pos];
+
+		if (arrayAnterior != null && (pos = buscarPosicionAnterior(key, hash)) != -1)
+			return arrayAnterior[pos];
+
+		return null;
+	}
+
+	/**
+	 * Busca una clave en el array anterior. Las posiciones migradas o eliminadas
+	 * estan marcadas como borradas y no cortan la busqueda
+	 * 
+	 * @param key  la clave
+	 * @param hash el hash de la clave
+	 * @return la posicion de la clave en el array anterior o -1 si no esta
+	 */
+	private int buscarPosicionAnterior(Object key, int hash) {
+
+		int pos = indiceInicial(hash, arrayAnterior.length);
+
+		for (int i = 0; i < arrayAnterior.length; i++) {
+			Nodo<K, V> n = arrayAnterior[pos];
+			if (n == null)
+				return -1;
+			if (n != BORRADO && n.hash == hash && n.getKey().equals(key))
+				return pos;
+			pos = pos + 1 == arrayAnterior.length ? 0 : pos + 1;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Elimina la entrada de una posicion desplazando hacia atras las entradas
+	 * posteriores del mismo bloque de exploracion, de forma que ninguna busqueda
+	 * se detenga antes de tiempo en el hueco. No se crea ningun objeto nuevo.
+	 * 
+	 * @param hueco la posicion que se vacia
+	 */
+	private void eliminarPosicion(int hueco) {
+
+		array[hueco] = null;
+
+		// Se recorre el bloque hasta la siguiente posicion vacia
+		int pos = siguiente(hueco);
+		while (array[pos] != null) {
+
+			// La entrada puede ocupar el hueco si su posicion inicial no queda
+			// entre el hueco y su posicion actual
+			int inicial = indiceInicial(array[pos].hash);
+			if (distancia(inicial, pos) >= distancia(hueco, pos)) {
+				array[hueco] = array[pos];
+				array[pos] = null;
+				hueco = pos;
+			}
+
+			pos = siguiente(pos);
+		}
+	}
+
+	/**
+	 * Numero de pasos de exploracion lineal para ir de una posicion a otra
+	 * 
+	 * @param desde posicion de partida
+	 * @param hasta posicion de llegada
+	 * @return
+	 */
+	private int distancia(int desde, int hasta) {
+		return hasta >= desde ? hasta - desde : hasta - desde + array.length;
+	}
+
+	/**
+	 * Hash de una clave que se guarda en su nodo. En el modo potencia de dos se
+	 * mezclan sus bits
+	 * 
+	 * @param key la clave
+	 * @return
+	 */
+	private int hash(Object key) {
+		return potenciaDos ? Dispersion.esparcir(key.hashCode()) : key.hashCode();
+	}
+
+	/**
+	 * Posicion inicial de la secuencia de exploracion de un hash
+	 * 
+	 * @param hash el hash de la clave, calculado con {@link #hash(Object)}
+	 * @return
+	 */
+	private int indiceInicial(int hash) {
+		return indiceInicial(hash, array.length);
+	}
+
+	/**
+	 * Posicion inicial de la secuencia de exploracion de un hash en un array de
+	 * una longitud dada
+	 * 
+	 * @param hash     el hash de la clave
+	 * @param longitud la longitud del array
+	 * @return
+	 */
+	private int indiceInicial(int hash, int longitud) {
+		if (potenciaDos)
+			return hash & (longitud - 1);
+		return Math.abs(hash % longitud);
+	}
+
+	/**
+	 * Siguiente posicion de la exploracion lineal, sin dividir
+	 * 
+	 * @param pos la posicion actual
+	 * @return
+	 */
+	private int siguiente(int pos) {
+		return pos + 1 == array.length ? 0 : pos + 1;
+	}
+
+	/**
+	 * Obtiene la ocupacion actual del array
+	 * 
+	 * @return la proporcion de posiciones ocupadas, entre 0 y 1
+	 */
+	public float getOcupacion() {
+		return (float) tam / array.length;
+	}
+
+	/**
+	 * Obtiene el tamaño actual del array
+	 * 
+	 * @return el numero de posiciones del array
+	 */
+	public int getCapacidad() {
+		return array.length;
+	}
+
+	/**
+	 * Tamaño que tendra el array la proxima vez que crezca
+	 * 
+	 * @return
+	 */
+	private int tamCrecimiento() {
+		int nuevoTam = Math.max(array.length + 1, (int) (array.length * factorCrecimiento));
+		return potenciaDos ? Dispersion.potenciaDos(nuevoTam) : nuevoTam;
 	}
 
-	private void redimensionar() {
-		int nuevoTam = (int) (array.length * CRECIMIENTO);
-		HashMapArray<K, V> nuevo = new HashMapArray<K, V>(nuevoTam);
-		nuevo.putAll(this);
-		this.array = nuevo.array;
+	/**
+	 * Tamaño que tendra el array la proxima vez que se reduzca
+	 * 
+	 * @return
+	 */
+	private int tamReduccion() {
+		int nuevoTam = Math.max(tamMinimo, (int) (array.length / factorCrecimiento));
+		return potenciaDos ? Math.max(tamMinimo, Integer.highestOneBit(nuevoTam)) : nuevoTam;
+	}
+
+	/**
+	 * Recoloca las entradas existentes en un array nuevo con el hash guardado en
+	 * cada nodo, sin volver a llamar a hashCode
+	 * 
+	 * @param nuevoTam el tamaño del nuevo array
+	 */
+	@SuppressWarnings("unchecked")
+	private void redimensionar(int nuevoTam) {
+
+		if (incremental) {
+			iniciarMigracion(nuevoTam);
+			return;
+		}
+
+		Nodo<K, V>[] anterior = array;
+		array = new Nodo[nuevoTam];
+
+		for (int i = 0; i < anterior.length; i++)
+			if (anterior[i] != null)
+				array[exploracionLineal(anterior[i].hash)] = anterior[i];
+	}
+
+	/**
+	 * Sustituye el array por uno nuevo vacio y conserva el actual como array
+	 * anterior, del que se iran migrando las entradas. Si ya habia una migracion
+	 * en curso se termina antes.
+	 * 
+	 * @param nuevoTam el tamaño del nuevo array
+	 */
+	@SuppressWarnings("unchecked")
+	private void iniciarMigracion(int nuevoTam) {
+
+		migrar(Integer.MAX_VALUE);
+
+		arrayAnterior = array;
+		array = new Nodo[nuevoTam];
+		migradas = 0;
+
+		// Se reparte la migracion entre las inserciones que caben en el nuevo
+		// array antes de que tenga que volver a crecer
+		int margen = Math.max(1, (int) (factorCarga * nuevoTam) - tam);
+		pasosMigracion = Math.max(PASOS_MIGRACION, arrayAnterior.length / margen + 1);
+	}
+
+	/**
+	 * Mueve al array actual las entradas de las siguientes posiciones del array
+	 * anterior, dejando en su lugar una marca de borrado
+	 * 
+	 * @param pasos el numero de posiciones a migrar
+	 */
+	private void migrar(int pasos) {
+
+		// Las entradas cambian de array, los iteradores abiertos dejan de valer
+		if (arrayAnterior != null)
+			modCount++;
+
+		for (int i = 0; i < pasos && arrayAnterior != null; i++) {
+
+			Nodo<K, V> n = arrayAnterior[migradas];
+			if (n != null && n != BORRADO) {
+				array[exploracionLineal(n.hash)] = n;
+				arrayAnterior[migradas] = BORRADO;
+			}
+
+			if (++migradas == arrayAnterior.length)
+				arrayAnterior = null;
+		}
 	}
 
 	public String toString() {
@@ -213,6 +1043,12 @@ public class HashMapArray<K, V> extends AbstractMap<K, V> {
 			}
 		}
 
+		if (arrayAnterior != null)
+			for (int i = migradas; i < arrayAnterior.length; i++)
+				if (arrayAnterior[i] != null && arrayAnterior[i] != BORRADO)
+					s.append("anterior[" + i + "]={" + arrayAnterior[i].getKey() + ", "
+							+ arrayAnterior[i].getValue() + "}\n");
+
 		return s.toString();
 
 	}
@@ -224,15 +1060,169 @@ public class HashMapArray<K, V> extends AbstractMap<K, V> {
 		return tam;
 	}
 
+	/**
+	 * Vacia el mapa y vuelve al tamaño minimo del array
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void clear() {
+		array = new Nodo[tamMinimo];
+		arrayAnterior = null;
+		tam = 0;
+		modCount++;
+	}
+
+	/**
+	 * Obtiene una vista de las entradas del mapa. No se copia nada: la vista
+	 * refleja los cambios del mapa y su iterador recorre directamente el array
+	 * y, durante una migracion, lo que queda del anterior. Las vistas de claves
+	 * y valores de AbstractMap se apoyan en esta, asi que tampoco copian.
+	 * 
+	 * @return la vista de las entradas
+	 */
 	@Override
 	public Set<Entry<K, V>> entrySet() {
+		if (entradas == null)
+			entradas = new Entradas();
+		return entradas;
+	}
 
-		Set<Entry<K, V>> s = new HashSet<Entry<K, V>>();
-		for (int i = 0; i < array.length; i++)
-			if (array[i] != null)
-				s.add(array[i]);
+	/**
+	 * Vista de las entradas del mapa
+	 */
+	private class Entradas extends AbstractSet<Entry<K, V>> {
 
-		return s;
+		@Override
+		public int size() {
+			return tam;
+		}
+
+		@Override
+		public Iterator<Entry<K, V>> iterator() {
+			return new Iterador();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof Entry) || ((Entry<?, ?>) o).getKey() == null)
+				return false;
+			Entry<?, ?> e = (Entry<?, ?>) o;
+			Nodo<K, V> n = buscarNodo(e.getKey());
+			return n != null && Objects.equals(n.getValue(), e.getValue());
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if (!contains(o))
+				return false;
+			HashMapArray.this.remove(((Entry<?, ?>) o).getKey());
+			return true;
+		}
+
+		@Override
+		public void clear() {
+			HashMapArray.this.clear();
+		}
+	}
+
+	/**
+	 * Iterador que devuelve los propios nodos del array, sin crear ningun objeto
+	 * por entrada. El array actual se recorre circularmente empezando justo
+	 * despues de una posicion vacia, de forma que ningun bloque de exploracion
+	 * queda partido entre el principio y el final del recorrido. Asi, al quitar
+	 * una entrada, el desplazamiento hacia atras de eliminarPosicion solo mueve
+	 * entradas que aun no se han visitado, y basta con volver a mirar la
+	 * posicion que queda libre. Despues se recorre el array anterior, donde las
+	 * posiciones migradas o eliminadas estan marcadas como borradas.
+	 * 
+	 * Falla con ConcurrentModificationException si el mapa cambia por fuera del
+	 * iterador. Cambiar el valor de una clave no cuenta como cambio, salvo que
+	 * haga avanzar una migracion.
+	 */
+	private class Iterador implements Iterator<Entry<K, V>> {
+
+		private final Nodo<K, V>[] actual = array;
+		private final Nodo<K, V>[] anterior = arrayAnterior;
+		/**
+		 * Posicion del array actual por la que empieza el recorrido
+		 */
+		private final int inicio;
+		/**
+		 * Numero de posiciones recorridas: las del array actual en orden
+		 * circular desde el inicio y despues las del anterior
+		 */
+		private final int total;
+		/**
+		 * Siguiente posicion del recorrido que se examina
+		 */
+		private int indice;
+		/**
+		 * Posicion del recorrido de la ultima entrada devuelta, o -1
+		 */
+		private int devuelta = -1;
+		private int modCountEsperado = modCount;
+
+		public Iterador() {
+			int i = 0;
+			while (i < actual.length && actual[i] != null)
+				i++;
+			inicio = i + 1 >= actual.length ? 0 : i + 1;
+			total = actual.length + (anterior == null ? 0 : anterior.length);
+		}
+
+		/**
+		 * @param i la posicion del recorrido
+		 * @return el nodo de esa posicion o null si esta vacia o borrada
+		 */
+		private Nodo<K, V> nodo(int i) {
+			Nodo<K, V> n;
+			if (i < actual.length) {
+				int pos = inicio + i;
+				n = actual[pos >= actual.length ? pos - actual.length : pos];
+			} else
+				n = anterior[i - actual.length];
+			return n == BORRADO ? null : n;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (indice < total && nodo(indice) == null)
+				indice++;
+			return indice < total;
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			if (modCount != modCountEsperado)
+				throw new ConcurrentModificationException();
+			if (!hasNext())
+				throw new NoSuchElementException();
+			devuelta = indice;
+			return nodo(indice++);
+		}
+
+		@Override
+		public void remove() {
+			if (devuelta == -1)
+				throw new IllegalStateException();
+			if (modCount != modCountEsperado)
+				throw new ConcurrentModificationException();
+
+			// Se quita la entrada sin reducir el array ni migrar, que
+			// reordenarian las que faltan por recorrer
+			if (devuelta < actual.length) {
+				int pos = inicio + devuelta;
+				eliminarPosicion(pos >= actual.length ? pos - actual.length : pos);
+			} else
+				anterior[devuelta - actual.length] = BORRADO;
+			tam--;
+			modCountEsperado = ++modCount;
+
+			// Se vuelve a mirar la posicion por si ha recibido una entrada
+			// desplazada
+			indice = devuelta;
+			devuelta = -1;
+		}
 	}
 
 }
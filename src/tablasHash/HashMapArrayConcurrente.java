@@ -0,0 +1,762 @@
+package tablasHash;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Variante concurrente y sin cerrojos de {@link HashMapArray}, con exploracion
+ * lineal sobre dos AtomicReferenceArray de claves y valores, al estilo del
+ * NonBlockingHashMap de Cliff Click.
+ *
+ * Una posicion de clave solo cambia una vez, de null a su clave (o a BORRADO
+ * si se copia vacia), asi que las claves nunca se mueven. Los valores cambian
+ * con compareAndSet: un valor, BORRADO si la clave se ha eliminado, o un valor
+ * envuelto en un Primo si la posicion se esta copiando a la tabla siguiente.
+ * get no escribe nada salvo que encuentre su clave a medio copiar.
+ *
+ * Para crecer se crea una tabla siguiente y los hilos que escriben copian
+ * entre todos un trozo de posiciones en cada operacion. Copiar una posicion
+ * envuelve su valor en un Primo, con lo que ninguna escritura puede cambiarlo
+ * en la tabla vieja, lo escribe en la nueva si alli no hay nada y lo marca como
+ * copiado. Las escrituras reservan la posicion de su clave en cada tabla por la
+ * que pasan, aunque se este copiando, y si la encuentran envuelta la copian
+ * ellas mismas y siguen en la tabla nueva, de forma que ningun hilo espera a
+ * otro y dos escrituras de la misma clave siempre coinciden en una posicion.
+ * Cuando todas las posiciones estan copiadas la tabla nueva pasa a ser la
+ * principal.
+ *
+ * Una tabla solo empieza a copiarse cuando ya es la principal, y mientras no
+ * lo es reserva sitio para todas las posiciones de la anterior. Asi una copia
+ * siempre cabe, y un hilo que se retrasa copiando una posicion que otro ya
+ * termino lo nota porque la tabla nueva tambien se esta copiando, en lugar de
+ * escribir un valor viejo mas adelante.
+ *
+ * Como en ConcurrentHashMap, no se admiten claves ni valores null.
+ *
+ * @param <K> clave
+ * @param <V> valor
+ */
+public class HashMapArrayConcurrente<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+	private static final int INIT_SIZE = 16;
+	/**
+	 * Posiciones que copia cada hilo que ayuda a crecer
+	 */
+	private static final int TROZO_COPIA = 1024;
+
+	/**
+	 * Clave de una posicion que se ha copiado vacia, y valor de una clave
+	 * eliminada
+	 */
+	private static final Object BORRADO = new Object();
+	/**
+	 * Condiciones de escritura: cualquier valor y cualquier valor que no sea
+	 * BORRADO. BORRADO como condicion es que la clave no exista y null que la
+	 * posicion no tenga valor, que es lo que se usa al copiar
+	 */
+	private static final Object CUALQUIERA = new Object();
+	private static final Object PRESENTE = new Object();
+
+	/**
+	 * Valor de una posicion que se esta copiando a la tabla siguiente
+	 */
+	private static final class Primo {
+
+		private final Object valor;
+
+		private Primo(Object valor) {
+			this.valor = valor;
+		}
+	}
+
+	/**
+	 * Posicion ya copiada o que no tenia valor que copiar
+	 */
+	private static final Primo BORRADO_PRIMO = new Primo(BORRADO);
+
+	/**
+	 * Array de claves y valores, con la tabla a la que se esta copiando si hay
+	 * un crecimiento en curso
+	 */
+	private static final class Tabla {
+
+		private final AtomicReferenceArray<Object> claves;
+		private final AtomicReferenceArray<Object> valores;
+		private final int mascara;
+		/**
+		 * Posiciones con clave, incluidas las de claves eliminadas
+		 */
+		private final AtomicInteger ocupadas = new AtomicInteger();
+		/**
+		 * Posiciones que pueden ocupar las claves nuevas siendo la tabla
+		 * principal y mientras aun se copia la anterior
+		 */
+		private final int limite;
+		private final int limiteCopiando;
+		private final AtomicReference<Tabla> siguiente = new AtomicReference<Tabla>();
+		/**
+		 * Siguiente posicion que se reparte para copiar, que da la vuelta hasta
+		 * que todo esta copiado
+		 */
+		private final AtomicInteger reparto = new AtomicInteger();
+		/**
+		 * Posiciones que ya no tienen nada que copiar
+		 */
+		private final AtomicInteger copiadas = new AtomicInteger();
+
+		private Tabla(int longitud, float factorCarga, int longitudAnterior) {
+			claves = new AtomicReferenceArray<Object>(longitud);
+			valores = new AtomicReferenceArray<Object>(longitud);
+			mascara = longitud - 1;
+			limite = Math.max(1, (int) (factorCarga * longitud));
+			limiteCopiando = Math.min(limite, longitud - longitudAnterior);
+		}
+
+		private int longitud() {
+			return mascara + 1;
+		}
+	}
+
+	private final AtomicReference<Tabla> tabla;
+	private final LongAdder tam = new LongAdder();
+	/**
+	 * Proporcion de posiciones con clave a partir de la cual se crece
+	 */
+	private final float factorCarga;
+	/**
+	 * Vista de las entradas, que se crea la primera vez que se pide
+	 */
+	private Set<Entry<K, V>> entradas;
+
+	/**
+	 * Entrada de entrySet que escribe en el mapa al cambiar su valor
+	 */
+	private class Entrada extends SimpleEntry<K, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		public Entrada(K clave, V valor) {
+			super(clave, valor);
+		}
+
+		@Override
+		public V setValue(V value) {
+			put(getKey(), value);
+			return super.setValue(value);
+		}
+	}
+
+	/**
+	 * ----------------------------------------------------
+	 * CONSTRUCTORES
+	 * ----------------------------------------------------
+	 */
+
+	public HashMapArrayConcurrente() {
+		this(INIT_SIZE);
+	}
+
+	public HashMapArrayConcurrente(int tam) {
+		this(tam, 0.5F);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param tam         el tamaño inicial del array, que se redondea a potencia
+	 *                    de dos
+	 * @param factorCarga proporcion de posiciones con clave, contando las de
+	 *                    claves eliminadas, a partir de la cual se crece, entre 0
+	 *                    y 1
+	 */
+	public HashMapArrayConcurrente(int tam, float factorCarga) {
+
+		if (tam <= 0 || factorCarga <= 0 || factorCarga >= 1)
+			throw new IllegalArgumentException();
+
+		this.factorCarga = factorCarga;
+		tabla = new AtomicReference<Tabla>(new Tabla(Math.max(2, Dispersion.potenciaDos(tam)), factorCarga, 0));
+	}
+
+	/**
+	 * -----------------------------------------------------
+	 * CLASICOS
+	 * -----------------------------------------------------
+	 */
+
+	/**
+	 * Obtiene el valor asociado a una clave sin esperar a ningun otro hilo
+	 *
+	 * @param key la clave
+	 * @return el valor asociado o null si la clave no existe
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(Object key) {
+		return (V) buscar(tabla.get(), key, Dispersion.esparcir(key.hashCode()));
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	public V put(K key, V value) {
+		return escribir(key, value, CUALQUIERA);
+	}
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		return escribir(key, value, BORRADO);
+	}
+
+	@Override
+	public V remove(Object key) {
+		return escribir(key, BORRADO, CUALQUIERA);
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		return value != null && value.equals(escribir(key, BORRADO, value));
+	}
+
+	@Override
+	public V replace(K key, V value) {
+		return escribir(key, value, PRESENTE);
+	}
+
+	@Override
+	public boolean replace(K key, V oldValue, V newValue) {
+		if (oldValue == null)
+			throw new NullPointerException();
+		return oldValue.equals(escribir(key, newValue, oldValue));
+	}
+
+	/**
+	 * Vacía el mapa sustituyendo la tabla por una nueva. Las escrituras que se
+	 * hagan a la vez pueden perderse o no
+	 */
+	@Override
+	public void clear() {
+		tabla.set(new Tabla(INIT_SIZE, factorCarga, 0));
+		tam.reset();
+	}
+
+	/**
+	 * ----------------------------------------------------------
+	 * UTILLERIA
+	 * ----------------------------------------------------------
+	 **/
+
+	/**
+	 * Obtiene el tamaño de la tabla principal
+	 *
+	 * @return el numero de posiciones
+	 */
+	public int getCapacidad() {
+		return tabla.get().longitud();
+	}
+
+	/**
+	 * Busca el valor de una clave. Una posicion vacia es que la clave no esta,
+	 * porque las escrituras reservan su posicion en cada tabla por la que pasan.
+	 * Si da la vuelta a la tabla sigue en la siguiente, y si encuentra la clave
+	 * a medio copiar la copia y sigue tambien en la siguiente
+	 *
+	 * @return el valor o null si no existe
+	 */
+	private Object buscar(Tabla t, Object key, int hash) {
+
+		siguienteTabla: while (true) {
+
+			int pos = hash & t.mascara;
+
+			for (int intento = 0; intento <= t.mascara; intento++) {
+
+				Object k = t.claves.get(pos);
+				if (k == null)
+					return null;
+
+				if (esClave(k, key)) {
+					// El valor se lee despues de la clave
+					Object v = t.valores.get(pos);
+					if (!(v instanceof Primo))
+						return v == BORRADO ? null : v;
+					t = copiarPosicion(t, pos, false);
+					continue siguienteTabla;
+				}
+
+				pos = (pos + 1) & t.mascara;
+			}
+
+			Tabla siguiente = t.siguiente.get();
+			if (siguiente == null)
+				return null;
+			t = siguiente;
+		}
+	}
+
+	/**
+	 * Escribe el valor de una clave desde la tabla principal
+	 *
+	 * @param key       la clave
+	 * @param nuevo     el valor nuevo o BORRADO para eliminar
+	 * @param condicion cuando se escribe: CUALQUIERA, PRESENTE, BORRADO (si no
+	 *                  existe) o el valor que tiene que haber
+	 * @return el valor anterior o null si no existia
+	 */
+	@SuppressWarnings("unchecked")
+	private V escribir(Object key, Object nuevo, Object condicion) {
+
+		if (nuevo == null)
+			throw new NullPointerException();
+
+		// Mientras se copia la principal cada escritura copia un trozo
+		Tabla t = tabla.get();
+		if (t.siguiente.get() != null) {
+			ayudarCopia();
+			t = tabla.get();
+		}
+
+		Object anterior = escribir(t, key, Dispersion.esparcir(key.hashCode()), nuevo, condicion, false);
+		return anterior == BORRADO ? null : (V) anterior;
+	}
+
+	/**
+	 * Escribe el valor de una clave en una tabla si se cumple una condicion.
+	 * Primero busca o reserva la posicion de la clave y despues cambia el valor
+	 * con compareAndSet. Si la tabla se esta copiando, copia la posicion y sigue
+	 * en la tabla siguiente.
+	 *
+	 * @param copia si la escritura es la copia de una posicion de la tabla
+	 *              anterior, que no cambia el tamaño y se abandona si esta tabla
+	 *              tambien se esta copiando, porque entonces ya la termino otro
+	 *              hilo
+	 * @return el valor que habia, que puede ser null o BORRADO si no habia
+	 */
+	private Object escribir(Tabla t, Object key, int hash, Object nuevo, Object condicion, boolean copia) {
+
+		siguienteTabla: while (true) {
+
+			// Se busca la posicion de la clave o se reserva una vacia. Aunque la
+			// tabla se este copiando la posicion se reserva en ella, para que
+			// dos escrituras de la misma clave no lleguen a la siguiente por
+			// caminos distintos
+			int pos = hash & t.mascara;
+			for (int intento = 0;; intento++) {
+
+				if (intento > t.mascara) {
+					// Vuelta completa sin sitio: la clave no esta en esta tabla
+					if (copia)
+						return BORRADO;
+					t = llena(t);
+					continue siguienteTabla;
+				}
+
+				Object k = t.claves.get(pos);
+				if (k == null) {
+
+					// Una clave que no esta no hace falta borrarla ni
+					// sustituirla
+					if (nuevo == BORRADO || condicion == PRESENTE
+							|| (condicion != CUALQUIERA && condicion != BORRADO && condicion != null))
+						return null;
+
+					boolean reservada = false;
+					if (t.siguiente.get() != null) {
+						if (copia)
+							return BORRADO;
+					} else if (!copia) {
+						reservada = reservar(t);
+						// Si sigue sin copiarse es que ya es la principal y se
+						// vuelve a intentar con su limite
+						if (!reservada && llena(t) == t)
+							continue siguienteTabla;
+					}
+
+					if (t.claves.compareAndSet(pos, null, key)) {
+						if (!reservada)
+							t.ocupadas.incrementAndGet();
+						break;
+					}
+					if (reservada)
+						t.ocupadas.decrementAndGet();
+					k = t.claves.get(pos);
+				}
+				if (esClave(k, key))
+					break;
+
+				pos = (pos + 1) & t.mascara;
+			}
+
+			Object v = t.valores.get(pos);
+			if (v == nuevo)
+				return v;
+
+			while (true) {
+
+				// Si la tabla se esta copiando la escritura va a la siguiente,
+				// despues de copiar esta posicion
+				if (v instanceof Primo || t.siguiente.get() != null) {
+					if (copia)
+						return BORRADO;
+					t = copiarPosicion(t, pos, true);
+					continue siguienteTabla;
+				}
+
+				if (!cumple(v, condicion))
+					return v;
+
+				if (t.valores.compareAndSet(pos, v, nuevo)) {
+					if (!copia) {
+						boolean antes = v != null && v != BORRADO;
+						if (!antes && nuevo != BORRADO)
+							tam.increment();
+						else if (antes && nuevo == BORRADO)
+							tam.decrement();
+					}
+					return v;
+				}
+
+				// Otro hilo ha cambiado el valor, se vuelve a comprobar
+				v = t.valores.get(pos);
+			}
+		}
+	}
+
+	/**
+	 * @return true si la clave de una posicion es la buscada
+	 */
+	private static boolean esClave(Object k, Object key) {
+		return k == key || (k != BORRADO && key.equals(k));
+	}
+
+	/**
+	 * @return true si un valor cumple la condicion de una escritura
+	 */
+	private static boolean cumple(Object v, Object condicion) {
+		if (condicion == CUALQUIERA)
+			return true;
+		if (condicion == null)
+			return v == null;
+		if (condicion == BORRADO)
+			return v == null || v == BORRADO;
+		if (v == null || v == BORRADO)
+			return false;
+		return condicion == PRESENTE || condicion.equals(v);
+	}
+
+	/**
+	 * Reserva una posicion para una clave nueva si la tabla no ha llegado a su
+	 * limite
+	 *
+	 * @return false si la tabla esta llena
+	 */
+	private boolean reservar(Tabla t) {
+
+		int limite = tabla.get() == t ? t.limite : t.limiteCopiando;
+
+		while (true) {
+			int ocupadas = t.ocupadas.get();
+			if (ocupadas >= limite)
+				return false;
+			if (t.ocupadas.compareAndSet(ocupadas, ocupadas + 1))
+				return true;
+		}
+	}
+
+	/**
+	 * Obtiene la tabla en la que seguir cuando una tabla esta llena. Si aun se
+	 * esta copiando la anterior, primero se ayuda a terminar esa copia
+	 *
+	 * @return la tabla siguiente, o la misma si ya es la principal
+	 */
+	private Tabla llena(Tabla t) {
+
+		while (true) {
+
+			Tabla siguiente = t.siguiente.get();
+			if (siguiente != null)
+				return siguiente;
+
+			// Si la principal no se esta copiando, t no es una tabla que le siga
+			// sino una que ha sustituido clear y crece sin afectar a nadie
+			Tabla principal = tabla.get();
+			if (principal == t || principal.siguiente.get() == null)
+				return crecer(t);
+
+			// Al terminar la copia t pasa a ser la principal y se vuelve a
+			// intentar con su limite de principal
+			ayudarCopia();
+			if (tabla.get() == t)
+				return t;
+		}
+	}
+
+	/**
+	 * Crea la tabla siguiente de una tabla si aun no la tiene. Dobla el tamaño,
+	 * o lo cuadruplica si el mapa esta muy lleno, y lo mantiene si la mayoria de
+	 * las posiciones son de claves eliminadas, que no se copian.
+	 *
+	 * @return la tabla siguiente
+	 */
+	private Tabla crecer(Tabla t) {
+
+		Tabla siguiente = t.siguiente.get();
+		if (siguiente != null)
+			return siguiente;
+
+		int longitud = t.longitud();
+		long elementos = tam.sum();
+		int nuevaLongitud = longitud;
+		if (elementos >= longitud / 4)
+			nuevaLongitud = longitud * 2;
+		if (elementos >= longitud / 2)
+			nuevaLongitud = longitud * 4;
+		nuevaLongitud = Math.max(longitud, Math.min(nuevaLongitud, Dispersion.MAX_POTENCIA_DOS));
+
+		t.siguiente.compareAndSet(null, new Tabla(nuevaLongitud, factorCarga, longitud));
+		return t.siguiente.get();
+	}
+
+	/**
+	 * Copia una posicion a la tabla siguiente y cuenta la copia
+	 *
+	 * @param ayudar si ademas se copia un trozo de la tabla principal
+	 * @return la tabla siguiente
+	 */
+	private Tabla copiarPosicion(Tabla t, int pos, boolean ayudar) {
+
+		Tabla siguiente = t.siguiente.get();
+		if (copiar(t, pos, siguiente))
+			contarCopiadas(t, 1);
+		if (ayudar)
+			ayudarCopia();
+		return siguiente;
+	}
+
+	/**
+	 * Copia una posicion a la tabla siguiente. Primero se impide reservar la
+	 * posicion si esta vacia y se envuelve el valor en un Primo, de forma que ya
+	 * no cambie en esta tabla; despues se escribe en la siguiente si alli no hay
+	 * valor y al final se marca como copiada.
+	 *
+	 * @return true si este hilo es el que ha marcado la posicion como copiada,
+	 *         para que cada posicion se cuente una sola vez
+	 */
+	private boolean copiar(Tabla t, int pos, Tabla siguiente) {
+
+		Object k;
+		while ((k = t.claves.get(pos)) == null)
+			t.claves.compareAndSet(pos, null, BORRADO);
+
+		Object v = t.valores.get(pos);
+		while (!(v instanceof Primo)) {
+			Primo caja = v == null || v == BORRADO ? BORRADO_PRIMO : new Primo(v);
+			if (t.valores.compareAndSet(pos, v, caja)) {
+				if (caja == BORRADO_PRIMO)
+					return true;
+				v = caja;
+				break;
+			}
+			v = t.valores.get(pos);
+		}
+		if (v == BORRADO_PRIMO)
+			return false;
+
+		escribir(siguiente, k, Dispersion.esparcir(k.hashCode()), ((Primo) v).valor, null, true);
+		return t.valores.compareAndSet(pos, v, BORRADO_PRIMO);
+	}
+
+	/**
+	 * Copia el siguiente trozo de la tabla principal si se esta copiando
+	 */
+	private void ayudarCopia() {
+
+		Tabla t = tabla.get();
+		Tabla siguiente = t.siguiente.get();
+		if (siguiente == null)
+			return;
+
+		int longitud = t.longitud();
+		if (t.copiadas.get() == longitud) {
+			promover(t);
+			return;
+		}
+
+		int inicio = Math.floorMod(t.reparto.getAndAdd(TROZO_COPIA), longitud);
+		int fin = Math.min(longitud, inicio + TROZO_COPIA);
+		int hechas = 0;
+		for (int pos = inicio; pos < fin; pos++)
+			if (copiar(t, pos, siguiente))
+				hechas++;
+
+		contarCopiadas(t, hechas);
+	}
+
+	/**
+	 * Suma posiciones copiadas y, si ya estan todas, promueve la tabla
+	 */
+	private void contarCopiadas(Tabla t, int hechas) {
+		if (t.copiadas.addAndGet(hechas) == t.longitud())
+			promover(t);
+	}
+
+	/**
+	 * Sustituye la tabla principal por la siguiente si ya esta toda copiada
+	 */
+	private void promover(Tabla t) {
+		if (t.copiadas.get() == t.longitud())
+			tabla.compareAndSet(t, t.siguiente.get());
+	}
+
+	/**
+	 * ------------------------------------------------------
+	 * OBLIGATORIOS
+	 * ------------------------------------------------------
+	 */
+
+	/**
+	 * Numero de pares. Con escrituras concurrentes es solo una estimacion
+	 */
+	@Override
+	public int size() {
+		return (int) Math.max(0, Math.min(Integer.MAX_VALUE, tam.sum()));
+	}
+
+	/**
+	 * Obtiene una vista de las entradas del mapa. No se copia nada: su iterador
+	 * es debilmente consistente, como los de ConcurrentHashMap, nunca falla por
+	 * cambios concurrentes y puede reflejar o no los cambios posteriores a su
+	 * creacion. Cambiar el valor de una entrada lo cambia tambien en el mapa, y
+	 * quitarla lo hace con remove(clave, valor), de forma que no se pierde un
+	 * valor escrito por otro hilo despues de leerla.
+	 */
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		if (entradas == null)
+			entradas = new Entradas();
+		return entradas;
+	}
+
+	/**
+	 * Vista de las entradas del mapa
+	 */
+	private class Entradas extends AbstractSet<Entry<K, V>> {
+
+		@Override
+		public int size() {
+			return HashMapArrayConcurrente.this.size();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return HashMapArrayConcurrente.this.isEmpty();
+		}
+
+		@Override
+		public Iterator<Entry<K, V>> iterator() {
+			return new Iterador();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof Entry))
+				return false;
+			Entry<?, ?> e = (Entry<?, ?>) o;
+			if (e.getKey() == null || e.getValue() == null)
+				return false;
+			V v = get(e.getKey());
+			return v != null && v.equals(e.getValue());
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if (!(o instanceof Entry))
+				return false;
+			Entry<?, ?> e = (Entry<?, ?>) o;
+			return e.getKey() != null && HashMapArrayConcurrente.this.remove(e.getKey(), e.getValue());
+		}
+
+		@Override
+		public void clear() {
+			HashMapArrayConcurrente.this.clear();
+		}
+	}
+
+	/**
+	 * Iterador debilmente consistente. Al crearlo se ayuda a terminar la copia
+	 * en curso, si la hay, y se recorren las claves de una tabla que no se
+	 * estaba copiando. En una tabla cada clave ocupa una sola posicion y no se
+	 * mueve, asi que ninguna sale repetida aunque despues empiece otra copia.
+	 * El valor de cada clave se lee con get al llegar a ella, con lo que es el
+	 * actual aunque la clave ya se haya copiado a una tabla posterior, y las
+	 * claves eliminadas se saltan.
+	 */
+	private class Iterador implements Iterator<Entry<K, V>> {
+
+		private final Tabla t;
+		/**
+		 * Siguiente posicion de la tabla que se examina
+		 */
+		private int pos;
+		/**
+		 * Siguiente entrada que se devuelve, o null si aun no se ha buscado
+		 */
+		private Entrada siguiente;
+		/**
+		 * Ultima entrada devuelta, o null
+		 */
+		private Entrada devuelta;
+
+		public Iterador() {
+			Tabla principal = tabla.get();
+			while (principal.siguiente.get() != null) {
+				ayudarCopia();
+				principal = tabla.get();
+			}
+			t = principal;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public boolean hasNext() {
+			while (siguiente == null && pos <= t.mascara) {
+				Object k = t.claves.get(pos++);
+				if (k != null && k != BORRADO) {
+					V v = get(k);
+					if (v != null)
+						siguiente = new Entrada((K) k, v);
+				}
+			}
+			return siguiente != null;
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			devuelta = siguiente;
+			siguiente = null;
+			return devuelta;
+		}
+
+		@Override
+		public void remove() {
+			if (devuelta == null)
+				throw new IllegalStateException();
+			HashMapArrayConcurrente.this.remove(devuelta.getKey(), devuelta.getValue());
+			devuelta = null;
+		}
+	}
+
+}
@@ -0,0 +1,631 @@
+package tablasHash;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Variante de {@link HashMapArray} que guarda las entradas en arrays paralelos
+ * de claves, valores y hashes en vez de en un array de Nodo. La exploracion
+ * recorre posiciones contiguas de esos arrays sin saltar a un objeto por
+ * entrada, compara primero el hash guardado y solo lee la clave cuando
+ * coincide. Al redimensionar y al desplazar entradas tampoco se vuelve a
+ * calcular ningun hashCode.
+ *
+ * Las entradas de entrySet se crean al recorrerlas y leen y escriben
+ * directamente en los arrays.
+ *
+ * @param <K> clave
+ * @param <V> valor
+ */
+public class HashMapArraySoA<K, V> extends AbstractMap<K, V> {
+
+	private static final int INIT_SIZE = 20;
+
+	private int tam;
+	private Object claves[];
+	private Object valores[];
+	/**
+	 * hashCode de la clave de cada posicion
+	 */
+	private int hashes[];
+
+	/**
+	 * Ocupacion maxima antes de crecer
+	 */
+	private float factorCarga;
+	/**
+	 * Factor por el que se multiplica el tamaño del array al crecer
+	 */
+	private float factorCrecimiento;
+	/**
+	 * Ocupacion por debajo de la cual se reduce el array (0 para no reducir)
+	 */
+	private float cargaMinima;
+	/**
+	 * Tamaño por debajo del cual no se reduce el array
+	 */
+	private int tamMinimo;
+	/**
+	 * Si el array tiene un tamaño potencia de dos y se indexa con mascara
+	 */
+	private boolean potenciaDos;
+	/**
+	 * Numero de cambios que mueven o quitan entradas, con el que los iteradores
+	 * detectan que el mapa se ha modificado por fuera de ellos
+	 */
+	private int modCount;
+	/**
+	 * Vista de las entradas, que se crea la primera vez que se pide
+	 */
+	private Set<Entry<K, V>> entradas;
+
+	/**
+	 * Entrada que lee y escribe directamente en los arrays del mapa mientras su
+	 * clave siga en la misma posicion. Si la entrada se quita o se mueve
+	 * conserva la clave y el ultimo valor leido
+	 */
+	protected class Entrada implements Entry<K, V> {
+
+		private final int pos;
+		private final K key;
+		private V val;
+
+		@SuppressWarnings("unchecked")
+		public Entrada(int pos) {
+			this.pos = pos;
+			this.key = (K) claves[pos];
+			this.val = (V) valores[pos];
+		}
+
+		/**
+		 * @return true si la clave sigue en la posicion de la entrada
+		 */
+		private boolean enSuSitio() {
+			return pos < claves.length && claves[pos] == key;
+		}
+
+		@Override
+		public K getKey() {
+			return key;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public V getValue() {
+			if (enSuSitio())
+				val = (V) valores[pos];
+			return val;
+		}
+
+		@Override
+		public V setValue(V arg0) {
+			V oldValue = getValue();
+			if (enSuSitio())
+				valores[pos] = arg0;
+			val = arg0;
+			return oldValue;
+		}
+
+	}
+
+	/**
+	 * ----------------------------------------------------
+	 * CONSTRUCTORES
+	 * ----------------------------------------------------
+	 */
+
+	public HashMapArraySoA() {
+		this(INIT_SIZE);
+	}
+
+	public HashMapArraySoA(int tam) {
+		this(tam, 0.75F, 1.5F, 0.1F, false);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param tam         el tamaño inicial del array
+	 * @param potenciaDos si el tamaño del array se redondea a potencias de dos y
+	 *                    las posiciones se calculan con mascara sobre el hash
+	 *                    mezclado en vez de con el resto de la division
+	 */
+	public HashMapArraySoA(int tam, boolean potenciaDos) {
+		this(tam, 0.75F, 1.5F, 0.1F, potenciaDos);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param tam               el tamaño inicial del array
+	 * @param factorCarga       ocupacion maxima antes de crecer, entre 0 y 1
+	 * @param factorCrecimiento factor por el que crece el array, mayor que 1. En
+	 *                          modo potencia de dos el nuevo tamaño se redondea a
+	 *                          la siguiente potencia
+	 * @param cargaMinima       ocupacion por debajo de la cual se reduce el
+	 *                          array (0 para no reducirlo nunca). Tiene que ser
+	 *                          menor que factorCarga / factorCrecimiento
+	 * @param potenciaDos       si el tamaño del array se redondea a potencias de
+	 *                          dos y las posiciones se calculan con mascara
+	 */
+	public HashMapArraySoA(int tam, float factorCarga, float factorCrecimiento, float cargaMinima,
+			boolean potenciaDos) {
+
+		if (tam <= 0 || factorCarga <= 0 || factorCarga >= 1 || factorCrecimiento <= 1 || cargaMinima < 0
+				|| cargaMinima >= factorCarga / factorCrecimiento)
+			throw new IllegalArgumentException();
+
+		this.factorCarga = factorCarga;
+		this.factorCrecimiento = factorCrecimiento;
+		this.cargaMinima = cargaMinima;
+		this.potenciaDos = potenciaDos;
+
+		inicializar(potenciaDos ? Dispersion.potenciaDos(tam) : tam);
+		tamMinimo = claves.length;
+
+		this.tam = 0;
+	}
+
+	/**
+	 * -----------------------------------------------------
+	 * CLASICOS
+	 * -----------------------------------------------------
+	 */
+
+	/**
+	 * Obtiene el valor asociado a una clave
+	 *
+	 * @param key la clave
+	 * @return el valor asociado o null si la clave no existe
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(Object key) {
+		int pos = buscarPosicion(key);
+		return pos == -1 ? null : (V) valores[pos];
+	}
+
+	/**
+	 * Comprueba si una clave existe en el mapa
+	 *
+	 * @param key la clave
+	 * @return true si existe
+	 */
+	@Override
+	public boolean containsKey(Object key) {
+		return buscarPosicion(key) != -1;
+	}
+
+	/**
+	 * Inserta un par de clave-valor en el mapa
+	 *
+	 * @param key   la clave
+	 * @param value el valor
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public V put(K key, V value) {
+
+		int hash = key.hashCode();
+
+		// Se recorre la secuencia de exploracion hasta encontrar la clave
+		// o la primera posicion vacia
+		int pos = indiceInicial(hash);
+		for (int i = 0; i < claves.length; i++) {
+
+			if (claves[pos] == null)
+				break;
+
+			// Si la clave existe machacamos con el nuevo valor
+			if (hashes[pos] == hash && claves[pos].equals(key)) {
+				V oldValue = (V) valores[pos];
+				valores[pos] = value;
+				return oldValue;
+			}
+
+			pos = siguiente(pos);
+		}
+
+		// insertamos una entrada nueva
+		// ----------------------------
+
+		// Si la nueva entrada supera el factor de carga (o no hay hueco) hay
+		// que crecer y buscar de nuevo la posicion libre
+		if (claves[pos] != null || (float) (tam + 1) / claves.length > factorCarga) {
+			redimensionar(tamCrecimiento());
+			pos = exploracionLineal(hash);
+		}
+
+		claves[pos] = key;
+		valores[pos] = value;
+		hashes[pos] = hash;
+		tam++;
+		modCount++;
+
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V remove(Object key) {
+
+		// Se busca la posicion de la clave
+		int pos = buscarPosicion(key);
+
+		// Si la clave no existe no hay nada que eliminar
+		if (pos == -1)
+			return null;
+
+		V value = (V) valores[pos];
+
+		// Se elimina la entrada sin dejar huecos en la exploracion
+		eliminarPosicion(pos);
+		tam--;
+		modCount++;
+
+		// Si han quedado pocas entradas se devuelve memoria
+		if (claves.length > tamMinimo && getOcupacion() < cargaMinima && tam <= factorCarga * tamReduccion())
+			redimensionar(tamReduccion());
+
+		return value;
+	}
+
+	public String toString() {
+
+		StringBuilder s = new StringBuilder();
+
+		for (int i = 0; i < claves.length; i++) {
+
+			if (claves[i] == null) {
+				s.append("v[" + i + "]={NULL}\n");
+			} else {
+				s.append("v[" + i + "]={" + claves[i] + ", " + valores[i] + "}\n");
+			}
+		}
+
+		return s.toString();
+	}
+
+	/**
+	 * ----------------------------------------------------------
+	 * UTILLERIA
+	 * ----------------------------------------------------------
+	 **/
+
+	/**
+	 * Obtiene la ocupacion actual del array
+	 *
+	 * @return la proporcion de posiciones ocupadas, entre 0 y 1
+	 */
+	public float getOcupacion() {
+		return (float) tam / claves.length;
+	}
+
+	/**
+	 * Obtiene el tamaño actual del array
+	 *
+	 * @return el numero de posiciones del array
+	 */
+	public int getCapacidad() {
+		return claves.length;
+	}
+
+	/**
+	 * Busca la posicion de una clave con exploracion lineal. La busqueda termina
+	 * en cuanto se encuentra la clave o la primera posicion vacia, y solo se
+	 * llama a equals cuando coincide el hash
+	 *
+	 * @param key la clave
+	 * @return la posicion de la clave o -1 si no existe
+	 */
+	private int buscarPosicion(Object key) {
+
+		int hash = key.hashCode();
+		int pos = indiceInicial(hash);
+
+		for (int i = 0; i < claves.length; i++) {
+			if (claves[pos] == null)
+				return -1;
+			if (hashes[pos] == hash && claves[pos].equals(key))
+				return pos;
+			pos = siguiente(pos);
+		}
+
+		// No encontrado
+		return -1;
+	}
+
+	/**
+	 * Busca la primera posicion vacia de la exploracion lineal de un hash
+	 *
+	 * @param hash el hashCode de la clave
+	 * @return la posicion vacia o -1 si no hay hueco
+	 */
+	private int exploracionLineal(int hash) {
+
+		int pos = indiceInicial(hash);
+
+		for (int i = 0; i < claves.length; i++) {
+			if (claves[pos] == null)
+				return pos;
+			pos = siguiente(pos);
+		}
+
+		// No hay hueco
+		return -1;
+	}
+
+	/**
+	 * Elimina la entrada de una posicion desplazando hacia atras las entradas
+	 * posteriores del mismo bloque de exploracion, de forma que ninguna busqueda
+	 * se detenga antes de tiempo en el hueco
+	 *
+	 * @param hueco la posicion que se vacia
+	 */
+	private void eliminarPosicion(int hueco) {
+
+		claves[hueco] = null;
+		valores[hueco] = null;
+
+		// Se recorre el bloque hasta la siguiente posicion vacia
+		int pos = siguiente(hueco);
+		while (claves[pos] != null) {
+
+			// La entrada puede ocupar el hueco si su posicion inicial no queda
+			// entre el hueco y su posicion actual
+			int inicial = indiceInicial(hashes[pos]);
+			if (distancia(inicial, pos) >= distancia(hueco, pos)) {
+				claves[hueco] = claves[pos];
+				valores[hueco] = valores[pos];
+				hashes[hueco] = hashes[pos];
+				claves[pos] = null;
+				valores[pos] = null;
+				hueco = pos;
+			}
+
+			pos = siguiente(pos);
+		}
+	}
+
+	/**
+	 * Numero de pasos de exploracion lineal para ir de una posicion a otra
+	 *
+	 * @param desde posicion de partida
+	 * @param hasta posicion de llegada
+	 * @return el numero de pasos
+	 */
+	private int distancia(int desde, int hasta) {
+		return hasta >= desde ? hasta - desde : hasta - desde + claves.length;
+	}
+
+	/**
+	 * Posicion inicial de la secuencia de exploracion de un hash
+	 *
+	 * @param hash el hashCode de la clave
+	 * @return la posicion
+	 */
+	private int indiceInicial(int hash) {
+		if (potenciaDos)
+			return Dispersion.esparcir(hash) & (claves.length - 1);
+		return Math.abs(hash % claves.length);
+	}
+
+	/**
+	 * Siguiente posicion de la exploracion lineal, sin dividir
+	 *
+	 * @param pos la posicion actual
+	 * @return la siguiente posicion
+	 */
+	private int siguiente(int pos) {
+		return pos + 1 == claves.length ? 0 : pos + 1;
+	}
+
+	/**
+	 * Tamaño que tendra el array la proxima vez que crezca
+	 *
+	 * @return el nuevo tamaño
+	 */
+	private int tamCrecimiento() {
+		int nuevoTam = Math.max(claves.length + 1, (int) (claves.length * factorCrecimiento));
+		return potenciaDos ? Dispersion.potenciaDos(nuevoTam) : nuevoTam;
+	}
+
+	/**
+	 * Tamaño que tendra el array la proxima vez que se reduzca
+	 *
+	 * @return el nuevo tamaño
+	 */
+	private int tamReduccion() {
+		int nuevoTam = Math.max(tamMinimo, (int) (claves.length / factorCrecimiento));
+		return potenciaDos ? Math.max(tamMinimo, Integer.highestOneBit(nuevoTam)) : nuevoTam;
+	}
+
+	private void inicializar(int longitud) {
+		claves = new Object[longitud];
+		valores = new Object[longitud];
+		hashes = new int[longitud];
+	}
+
+	/**
+	 * Recoloca las entradas existentes en arrays nuevos usando los hashes
+	 * guardados
+	 *
+	 * @param nuevoTam el tamaño de los nuevos arrays
+	 */
+	private void redimensionar(int nuevoTam) {
+
+		Object[] clavesAnteriores = claves;
+		Object[] valoresAnteriores = valores;
+		int[] hashesAnteriores = hashes;
+
+		inicializar(nuevoTam);
+
+		for (int i = 0; i < clavesAnteriores.length; i++) {
+			if (clavesAnteriores[i] != null) {
+				int pos = exploracionLineal(hashesAnteriores[i]);
+				claves[pos] = clavesAnteriores[i];
+				valores[pos] = valoresAnteriores[i];
+				hashes[pos] = hashesAnteriores[i];
+			}
+		}
+	}
+
+	/**
+	 * ------------------------------------------------------
+	 * OBLIGATORIOS
+	 * ------------------------------------------------------
+	 */
+
+	@Override
+	public int size() {
+		return tam;
+	}
+
+	/**
+	 * Vacia el mapa y vuelve al tamaño minimo del array
+	 */
+	@Override
+	public void clear() {
+		inicializar(tamMinimo);
+		tam = 0;
+		modCount++;
+	}
+
+	/**
+	 * Obtiene una vista de las entradas del mapa. No se copia nada: la vista
+	 * refleja los cambios del mapa y su iterador recorre directamente los
+	 * arrays, creando la entrada de cada posicion ocupada al devolverla.
+	 *
+	 * @return la vista de las entradas
+	 */
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		if (entradas == null)
+			entradas = new Entradas();
+		return entradas;
+	}
+
+	/**
+	 * Vista de las entradas del mapa
+	 */
+	private class Entradas extends AbstractSet<Entry<K, V>> {
+
+		@Override
+		public int size() {
+			return tam;
+		}
+
+		@Override
+		public Iterator<Entry<K, V>> iterator() {
+			return new Iterador();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof Entry) || ((Entry<?, ?>) o).getKey() == null)
+				return false;
+			Entry<?, ?> e = (Entry<?, ?>) o;
+			int pos = buscarPosicion(e.getKey());
+			return pos != -1 && Objects.equals(valores[pos], e.getValue());
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if (!contains(o))
+				return false;
+			HashMapArraySoA.this.remove(((Entry<?, ?>) o).getKey());
+			return true;
+		}
+
+		@Override
+		public void clear() {
+			HashMapArraySoA.this.clear();
+		}
+	}
+
+	/**
+	 * Iterador que recorre los arrays circularmente empezando justo despues de
+	 * una posicion vacia, de forma que ningun bloque de exploracion queda
+	 * partido entre el principio y el final del recorrido. Asi, al quitar una
+	 * entrada, el desplazamiento hacia atras de eliminarPosicion solo mueve
+	 * entradas que aun no se han visitado, y basta con volver a mirar la
+	 * posicion que queda libre.
+	 *
+	 * Falla con ConcurrentModificationException si el mapa cambia por fuera del
+	 * iterador. Cambiar el valor de una clave no cuenta como cambio.
+	 */
+	private class Iterador implements Iterator<Entry<K, V>> {
+
+		/**
+		 * Posicion por la que empieza el recorrido
+		 */
+		private final int inicio;
+		/**
+		 * Numero de posiciones recorridas desde el inicio
+		 */
+		private int indice;
+		/**
+		 * Numero de posiciones recorridas hasta la ultima entrada devuelta, o -1
+		 */
+		private int devuelta = -1;
+		private int modCountEsperado = modCount;
+
+		public Iterador() {
+			int i = 0;
+			while (i < claves.length && claves[i] != null)
+				i++;
+			inicio = i + 1 >= claves.length ? 0 : i + 1;
+		}
+
+		/**
+		 * @param i el numero de posiciones recorridas
+		 * @return la posicion del array correspondiente
+		 */
+		private int posicion(int i) {
+			int pos = inicio + i;
+			return pos >= claves.length ? pos - claves.length : pos;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (indice < claves.length && claves[posicion(indice)] == null)
+				indice++;
+			return indice < claves.length;
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			if (modCount != modCountEsperado)
+				throw new ConcurrentModificationException();
+			if (!hasNext())
+				throw new NoSuchElementException();
+			devuelta = indice;
+			return new Entrada(posicion(indice++));
+		}
+
+		@Override
+		public void remove() {
+			if (devuelta == -1)
+				throw new IllegalStateException();
+			if (modCount != modCountEsperado)
+				throw new ConcurrentModificationException();
+
+			// Se quita la entrada sin reducir el array, que reordenaria las que
+			// faltan por recorrer
+			eliminarPosicion(posicion(devuelta));
+			tam--;
+			modCountEsperado = ++modCount;
+
+			// Se vuelve a mirar la posicion por si ha recibido una entrada
+			// desplazada
+			indice = devuelta;
+			devuelta = -1;
+		}
+	}
+
+}
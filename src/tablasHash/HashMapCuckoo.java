@@ -0,0 +1,599 @@
+package tablasHash;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Mapa con dispersion cuco (cuckoo hashing). Cada clave solo puede estar en
+ * una de dos posiciones, una en cada array, calculadas con dos funciones hash
+ * distintas. Una busqueda visita como mucho esas dos posiciones, este el mapa
+ * lo lleno que este.
+ *
+ * Al insertar, si las dos posiciones estan ocupadas, la clave nueva expulsa a
+ * la que ocupa la primera, que pasa a su posicion alternativa, y asi
+ * sucesivamente. Si la cadena de expulsiones es demasiado larga se supone que
+ * hay un ciclo y se reconstruye la tabla con otras funciones hash, creciendo si
+ * hace falta. Las entradas que no caben con ninguna funcion (por ejemplo claves
+ * distintas con el mismo hashCode) se guardan en una lista de desbordamiento
+ * que solo se recorre cuando no esta vacia.
+ *
+ * @param <K> clave
+ * @param <V> valor
+ */
+public class HashMapCuckoo<K, V> extends AbstractMap<K, V> {
+
+	private static final int INIT_SIZE = 16;
+	/**
+	 * Reconstrucciones con el mismo tamaño que se intentan antes de crecer
+	 */
+	private static final int MAX_RECONSTRUCCIONES = 3;
+	/**
+	 * Entradas en la lista de desbordamiento que se aceptan sin crecer
+	 */
+	private static final int MAX_DESBORDADOS = 4;
+
+	private int tam;
+	private Nodo<K, V> array1[];
+	private Nodo<K, V> array2[];
+	private List<Nodo<K, V>> desbordados;
+	/**
+	 * Semillas que distinguen las dos funciones hash. Cambian en cada
+	 * reconstruccion
+	 */
+	private int semilla1;
+	private int semilla2;
+	/**
+	 * Ocupacion maxima del conjunto de los dos arrays antes de crecer
+	 */
+	private float factorCarga;
+	/**
+	 * Longitud maxima de una cadena de expulsiones
+	 */
+	private int maxExpulsiones;
+	/**
+	 * Numero de posiciones de cada array al crear el mapa, al que se vuelve al
+	 * vaciarlo
+	 */
+	private final int longitudInicial;
+	/**
+	 * Numero de cambios que mueven o quitan entradas, con el que los iteradores
+	 * detectan que el mapa se ha modificado por fuera de ellos
+	 */
+	private int modCount;
+	/**
+	 * Vista de las entradas, que se crea la primera vez que se pide
+	 */
+	private Set<Entry<K, V>> entradas;
+
+	@SuppressWarnings("hiding")
+	protected class Nodo<K, V> implements Entry<K, V> {
+
+		private K key;
+		private V val;
+		private final int hash;
+
+		public Nodo(K k, V v, int h) {
+			key = k;
+			val = v;
+			hash = h;
+		}
+
+		@Override
+		public K getKey() {
+			return key;
+		}
+
+		@Override
+		public V getValue() {
+			return val;
+		}
+
+		@Override
+		public V setValue(V arg0) {
+			V oldValue = val;
+			val = arg0;
+			return oldValue;
+		}
+
+	}
+
+	/**
+	 * ----------------------------------------------------
+	 * CONSTRUCTORES
+	 * ----------------------------------------------------
+	 */
+
+	public HashMapCuckoo() {
+		this(INIT_SIZE);
+	}
+
+	public HashMapCuckoo(int tam) {
+		this(tam, 0.45F);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param tam         el numero de posiciones inicial de cada array, que se
+	 *                    redondea a potencia de dos
+	 * @param factorCarga ocupacion maxima antes de crecer, entre 0 y 1. Con dos
+	 *                    funciones hash las expulsiones se disparan por encima
+	 *                    de 0.5
+	 */
+	public HashMapCuckoo(int tam, float factorCarga) {
+
+		if (tam <= 0 || factorCarga <= 0 || factorCarga >= 1)
+			throw new IllegalArgumentException();
+
+		this.factorCarga = factorCarga;
+
+		int longitud = Dispersion.potenciaDos(tam);
+		longitudInicial = longitud;
+		array1 = nuevoArray(longitud);
+		array2 = nuevoArray(longitud);
+		desbordados = new ArrayList<Nodo<K, V>>();
+		semilla1 = 0x9e3779b9;
+		semilla2 = Dispersion.esparcir(semilla1);
+		maxExpulsiones = calcularMaxExpulsiones(longitud);
+
+		this.tam = 0;
+	}
+
+	/**
+	 * -----------------------------------------------------
+	 * CLASICOS
+	 * -----------------------------------------------------
+	 */
+
+	/**
+	 * Obtiene el valor asociado a una clave
+	 *
+	 * @param key la clave
+	 * @return el valor asociado o null si la clave no existe
+	 */
+	@Override
+	public V get(Object key) {
+		Nodo<K, V> n = buscar(key);
+		return n == null ? null : n.getValue();
+	}
+
+	/**
+	 * Comprueba si una clave existe en el mapa
+	 *
+	 * @param key la clave
+	 * @return true si existe
+	 */
+	@Override
+	public boolean containsKey(Object key) {
+		return buscar(key) != null;
+	}
+
+	/**
+	 * Inserta un par de clave-valor en el mapa
+	 *
+	 * @param key   la clave
+	 * @param value el valor
+	 */
+	@Override
+	public V put(K key, V value) {
+
+		int hash = key.hashCode();
+
+		// Si la clave existe machacamos con el nuevo valor
+		Nodo<K, V> n = buscar(key, hash);
+		if (n != null)
+			return n.setValue(value);
+
+		// Si la nueva entrada supera el factor de carga hay que crecer
+		if ((float) (tam + 1) / (2 * array1.length) > factorCarga)
+			reconstruir(array1.length * 2, null);
+
+		// Si la cadena de expulsiones no termina se reconstruye la tabla con la
+		// entrada que se ha quedado fuera
+		Nodo<K, V> sinHueco = colocar(new Nodo<K, V>(key, value, hash));
+		if (sinHueco != null)
+			reconstruir(array1.length, sinHueco);
+
+		tam++;
+		modCount++;
+
+		return null;
+	}
+
+	@Override
+	public V remove(Object key) {
+
+		int hash = key.hashCode();
+
+		int p1 = posicion1(hash);
+		if (array1[p1] != null && array1[p1].hash == hash && array1[p1].getKey().equals(key)) {
+			V value = array1[p1].getValue();
+			array1[p1] = null;
+			tam--;
+			modCount++;
+			return value;
+		}
+
+		int p2 = posicion2(hash);
+		if (array2[p2] != null && array2[p2].hash == hash && array2[p2].getKey().equals(key)) {
+			V value = array2[p2].getValue();
+			array2[p2] = null;
+			tam--;
+			modCount++;
+			return value;
+		}
+
+		for (int i = 0; i < desbordados.size(); i++) {
+			Nodo<K, V> n = desbordados.get(i);
+			if (n.hash == hash && n.getKey().equals(key)) {
+				desbordados.remove(i);
+				tam--;
+				modCount++;
+				return n.getValue();
+			}
+		}
+
+		return null;
+	}
+
+	public String toString() {
+
+		StringBuilder s = new StringBuilder();
+
+		for (int i = 0; i < array1.length; i++) {
+			s.append("v[" + i + "]={" + texto(array1[i]) + "} {" + texto(array2[i]) + "}\n");
+		}
+		for (Nodo<K, V> n : desbordados)
+			s.append("desbordado={" + texto(n) + "}\n");
+
+		return s.toString();
+	}
+
+	/**
+	 * ----------------------------------------------------------
+	 * UTILLERIA
+	 * ----------------------------------------------------------
+	 **/
+
+	/**
+	 * Obtiene la ocupacion actual del mapa
+	 *
+	 * @return la proporcion de posiciones ocupadas en los dos arrays, entre 0 y 1
+	 */
+	public float getOcupacion() {
+		return (float) tam / (2 * array1.length);
+	}
+
+	/**
+	 * Obtiene el numero total de posiciones
+	 *
+	 * @return el numero de posiciones de los dos arrays
+	 */
+	public int getCapacidad() {
+		return 2 * array1.length;
+	}
+
+	/**
+	 * Busca el nodo de una clave en sus dos posiciones posibles
+	 *
+	 * @param key la clave
+	 * @return el nodo o null si no existe
+	 */
+	private Nodo<K, V> buscar(Object key) {
+		return buscar(key, key.hashCode());
+	}
+
+	private Nodo<K, V> buscar(Object key, int hash) {
+
+		Nodo<K, V> n = array1[posicion1(hash)];
+		if (n != null && n.hash == hash && n.getKey().equals(key))
+			return n;
+
+		n = array2[posicion2(hash)];
+		if (n != null && n.hash == hash && n.getKey().equals(key))
+			return n;
+
+		if (!desbordados.isEmpty())
+			for (Nodo<K, V> d : desbordados)
+				if (d.hash == hash && d.getKey().equals(key))
+					return d;
+
+		return null;
+	}
+
+	/**
+	 * Coloca un nodo que no esta en la tabla, expulsando a los que ocupan sus
+	 * posiciones
+	 *
+	 * @param n el nodo a colocar
+	 * @return el nodo que se ha quedado sin sitio al agotar la cadena de
+	 *         expulsiones, o null si todos caben
+	 */
+	private Nodo<K, V> colocar(Nodo<K, V> n) {
+
+		for (int i = 0; i < maxExpulsiones; i++) {
+
+			int p1 = posicion1(n.hash);
+			Nodo<K, V> expulsado = array1[p1];
+			array1[p1] = n;
+			if (expulsado == null)
+				return null;
+
+			// El expulsado pasa a su posicion en el segundo array
+			int p2 = posicion2(expulsado.hash);
+			n = array2[p2];
+			array2[p2] = expulsado;
+			if (n == null)
+				return null;
+		}
+
+		return n;
+	}
+
+	/**
+	 * Crea un array de nodos vacio. Java no permite crear arrays de un tipo
+	 * generico, asi que se crea con comodines y se convierte solo aqui
+	 *
+	 * @param longitud el numero de posiciones
+	 * @return el array
+	 */
+	@SuppressWarnings("unchecked")
+	private Nodo<K, V>[] nuevoArray(int longitud) {
+		return (Nodo<K, V>[]) new HashMapCuckoo<?, ?>.Nodo<?, ?>[longitud];
+	}
+
+	/**
+	 * Vuelve a colocar todas las entradas con funciones hash nuevas. Si tras
+	 * varios intentos siguen sin caber se dobla el tamaño, salvo que la tabla
+	 * este poco ocupada o sobren pocas entradas, que se dejan desbordadas.
+	 *
+	 * @param nuevoTam  el numero de posiciones de cada array
+	 * @param pendiente un nodo que no esta en la tabla y hay que colocar, o null
+	 */
+	private void reconstruir(int nuevoTam, Nodo<K, V> pendiente) {
+
+		Nodo<K, V>[] anterior1 = array1;
+		Nodo<K, V>[] anterior2 = array2;
+		List<Nodo<K, V>> anteriorDesbordados = desbordados;
+		int intentos = 0;
+
+		while (true) {
+
+			if (intentos++ == MAX_RECONSTRUCCIONES) {
+				if (desbordados.size() <= MAX_DESBORDADOS
+						|| (float) tam / (2 * nuevoTam) < factorCarga / 2
+						|| nuevoTam >= Dispersion.MAX_POTENCIA_DOS)
+					return;
+				nuevoTam *= 2;
+				intentos = 1;
+			}
+
+			array1 = nuevoArray(nuevoTam);
+			array2 = nuevoArray(nuevoTam);
+			desbordados = new ArrayList<Nodo<K, V>>();
+			semilla1 = Dispersion.esparcir(semilla2 + 0x9e3779b9);
+			semilla2 = Dispersion.esparcir(semilla1 + 0x9e3779b9);
+			maxExpulsiones = calcularMaxExpulsiones(nuevoTam);
+
+			recolocar(anterior1);
+			recolocar(anterior2);
+			for (Nodo<K, V> n : anteriorDesbordados)
+				desbordar(colocar(n));
+			if (pendiente != null)
+				desbordar(colocar(pendiente));
+
+			if (desbordados.isEmpty())
+				return;
+		}
+	}
+
+	/**
+	 * Coloca en la tabla actual los nodos de un array anterior
+	 *
+	 * @param anterior el array
+	 */
+	private void recolocar(Nodo<K, V>[] anterior) {
+		for (int i = 0; i < anterior.length; i++)
+			if (anterior[i] != null)
+				desbordar(colocar(anterior[i]));
+	}
+
+	/**
+	 * Guarda en la lista de desbordamiento un nodo que no ha cabido
+	 *
+	 * @param n el nodo o null si ha cabido
+	 */
+	private void desbordar(Nodo<K, V> n) {
+		if (n != null)
+			desbordados.add(n);
+	}
+
+	/**
+	 * Longitud maxima de la cadena de expulsiones, proporcional al logaritmo del
+	 * tamaño
+	 *
+	 * @param longitud el numero de posiciones de cada array
+	 * @return el numero maximo de expulsiones
+	 */
+	private static int calcularMaxExpulsiones(int longitud) {
+		return 8 + 3 * Integer.numberOfTrailingZeros(longitud);
+	}
+
+	private int posicion1(int hash) {
+		return Dispersion.esparcir(hash ^ semilla1) & (array1.length - 1);
+	}
+
+	private int posicion2(int hash) {
+		return Dispersion.esparcir(hash ^ semilla2) & (array2.length - 1);
+	}
+
+	private String texto(Nodo<K, V> n) {
+		return n == null ? "NULL" : n.getKey() + ", " + n.getValue();
+	}
+
+	/**
+	 * ------------------------------------------------------
+	 * OBLIGATORIOS
+	 * ------------------------------------------------------
+	 */
+
+	@Override
+	public int size() {
+		return tam;
+	}
+
+	/**
+	 * Vacia el mapa y vuelve al tamaño inicial de los arrays
+	 */
+	@Override
+	public void clear() {
+		array1 = nuevoArray(longitudInicial);
+		array2 = nuevoArray(longitudInicial);
+		desbordados = new ArrayList<Nodo<K, V>>();
+		maxExpulsiones = calcularMaxExpulsiones(longitudInicial);
+		tam = 0;
+		modCount++;
+	}
+
+	/**
+	 * Obtiene una vista de las entradas del mapa. No se copia nada: la vista
+	 * refleja los cambios del mapa y su iterador recorre directamente los dos
+	 * arrays y la lista de desbordamiento.
+	 *
+	 * @return la vista de las entradas
+	 */
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		if (entradas == null)
+			entradas = new Entradas();
+		return entradas;
+	}
+
+	/**
+	 * Vista de las entradas del mapa
+	 */
+	private class Entradas extends AbstractSet<Entry<K, V>> {
+
+		@Override
+		public int size() {
+			return tam;
+		}
+
+		@Override
+		public Iterator<Entry<K, V>> iterator() {
+			return new Iterador();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof Entry) || ((Entry<?, ?>) o).getKey() == null)
+				return false;
+			Entry<?, ?> e = (Entry<?, ?>) o;
+			Nodo<K, V> n = buscar(e.getKey());
+			return n != null && Objects.equals(n.getValue(), e.getValue());
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if (!contains(o))
+				return false;
+			HashMapCuckoo.this.remove(((Entry<?, ?>) o).getKey());
+			return true;
+		}
+
+		@Override
+		public void clear() {
+			HashMapCuckoo.this.clear();
+		}
+	}
+
+	/**
+	 * Iterador que devuelve los propios nodos, sin crear ningun objeto por
+	 * entrada. Recorre el primer array, despues el segundo y por ultimo la
+	 * lista de desbordamiento. Quitar una entrada de los arrays solo vacia su
+	 * posicion; de la lista se quita desplazando las siguientes, asi que se
+	 * vuelve a mirar la misma posicion.
+	 *
+	 * Falla con ConcurrentModificationException si el mapa cambia por fuera del
+	 * iterador. Cambiar el valor de una clave no cuenta como cambio.
+	 */
+	private class Iterador implements Iterator<Entry<K, V>> {
+
+		private final Nodo<K, V>[] primero = array1;
+		private final Nodo<K, V>[] segundo = array2;
+		private final List<Nodo<K, V>> lista = desbordados;
+		/**
+		 * Siguiente posicion del recorrido que se examina: las del primer
+		 * array, despues las del segundo y despues las de la lista
+		 */
+		private int indice;
+		/**
+		 * Posicion del recorrido de la ultima entrada devuelta, o -1
+		 */
+		private int devuelta = -1;
+		private int modCountEsperado = modCount;
+
+		private int total() {
+			return primero.length + segundo.length + lista.size();
+		}
+
+		/**
+		 * @param i la posicion del recorrido
+		 * @return el nodo de esa posicion o null si esta vacia
+		 */
+		private Nodo<K, V> nodo(int i) {
+			if (i < primero.length)
+				return primero[i];
+			i -= primero.length;
+			if (i < segundo.length)
+				return segundo[i];
+			return lista.get(i - segundo.length);
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (indice < total() && nodo(indice) == null)
+				indice++;
+			return indice < total();
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			if (modCount != modCountEsperado)
+				throw new ConcurrentModificationException();
+			if (!hasNext())
+				throw new NoSuchElementException();
+			devuelta = indice;
+			return nodo(indice++);
+		}
+
+		@Override
+		public void remove() {
+			if (devuelta == -1)
+				throw new IllegalStateException();
+			if (modCount != modCountEsperado)
+				throw new ConcurrentModificationException();
+
+			int i = devuelta;
+			if (i < primero.length)
+				primero[i] = null;
+			else if ((i -= primero.length) < segundo.length)
+				segundo[i] = null;
+			else {
+				lista.remove(i - segundo.length);
+				indice = devuelta;
+			}
+			tam--;
+			modCountEsperado = ++modCount;
+			devuelta = -1;
+		}
+	}
+
+}
@@ -0,0 +1,574 @@
+package tablasHash;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Mapa de direccionamiento abierto al estilo SwissTable. Ademas de los arrays
+ * de claves y valores mantiene un byte de control por posicion con 7 bits del
+ * hash de la clave (o una marca de vacio o borrado). Los bytes de control van
+ * empaquetados de 8 en 8 en un long, de forma que cada sondeo compara un grupo
+ * de 8 posiciones a la vez con operaciones SWAR sobre el long.
+ *
+ * Solo se compara la clave completa cuando coinciden los 7 bits y el hash
+ * guardado de la posicion, asi que la mayoria de las busquedas fallidas no
+ * llegan a leer ninguna clave. El hash completo se guarda para no volver a
+ * llamar a hashCode al redimensionar.
+ *
+ * @param <K> clave
+ * @param <V> valor
+ */
+public class HashMapSwiss<K, V> extends AbstractMap<K, V> {
+
+	private static final int INIT_SIZE = 16;
+	private static final int GRUPO = 8;
+
+	/**
+	 * Bytes de control especiales. Los bytes de posiciones ocupadas tienen el
+	 * bit alto a 0 y guardan los 7 bits bajos del hash.
+	 */
+	private static final int VACIO = 0x80;
+	private static final int BORRADO = 0xFE;
+
+	private static final long UNOS = 0x0101010101010101L;
+	private static final long ALTOS = 0x8080808080808080L;
+	private static final long GRUPO_VACIO = UNOS * VACIO;
+
+	private int tam;
+	private int borrados;
+	private long control[];
+	private Object claves[];
+	private Object valores[];
+	/**
+	 * Hash mezclado de la clave de cada posicion
+	 */
+	private int hashes[];
+	/**
+	 * Ocupacion maxima, contando las posiciones borradas, antes de reconstruir
+	 */
+	private float factorCarga;
+	/**
+	 * Numero de posiciones al crear el mapa, al que se vuelve al vaciarlo
+	 */
+	private final int longitudInicial;
+	/**
+	 * Numero de cambios que mueven o quitan entradas, con el que los iteradores
+	 * detectan que el mapa se ha modificado por fuera de ellos
+	 */
+	private int modCount;
+	/**
+	 * Vista de las entradas, que se crea la primera vez que se pide
+	 */
+	private Set<Entry<K, V>> entradas;
+
+	/**
+	 * Entrada que lee y escribe directamente en los arrays del mapa mientras su
+	 * clave siga en la misma posicion. Si la entrada se quita o se mueve
+	 * conserva la clave y el ultimo valor leido
+	 */
+	protected class Entrada implements Entry<K, V> {
+
+		private final int pos;
+		private final K key;
+		private V val;
+
+		@SuppressWarnings("unchecked")
+		public Entrada(int pos) {
+			this.pos = pos;
+			this.key = (K) claves[pos];
+			this.val = (V) valores[pos];
+		}
+
+		/**
+		 * @return true si la clave sigue en la posicion de la entrada
+		 */
+		private boolean enSuSitio() {
+			return pos < claves.length && claves[pos] == key;
+		}
+
+		@Override
+		public K getKey() {
+			return key;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public V getValue() {
+			if (enSuSitio())
+				val = (V) valores[pos];
+			return val;
+		}
+
+		@Override
+		public V setValue(V arg0) {
+			V oldValue = getValue();
+			if (enSuSitio())
+				valores[pos] = arg0;
+			val = arg0;
+			return oldValue;
+		}
+
+	}
+
+	/**
+	 * ----------------------------------------------------
+	 * CONSTRUCTORES
+	 * ----------------------------------------------------
+	 */
+
+	public HashMapSwiss() {
+		this(INIT_SIZE);
+	}
+
+	public HashMapSwiss(int tam) {
+		this(tam, 0.875F);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param tam         el numero de posiciones inicial, que se redondea a una
+	 *                    potencia de dos de al menos un grupo de 8
+	 * @param factorCarga ocupacion maxima antes de crecer, entre 0 y 1
+	 */
+	public HashMapSwiss(int tam, float factorCarga) {
+
+		if (tam <= 0 || factorCarga <= 0 || factorCarga >= 1)
+			throw new IllegalArgumentException();
+
+		this.factorCarga = factorCarga;
+
+		longitudInicial = Math.max(GRUPO, Dispersion.potenciaDos(tam));
+		inicializar(longitudInicial);
+	}
+
+	/**
+	 * -----------------------------------------------------
+	 * CLASICOS
+	 * -----------------------------------------------------
+	 */
+
+	/**
+	 * Obtiene el valor asociado a una clave
+	 *
+	 * @param key la clave
+	 * @return el valor asociado o null si la clave no existe
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(Object key) {
+		int pos = buscarPosicion(key, Dispersion.esparcir(key.hashCode()));
+		return pos == -1 ? null : (V) valores[pos];
+	}
+
+	/**
+	 * Comprueba si una clave existe en el mapa
+	 *
+	 * @param key la clave
+	 * @return true si existe
+	 */
+	@Override
+	public boolean containsKey(Object key) {
+		return buscarPosicion(key, Dispersion.esparcir(key.hashCode())) != -1;
+	}
+
+	/**
+	 * Inserta un par de clave-valor en el mapa
+	 *
+	 * @param key   la clave
+	 * @param value el valor
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public V put(K key, V value) {
+
+		int hash = Dispersion.esparcir(key.hashCode());
+
+		// Si la clave existe machacamos con el nuevo valor
+		int pos = buscarPosicion(key, hash);
+		if (pos != -1) {
+			V oldValue = (V) valores[pos];
+			valores[pos] = value;
+			return oldValue;
+		}
+
+		pos = buscarHueco(hash);
+
+		// Si se ocupa una posicion vacia y se supera el factor de carga se
+		// reconstruye: creciendo si hay muchas entradas, o con el mismo tamaño
+		// para limpiar los borrados
+		if (leerControl(pos) == VACIO && (float) (tam + borrados + 1) / claves.length > factorCarga) {
+			if ((float) (tam + 1) / claves.length > factorCarga / 2)
+				redimensionar(claves.length * 2);
+			else
+				redimensionar(claves.length);
+			pos = buscarHueco(hash);
+		}
+
+		if (leerControl(pos) == BORRADO)
+			borrados--;
+
+		escribirControl(pos, hash & 0x7F);
+		claves[pos] = key;
+		valores[pos] = value;
+		hashes[pos] = hash;
+		tam++;
+		modCount++;
+
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V remove(Object key) {
+
+		int pos = buscarPosicion(key, Dispersion.esparcir(key.hashCode()));
+		if (pos == -1)
+			return null;
+
+		V value = (V) valores[pos];
+		eliminarPosicion(pos);
+		modCount++;
+
+		return value;
+	}
+
+	public String toString() {
+
+		StringBuilder s = new StringBuilder();
+
+		for (int i = 0; i < claves.length; i++) {
+			int c = leerControl(i);
+			if (c == VACIO)
+				s.append("v[" + i + "]={NULL}\n");
+			else if (c == BORRADO)
+				s.append("v[" + i + "]={BORRADO}\n");
+			else
+				s.append("v[" + i + "]={" + claves[i] + ", " + valores[i] + "} h=" + c + "\n");
+		}
+
+		return s.toString();
+	}
+
+	/**
+	 * ----------------------------------------------------------
+	 * UTILLERIA
+	 * ----------------------------------------------------------
+	 **/
+
+	/**
+	 * Obtiene la ocupacion actual del mapa
+	 *
+	 * @return la proporcion de posiciones ocupadas, entre 0 y 1
+	 */
+	public float getOcupacion() {
+		return (float) tam / claves.length;
+	}
+
+	/**
+	 * Obtiene la proporcion de posiciones marcadas como borradas
+	 *
+	 * @return la proporcion de posiciones borradas, entre 0 y 1
+	 */
+	public float getOcupacionBorrados() {
+		return (float) borrados / claves.length;
+	}
+
+	/**
+	 * Obtiene el numero de posiciones del array
+	 *
+	 * @return el numero de posiciones
+	 */
+	public int getCapacidad() {
+		return claves.length;
+	}
+
+	/**
+	 * Busca la posicion de una clave recorriendo los grupos de su secuencia de
+	 * sondeo. En cada grupo solo se comparan las claves cuyo byte de control
+	 * coincide con los 7 bits del hash, y la busqueda termina en el primer grupo
+	 * con alguna posicion vacia.
+	 *
+	 * @param key  la clave
+	 * @param hash el hash mezclado de la clave
+	 * @return la posicion de la clave o -1 si no existe
+	 */
+	private int buscarPosicion(Object key, int hash) {
+
+		int mascara = control.length - 1;
+		int grupo = (hash >>> 7) & mascara;
+
+		for (int intento = 1; intento <= control.length; intento++) {
+
+			long palabra = control[grupo];
+
+			for (long m = coincidir(palabra, hash & 0x7F); m != 0; m &= m - 1) {
+				int pos = grupo * GRUPO + (Long.numberOfTrailingZeros(m) >>> 3);
+				if (hashes[pos] == hash && key.equals(claves[pos]))
+					return pos;
+			}
+
+			if (coincidirVacio(palabra) != 0)
+				return -1;
+
+			// Exploracion cuadratica por grupos (numeros triangulares)
+			grupo = (grupo + intento) & mascara;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Busca la primera posicion vacia o borrada de la secuencia de sondeo de un
+	 * hash. Como el factor de carga es menor que 1 siempre existe.
+	 *
+	 * @param hash el hash mezclado
+	 * @return la posicion
+	 */
+	private int buscarHueco(int hash) {
+
+		int mascara = control.length - 1;
+		int grupo = (hash >>> 7) & mascara;
+
+		for (int intento = 1;; intento++) {
+
+			long m = coincidirVacioOBorrado(control[grupo]);
+			if (m != 0)
+				return grupo * GRUPO + (Long.numberOfTrailingZeros(m) >>> 3);
+
+			grupo = (grupo + intento) & mascara;
+		}
+	}
+
+	/**
+	 * Quita la entrada de una posicion ocupada
+	 *
+	 * @param pos la posicion
+	 */
+	private void eliminarPosicion(int pos) {
+
+		claves[pos] = null;
+		valores[pos] = null;
+		tam--;
+
+		// Si el grupo tiene alguna posicion vacia ninguna busqueda ha pasado de
+		// largo por el, asi que la posicion puede quedar vacia en vez de borrada
+		if (coincidirVacio(control[pos / GRUPO]) != 0) {
+			escribirControl(pos, VACIO);
+		} else {
+			escribirControl(pos, BORRADO);
+			borrados++;
+		}
+	}
+
+	/**
+	 * Marca los bytes de un grupo iguales a un valor de 7 bits. Puede dar algun
+	 * falso positivo justo por encima de una coincidencia real, que se descarta
+	 * al comparar la clave.
+	 *
+	 * @param palabra el grupo de bytes de control
+	 * @param h       el valor buscado
+	 * @return un long con el bit alto de cada byte coincidente a 1
+	 */
+	private static long coincidir(long palabra, int h) {
+		long x = palabra ^ (UNOS * h);
+		return (x - UNOS) & ~x & ALTOS;
+	}
+
+	/**
+	 * Marca los bytes vacios de un grupo: bit alto a 1 y el segundo bit a 0
+	 */
+	private static long coincidirVacio(long palabra) {
+		return palabra & ~(palabra << 6) & ALTOS;
+	}
+
+	/**
+	 * Marca los bytes vacios o borrados de un grupo: bit alto a 1 y bit bajo a 0
+	 */
+	private static long coincidirVacioOBorrado(long palabra) {
+		return palabra & ~(palabra << 7) & ALTOS;
+	}
+
+	private int leerControl(int pos) {
+		return (int) (control[pos / GRUPO] >>> ((pos % GRUPO) * 8)) & 0xFF;
+	}
+
+	private void escribirControl(int pos, int c) {
+		int desplazamiento = (pos % GRUPO) * 8;
+		control[pos / GRUPO] = (control[pos / GRUPO] & ~(0xFFL << desplazamiento))
+				| ((long) c << desplazamiento);
+	}
+
+	private void inicializar(int longitud) {
+
+		control = new long[longitud / GRUPO];
+		for (int i = 0; i < control.length; i++)
+			control[i] = GRUPO_VACIO;
+		claves = new Object[longitud];
+		valores = new Object[longitud];
+		hashes = new int[longitud];
+		borrados = 0;
+	}
+
+	/**
+	 * Vuelve a colocar todas las entradas en un array nuevo con sus hashes
+	 * guardados, descartando los borrados
+	 *
+	 * @param nuevoTam el numero de posiciones, potencia de dos
+	 */
+	private void redimensionar(int nuevoTam) {
+
+		long[] controlAnterior = control;
+		Object[] clavesAnteriores = claves;
+		Object[] valoresAnteriores = valores;
+		int[] hashesAnteriores = hashes;
+
+		inicializar(nuevoTam);
+
+		for (int i = 0; i < clavesAnteriores.length; i++) {
+
+			int c = (int) (controlAnterior[i / GRUPO] >>> ((i % GRUPO) * 8)) & 0xFF;
+			if (c == VACIO || c == BORRADO)
+				continue;
+
+			int pos = buscarHueco(hashesAnteriores[i]);
+			escribirControl(pos, c);
+			claves[pos] = clavesAnteriores[i];
+			valores[pos] = valoresAnteriores[i];
+			hashes[pos] = hashesAnteriores[i];
+		}
+	}
+
+	/**
+	 * ------------------------------------------------------
+	 * OBLIGATORIOS
+	 * ------------------------------------------------------
+	 */
+
+	@Override
+	public int size() {
+		return tam;
+	}
+
+	/**
+	 * Vacia el mapa y vuelve al tamaño inicial del array
+	 */
+	@Override
+	public void clear() {
+		inicializar(longitudInicial);
+		tam = 0;
+		modCount++;
+	}
+
+	/**
+	 * Obtiene una vista de las entradas del mapa. No se copia nada: la vista
+	 * refleja los cambios del mapa y su iterador recorre directamente los bytes
+	 * de control, creando la entrada de cada posicion ocupada al devolverla.
+	 *
+	 * @return la vista de las entradas
+	 */
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		if (entradas == null)
+			entradas = new Entradas();
+		return entradas;
+	}
+
+	/**
+	 * Vista de las entradas del mapa
+	 */
+	private class Entradas extends AbstractSet<Entry<K, V>> {
+
+		@Override
+		public int size() {
+			return tam;
+		}
+
+		@Override
+		public Iterator<Entry<K, V>> iterator() {
+			return new Iterador();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof Entry) || ((Entry<?, ?>) o).getKey() == null)
+				return false;
+			Entry<?, ?> e = (Entry<?, ?>) o;
+			int pos = buscarPosicion(e.getKey(), Dispersion.esparcir(e.getKey().hashCode()));
+			return pos != -1 && Objects.equals(valores[pos], e.getValue());
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if (!contains(o))
+				return false;
+			HashMapSwiss.this.remove(((Entry<?, ?>) o).getKey());
+			return true;
+		}
+
+		@Override
+		public void clear() {
+			HashMapSwiss.this.clear();
+		}
+	}
+
+	/**
+	 * Iterador que recorre el array en orden saltando las posiciones vacias o
+	 * borradas. Quitar una entrada solo cambia su byte de control, sin mover
+	 * ninguna otra.
+	 *
+	 * Falla con ConcurrentModificationException si el mapa cambia por fuera del
+	 * iterador. Cambiar el valor de una clave no cuenta como cambio.
+	 */
+	private class Iterador implements Iterator<Entry<K, V>> {
+
+		/**
+		 * Siguiente posicion que se examina
+		 */
+		private int indice;
+		/**
+		 * Posicion de la ultima entrada devuelta, o -1
+		 */
+		private int devuelta = -1;
+		private int modCountEsperado = modCount;
+
+		@Override
+		public boolean hasNext() {
+			while (indice < claves.length) {
+				int c = leerControl(indice);
+				if (c != VACIO && c != BORRADO)
+					break;
+				indice++;
+			}
+			return indice < claves.length;
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			if (modCount != modCountEsperado)
+				throw new ConcurrentModificationException();
+			if (!hasNext())
+				throw new NoSuchElementException();
+			devuelta = indice;
+			return new Entrada(indice++);
+		}
+
+		@Override
+		public void remove() {
+			if (devuelta == -1)
+				throw new IllegalStateException();
+			if (modCount != modCountEsperado)
+				throw new ConcurrentModificationException();
+
+			eliminarPosicion(devuelta);
+			modCountEsperado = ++modCount;
+			devuelta = -1;
+		}
+	}
+
+}
@@ -0,0 +1,470 @@
+package tablasHash;
+
+/**
+ * Mapa de int a int con direccionamiento abierto sobre dos arrays paralelos de
+ * claves y valores, con las mismas estrategias de exploracion que
+ * {@link MultiHash}. No crea ningun objeto por entrada ni al consultar o
+ * insertar, asi que cada posicion ocupa 8 bytes frente a los de un Nodo con
+ * dos Integer.
+ *
+ * Las posiciones vacias y borradas se marcan con dos claves centinela. Si se
+ * insertan esas mismas claves se guardan aparte, fuera de los arrays.
+ */
+public class IntIntMap {
+
+	/**
+	 * Valor que devuelven get, put y remove cuando la clave no existe
+	 */
+	public static final int AUSENTE = 0;
+
+	private static final int INIT_SIZE = 16;
+
+	/**
+	 * Claves centinela de las posiciones vacias y borradas
+	 */
+	private static final int VACIA = 0;
+	private static final int BORRADA = Integer.MIN_VALUE;
+
+	private int tam;
+	private int borrados;
+	private int claves[];
+	private int valores[];
+
+	/**
+	 * Entradas cuyas claves coinciden con los centinelas
+	 */
+	private boolean hayVacia;
+	private int valorVacia;
+	private boolean hayBorrada;
+	private int valorBorrada;
+
+	/**
+	 * Ocupacion maxima (contando las posiciones borradas) antes de crecer
+	 */
+	private float factorCarga;
+	/**
+	 * Factor por el que se multiplica el tamaño del array al crecer
+	 */
+	private float factorCrecimiento;
+	/**
+	 * Si el array tiene un tamaño potencia de dos y se indexa con mascara
+	 */
+	private boolean potenciaDos;
+	/**
+	 * Estrategia de exploracion, fija desde la construccion del mapa
+	 */
+	private final EstrategiaExploracion estrategia;
+	private float maxBorrados = 0.25F;
+
+	/**
+	 * ----------------------------------------------------
+	 * CONSTRUCTORES
+	 * ----------------------------------------------------
+	 */
+
+	public IntIntMap() {
+		this("EXPL");
+	}
+
+	public IntIntMap(String dispersion) {
+		this(dispersion, INIT_SIZE, 0.75F, 2F, true);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param dispersion        el metodo de dispersion ("EXPL", "CUAD", "COCI",
+	 *                          "DOBL" o uno registrado en MultiHash)
+	 * @param tam               el tamaño inicial del array
+	 * @param factorCarga       ocupacion maxima antes de crecer, entre 0 y 1
+	 * @param factorCrecimiento factor por el que crece el array, mayor que 1
+	 * @param potenciaDos       si el tamaño del array se redondea a potencias de
+	 *                          dos y las posiciones se calculan con mascara
+	 */
+	public IntIntMap(String dispersion, int tam, float factorCarga, float factorCrecimiento, boolean potenciaDos) {
+		this(MultiHash.getEstrategia(dispersion), tam, factorCarga, factorCrecimiento, potenciaDos);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param estrategia        la estrategia de exploracion
+	 * @param tam               el tamaño inicial del array
+	 * @param factorCarga       ocupacion maxima antes de crecer, entre 0 y 1
+	 * @param factorCrecimiento factor por el que crece el array, mayor que 1
+	 * @param potenciaDos       si el tamaño del array se redondea a potencias de
+	 *                          dos y las posiciones se calculan con mascara
+	 */
+	public IntIntMap(EstrategiaExploracion estrategia, int tam, float factorCarga, float factorCrecimiento,
+			boolean potenciaDos) {
+
+		if (estrategia == null || tam <= 0 || factorCarga <= 0 || factorCarga >= 1 || factorCrecimiento <= 1)
+			throw new IllegalArgumentException();
+
+		this.estrategia = estrategia;
+		this.factorCarga = factorCarga;
+		this.factorCrecimiento = factorCrecimiento;
+		this.potenciaDos = potenciaDos;
+
+		inicializar(potenciaDos ? Dispersion.potenciaDos(tam) : tam);
+	}
+
+	/**
+	 * -----------------------------------------------------
+	 * CLASICOS
+	 * -----------------------------------------------------
+	 */
+
+	/**
+	 * Obtiene el valor asociado a una clave
+	 *
+	 * @param key la clave
+	 * @return el valor asociado o {@link #AUSENTE} si la clave no existe
+	 */
+	public int get(int key) {
+		return getOrDefault(key, AUSENTE);
+	}
+
+	/**
+	 * Obtiene el valor asociado a una clave
+	 *
+	 * @param key       la clave
+	 * @param porDefecto el valor a devolver si la clave no existe
+	 * @return el valor asociado o porDefecto
+	 */
+	public int getOrDefault(int key, int porDefecto) {
+
+		if (key == VACIA)
+			return hayVacia ? valorVacia : porDefecto;
+		if (key == BORRADA)
+			return hayBorrada ? valorBorrada : porDefecto;
+
+		int pos = buscarPosicion(key);
+		return pos == -1 ? porDefecto : valores[pos];
+	}
+
+	/**
+	 * Comprueba si una clave existe en el mapa
+	 *
+	 * @param key la clave
+	 * @return true si existe
+	 */
+	public boolean containsKey(int key) {
+
+		if (key == VACIA)
+			return hayVacia;
+		if (key == BORRADA)
+			return hayBorrada;
+
+		return buscarPosicion(key) != -1;
+	}
+
+	/**
+	 * Inserta un par de clave-valor en el mapa
+	 *
+	 * @param key   la clave
+	 * @param value el valor
+	 * @return el valor anterior o {@link #AUSENTE} si la clave no existia
+	 */
+	public int put(int key, int value) {
+
+		if (key == VACIA) {
+			int anterior = hayVacia ? valorVacia : AUSENTE;
+			hayVacia = true;
+			valorVacia = value;
+			return anterior;
+		}
+		if (key == BORRADA) {
+			int anterior = hayBorrada ? valorBorrada : AUSENTE;
+			hayBorrada = true;
+			valorBorrada = value;
+			return anterior;
+		}
+
+		// Se recorre la secuencia de dispersion hasta encontrar la clave
+		// o la primera posicion vacia, recordando el primer borrado
+		int hash = hash(key);
+		int libre = -1;
+		for (int intento = 0; intento < claves.length; intento++) {
+
+			int currPos = dispersion(hash, intento);
+			int k = claves[currPos];
+
+			if (k == VACIA) {
+				if (libre == -1)
+					libre = currPos;
+				break;
+			}
+
+			if (k == BORRADA) {
+				if (libre == -1)
+					libre = currPos;
+				continue;
+			}
+
+			// Si la clave existe machacamos con el nuevo valor
+			if (k == key) {
+				int anterior = valores[currPos];
+				valores[currPos] = value;
+				return anterior;
+			}
+		}
+
+		// insertamos una entrada nueva
+		// ----------------------------
+
+		// Si la secuencia de dispersion no alcanza ningun hueco hay que crecer
+		if (libre == -1) {
+			redimensionar(tamCrecimiento(claves.length));
+			return put(key, value);
+		}
+
+		// Si ocupar una posicion vacia supera el factor de carga se crece, o
+		// basta con compactar si la mayor parte de la ocupacion son borrados
+		if (claves[libre] == VACIA && (float) (tam + borrados + 1) / claves.length > factorCarga) {
+			if ((float) (tam + 1) / claves.length > factorCarga)
+				redimensionar(tamCrecimiento(claves.length));
+			else
+				redimensionar(claves.length);
+			return put(key, value);
+		}
+
+		if (claves[libre] == BORRADA)
+			borrados--;
+
+		claves[libre] = key;
+		valores[libre] = value;
+		tam++;
+
+		return AUSENTE;
+	}
+
+	/**
+	 * Elimina una clave del mapa
+	 *
+	 * @param key la clave
+	 * @return el valor que tenia asociado o {@link #AUSENTE} si no existia
+	 */
+	public int remove(int key) {
+
+		if (key == VACIA) {
+			int anterior = hayVacia ? valorVacia : AUSENTE;
+			hayVacia = false;
+			return anterior;
+		}
+		if (key == BORRADA) {
+			int anterior = hayBorrada ? valorBorrada : AUSENTE;
+			hayBorrada = false;
+			return anterior;
+		}
+
+		int pos = buscarPosicion(key);
+		if (pos == -1)
+			return AUSENTE;
+
+		// Se marca la posicion como borrada para no cortar la secuencia de
+		// dispersion de otras claves
+		int value = valores[pos];
+		claves[pos] = BORRADA;
+		borrados++;
+		tam--;
+
+		if ((float) borrados / claves.length > maxBorrados)
+			redimensionar(claves.length);
+
+		return value;
+	}
+
+	public int size() {
+		return tam + (hayVacia ? 1 : 0) + (hayBorrada ? 1 : 0);
+	}
+
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	/**
+	 * Elimina todas las entradas conservando el tamaño del array
+	 */
+	public void clear() {
+		inicializar(claves.length);
+		hayVacia = false;
+		hayBorrada = false;
+	}
+
+	public String toString() {
+
+		StringBuilder s = new StringBuilder();
+
+		if (hayVacia)
+			s.append("{" + VACIA + ", " + valorVacia + "}\n");
+		if (hayBorrada)
+			s.append("{" + BORRADA + ", " + valorBorrada + "}\n");
+
+		for (int i = 0; i < claves.length; i++) {
+
+			if (claves[i] == VACIA) {
+				s.append("v[" + i + "]={NULL}\n");
+			} else if (claves[i] == BORRADA) {
+				s.append("v[" + i + "]={BORRADO}\n");
+			} else {
+				s.append("v[" + i + "]={" + claves[i] + ", " + valores[i] + "}\n");
+			}
+		}
+		return s.toString();
+	}
+
+	/**
+	 * ----------------------------------------------------------
+	 * UTILLERIA
+	 * ----------------------------------------------------------
+	 **/
+
+	/**
+	 * Obtiene la ocupacion actual del array
+	 *
+	 * @return la proporcion de posiciones con entradas, entre 0 y 1
+	 */
+	public float getOcupacion() {
+		return (float) tam / claves.length;
+	}
+
+	/**
+	 * Obtiene la proporcion de posiciones marcadas como borradas
+	 *
+	 * @return la proporcion de posiciones borradas, entre 0 y 1
+	 */
+	public float getOcupacionBorrados() {
+		return (float) borrados / claves.length;
+	}
+
+	/**
+	 * Obtiene el tamaño actual del array
+	 *
+	 * @return el numero de posiciones del array
+	 */
+	public int getCapacidad() {
+		return claves.length;
+	}
+
+	/**
+	 * Tamaño al que crece un array de un tamaño dado
+	 *
+	 * @param tamActual el tamaño de partida
+	 * @return el nuevo tamaño
+	 */
+	private int tamCrecimiento(int tamActual) {
+		int nuevoTam = Math.max(tamActual + 1, (int) (tamActual * factorCrecimiento));
+		return potenciaDos ? Dispersion.potenciaDos(nuevoTam) : nuevoTam;
+	}
+
+	private void inicializar(int longitud) {
+		claves = new int[longitud];
+		valores = new int[longitud];
+		tam = 0;
+		borrados = 0;
+	}
+
+	/**
+	 * Recoloca las entradas existentes en unos arrays nuevos, descartando las
+	 * posiciones borradas. Si la secuencia de dispersion de alguna clave no
+	 * alcanza ningun hueco se sigue creciendo.
+	 *
+	 * @param nuevoTam el tamaño de los nuevos arrays
+	 */
+	private void redimensionar(int nuevoTam) {
+
+		int[] clavesAnteriores = claves;
+		int[] valoresAnteriores = valores;
+		int tamAnterior = tam;
+		boolean recolocado = false;
+
+		while (!recolocado) {
+
+			inicializar(nuevoTam);
+			recolocado = true;
+
+			for (int i = 0; i < clavesAnteriores.length && recolocado; i++) {
+				int k = clavesAnteriores[i];
+				if (k != VACIA && k != BORRADA) {
+					int pos = buscarHueco(k);
+					if (pos == -1) {
+						recolocado = false;
+					} else {
+						claves[pos] = k;
+						valores[pos] = valoresAnteriores[i];
+					}
+				}
+			}
+
+			nuevoTam = tamCrecimiento(nuevoTam);
+		}
+
+		tam = tamAnterior;
+	}
+
+	/**
+	 * Busca la primera posicion vacia de la secuencia de dispersion de una clave
+	 *
+	 * @param key la clave
+	 * @return la posicion vacia o -1 si no se alcanza ninguna
+	 */
+	private int buscarHueco(int key) {
+
+		int hash = hash(key);
+		for (int intento = 0; intento < claves.length; intento++) {
+			int currPos = dispersion(hash, intento);
+			if (claves[currPos] == VACIA)
+				return currPos;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Busca la posicion de una clave recorriendo su secuencia de dispersion. La
+	 * busqueda termina en cuanto se encuentra la clave o la primera posicion vacia
+	 *
+	 * @param key la clave, distinta de los centinelas
+	 * @return la posicion de la clave o -1 si no existe
+	 */
+	private int buscarPosicion(int key) {
+
+		int hash = hash(key);
+		for (int intento = 0; intento < claves.length; intento++) {
+
+			int currPos = dispersion(hash, intento);
+			int k = claves[currPos];
+
+			if (k == key)
+				return currPos;
+			if (k == VACIA)
+				return -1;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Posicion del intento-esimo sondeo de la secuencia de dispersion
+	 *
+	 * @param hash    el hash de la clave, calculado con {@link #hash(int)}
+	 * @param intento el numero de sondeo
+	 * @return la posicion
+	 */
+	private int dispersion(int hash, int intento) {
+		return estrategia.posicion(hash, intento, claves.length, potenciaDos);
+	}
+
+	/**
+	 * Hash de una clave con el que se recorre su secuencia de dispersion. En el
+	 * modo potencia de dos se mezclan sus bits
+	 *
+	 * @param key la clave
+	 * @return el hash
+	 */
+	private int hash(int key) {
+		return potenciaDos ? Dispersion.esparcir(key) : key;
+	}
+
+}
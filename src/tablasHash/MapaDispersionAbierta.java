@@ -2,12 +2,21 @@ package tablasHash;
 
 
 import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
 
 
 /**
@@ -35,10 +44,98 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 	 * Lista que contiene las cubetas
 	 */
 	private List<EntradaMultiple<K, V>> contenedor;
+	/**
+	 * Numero de elementos que hay en el mapa, contando los que quedan en el contenedor anterior
+	 */
+	private int elementos = 0;
 	/**
 	 * El factor de crecimiento cuando se redimensiona
 	 */
 	private float porcentajeCrecimiento = 1.5F;
+	/**
+	 * Elementos por cubeta a partir de los cuales crece el contenedor, o 0 si crece cuando se llena
+	 * alguna cubeta
+	 */
+	private float factorCarga = 0;
+	/**
+	 * Si el contenedor crece dividiendo una cubeta cada vez (dispersion lineal) en vez de
+	 * recolocarse entero
+	 */
+	private boolean lineal = false;
+	/**
+	 * En dispersion lineal, numero de cubetas con el que se creo el mapa
+	 */
+	private int cubetasIniciales;
+	/**
+	 * En dispersion lineal, numero de veces que se ha duplicado el numero de cubetas inicial
+	 */
+	private int nivel = 0;
+	/**
+	 * En dispersion lineal, siguiente cubeta que se divide. Las anteriores ya se han dividido en
+	 * este nivel y se direccionan con el doble de cubetas
+	 */
+	private int puntero = 0;
+	/**
+	 * Si el numero de cubetas es potencia de dos y se indexa con mascara
+	 */
+	private boolean potenciaDos = false;
+	/**
+	 * Si al redimensionar las cubetas se migran poco a poco en cada operacion en vez de todas de golpe
+	 */
+	private boolean incremental = false;
+	/**
+	 * Cubetas del contenedor anterior que se migran como minimo en cada operacion
+	 */
+	private static final int CUBETAS_MIGRACION = 2;
+	/**
+	 * Cubetas del contenedor anterior que se migran en cada operacion, calculadas para terminar
+	 * antes de que el contenedor actual tenga que volver a crecer
+	 */
+	private int cubetasMigracion = CUBETAS_MIGRACION;
+	/**
+	 * En modo incremental, contenedor del que se estan migrando las cubetas o null si no hay
+	 * ninguna migracion en curso. Solo se consulta y se vacia, las entradas nuevas van siempre
+	 * al contenedor actual
+	 */
+	private List<EntradaMultiple<K, V>> contenedorAnterior;
+	/**
+	 * Siguiente cubeta del contenedor anterior que se migra
+	 */
+	private int migradas;
+	/**
+	 * Numero de entradas a partir del cual las redimensiones se reparten entre los hilos de un
+	 * ForkJoinPool
+	 */
+	private int umbralParalelo = 1 << 16;
+	/**
+	 * Pool en el que se reparten las redimensiones paralelas
+	 */
+	private ForkJoinPool pool = ForkJoinPool.commonPool();
+	/**
+	 * Maximo de trozos en los que se parte el contenedor en una redimension paralela
+	 */
+	private static final int MAX_TROZOS = 64;
+	/**
+	 * Elementos a partir de los cuales una cubeta indexa sus claves con un arbol
+	 */
+	private static final int UMBRAL_ARBOL = 8;
+	/**
+	 * Elementos por debajo de los cuales una cubeta con arbol vuelve a buscar recorriendo la lista
+	 */
+	private static final int UMBRAL_LISTA = 6;
+	/**
+	 * Claves que getAll y putAll procesan a la vez, fase a fase
+	 */
+	private static final int GRUPO_LOTE = 16;
+	/**
+	 * Numero de cambios que mueven o quitan entradas, con el que los iteradores detectan que el
+	 * mapa se ha modificado por fuera de ellos
+	 */
+	private int modCount = 0;
+	/**
+	 * Vista de las entradas, que se crea la primera vez que se pide
+	 */
+	private Set<Entry<K, V>> entradas;
 
 
 	/* CONSTRUCTORES */
@@ -58,12 +155,79 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 		
 	}
 
+	/**
+	 * Constructor
+	 * @param tamanoCubeta el tamaño de la cubeta
+	 * @param numeroCubeta el numero de cubetas, que se redondea a potencia de dos si se usa mascara
+	 * @param potenciaDos si el numero de cubetas es potencia de dos y la cubeta se calcula con
+	 * mascara sobre el hash mezclado en vez de con el resto de la division
+	 */
+	public MapaDispersionAbierta(int tamanoCubeta, int numeroCubeta, boolean potenciaDos) {
+		this(tamanoCubeta, potenciaDos ? Dispersion.potenciaDos(numeroCubeta) : numeroCubeta);
+		this.potenciaDos = potenciaDos;
+	}
+
+	/**
+	 * Constructor
+	 * @param tamanoCubeta el tamaño de la cubeta
+	 * @param numeroCubeta el numero de cubetas, que se redondea a potencia de dos si se usa mascara
+	 * @param potenciaDos si el numero de cubetas es potencia de dos y se indexa con mascara
+	 * @param incremental si al redimensionar se conserva el contenedor anterior y sus cubetas se
+	 * migran unas pocas en cada put o remove, de forma que ninguna operacion tenga que recolocar
+	 * el mapa entero. Mientras dura la migracion las busquedas consultan los dos contenedores
+	 */
+	public MapaDispersionAbierta(int tamanoCubeta, int numeroCubeta, boolean potenciaDos, boolean incremental) {
+		this(tamanoCubeta, numeroCubeta, potenciaDos);
+		this.incremental = incremental;
+	}
+
+	/**
+	 * Constructor
+	 * @param tamanoCubeta el tamaño de la cubeta, que solo limita las cubetas si factorCarga es 0
+	 * @param numeroCubeta el numero de cubetas, que se redondea a potencia de dos si se usa mascara
+	 * @param potenciaDos si el numero de cubetas es potencia de dos y se indexa con mascara
+	 * @param incremental si al redimensionar las cubetas se migran poco a poco
+	 * @param factorCarga si es mayor que 0 el contenedor crece cuando el numero medio de elementos
+	 * por cubeta lo supera y las cubetas no tienen limite, de forma que la memoria crece con el
+	 * numero de elementos y no con las colisiones. Si es 0 crece cuando se llena alguna cubeta
+	 */
+	public MapaDispersionAbierta(int tamanoCubeta, int numeroCubeta, boolean potenciaDos, boolean incremental,
+			float factorCarga) {
+		this(tamanoCubeta, numeroCubeta, potenciaDos, incremental);
+		if (factorCarga < 0)
+			throw new IllegalArgumentException();
+		this.factorCarga = factorCarga;
+	}
+
+	/**
+	 * Constructor
+	 * @param tamanoCubeta el tamaño de la cubeta
+	 * @param numeroCubeta el numero de cubetas, que se redondea a potencia de dos si se usa mascara
+	 * @param potenciaDos si el numero de cubetas es potencia de dos y se indexa con mascara
+	 * @param incremental si al redimensionar las cubetas se migran poco a poco. No se puede usar
+	 * con dispersion lineal, que nunca redimensiona
+	 * @param factorCarga si es mayor que 0 el contenedor crece cuando el numero medio de elementos
+	 * por cubeta lo supera, si es 0 cuando se llena alguna cubeta
+	 * @param lineal si el contenedor crece con dispersion lineal: cada vez que hay que crecer se
+	 * divide solo la cubeta del puntero de division, que reparte sus entradas entre ella y una
+	 * nueva al final del contenedor. Las cubetas pueden superar su tamaño hasta que les toque
+	 * dividirse, y el mapa nunca se recoloca entero
+	 */
+	public MapaDispersionAbierta(int tamanoCubeta, int numeroCubeta, boolean potenciaDos, boolean incremental,
+			float factorCarga, boolean lineal) {
+		this(tamanoCubeta, numeroCubeta, potenciaDos, incremental, factorCarga);
+		if (lineal && incremental)
+			throw new IllegalArgumentException();
+		this.lineal = lineal;
+		this.cubetasIniciales = this.numeroCubeta;
+	}
+
 	/**
 	 * Constructor
 	 */
 	public MapaDispersionAbierta() {
 		contenedor = new ArrayList<EntradaMultiple<K, V>>();
-		for (int i = 0; i < tamanoCubeta; i++) 
+		for (int i = 0; i < numeroCubeta; i++) 
 			contenedor.add(new EntradaMultiple<K, V>());	
 	}
 	
@@ -77,25 +241,55 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 	 */
 	@Override
 	public V put (K key, V value) {
+		return put(key, value, hash(key));
+	}
+	
+	/**
+	 * Inserta un par de clave-valor con el hash calculado de antemano en una ClaveDispersada, sin
+	 * llamar a hashCode
+	 * @param clave la clave con su hash
+	 * @param value el valor
+	 * @return el valor anterior o null si la clave no existia
+	 */
+	public V put(ClaveDispersada<? extends K> clave, V value) {
+		return put(clave.getClave(), value, clave.hash(potenciaDos));
+	}
+	
+	/**
+	 * Obtiene el valor de una clave con el hash calculado de antemano en una ClaveDispersada, sin
+	 * llamar a hashCode
+	 * @param clave la clave con su hash
+	 * @return el valor de esa clave o null si no existe
+	 */
+	public V get(ClaveDispersada<?> clave) {
+		long pos = localizar(clave.getClave(), clave.hash(potenciaDos));
+		return pos != -1 ? cubeta(pos).getValue((int) pos) : null;
+	}
+	
+	/**
+	 * Inserta un par de clave-valor con el hash de la clave ya calculado
+	 * @param key la clave
+	 * @param value el valor
+	 * @param hash el hash de la clave
+	 * @return el valor anterior o null si la clave no existia
+	 */
+	private V put(K key, V value, int hash) {
 
-		V oldValue = get(key);		
-		EntradaMultiple<K,V> cubeta = this.contenedor.get(getPosicionCubeta(key));
+		V oldValue = null;
+		long pos = localizar(key, hash);
 		
 		//Si la clave existe machacamos con el nuevo valor
-		if (oldValue!=null) 			
-			cubeta.update(cubeta.findKey(key), value);
+		if (pos != -1) {
+			EntradaMultiple<K, V> cubeta = cubeta(pos);
+			oldValue = cubeta.getValue((int) pos);
+			cubeta.update((int) pos, value);
+		}
 		
 		//La clave no existe, insertamos
-		else {
-			
-			//Si la cubeta esta llena hay que redimensionar el contenedor
-			if (cubeta.elementosCubeta == tamanoCubeta) {
-				redimensionar(tamanoCubeta, (int) (numeroCubeta*porcentajeCrecimiento));
-				put(key, value);
-			}
-			else cubeta.add(key, value);
-			
-		}
+		else colocar(key, value, hash);
+		
+		migrar(cubetasMigracion);
+		
 		return oldValue;
 	}
 	
@@ -107,8 +301,11 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 	@Override
 	public V get(Object key) {
 		
-		EntradaMultiple<K, V> cubeta = contenedor.get(getPosicionCubeta(key));
-		int indice = cubeta.findKey(key);
+		int hash = hash(key);
+		EntradaMultiple<K, V> cubeta = contenedor.get(getPosicionCubeta(hash));
+		int indice = cubeta.findKey(key, hash);
+		if (indice == -1 && contenedorAnterior != null && (cubeta = getCubetaAnterior(hash)) != null)
+			indice = cubeta.findKey(key, hash);
 		if (indice != -1) return cubeta.getValue(indice);
 		else return null;
 
@@ -122,51 +319,481 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 	@Override
 	public V remove(Object key) {
 		
-		V valor = null;
-		EntradaMultiple<K, V> cubeta = contenedor.get(getPosicionCubeta(key));
-		int indice = cubeta.findKey(key);
-		if (indice != -1) {
-			valor = cubeta.getValue(indice);
-			cubeta.remove(indice);
-		}
+		long pos = localizar(key, hash(key));
+		V valor = pos != -1 ? eliminar(pos) : null;
+		migrar(cubetasMigracion);
 		return valor;
 	}
 	
 	/**
-	 *Obtiene las entras que contiene el mapa
-	 *@return un set con las entradas 
+	 * Obtiene el valor de una clave o un valor por defecto si la clave no existe
+	 * @param key la clave
+	 * @param defaultValue el valor por defecto
+	 * @return el valor de la clave, que puede ser null, o el valor por defecto
 	 */
 	@Override
-	public Set<Entry<K, V>> entrySet() {
+	public V getOrDefault(Object key, V defaultValue) {
+		long pos = localizar(key, hash(key));
+		return pos != -1 ? cubeta(pos).getValue((int) pos) : defaultValue;
+	}
+	
+	/**
+	 * Inserta un par si la clave no existe o tiene valor null, buscando la clave una sola vez
+	 * @param key la clave
+	 * @param value el valor
+	 * @return el valor que tenia la clave o null si no existia
+	 */
+	@Override
+	public V putIfAbsent(K key, V value) {
+		
+		int hash = hash(key);
+		long pos = localizar(key, hash);
+		V actual = pos != -1 ? cubeta(pos).getValue((int) pos) : null;
+		if (actual != null)
+			return actual;
+		
+		if (pos != -1)
+			cubeta(pos).update((int) pos, value);
+		else
+			colocar(key, value, hash);
+		migrar(cubetasMigracion);
+		return null;
+	}
+	
+	/**
+	 * Calcula el valor de una clave que no existe o tiene valor null, buscando la clave una sola vez
+	 * @param key la clave
+	 * @param mappingFunction la funcion que calcula el valor a partir de la clave. Si devuelve
+	 * null no se cambia nada
+	 * @return el valor que queda asociado a la clave
+	 */
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		
+		if (mappingFunction == null)
+			throw new NullPointerException();
+		
+		int hash = hash(key);
+		long pos = localizar(key, hash);
+		V actual = pos != -1 ? cubeta(pos).getValue((int) pos) : null;
+		if (actual != null)
+			return actual;
+		
+		int esperado = modCount;
+		V nuevo = mappingFunction.apply(key);
+		comprobarCambios(esperado);
+		
+		return nuevo != null ? guardar(key, hash, pos, nuevo) : null;
+	}
+	
+	/**
+	 * Recalcula el valor de una clave que existe con valor distinto de null, buscando la clave
+	 * una sola vez
+	 * @param key la clave
+	 * @param remappingFunction la funcion que calcula el nuevo valor a partir de la clave y el
+	 * actual. Si devuelve null la clave se elimina
+	 * @return el nuevo valor o null si no hay ninguno
+	 */
+	@Override
+	public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		
+		if (remappingFunction == null)
+			throw new NullPointerException();
+		
+		int hash = hash(key);
+		long pos = localizar(key, hash);
+		V actual = pos != -1 ? cubeta(pos).getValue((int) pos) : null;
+		if (actual == null)
+			return null;
+		
+		int esperado = modCount;
+		V nuevo = remappingFunction.apply(key, actual);
+		comprobarCambios(esperado);
+		
+		return guardar(key, hash, pos, nuevo);
+	}
 	
-		Set<Entry<K, V>> set = new HashSet<Entry<K, V>>();
+	/**
+	 * Recalcula el valor de una clave, buscandola una sola vez
+	 * @param key la clave
+	 * @param remappingFunction la funcion que calcula el nuevo valor a partir de la clave y el
+	 * actual, que es null si la clave no existe. Si devuelve null la clave se elimina
+	 * @return el nuevo valor o null si no hay ninguno
+	 */
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		
+		if (remappingFunction == null)
+			throw new NullPointerException();
+		
+		int hash = hash(key);
+		long pos = localizar(key, hash);
+		
+		int esperado = modCount;
+		V nuevo = remappingFunction.apply(key, pos != -1 ? cubeta(pos).getValue((int) pos) : null);
+		comprobarCambios(esperado);
+		
+		return guardar(key, hash, pos, nuevo);
+	}
+	
+	/**
+	 * Combina un valor con el de una clave, buscandola una sola vez
+	 * @param key la clave
+	 * @param value el valor que se guarda si la clave no existe o tiene valor null, o que se
+	 * combina con el actual
+	 * @param remappingFunction la funcion que combina el valor actual con el nuevo. Si devuelve
+	 * null la clave se elimina
+	 * @return el nuevo valor o null si no hay ninguno
+	 */
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		
+		if (value == null || remappingFunction == null)
+			throw new NullPointerException();
+		
+		int hash = hash(key);
+		long pos = localizar(key, hash);
+		V actual = pos != -1 ? cubeta(pos).getValue((int) pos) : null;
+		if (actual == null)
+			return guardar(key, hash, pos, value);
+		
+		int esperado = modCount;
+		V nuevo = remappingFunction.apply(actual, value);
+		comprobarCambios(esperado);
+		
+		return guardar(key, hash, pos, nuevo);
+	}
+	
+	/**
+	 *Obtiene una vista de las entradas del mapa. No se copia nada: la vista refleja los cambios
+	 *del mapa y su iterador recorre directamente las cubetas. Las vistas de claves y valores de
+	 *AbstractMap se apoyan en esta, asi que tampoco copian.
+	 *Como las cubetas no guardan objetos entrada, el iterador crea una pequeña entrada por par
+	 *al devolverlo, que se puede conservar y escribe en el mapa al cambiar su valor
+	 *@return la vista de las entradas
+	 */
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		if (entradas == null)
+			entradas = new Entradas();
+		return entradas;
+	}
 
-		//Iterador para recorrer el contenedor
-		Iterator<EntradaMultiple<K, V>> itContenedor = contenedor.iterator();
+	
+	/**
+	 * Obtiene los valores de un lote de claves. Las claves se procesan en grupos y cada grupo
+	 * avanza por fases: primero se calculan todos los hashes, despues se leen seguidas sus
+	 * cubetas del contenedor y despues el numero de elementos de cada una. Como ninguna lectura
+	 * de una fase depende de otra de la misma fase, los fallos de cache de las claves del grupo
+	 * se solapan en vez de esperarse uno detras de otro. Al final se busca cada clave en su
+	 * cubeta con el hash ya calculado.
+	 * @param keys las claves
+	 * @param out el array en el que se deja el valor de cada clave, o null si no existe, en la
+	 * misma posicion que la clave
+	 */
+	@SuppressWarnings("unchecked")
+	public void getAll(K[] keys, V[] out) {
+		
+		if (out.length < keys.length)
+			throw new IllegalArgumentException();
+		
+		int[] hashes = new int[GRUPO_LOTE];
+		int[] ocupadas = new int[GRUPO_LOTE];
+		EntradaMultiple<K, V>[] cubetas = new EntradaMultiple[GRUPO_LOTE];
 		
-		while (itContenedor.hasNext()) {
+		for (int inicio = 0; inicio < keys.length; inicio += GRUPO_LOTE) {
 			
-			//Obtenemos la cubeta
-			EntradaMultiple<K, V> cubeta = itContenedor.next();
+			int n = Math.min(GRUPO_LOTE, keys.length - inicio);
+			cargarGrupo(keys, inicio, n, hashes, cubetas);
 			
-			//Recorremos la cubeta y añadimos las entradas al set
-			for (int i=0; i<cubeta.claves.size(); i++) {
-				set.add(new EntradaPlana<K, V>(cubeta.claves.get(i), cubeta.valores.get(i)));
+			//Se toca cada cubeta para que sus fallos de cache tambien se solapen
+			for (int j = 0; j < n; j++)
+				ocupadas[j] = cubetas[j].elementosCubeta;
+			
+			for (int j = 0; j < n; j++) {
+				K key = keys[inicio + j];
+				int indice = ocupadas[j] == 0 ? -1 : cubetas[j].findKey(key, hashes[j]);
+				if (indice != -1)
+					out[inicio + j] = cubetas[j].getValue(indice);
+				else if (contenedorAnterior == null)
+					out[inicio + j] = null;
+				else {
+					long pos = localizar(key, hashes[j]);
+					out[inicio + j] = pos != -1 ? cubeta(pos).getValue((int) pos) : null;
+				}
 			}
 		}
+	}
+	
+	/**
+	 * Inserta un lote de pares clave-valor. Se adelantan por grupos los calculos de hash y las
+	 * lecturas de las cubetas, como en getAll, y despues se escribe cada par en orden en la cubeta
+	 * leida. Si una escritura del grupo redimensiona o divide el contenedor, o hay una migracion
+	 * en curso, las cubetas leidas pueden no ser ya las de sus claves y el resto del grupo se
+	 * inserta localizando cada clave con su hash. Una clave repetida en el lote se queda con el
+	 * ultimo valor.
+	 * @param keys las claves
+	 * @param vals los valores, en la misma posicion que su clave
+	 */
+	@SuppressWarnings("unchecked")
+	public void putAll(K[] keys, V[] vals) {
+		
+		if (vals.length < keys.length)
+			throw new IllegalArgumentException();
 		
-		return set;
+		int[] hashes = new int[GRUPO_LOTE];
+		EntradaMultiple<K, V>[] cubetas = new EntradaMultiple[GRUPO_LOTE];
+		
+		for (int inicio = 0; inicio < keys.length; inicio += GRUPO_LOTE) {
+			
+			int n = Math.min(GRUPO_LOTE, keys.length - inicio);
+			cargarGrupo(keys, inicio, n, hashes, cubetas);
+			List<EntradaMultiple<K, V>> leido = contenedor;
+			int cubetasLeidas = contenedor.size();
+			
+			for (int j = 0; j < n; j++) {
+				
+				K key = keys[inicio + j];
+				if (contenedor != leido || contenedor.size() != cubetasLeidas || contenedorAnterior != null) {
+					put(key, vals[inicio + j], hashes[j]);
+					continue;
+				}
+				
+				int indice = cubetas[j].findKey(key, hashes[j]);
+				if (indice != -1)
+					cubetas[j].update(indice, vals[inicio + j]);
+				else {
+					colocar(key, vals[inicio + j], hashes[j]);
+					migrar(cubetasMigracion);
+				}
+			}
+		}
 	}
-
+	
 	
 	/* METODOS AUXILIARES */
 	
 	/**
+	 * Primeras fases de un grupo de un lote: calcula los hashes y lee la cubeta de cada clave,
+	 * todas las lecturas de cada fase seguidas
+	 * @param keys las claves del lote
+	 * @param inicio la primera clave del grupo
+	 * @param n el numero de claves del grupo
+	 * @param hashes donde se dejan los hashes
+	 * @param cubetas donde se deja la cubeta del contenedor de cada clave
+	 */
+	private void cargarGrupo(K[] keys, int inicio, int n, int[] hashes, EntradaMultiple<K, V>[] cubetas) {
+		
+		for (int j = 0; j < n; j++)
+			hashes[j] = hash(keys[inicio + j]);
+		
+		for (int j = 0; j < n; j++)
+			cubetas[j] = contenedor.get(getPosicionCubeta(hashes[j]));
+	}
+	
+	/**
+	 * Busca una clave en su cubeta del contenedor y, si no esta y hay una migracion en curso, en
+	 * la del anterior
 	 * @param key la clave
+	 * @param hash el hash de la clave
+	 * @return la cubeta en los 32 bits altos y la posicion de la clave en ella en los bajos, o -1
+	 * si no esta. Las cubetas del contenedor anterior van despues de las del actual
+	 */
+	private long localizar(Object key, int hash) {
+		
+		int c = getPosicionCubeta(hash);
+		int indice = contenedor.get(c).findKey(key, hash);
+		
+		//Durante una migracion la clave puede seguir en el contenedor anterior
+		if (indice == -1 && contenedorAnterior != null) {
+			int anterior = getPosicionCubeta(hash, contenedorAnterior.size());
+			if (anterior >= migradas && (indice = contenedorAnterior.get(anterior).findKey(key, hash)) != -1)
+				c = contenedor.size() + anterior;
+		}
+		
+		return indice == -1 ? -1 : (long) c << 32 | indice;
+	}
+	
+	/**
+	 * @param pos una posicion devuelta por localizar
+	 * @return la cubeta de esa posicion. La posicion en la cubeta son los 32 bits bajos
+	 */
+	private EntradaMultiple<K, V> cubeta(long pos) {
+		int c = (int) (pos >>> 32);
+		return c < contenedor.size() ? contenedor.get(c) : contenedorAnterior.get(c - contenedor.size());
+	}
+	
+	/**
+	 * Elimina una clave ya localizada, sin migrar
+	 * @param pos la posicion devuelta por localizar
+	 * @return el valor que tenia
+	 */
+	private V eliminar(long pos) {
+		EntradaMultiple<K, V> cubeta = cubeta(pos);
+		V valor = cubeta.getValue((int) pos);
+		cubeta.remove((int) pos);
+		elementos--;
+		modCount++;
+		return valor;
+	}
+	
+	/**
+	 * Deja una clave ya localizada con el valor calculado: la inserta si no existia, cambia su
+	 * valor si existia o la elimina si el valor es null. Despues migra como put y remove
+	 * @param key la clave
+	 * @param hash el hash de la clave
+	 * @param pos la posicion devuelta por localizar
+	 * @param value el valor calculado
+	 * @return el valor calculado
+	 */
+	private V guardar(K key, int hash, long pos, V value) {
+		
+		if (value == null) {
+			if (pos != -1)
+				eliminar(pos);
+		}
+		else if (pos == -1)
+			colocar(key, value, hash);
+		else
+			cubeta(pos).update((int) pos, value);
+		
+		migrar(cubetasMigracion);
+		return value;
+	}
+	
+	/**
+	 * Comprueba que la funcion de un compute o merge no ha cambiado el mapa, lo que invalidaria
+	 * la posicion localizada antes de llamarla
+	 * @param esperado el modCount antes de llamar a la funcion
+	 */
+	private void comprobarCambios(int esperado) {
+		if (modCount != esperado)
+			throw new ConcurrentModificationException();
+	}
+	
+	/**
+	 * Inserta un par clave-valor que no esta en el mapa, creciendo si su cubeta
+	 * esta llena o, si hay factor de carga, despues de insertar si se supera
+	 * @param key la clave
+	 * @param value el valor
+	 * @param hash el hash de la clave
+	 */
+	private void colocar(K key, V value, int hash) {
+		
+		EntradaMultiple<K, V> cubeta = contenedor.get(getPosicionCubeta(hash));
+		
+		//Si la cubeta esta llena hay que redimensionar el contenedor. Durante una migracion
+		//puede haber cubetas que superen el tamaño
+		if (factorCarga == 0 && !lineal && cubeta.elementosCubeta >= tamanoCubeta) {
+			redimensionar(tamanoCubeta, numeroCubetasCrecimiento());
+			colocar(key, value, hash);
+		}
+		else {
+			boolean llena = cubeta.elementosCubeta >= tamanoCubeta;
+			cubeta.add(key, value, hash);
+			elementos++;
+			modCount++;
+			
+			boolean crecer = factorCarga > 0 ? elementos > factorCarga * numeroCubeta : llena;
+			if (crecer && lineal)
+				dividir();
+			else if (crecer && factorCarga > 0)
+				redimensionar(tamanoCubeta, numeroCubetasCrecimiento());
+		}
+	}
+	
+	/**
+	 * Divide la cubeta del puntero en dispersion lineal. Sus entradas se reparten entre ella y una
+	 * cubeta nueva al final del contenedor segun su posicion con el doble de cubetas del nivel, y
+	 * el puntero avanza. Cuando llega al final del nivel todas las cubetas estan divididas, el
+	 * nivel sube y el puntero vuelve a 0.
+	 */
+	private void dividir() {
+		
+		int cubetasNivel = cubetasIniciales << nivel;
+		EntradaMultiple<K, V> cubeta = contenedor.get(puntero);
+		EntradaMultiple<K, V> queda = new EntradaMultiple<K, V>();
+		EntradaMultiple<K, V> nueva = new EntradaMultiple<K, V>();
+		
+		for (int i = 0; i < cubeta.elementosCubeta; i++) {
+			int hash = cubeta.hashes[i];
+			EntradaMultiple<K, V> destino = getPosicionCubeta(hash, cubetasNivel * 2) == puntero ? queda : nueva;
+			destino.add(cubeta.claves.get(i), cubeta.valores.get(i), hash);
+		}
+		
+		contenedor.set(puntero, queda);
+		contenedor.add(nueva);
+		numeroCubeta++;
+		
+		if (++puntero == cubetasNivel) {
+			nivel++;
+			puntero = 0;
+		}
+	}
+	
+	/**
+	 * Hash de una clave, que se guarda en su cubeta. En el modo potencia de dos se mezclan sus bits
+	 * @param key la clave
+	 * @return el hash
+	 */
+	private int hash(Object key) {
+		return potenciaDos ? Dispersion.esparcir(key.hashCode()) : key.hashCode();
+	}
+	
+	/**
+	 * @param hash el hash de la clave
 	 * @return la posicion que ocupa en el mapa
 	 */
-	private int getPosicionCubeta(Object key) {
-		return Math.abs(key.hashCode() % numeroCubeta);
+	private int getPosicionCubeta(int hash) {
+		
+		if (!lineal)
+			return getPosicionCubeta(hash, numeroCubeta);
+		
+		//Las cubetas anteriores al puntero ya se han dividido en este nivel
+		int cubetasNivel = cubetasIniciales << nivel;
+		int pos = getPosicionCubeta(hash, cubetasNivel);
+		return pos < puntero ? getPosicionCubeta(hash, cubetasNivel * 2) : pos;
+	}
+	
+	/**
+	 * @param hash el hash de la clave
+	 * @param numeroCubetas el numero de cubetas del contenedor
+	 * @return la posicion que ocupa en un contenedor con ese numero de cubetas
+	 */
+	private int getPosicionCubeta(int hash, int numeroCubetas) {
+		if (potenciaDos)
+			return hash & (numeroCubetas - 1);
+		return Math.abs(hash % numeroCubetas);
+	}
+	
+	/**
+	 * @param hash el hash de la clave
+	 * @return la cubeta del contenedor anterior en la que puede estar la clave, o null si ya se
+	 * ha migrado
+	 */
+	private EntradaMultiple<K, V> getCubetaAnterior(int hash) {
+		int pos = getPosicionCubeta(hash, contenedorAnterior.size());
+		return pos >= migradas ? contenedorAnterior.get(pos) : null;
+	}
+	
+	/**
+	 * @return las cubetas con entradas: las del contenedor y, durante una migracion, las que
+	 * quedan en el anterior
+	 */
+	private List<EntradaMultiple<K, V>> getCubetas() {
+		if (contenedorAnterior == null)
+			return contenedor;
+		List<EntradaMultiple<K, V>> cubetas = new ArrayList<EntradaMultiple<K, V>>(contenedor);
+		cubetas.addAll(contenedorAnterior.subList(migradas, contenedorAnterior.size()));
+		return cubetas;
+	}
+	
+	/**
+	 * @return el numero de cubetas que tendra el contenedor al crecer
+	 */
+	private int numeroCubetasCrecimiento() {
+		int nuevoNumero = Math.max(numeroCubeta + 1, (int) (numeroCubeta*porcentajeCrecimiento));
+		return potenciaDos ? Dispersion.potenciaDos(nuevoNumero) : nuevoNumero;
 	}
 	
 	/**
@@ -176,11 +803,27 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 	 */
 	private void redimensionar(int tamanoCubeta, int numeroCubeta) {
 		
+		if (incremental) {
+			iniciarMigracion(numeroCubeta);
+			return;
+		}
+
+		//Con un solo hilo el reparto en dos fases solo añade trabajo
+		if (pool.getParallelism() > 1 && contarEntradas() >= umbralParalelo) {
+			redimensionarParalelo(numeroCubeta);
+			this.tamanoCubeta = tamanoCubeta;
+			return;
+		}
+
 		//Creamos un nuevo mapa con el tamaño deseado
-		MapaDispersionAbierta<K, V> nuevoMapa = new MapaDispersionAbierta<K, V>(tamanoCubeta, numeroCubeta);
+		//Con factor de carga el nuevo mapa ya tiene sitio para todos y no vuelve a crecer
+		MapaDispersionAbierta<K, V> nuevoMapa = new MapaDispersionAbierta<K, V>(tamanoCubeta, numeroCubeta,
+				potenciaDos, false, factorCarga);
 		
-		//Añado los elementos anteriores
-		nuevoMapa.putAll(this);
+		//Añado los elementos anteriores con sus hashes, sin volver a llamar a hashCode
+		for (EntradaMultiple<K, V> cubeta : contenedor)
+			for (int i = 0; i < cubeta.elementosCubeta; i++)
+				nuevoMapa.colocar(cubeta.claves.get(i), cubeta.valores.get(i), cubeta.hashes[i]);
 		
 		//Reasignar variables
 		contenedor = nuevoMapa.contenedor;
@@ -188,6 +831,170 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 		this.tamanoCubeta=nuevoMapa.tamanoCubeta;		
 	
 	}
+	
+	/**
+	 * Recoloca las entradas en un contenedor nuevo repartiendo el trabajo en un ForkJoinPool, sin
+	 * bloqueos. El contenedor anterior se parte en trozos de cubetas de origen y el nuevo en el
+	 * mismo numero de trozos de cubetas de destino. En una primera fase cada tarea recorre un
+	 * trozo de origen y separa sus entradas en un lote por trozo de destino. Los lotes son listas
+	 * sin arbol, porque solo se recorren una vez. En la segunda cada tarea crea las cubetas de un
+	 * trozo de destino y les añade los lotes que le corresponden, asi que ninguna cubeta se
+	 * escribe desde dos hilos. Las entradas se añaden sin comprobar el tamaño de la cubeta, de
+	 * forma que la recolocacion no provoca otro crecimiento.
+	 * @param numeroCubeta el numero de cubetas del nuevo contenedor
+	 */
+	private void redimensionarParalelo(int numeroCubeta) {
+
+		List<EntradaMultiple<K, V>> anterior = contenedor;
+		int trozos = Math.min(Math.min(anterior.size(), numeroCubeta),
+				Math.min(MAX_TROZOS, pool.getParallelism() * 4));
+
+		//lotes.get(i).get(j): entradas del trozo de origen i que van al trozo de destino j
+		List<List<Lote<K, V>>> lotes = new ArrayList<List<Lote<K, V>>>(trozos);
+		for (int i = 0; i < trozos; i++) {
+			List<Lote<K, V>> fila = new ArrayList<Lote<K, V>>(trozos);
+			for (int j = 0; j < trozos; j++)
+				fila.add(new Lote<K, V>());
+			lotes.add(fila);
+		}
+
+		List<EntradaMultiple<K, V>> nuevo = new ArrayList<EntradaMultiple<K, V>>(
+				Collections.<EntradaMultiple<K, V>>nCopies(numeroCubeta, null));
+
+		pool.invoke(new TareaParalela(0, trozos, i -> {
+			List<Lote<K, V>> fila = lotes.get(i);
+			for (int c = inicioTrozo(i, trozos, anterior.size()); c < inicioTrozo(i + 1, trozos, anterior.size()); c++) {
+				EntradaMultiple<K, V> cubeta = anterior.get(c);
+				for (int e = 0; e < cubeta.elementosCubeta; e++) {
+					int destino = getPosicionCubeta(cubeta.hashes[e], numeroCubeta);
+					fila.get(trozoDe(destino, trozos, numeroCubeta))
+							.add(cubeta.claves.get(e), cubeta.valores.get(e), cubeta.hashes[e]);
+				}
+			}
+		}));
+
+		pool.invoke(new TareaParalela(0, trozos, j -> {
+			int desde = inicioTrozo(j, trozos, numeroCubeta);
+			int hasta = inicioTrozo(j + 1, trozos, numeroCubeta);
+			for (int c = desde; c < hasta; c++)
+				nuevo.set(c, new EntradaMultiple<K, V>());
+			for (int i = 0; i < trozos; i++) {
+				Lote<K, V> lote = lotes.get(i).get(j);
+				for (int e = 0; e < lote.elementos; e++)
+					nuevo.get(getPosicionCubeta(lote.hashes[e], numeroCubeta))
+							.add(lote.claves.get(e), lote.valores.get(e), lote.hashes[e]);
+			}
+		}));
+
+		//invoke espera a todas las tareas, asi que sus escrituras ya son visibles
+		contenedor = nuevo;
+		this.numeroCubeta = numeroCubeta;
+	}
+
+	/**
+	 * @param trozo el numero de trozo
+	 * @param trozos el numero de trozos
+	 * @param longitud el numero de cubetas que se reparten
+	 * @return la primera cubeta del trozo
+	 */
+	private static int inicioTrozo(int trozo, int trozos, int longitud) {
+		return (int) ((long) trozo * longitud / trozos);
+	}
+
+	/**
+	 * @param cubeta la posicion de la cubeta
+	 * @param trozos el numero de trozos
+	 * @param longitud el numero de cubetas que se reparten
+	 * @return el trozo al que pertenece la cubeta, el inverso de inicioTrozo
+	 */
+	private static int trozoDe(int cubeta, int trozos, int longitud) {
+		return (int) (((long) (cubeta + 1) * trozos - 1) / longitud);
+	}
+
+	/**
+	 * @return el numero de entradas del contenedor actual
+	 */
+	private int contarEntradas() {
+		int count = 0;
+		for (EntradaMultiple<K, V> cubeta : contenedor)
+			count += cubeta.elementosCubeta;
+		return count;
+	}
+
+	/**
+	 * Establece a partir de cuantas entradas las redimensiones se hacen en paralelo en el
+	 * ForkJoinPool comun. No afecta al modo incremental, que nunca recoloca el mapa entero de golpe
+	 * @param umbral el numero de entradas, 0 para redimensionar siempre en paralelo o
+	 * Integer.MAX_VALUE para no hacerlo nunca
+	 */
+	public void setUmbralRedimensionParalela(int umbral) {
+		setUmbralRedimensionParalela(umbral, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Establece a partir de cuantas entradas las redimensiones se hacen en paralelo y en que pool.
+	 * Si el pool tiene un solo hilo se redimensiona siempre en el hilo que inserta
+	 * @param umbral el numero de entradas, 0 para redimensionar siempre en paralelo o
+	 * Integer.MAX_VALUE para no hacerlo nunca
+	 * @param pool el pool en el que se reparte la recolocacion
+	 */
+	public void setUmbralRedimensionParalela(int umbral, ForkJoinPool pool) {
+		if (umbral < 0 || pool == null)
+			throw new IllegalArgumentException();
+		umbralParalelo = umbral;
+		this.pool = pool;
+	}
+
+	/**
+	 * Sustituye el contenedor por uno nuevo con cubetas vacias y conserva el actual como
+	 * contenedor anterior, del que se iran migrando las cubetas. Si ya habia una migracion en
+	 * curso se termina antes.
+	 * @param numeroCubeta el numero de cubetas del nuevo contenedor
+	 */
+	private void iniciarMigracion(int numeroCubeta) {
+		
+		migrar(Integer.MAX_VALUE);
+		
+		contenedorAnterior = contenedor;
+		contenedor = new ArrayList<EntradaMultiple<K, V>>(numeroCubeta);
+		for (int i = 0; i < numeroCubeta; i++) 
+			contenedor.add(new EntradaMultiple<K, V>());
+		this.numeroCubeta = numeroCubeta;
+		migradas = 0;
+		
+		//Se reparte la migracion entre las inserciones que caben en el nuevo contenedor antes de
+		//que tenga que volver a crecer. Sin factor de carga crece al llenarse una cubeta, que suele
+		//ocurrir mucho antes de llenarse todas, asi que se cuenta solo la mitad de su capacidad
+		long capacidad = factorCarga > 0 ? (long) (factorCarga * numeroCubeta) : (long) tamanoCubeta * numeroCubeta / 2;
+		int margen = (int) Math.max(1, Math.min(Integer.MAX_VALUE, capacidad - elementos));
+		cubetasMigracion = Math.max(CUBETAS_MIGRACION, contenedorAnterior.size() / margen + 1);
+	}
+	
+	/**
+	 * Mueve al contenedor actual las entradas de las siguientes cubetas del anterior. Las
+	 * entradas se añaden sin comprobar el tamaño de la cubeta para que la migracion nunca
+	 * provoque otro crecimiento.
+	 * @param cubetas el numero de cubetas a migrar
+	 */
+	private void migrar(int cubetas) {
+		
+		//Las entradas cambian de contenedor, los iteradores abiertos dejan de valer
+		if (contenedorAnterior != null)
+			modCount++;
+		
+		for (int i = 0; i < cubetas && contenedorAnterior != null; i++) {
+			
+			EntradaMultiple<K, V> cubeta = contenedorAnterior.get(migradas);
+			for (int j = 0; j < cubeta.elementosCubeta; j++)
+				contenedor.get(getPosicionCubeta(cubeta.hashes[j]))
+						.add(cubeta.claves.get(j), cubeta.valores.get(j), cubeta.hashes[j]);
+			
+			//Se libera la cubeta migrada
+			contenedorAnterior.set(migradas, null);
+			if (++migradas == contenedorAnterior.size())
+				contenedorAnterior = null;
+		}
+	}
 
 	/**
 	 * Obtiene el numero de cubetas que tiene el mapa
@@ -197,6 +1004,38 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 		return numeroCubeta;
 	}
 
+	/**
+	 * Obtiene cuantas cubetas del contenedor actual tienen cada numero de elementos. Durante una
+	 * migracion no cuenta las cubetas que quedan en el contenedor anterior
+	 * @return un array en el que la posicion i es el numero de cubetas con i elementos, con
+	 * longitud la de la cubeta mas larga mas uno
+	 */
+	public int[] getHistogramaCubetas() {
+		int[] histograma = new int[getLongitudMaximaCubeta() + 1];
+		for (EntradaMultiple<K, V> cubeta : contenedor)
+			histograma[cubeta.elementosCubeta]++;
+		return histograma;
+	}
+
+	/**
+	 * Obtiene el numero de elementos de la cubeta mas larga del contenedor actual
+	 * @return la longitud de la cubeta mas larga
+	 */
+	public int getLongitudMaximaCubeta() {
+		int maxima = 0;
+		for (EntradaMultiple<K, V> cubeta : contenedor)
+			maxima = Math.max(maxima, cubeta.elementosCubeta);
+		return maxima;
+	}
+
+	/**
+	 * Obtiene el numero medio de elementos por cubeta
+	 * @return los elementos entre el numero de cubetas
+	 */
+	public float getCargaMedia() {
+		return (float) elementos / numeroCubeta;
+	}
+
 	/* CLASES AUXILIARES */
 	
 	/**
@@ -220,10 +1059,19 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 		 * Lista que contiene los valores almacenados
 		 */
 		private List<V> valores;
+		/**
+		 * Hashes de las claves, en el mismo orden que la lista de claves
+		 */
+		private int[] hashes;
 		/**
 		 * Numero de elementos que hay almacenados en la EntradaMultiple
 		 */
 		private int elementosCubeta; 
+		/**
+		 * Arbol con las posiciones de las claves cuando la cubeta es larga, o null si se busca
+		 * recorriendo la lista
+		 */
+		private ArbolCubeta arbol;
 
 		
 		/* CONSTRUCTOR */
@@ -234,6 +1082,7 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 		public EntradaMultiple() {
 			claves = new ArrayList<K>();
 			valores = new ArrayList<V>();
+			hashes = new int[4];
 			elementosCubeta = 0;
 		}
 		
@@ -241,23 +1090,42 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 		/* METODOS */
 		
 		/**
-		 * Obtiene la posicion en la que se encuentra una clave en la lista
+		 * Obtiene la posicion en la que se encuentra una clave en la lista. Solo se
+		 * compara con las claves que tienen el mismo hash
 		 * @param key la clave 
+		 * @param hash el hash de la clave
 		 * @return -1 si no se encuentra, >= 0 si se encuentra
 		 */
-		protected int findKey(Object key) {		
-			return claves.indexOf(key);
+		protected int findKey(Object key, int hash) {		
+			if (arbol != null)
+				return arbol.buscar(key, hash);
+			for (int i = 0; i < elementosCubeta; i++)
+				if (hashes[i] == hash && key.equals(claves.get(i)))
+					return i;
+			return -1;
 		}
 		
 		/**
 		 * Inserta en la listas correspondientes un nuevo par clave, valor
 		 * @param key objeto que hace de clave
 		 * @param value objeto que hace de valor
+		 * @param hash el hash de la clave
 		 */
-		protected void add(K key, V value) {
+		protected void add(K key, V value, int hash) {
+			if (elementosCubeta == hashes.length)
+				hashes = Arrays.copyOf(hashes, hashes.length * 2);
 			claves.add(key);
 			valores.add(value);
+			hashes[elementosCubeta] = hash;
+			if (arbol != null)
+				arbol.insertar(key, hash, elementosCubeta);
 			elementosCubeta++;
+			
+			if (arbol == null && elementosCubeta >= UMBRAL_ARBOL) {
+				arbol = new ArbolCubeta();
+				for (int i = 0; i < elementosCubeta; i++)
+					arbol.insertar(claves.get(i), hashes[i], i);
+			}
 		}
 		
 		/**
@@ -265,8 +1133,28 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 		 * @param index la posicion en la lista
 		 */
 		protected void remove(int index) {
+			
+			//Con arbol se mueve la ultima entrada al hueco para no cambiar las demas posiciones
+			if (arbol != null) {
+				int ultima = elementosCubeta - 1;
+				arbol.eliminar(claves.get(index), hashes[index]);
+				if (index != ultima) {
+					claves.set(index, claves.get(ultima));
+					valores.set(index, valores.get(ultima));
+					hashes[index] = hashes[ultima];
+					arbol.cambiarIndice(claves.get(index), hashes[index], index);
+				}
+				claves.remove(ultima);
+				valores.remove(ultima);
+				elementosCubeta--;
+				if (elementosCubeta < UMBRAL_LISTA)
+					arbol = null;
+				return;
+			}
+			
 			claves.remove(index);
 			valores.remove(index);
+			System.arraycopy(hashes, index + 1, hashes, index, elementosCubeta - index - 1);
 			elementosCubeta--;
 		}
 		
@@ -290,6 +1178,67 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 		
 	}
 
+	/**
+	 * Tarea de fork/join que aplica una accion a cada trozo de un rango, partiendolo por la mitad
+	 * hasta quedarse con un solo trozo
+	 */
+	private static class TareaParalela extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int desde;
+		private final int hasta;
+		private final IntConsumer accion;
+
+		/**
+		 * @param desde el primer trozo
+		 * @param hasta el trozo siguiente al ultimo
+		 * @param accion la accion que se aplica a cada trozo
+		 */
+		public TareaParalela(int desde, int hasta, IntConsumer accion) {
+			this.desde = desde;
+			this.hasta = hasta;
+			this.accion = accion;
+		}
+
+		@Override
+		protected void compute() {
+			if (hasta - desde == 1) {
+				accion.accept(desde);
+				return;
+			}
+			int mitad = (desde + hasta) >>> 1;
+			invokeAll(new TareaParalela(desde, mitad, accion), new TareaParalela(mitad, hasta, accion));
+		}
+	}
+
+	/**
+	 * Entradas que una redimension paralela lleva de un trozo de origen a uno de destino. A
+	 * diferencia de una cubeta solo se añade al final y se recorre una vez, asi que no se busca en
+	 * ella ni se le construye arbol
+	 */
+	private static class Lote<K, V> {
+
+		private final List<K> claves = new ArrayList<K>();
+		private final List<V> valores = new ArrayList<V>();
+		private int[] hashes = new int[8];
+		private int elementos;
+
+		/**
+		 * Añade una entrada al final del lote
+		 * @param key la clave
+		 * @param value el valor
+		 * @param hash el hash de la clave
+		 */
+		public void add(K key, V value, int hash) {
+			if (elementos == hashes.length)
+				hashes = Arrays.copyOf(hashes, elementos * 2);
+			claves.add(key);
+			valores.add(value);
+			hashes[elementos++] = hash;
+		}
+	}
+
 	/**
 	 * Clase auxiliar que extiende de SimpleEntry
 	 * @author Daniel Alonso Báscones
@@ -311,6 +1260,154 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 		}
 	}
 	
+	/**
+	 * Entrada que devuelve el iterador. Recuerda la cubeta y la posicion de su par para cambiar
+	 * el valor sin buscar la clave, y si el mapa ha cambiado desde que se creo la busca de nuevo.
+	 * Si la clave ya no esta solo cambia la propia entrada
+	 */
+	private class Entrada extends EntradaPlana<K, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final EntradaMultiple<K, V> cubeta;
+		private final int indice;
+		private final int modCountCreacion = modCount;
+
+		/**
+		 * @param cubeta la cubeta del par
+		 * @param indice la posicion del par en la cubeta
+		 */
+		public Entrada(EntradaMultiple<K, V> cubeta, int indice) {
+			super(cubeta.claves.get(indice), cubeta.getValue(indice));
+			this.cubeta = cubeta;
+			this.indice = indice;
+		}
+
+		@Override
+		public V setValue(V value) {
+			if (modCount == modCountCreacion)
+				cubeta.update(indice, value);
+			else {
+				long pos = localizar(getKey(), hash(getKey()));
+				if (pos != -1)
+					cubeta(pos).update((int) pos, value);
+			}
+			return super.setValue(value);
+		}
+	}
+	
+	/**
+	 * Vista de las entradas del mapa
+	 */
+	private class Entradas extends AbstractSet<Entry<K, V>> {
+
+		@Override
+		public int size() {
+			return elementos;
+		}
+
+		@Override
+		public Iterator<Entry<K, V>> iterator() {
+			return new Iterador();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof Entry) || ((Entry<?, ?>) o).getKey() == null)
+				return false;
+			Entry<?, ?> e = (Entry<?, ?>) o;
+			V valor = get(e.getKey());
+			return (valor != null || containsKey(e.getKey())) && Objects.equals(valor, e.getValue());
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if (!contains(o))
+				return false;
+			MapaDispersionAbierta.this.remove(((Entry<?, ?>) o).getKey());
+			return true;
+		}
+
+		@Override
+		public void clear() {
+			MapaDispersionAbierta.this.clear();
+		}
+	}
+
+	/**
+	 * Iterador que recorre las cubetas del contenedor y despues las que quedan en el anterior,
+	 * cuyas cubetas migradas son null. next devuelve una {@link Entrada} nueva por cada par.
+	 * Al quitar una entrada la cubeta mueve a su posicion la siguiente (sin arbol) o la ultima
+	 * (con arbol), que aun no se han recorrido, asi que se vuelve a mirar esa posicion.
+	 * Falla con ConcurrentModificationException si el mapa cambia por fuera del iterador.
+	 * Cambiar el valor de una clave no cuenta como cambio, salvo que haga avanzar una migracion.
+	 */
+	private class Iterador implements Iterator<Entry<K, V>> {
+
+		private final List<EntradaMultiple<K, V>> actual = contenedor;
+		private final List<EntradaMultiple<K, V>> anterior = contenedorAnterior;
+		/**
+		 * Numero de cubetas que se recorren: las del contenedor y despues las del anterior
+		 */
+		private final int total = actual.size() + (anterior == null ? 0 : anterior.size());
+		/**
+		 * Siguiente cubeta del recorrido
+		 */
+		private int siguienteCubeta = 0;
+		/**
+		 * Cubeta que se esta recorriendo y siguiente posicion que se examina en ella
+		 */
+		private EntradaMultiple<K, V> cubeta;
+		private int indice;
+		/**
+		 * Cubeta y posicion del ultimo par devuelto, o -1 si no hay
+		 */
+		private EntradaMultiple<K, V> cubetaDevuelta;
+		private int devuelta = -1;
+		private int modCountEsperado = modCount;
+
+		@Override
+		public boolean hasNext() {
+			while (cubeta == null || indice >= cubeta.elementosCubeta) {
+				if (siguienteCubeta == total)
+					return false;
+				cubeta = siguienteCubeta < actual.size() ? actual.get(siguienteCubeta)
+						: anterior.get(siguienteCubeta - actual.size());
+				siguienteCubeta++;
+				indice = 0;
+			}
+			return true;
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			if (modCount != modCountEsperado)
+				throw new ConcurrentModificationException();
+			if (!hasNext())
+				throw new NoSuchElementException();
+			cubetaDevuelta = cubeta;
+			devuelta = indice++;
+			return new Entrada(cubeta, devuelta);
+		}
+
+		@Override
+		public void remove() {
+			if (devuelta == -1)
+				throw new IllegalStateException();
+			if (modCount != modCountEsperado)
+				throw new ConcurrentModificationException();
+
+			//Se quita sin migrar, que moveria cubetas que faltan por recorrer
+			cubetaDevuelta.remove(devuelta);
+			elementos--;
+			modCountEsperado = ++modCount;
+
+			if (cubeta == cubetaDevuelta)
+				indice = devuelta;
+			devuelta = -1;
+		}
+	}
+	
 	/* METODOS EXTRA */
 	
 	/**
@@ -319,9 +1416,9 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 	@Override
 	public String toString() {
 		String map ="";
-		for (EntradaMultiple<K, V> cubeta : contenedor) {
+		for (EntradaMultiple<K, V> cubeta : getCubetas()) {
 			String cub ="";
-			for (int i=0; i<tamanoCubeta; i++) {
+			for (int i=0; i<cubeta.elementosCubeta; i++) {
 				cub += "(" + cubeta.claves.get(i) + "|" + cubeta.valores.get(i).toString() + "), ";
 			}
 			map += "\t[" + cub + "]\n";
@@ -335,13 +1432,7 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 	 */
 	@Override
 	public int size() {
-		
-		int count = 0;
-		
-		for (EntradaMultiple<K,V> cubeta : contenedor) 
-			count+=cubeta.claves.size();
-		
-		return count;
+		return elementos;
 	}
 	
 	/**
@@ -354,40 +1445,36 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 	}
 
 	/**
-	 * Obtiene una coleccion de valores
-	 * @return una coleccion de valores
+	 * Comprueba si un valor existe en el mapa
+	 * @param value el valor
+	 * return true si existe
 	 */
 	@Override
-	public Collection<V> values(){
-		List<V> valores = new ArrayList<V>();
-		for (EntradaMultiple<K, V> cubeta : contenedor) {
-			valores.addAll(cubeta.valores);
-		}
-		return valores;	
+	public boolean containsValue(Object value) {
+		
+		if (contieneValor(contenedor, 0, value))
+			return true;
+		return contenedorAnterior != null && contieneValor(contenedorAnterior, migradas, value);
 	}
 	
 	/**
-	 * Obtiene un set con todas las claves dek mapa
-	 * @return un set que contiene las claves
+	 * Recorre unas cubetas buscando un valor
+	 * @param cubetas las cubetas
+	 * @param desde la primera cubeta que se recorre
+	 * @param value el valor, que puede ser null
+	 * @return true si alguna cubeta lo contiene
 	 */
-	@Override
-	public Set<K> keySet(){
-		HashSet<K> s = new HashSet<K>();
-		for (EntradaMultiple<K, V> cubeta : contenedor) {
-			s.addAll(cubeta.claves);
+	private boolean contieneValor(List<EntradaMultiple<K, V>> cubetas, int desde, Object value) {
+		
+		for (int c = desde; c < cubetas.size(); c++) {
+			EntradaMultiple<K, V> cubeta = cubetas.get(c);
+			for (int i = 0; i < cubeta.elementosCubeta; i++) {
+				V v = cubeta.getValue(i);
+				if (value == null ? v == null : value.equals(v))
+					return true;
+			}
 		}
-		return s;
-	}
-
-	
-	/**
-	 * Comprueba si un valor existe en el mapa
-	 * @param value el valor
-	 * return true si existe
-	 */
-	@Override
-	public boolean containsValue(Object value) {
-		return values().contains(value);
+		return false;
 	}
 
 	/**
@@ -397,7 +1484,13 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 	 */
 	@Override
 	public boolean containsKey(Object key) {
-		return keySet().contains(key);
+		
+		int hash = hash(key);
+		if (contenedor.get(getPosicionCubeta(hash)).findKey(key, hash) != -1)
+			return true;
+		EntradaMultiple<K, V> cubeta;
+		return contenedorAnterior != null && (cubeta = getCubetaAnterior(hash)) != null
+				&& cubeta.findKey(key, hash) != -1;
 	}
 	
 	
@@ -407,10 +1500,13 @@ public class MapaDispersionAbierta<K, V> extends AbstractMap<K, V> {
 	@Override
 	public void clear() {
 		contenedor = new ArrayList<EntradaMultiple<K, V>>();
+		contenedorAnterior = null;
+		elementos = 0;
+		modCount++;
 
 		for (int i = 0; i < numeroCubeta; i++) 
 			contenedor.add(new EntradaMultiple<K, V>());	
 	}
 
 	
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,644 @@
+package tablasHash;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Variante concurrente de {@link MapaDispersionAbierta}. Las cubetas se
+ * reparten en segmentos y cada segmento tiene su propio cerrojo, asi que las
+ * escrituras en cubetas de segmentos distintos no se esperan entre si.
+ *
+ * Las lecturas no usan cerrojos. Cada cubeta es inmutable: una escritura crea
+ * una copia de su cubeta con el cambio y la publica en el array de cubetas,
+ * que es un AtomicReferenceArray, de forma que un lector siempre ve una cubeta
+ * completa, la de antes o la de despues. Las cubetas son pequeñas, asi que la
+ * copia cuesta poco.
+ *
+ * El segmento de una cubeta son los bits bajos de su posicion, que son los
+ * del hash porque el numero de cubetas es una potencia de dos no menor que el
+ * de segmentos. Asi una clave cae siempre en el mismo segmento aunque el mapa
+ * crezca. Para crecer se cogen todos los cerrojos en orden, se reparten las
+ * cubetas en una tabla del doble de tamaño y se publica la tabla nueva.
+ * Mientras tanto los lectores siguen leyendo la anterior, que no cambia.
+ *
+ * Como en ConcurrentHashMap, no se admiten claves ni valores null.
+ *
+ * @param <K> clave
+ * @param <V> valor
+ */
+public class MapaDispersionConcurrente<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+	private static final int INIT_SIZE = 64;
+	private static final int SEGMENTOS = 32;
+
+	/**
+	 * Cubeta inmutable con las claves, valores y hashes en arrays paralelos
+	 */
+	private static final class Cubeta {
+
+		private static final Cubeta VACIA = new Cubeta(new Object[0], new Object[0], new int[0]);
+
+		private final Object[] claves;
+		private final Object[] valores;
+		private final int[] hashes;
+
+		private Cubeta(Object[] claves, Object[] valores, int[] hashes) {
+			this.claves = claves;
+			this.valores = valores;
+			this.hashes = hashes;
+		}
+
+		/**
+		 * @return la posicion de la clave o -1 si no esta
+		 */
+		private int buscar(Object key, int hash) {
+			for (int i = 0; i < hashes.length; i++)
+				if (hashes[i] == hash && key.equals(claves[i]))
+					return i;
+			return -1;
+		}
+
+		/**
+		 * @return una copia con otro valor en una posicion, que comparte las claves
+		 */
+		private Cubeta conValor(int i, Object value) {
+			Object[] nuevos = valores.clone();
+			nuevos[i] = value;
+			return new Cubeta(claves, nuevos, hashes);
+		}
+
+		/**
+		 * @return una copia con un par mas al final
+		 */
+		private Cubeta con(Object key, Object value, int hash) {
+			int n = hashes.length;
+			Object[] nuevasClaves = new Object[n + 1];
+			Object[] nuevosValores = new Object[n + 1];
+			int[] nuevosHashes = new int[n + 1];
+			System.arraycopy(claves, 0, nuevasClaves, 0, n);
+			System.arraycopy(valores, 0, nuevosValores, 0, n);
+			System.arraycopy(hashes, 0, nuevosHashes, 0, n);
+			nuevasClaves[n] = key;
+			nuevosValores[n] = value;
+			nuevosHashes[n] = hash;
+			return new Cubeta(nuevasClaves, nuevosValores, nuevosHashes);
+		}
+
+		/**
+		 * @return una copia sin el par de una posicion
+		 */
+		private Cubeta sin(int i) {
+			int n = hashes.length - 1;
+			if (n == 0)
+				return VACIA;
+			Object[] nuevasClaves = new Object[n];
+			Object[] nuevosValores = new Object[n];
+			int[] nuevosHashes = new int[n];
+			System.arraycopy(claves, 0, nuevasClaves, 0, i);
+			System.arraycopy(valores, 0, nuevosValores, 0, i);
+			System.arraycopy(hashes, 0, nuevosHashes, 0, i);
+			System.arraycopy(claves, i + 1, nuevasClaves, i, n - i);
+			System.arraycopy(valores, i + 1, nuevosValores, i, n - i);
+			System.arraycopy(hashes, i + 1, nuevosHashes, i, n - i);
+			return new Cubeta(nuevasClaves, nuevosValores, nuevosHashes);
+		}
+
+		/**
+		 * Parte la cubeta al duplicar el numero de cubetas
+		 *
+		 * @param bit  el bit del hash que decide la mitad, el numero de cubetas
+		 *             anterior
+		 * @param alta si se quieren los pares con el bit a 1 en vez de a 0
+		 * @return una cubeta con los pares de esa mitad
+		 */
+		private Cubeta mitad(int bit, boolean alta) {
+			int n = 0;
+			for (int h : hashes)
+				if (((h & bit) != 0) == alta)
+					n++;
+			if (n == 0)
+				return VACIA;
+			if (n == hashes.length)
+				return this;
+			Cubeta mitad = new Cubeta(new Object[n], new Object[n], new int[n]);
+			for (int i = 0, j = 0; i < hashes.length; i++)
+				if (((hashes[i] & bit) != 0) == alta) {
+					mitad.claves[j] = claves[i];
+					mitad.valores[j] = valores[i];
+					mitad.hashes[j++] = hashes[i];
+				}
+			return mitad;
+		}
+	}
+
+	/**
+	 * Array de cubetas. Cuando el mapa crece se sustituye entero
+	 */
+	private static final class Tabla {
+
+		private final AtomicReferenceArray<Cubeta> cubetas;
+		private final int mascara;
+
+		private Tabla(int numeroCubetas) {
+			cubetas = new AtomicReferenceArray<Cubeta>(numeroCubetas);
+			for (int i = 0; i < numeroCubetas; i++)
+				cubetas.lazySet(i, Cubeta.VACIA);
+			mascara = numeroCubetas - 1;
+		}
+	}
+
+	private volatile Tabla tabla;
+	private final ReentrantLock[] cerrojos;
+	/**
+	 * Numero de pares de cada segmento, que solo cambia con su cerrojo cogido
+	 */
+	private final AtomicIntegerArray elementos;
+	/**
+	 * Numero medio de pares por cubeta a partir del cual se duplican las cubetas
+	 */
+	private final float factorCarga;
+	/**
+	 * Vista de las entradas, que se crea la primera vez que se pide
+	 */
+	private Set<Entry<K, V>> entradas;
+
+	/**
+	 * Entrada de entrySet que escribe en el mapa al cambiar su valor
+	 */
+	private class Entrada extends SimpleEntry<K, V> {
+
+		private static final long serialVersionUID = 1L;
+
+		public Entrada(K clave, V valor) {
+			super(clave, valor);
+		}
+
+		@Override
+		public V setValue(V value) {
+			put(getKey(), value);
+			return super.setValue(value);
+		}
+	}
+
+	/**
+	 * ----------------------------------------------------
+	 * CONSTRUCTORES
+	 * ----------------------------------------------------
+	 */
+
+	public MapaDispersionConcurrente() {
+		this(INIT_SIZE);
+	}
+
+	public MapaDispersionConcurrente(int numeroCubeta) {
+		this(numeroCubeta, 2F, SEGMENTOS);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param numeroCubeta el numero de cubetas inicial, que se redondea a una
+	 *                     potencia de dos no menor que el numero de segmentos
+	 * @param factorCarga  numero medio de pares por cubeta a partir del cual se
+	 *                     duplican las cubetas
+	 * @param segmentos    el numero de cerrojos, que se redondea a potencia de
+	 *                     dos. Con mas segmentos que hilos escritores casi no hay
+	 *                     esperas
+	 */
+	public MapaDispersionConcurrente(int numeroCubeta, float factorCarga, int segmentos) {
+
+		if (numeroCubeta <= 0 || factorCarga <= 0 || segmentos <= 0)
+			throw new IllegalArgumentException();
+
+		segmentos = Dispersion.potenciaDos(segmentos);
+		cerrojos = new ReentrantLock[segmentos];
+		for (int i = 0; i < segmentos; i++)
+			cerrojos[i] = new ReentrantLock();
+		elementos = new AtomicIntegerArray(segmentos);
+		this.factorCarga = factorCarga;
+
+		tabla = new Tabla(Math.max(segmentos, Dispersion.potenciaDos(numeroCubeta)));
+	}
+
+	/**
+	 * -----------------------------------------------------
+	 * CLASICOS
+	 * -----------------------------------------------------
+	 */
+
+	/**
+	 * Obtiene el valor asociado a una clave sin coger ningun cerrojo
+	 *
+	 * @param key la clave
+	 * @return el valor asociado o null si la clave no existe
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(Object key) {
+		int hash = Dispersion.esparcir(key.hashCode());
+		Tabla t = tabla;
+		Cubeta cubeta = t.cubetas.get(hash & t.mascara);
+		int i = cubeta.buscar(key, hash);
+		return i == -1 ? null : (V) cubeta.valores[i];
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * Inserta un par de clave-valor en el mapa
+	 *
+	 * @param key   la clave
+	 * @param value el valor
+	 * @return el valor anterior o null si la clave no existia
+	 */
+	@Override
+	public V put(K key, V value) {
+		return escribir(key, value, false);
+	}
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		return escribir(key, value, true);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V remove(Object key) {
+
+		int hash = Dispersion.esparcir(key.hashCode());
+		int segmento = hash & (cerrojos.length - 1);
+
+		cerrojos[segmento].lock();
+		try {
+			Tabla t = tabla;
+			int pos = hash & t.mascara;
+			Cubeta cubeta = t.cubetas.get(pos);
+			int i = cubeta.buscar(key, hash);
+			if (i == -1)
+				return null;
+			t.cubetas.set(pos, cubeta.sin(i));
+			elementos.decrementAndGet(segmento);
+			return (V) cubeta.valores[i];
+		} finally {
+			cerrojos[segmento].unlock();
+		}
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+
+		if (value == null)
+			return false;
+
+		int hash = Dispersion.esparcir(key.hashCode());
+		int segmento = hash & (cerrojos.length - 1);
+
+		cerrojos[segmento].lock();
+		try {
+			Tabla t = tabla;
+			int pos = hash & t.mascara;
+			Cubeta cubeta = t.cubetas.get(pos);
+			int i = cubeta.buscar(key, hash);
+			if (i == -1 || !value.equals(cubeta.valores[i]))
+				return false;
+			t.cubetas.set(pos, cubeta.sin(i));
+			elementos.decrementAndGet(segmento);
+			return true;
+		} finally {
+			cerrojos[segmento].unlock();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V replace(K key, V value) {
+
+		if (value == null)
+			throw new NullPointerException();
+
+		int hash = Dispersion.esparcir(key.hashCode());
+		int segmento = hash & (cerrojos.length - 1);
+
+		cerrojos[segmento].lock();
+		try {
+			Tabla t = tabla;
+			int pos = hash & t.mascara;
+			Cubeta cubeta = t.cubetas.get(pos);
+			int i = cubeta.buscar(key, hash);
+			if (i == -1)
+				return null;
+			t.cubetas.set(pos, cubeta.conValor(i, value));
+			return (V) cubeta.valores[i];
+		} finally {
+			cerrojos[segmento].unlock();
+		}
+	}
+
+	@Override
+	public boolean replace(K key, V oldValue, V newValue) {
+
+		if (oldValue == null || newValue == null)
+			throw new NullPointerException();
+
+		int hash = Dispersion.esparcir(key.hashCode());
+		int segmento = hash & (cerrojos.length - 1);
+
+		cerrojos[segmento].lock();
+		try {
+			Tabla t = tabla;
+			int pos = hash & t.mascara;
+			Cubeta cubeta = t.cubetas.get(pos);
+			int i = cubeta.buscar(key, hash);
+			if (i == -1 || !oldValue.equals(cubeta.valores[i]))
+				return false;
+			t.cubetas.set(pos, cubeta.conValor(i, newValue));
+			return true;
+		} finally {
+			cerrojos[segmento].unlock();
+		}
+	}
+
+	/**
+	 * Comprueba si un valor existe en el mapa recorriendo las cubetas sin
+	 * cerrojos
+	 *
+	 * @param value el valor
+	 * @return true si existe
+	 */
+	@Override
+	public boolean containsValue(Object value) {
+
+		Tabla t = tabla;
+		for (int c = 0; c <= t.mascara; c++)
+			for (Object v : t.cubetas.get(c).valores)
+				if (v.equals(value))
+					return true;
+
+		return false;
+	}
+
+	/**
+	 * Vacía el mapa conservando el numero de cubetas
+	 */
+	@Override
+	public void clear() {
+
+		bloquearTodos();
+		try {
+			tabla = new Tabla(tabla.mascara + 1);
+			for (int s = 0; s < cerrojos.length; s++)
+				elementos.set(s, 0);
+		} finally {
+			desbloquearTodos();
+		}
+	}
+
+	/**
+	 * ----------------------------------------------------------
+	 * UTILLERIA
+	 * ----------------------------------------------------------
+	 **/
+
+	/**
+	 * Obtiene el numero de cubetas
+	 *
+	 * @return el numero de cubetas de la tabla actual
+	 */
+	public int getNumeroCubetas() {
+		return tabla.mascara + 1;
+	}
+
+	/**
+	 * Inserta o sustituye un par con el cerrojo del segmento de la clave y, si el
+	 * segmento supera su parte del factor de carga, hace crecer el mapa despues
+	 * de soltarlo
+	 *
+	 * @param key       la clave
+	 * @param value     el valor
+	 * @param siAusente si solo se inserta cuando la clave no existe
+	 * @return el valor anterior o null si la clave no existia
+	 */
+	@SuppressWarnings("unchecked")
+	private V escribir(K key, V value, boolean siAusente) {
+
+		if (value == null)
+			throw new NullPointerException();
+
+		int hash = Dispersion.esparcir(key.hashCode());
+		int segmento = hash & (cerrojos.length - 1);
+		Tabla t;
+		boolean crecer;
+
+		cerrojos[segmento].lock();
+		try {
+			// Con el cerrojo cogido la tabla no puede cambiar
+			t = tabla;
+			int pos = hash & t.mascara;
+			Cubeta cubeta = t.cubetas.get(pos);
+
+			// Si la clave existe machacamos con el nuevo valor
+			int i = cubeta.buscar(key, hash);
+			if (i != -1) {
+				if (!siAusente)
+					t.cubetas.set(pos, cubeta.conValor(i, value));
+				return (V) cubeta.valores[i];
+			}
+
+			t.cubetas.set(pos, cubeta.con(key, value, hash));
+			crecer = elementos.incrementAndGet(segmento) > factorCarga * (t.mascara + 1) / cerrojos.length;
+		} finally {
+			cerrojos[segmento].unlock();
+		}
+
+		if (crecer)
+			redimensionar(t);
+
+		return null;
+	}
+
+	/**
+	 * Duplica el numero de cubetas con todos los cerrojos cogidos. Cada cubeta se
+	 * parte en dos, la de su misma posicion y la de su posicion mas el numero de
+	 * cubetas anterior, sin volver a calcular ningun hash.
+	 *
+	 * @param vista la tabla que se queria hacer crecer. Si otro hilo ya la ha
+	 *              sustituido no se hace nada
+	 */
+	private void redimensionar(Tabla vista) {
+
+		bloquearTodos();
+		try {
+			if (tabla != vista || vista.mascara >= Dispersion.MAX_POTENCIA_DOS - 1)
+				return;
+
+			int anterior = vista.mascara + 1;
+			Tabla nueva = new Tabla(anterior * 2);
+			for (int c = 0; c < anterior; c++) {
+				Cubeta cubeta = vista.cubetas.get(c);
+				nueva.cubetas.lazySet(c, cubeta.mitad(anterior, false));
+				nueva.cubetas.lazySet(c + anterior, cubeta.mitad(anterior, true));
+			}
+
+			// La escritura volatil publica tambien el contenido de la tabla
+			tabla = nueva;
+		} finally {
+			desbloquearTodos();
+		}
+	}
+
+	/**
+	 * Coge todos los cerrojos, siempre en el mismo orden para no bloquearse con
+	 * otro hilo que haga lo mismo
+	 */
+	private void bloquearTodos() {
+		for (ReentrantLock cerrojo : cerrojos)
+			cerrojo.lock();
+	}
+
+	private void desbloquearTodos() {
+		for (int s = cerrojos.length - 1; s >= 0; s--)
+			cerrojos[s].unlock();
+	}
+
+	/**
+	 * ------------------------------------------------------
+	 * OBLIGATORIOS
+	 * ------------------------------------------------------
+	 */
+
+	/**
+	 * Suma los pares de todos los segmentos sin cerrojos. Con escrituras
+	 * concurrentes es solo una estimacion
+	 */
+	@Override
+	public int size() {
+		int total = 0;
+		for (int s = 0; s < cerrojos.length; s++)
+			total += elementos.get(s);
+		return total;
+	}
+
+	/**
+	 * Obtiene una vista de las entradas del mapa. No se copia nada: su iterador
+	 * recorre sin cerrojos la tabla que habia al crearlo, leyendo cada cubeta al
+	 * llegar a ella. Es debilmente consistente, como los de ConcurrentHashMap:
+	 * nunca falla por cambios concurrentes, devuelve cada clave una sola vez y
+	 * puede reflejar o no los cambios posteriores a su creacion. Cambiar el
+	 * valor de una entrada lo cambia tambien en el mapa, y quitarla lo hace con
+	 * remove(clave, valor), de forma que no se pierde un valor escrito por otro
+	 * hilo despues de leerla.
+	 */
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		if (entradas == null)
+			entradas = new Entradas();
+		return entradas;
+	}
+
+	/**
+	 * Vista de las entradas del mapa
+	 */
+	private class Entradas extends AbstractSet<Entry<K, V>> {
+
+		@Override
+		public int size() {
+			return MapaDispersionConcurrente.this.size();
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return MapaDispersionConcurrente.this.isEmpty();
+		}
+
+		@Override
+		public Iterator<Entry<K, V>> iterator() {
+			return new Iterador();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof Entry))
+				return false;
+			Entry<?, ?> e = (Entry<?, ?>) o;
+			if (e.getKey() == null || e.getValue() == null)
+				return false;
+			V v = get(e.getKey());
+			return v != null && v.equals(e.getValue());
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if (!(o instanceof Entry))
+				return false;
+			Entry<?, ?> e = (Entry<?, ?>) o;
+			return e.getKey() != null && MapaDispersionConcurrente.this.remove(e.getKey(), e.getValue());
+		}
+
+		@Override
+		public void clear() {
+			MapaDispersionConcurrente.this.clear();
+		}
+	}
+
+	/**
+	 * Iterador debilmente consistente sobre las cubetas de una tabla. Cada
+	 * cubeta es inmutable, asi que basta con guardar la que se esta recorriendo
+	 */
+	private class Iterador implements Iterator<Entry<K, V>> {
+
+		private final Tabla t = tabla;
+		/**
+		 * Siguiente cubeta de la tabla que se lee
+		 */
+		private int siguienteCubeta;
+		private Cubeta cubeta = Cubeta.VACIA;
+		/**
+		 * Siguiente posicion de la cubeta actual
+		 */
+		private int indice;
+		/**
+		 * Ultima entrada devuelta, o null
+		 */
+		private Entrada devuelta;
+
+		@Override
+		public boolean hasNext() {
+			while (indice == cubeta.hashes.length) {
+				if (siguienteCubeta > t.mascara)
+					return false;
+				cubeta = t.cubetas.get(siguienteCubeta++);
+				indice = 0;
+			}
+			return true;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public Entry<K, V> next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			devuelta = new Entrada((K) cubeta.claves[indice], (V) cubeta.valores[indice]);
+			indice++;
+			return devuelta;
+		}
+
+		@Override
+		public void remove() {
+			if (devuelta == null)
+				throw new IllegalStateException();
+			MapaDispersionConcurrente.this.remove(devuelta.getKey(), devuelta.getValue());
+			devuelta = null;
+		}
+	}
+
+}
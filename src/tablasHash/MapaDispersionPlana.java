@@ -0,0 +1,795 @@
+package tablasHash;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Variante de {@link MapaDispersionAbierta} que guarda todas las cubetas en
+ * los mismos arrays de claves, valores y hashes. Cada cubeta ocupa un tramo
+ * fijo de tamanoCubeta posiciones que empieza en cubeta * tamanoCubeta, y un
+ * array aparte guarda cuantas estan ocupadas. No hay ningun objeto por cubeta,
+ * asi que con muchas cubetas pequeñas se ahorra memoria y una busqueda recorre
+ * posiciones contiguas sin saltar de la cubeta a sus listas.
+ *
+ * El mapa crece igual que MapaDispersionAbierta, multiplicando el numero de
+ * cubetas cuando se llena alguna, pero el tamaño de las cubetas no cambia
+ * nunca. Si con el nuevo numero de cubetas las claves de la cubeta llena y la
+ * nueva seguirian cayendo todas en la misma (por ejemplo porque tienen el mismo
+ * hash), o si el mapa esta aun poco ocupado, no se crece y la clave va a la
+ * zona de desborde: unas posiciones al final de los mismos arrays en las que
+ * cada cubeta llena encadena las claves que no le caben. Asi un grupo de claves
+ * que no se pueden separar solo ocupa lo que ocupan sus entradas, y cada
+ * insercion crece como mucho una vez.
+ *
+ * Las entradas de entrySet se crean al recorrerlas y leen y escriben
+ * directamente en los arrays.
+ *
+ * @param <K> clave
+ * @param <V> valor
+ */
+public class MapaDispersionPlana<K, V> extends AbstractMap<K, V> {
+
+	/**
+	 * Posiciones de cada cubeta
+	 */
+	private int tamanoCubeta = 3;
+	/**
+	 * Numero de cubetas
+	 */
+	private int numeroCubeta = 16;
+	/**
+	 * El factor de crecimiento del numero de cubetas
+	 */
+	private float porcentajeCrecimiento = 1.5F;
+	/**
+	 * Si el numero de cubetas es potencia de dos y se indexa con mascara
+	 */
+	private boolean potenciaDos = false;
+	/**
+	 * Ocupacion minima de las cubetas para crecer al llenarse una. Por debajo la
+	 * clave se desborda, de forma que unas pocas cubetas llenas no multiplican
+	 * el mapa
+	 */
+	private static final float CARGA_MINIMA = 0.25F;
+
+	private int elementos;
+	private Object claves[];
+	private Object valores[];
+	/**
+	 * Hash de la clave de cada posicion
+	 */
+	private int hashes[];
+	/**
+	 * Posiciones ocupadas de cada cubeta, que son siempre las primeras de su tramo
+	 */
+	private int ocupadas[];
+	/**
+	 * Primera posicion de la zona de desborde, despues de todas las cubetas
+	 */
+	private int inicioDesborde;
+	/**
+	 * Primera posicion desbordada de cada cubeta o -1, o null si no se ha
+	 * desbordado ninguna. Solo se desborda una cubeta llena
+	 */
+	private int desborde[];
+	/**
+	 * Siguiente posicion desbordada de la misma cubeta o -1, por cada posicion
+	 * de la zona de desborde. En las posiciones libres encadena la siguiente
+	 * libre
+	 */
+	private int siguientes[];
+	/**
+	 * Posiciones de la zona de desborde usadas alguna vez
+	 */
+	private int usadasDesborde;
+	/**
+	 * Primera posicion libre de la zona de desborde que se ha dejado al quitar
+	 * una entrada, o -1
+	 */
+	private int libreDesborde;
+	/**
+	 * Numero de cambios que mueven o quitan entradas, con el que los iteradores
+	 * detectan que el mapa se ha modificado por fuera de ellos
+	 */
+	private int modCount;
+	/**
+	 * Vista de las entradas, que se crea la primera vez que se pide
+	 */
+	private Set<Entry<K, V>> entradas;
+
+	/**
+	 * Entrada que lee y escribe directamente en los arrays del mapa mientras su
+	 * clave siga en la misma posicion. Si la entrada se quita o se mueve
+	 * conserva la clave y el ultimo valor leido
+	 */
+	protected class Entrada implements Entry<K, V> {
+
+		private final int pos;
+		private final K key;
+		private V val;
+
+		@SuppressWarnings("unchecked")
+		public Entrada(int pos) {
+			this.pos = pos;
+			this.key = (K) claves[pos];
+			this.val = (V) valores[pos];
+		}
+
+		/**
+		 * @return true si la clave sigue en la posicion de la entrada
+		 */
+		private boolean enSuSitio() {
+			return pos < claves.length && claves[pos] == key;
+		}
+
+		@Override
+		public K getKey() {
+			return key;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public V getValue() {
+			if (enSuSitio())
+				val = (V) valores[pos];
+			return val;
+		}
+
+		@Override
+		public V setValue(V arg0) {
+			V oldValue = getValue();
+			if (enSuSitio())
+				valores[pos] = arg0;
+			val = arg0;
+			return oldValue;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Entry))
+				return false;
+			Entry<?, ?> e = (Entry<?, ?>) o;
+			return key.equals(e.getKey()) && Objects.equals(getValue(), e.getValue());
+		}
+
+		@Override
+		public int hashCode() {
+			return key.hashCode() ^ Objects.hashCode(getValue());
+		}
+
+	}
+
+	/**
+	 * ----------------------------------------------------
+	 * CONSTRUCTORES
+	 * ----------------------------------------------------
+	 */
+
+	public MapaDispersionPlana() {
+		inicializar(tamanoCubeta, numeroCubeta);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param tamanoCubeta el numero de posiciones de cada cubeta
+	 * @param numeroCubeta el numero de cubetas
+	 */
+	public MapaDispersionPlana(int tamanoCubeta, int numeroCubeta) {
+		this(tamanoCubeta, numeroCubeta, false);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param tamanoCubeta el numero de posiciones de cada cubeta
+	 * @param numeroCubeta el numero de cubetas, que se redondea a potencia de dos
+	 *                     si se usa mascara
+	 * @param potenciaDos  si el numero de cubetas es potencia de dos y la cubeta
+	 *                     se calcula con mascara sobre el hash mezclado en vez
+	 *                     de con el resto de la division
+	 */
+	public MapaDispersionPlana(int tamanoCubeta, int numeroCubeta, boolean potenciaDos) {
+
+		if (tamanoCubeta <= 0 || numeroCubeta <= 0)
+			throw new IllegalArgumentException();
+
+		this.potenciaDos = potenciaDos;
+		inicializar(tamanoCubeta, potenciaDos ? Dispersion.potenciaDos(numeroCubeta) : numeroCubeta);
+	}
+
+	/**
+	 * -----------------------------------------------------
+	 * CLASICOS
+	 * -----------------------------------------------------
+	 */
+
+	/**
+	 * Obtiene el valor asociado a una clave
+	 *
+	 * @param key la clave
+	 * @return el valor asociado o null si la clave no existe
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public V get(Object key) {
+		int pos = buscarPosicion(key, hash(key));
+		return pos == -1 ? null : (V) valores[pos];
+	}
+
+	/**
+	 * Comprueba si una clave existe en el mapa
+	 *
+	 * @param key la clave
+	 * @return true si existe
+	 */
+	@Override
+	public boolean containsKey(Object key) {
+		return buscarPosicion(key, hash(key)) != -1;
+	}
+
+	/**
+	 * Inserta un par de clave-valor en el mapa
+	 *
+	 * @param key   la clave
+	 * @param value el valor
+	 */
+	@SuppressWarnings("unchecked")
+	@Override
+	public V put(K key, V value) {
+
+		int hash = hash(key);
+
+		// Si la clave existe machacamos con el nuevo valor
+		int pos = buscarPosicion(key, hash);
+		if (pos != -1) {
+			V oldValue = (V) valores[pos];
+			valores[pos] = value;
+			return oldValue;
+		}
+
+		colocar(key, value, hash);
+		elementos++;
+		modCount++;
+
+		return null;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public V remove(Object key) {
+
+		int hash = hash(key);
+		int pos = buscarPosicion(key, hash);
+		if (pos == -1)
+			return null;
+
+		V value = (V) valores[pos];
+		eliminarPosicion(getPosicionCubeta(hash, numeroCubeta), pos);
+		modCount++;
+
+		return value;
+	}
+
+	/**
+	 * Comprueba si un valor existe en el mapa
+	 *
+	 * @param value el valor, que puede ser null
+	 * @return true si existe
+	 */
+	@Override
+	public boolean containsValue(Object value) {
+
+		for (int cubeta = 0; cubeta < numeroCubeta; cubeta++) {
+			int inicio = cubeta * tamanoCubeta;
+			for (int i = inicio; i < inicio + ocupadas[cubeta]; i++)
+				if (value == null ? valores[i] == null : value.equals(valores[i]))
+					return true;
+			for (int i = primeraDesbordada(cubeta); i != -1; i = siguiente(i))
+				if (value == null ? valores[i] == null : value.equals(valores[i]))
+					return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Vacía el mapa conservando el numero y el tamaño de las cubetas. La zona de
+	 * desborde se libera
+	 */
+	@Override
+	public void clear() {
+		inicializar(tamanoCubeta, numeroCubeta);
+		elementos = 0;
+		modCount++;
+	}
+
+	/**
+	 * Obtiene una respresentacion del mapa en formato String, una cubeta por
+	 * linea
+	 */
+	@Override
+	public String toString() {
+
+		StringBuilder s = new StringBuilder("{\n");
+
+		for (int cubeta = 0; cubeta < numeroCubeta; cubeta++) {
+			s.append("\t[");
+			int inicio = cubeta * tamanoCubeta;
+			for (int i = inicio; i < inicio + ocupadas[cubeta]; i++)
+				s.append("(" + claves[i] + "|" + valores[i] + "), ");
+			for (int i = primeraDesbordada(cubeta); i != -1; i = siguiente(i))
+				s.append("(" + claves[i] + "|" + valores[i] + "), ");
+			s.append("]\n");
+		}
+
+		return s.append("\n}").toString();
+	}
+
+	/**
+	 * ----------------------------------------------------------
+	 * UTILLERIA
+	 * ----------------------------------------------------------
+	 **/
+
+	/**
+	 * Obtiene el numero de cubetas que tiene el mapa
+	 *
+	 * @return el numero de cubetas
+	 */
+	public int getNumeroCubetas() {
+		return numeroCubeta;
+	}
+
+	/**
+	 * Obtiene el numero de posiciones de cada cubeta
+	 *
+	 * @return el tamaño de cubeta
+	 */
+	public int getTamanoCubeta() {
+		return tamanoCubeta;
+	}
+
+	/**
+	 * Hash de una clave, que se guarda junto a ella. En el modo potencia de dos
+	 * se mezclan sus bits
+	 *
+	 * @param key la clave
+	 * @return el hash
+	 */
+	private int hash(Object key) {
+		return potenciaDos ? Dispersion.esparcir(key.hashCode()) : key.hashCode();
+	}
+
+	/**
+	 * @param hash          el hash de la clave
+	 * @param numeroCubetas el numero de cubetas
+	 * @return la cubeta que le corresponde con ese numero de cubetas. Con el
+	 *         resto se usa el modulo no negativo, ya que el valor absoluto del
+	 *         resto llevaria h y -h a la misma cubeta con cualquier numero de
+	 *         cubetas
+	 */
+	private int getPosicionCubeta(int hash, int numeroCubetas) {
+		if (potenciaDos)
+			return hash & (numeroCubetas - 1);
+		return Math.floorMod(hash, numeroCubetas);
+	}
+
+	/**
+	 * Busca la posicion de una clave recorriendo las posiciones ocupadas de su
+	 * cubeta y despues las que tenga desbordadas. Solo se llama a equals cuando
+	 * coincide el hash
+	 *
+	 * @param key  la clave
+	 * @param hash el hash de la clave
+	 * @return la posicion de la clave o -1 si no existe
+	 */
+	private int buscarPosicion(Object key, int hash) {
+
+		int cubeta = getPosicionCubeta(hash, numeroCubeta);
+		int inicio = cubeta * tamanoCubeta;
+
+		for (int i = inicio; i < inicio + ocupadas[cubeta]; i++)
+			if (hashes[i] == hash && key.equals(claves[i]))
+				return i;
+
+		for (int i = primeraDesbordada(cubeta); i != -1; i = siguiente(i))
+			if (hashes[i] == hash && key.equals(claves[i]))
+				return i;
+
+		return -1;
+	}
+
+	/**
+	 * @param cubeta la cubeta
+	 * @return su primera posicion desbordada o -1
+	 */
+	private int primeraDesbordada(int cubeta) {
+		return desborde == null ? -1 : desborde[cubeta];
+	}
+
+	/**
+	 * @param pos una posicion de la zona de desborde
+	 * @return la siguiente posicion desbordada de su cubeta o -1
+	 */
+	private int siguiente(int pos) {
+		return siguientes[pos - inicioDesborde];
+	}
+
+	/**
+	 * Quita la entrada de una posicion. En la cubeta se desplazan las
+	 * posteriores para que las ocupadas sigan siendo las primeras, y si la
+	 * cubeta tenia entradas desbordadas la primera pasa al hueco que queda al
+	 * final
+	 *
+	 * @param cubeta la cubeta
+	 * @param pos    la posicion
+	 */
+	private void eliminarPosicion(int cubeta, int pos) {
+
+		elementos--;
+
+		if (pos >= inicioDesborde) {
+			quitarDesbordada(cubeta, pos);
+			return;
+		}
+
+		int ultima = cubeta * tamanoCubeta + ocupadas[cubeta] - 1;
+		System.arraycopy(claves, pos + 1, claves, pos, ultima - pos);
+		System.arraycopy(valores, pos + 1, valores, pos, ultima - pos);
+		System.arraycopy(hashes, pos + 1, hashes, pos, ultima - pos);
+
+		int primera = primeraDesbordada(cubeta);
+		if (primera == -1) {
+			claves[ultima] = null;
+			valores[ultima] = null;
+			ocupadas[cubeta]--;
+			return;
+		}
+
+		claves[ultima] = claves[primera];
+		valores[ultima] = valores[primera];
+		hashes[ultima] = hashes[primera];
+		quitarDesbordada(cubeta, primera);
+	}
+
+	/**
+	 * Saca una posicion de la cadena de desborde de su cubeta y la deja libre
+	 *
+	 * @param cubeta la cubeta
+	 * @param pos    la posicion desbordada
+	 */
+	private void quitarDesbordada(int cubeta, int pos) {
+
+		if (desborde[cubeta] == pos)
+			desborde[cubeta] = siguiente(pos);
+		else {
+			int anterior = desborde[cubeta];
+			while (siguiente(anterior) != pos)
+				anterior = siguiente(anterior);
+			siguientes[anterior - inicioDesborde] = siguiente(pos);
+		}
+
+		claves[pos] = null;
+		valores[pos] = null;
+		siguientes[pos - inicioDesborde] = libreDesborde;
+		libreDesborde = pos;
+	}
+
+	/**
+	 * Inserta un par clave-valor que no esta en el mapa. Si su cubeta esta
+	 * llena se crece una vez, siempre que mas cubetas la separen y el mapa este
+	 * suficientemente ocupado, y si aun asi no cabe se desborda
+	 *
+	 * @param key   la clave
+	 * @param value el valor
+	 * @param hash  el hash de la clave
+	 */
+	private void colocar(Object key, Object value, int hash) {
+
+		int cubeta = getPosicionCubeta(hash, numeroCubeta);
+
+		if (ocupadas[cubeta] == tamanoCubeta && elementos >= CARGA_MINIMA * inicioDesborde) {
+			int nuevoNumero = numeroCubetasCrecimiento(numeroCubeta);
+			if (separables(cubeta, hash, nuevoNumero)) {
+				redimensionar(nuevoNumero);
+				cubeta = getPosicionCubeta(hash, numeroCubeta);
+			}
+		}
+
+		agregar(cubeta, key, value, hash);
+	}
+
+	/**
+	 * Añade un par clave-valor al final de su cubeta o, si esta llena, a su
+	 * cadena de desborde, sin crecer
+	 *
+	 * @param cubeta la cubeta de la clave
+	 * @param key    la clave
+	 * @param value  el valor
+	 * @param hash   el hash de la clave
+	 */
+	private void agregar(int cubeta, Object key, Object value, int hash) {
+
+		int pos;
+		if (ocupadas[cubeta] < tamanoCubeta)
+			pos = cubeta * tamanoCubeta + ocupadas[cubeta]++;
+		else {
+			pos = posicionDesborde();
+			if (desborde == null) {
+				desborde = new int[numeroCubeta];
+				Arrays.fill(desborde, -1);
+			}
+			siguientes[pos - inicioDesborde] = desborde[cubeta];
+			desborde[cubeta] = pos;
+		}
+
+		claves[pos] = key;
+		valores[pos] = value;
+		hashes[pos] = hash;
+	}
+
+	/**
+	 * Toma una posicion libre de la zona de desborde, ampliandola si no queda
+	 * ninguna. Al ampliarla las posiciones no cambian
+	 *
+	 * @return la posicion
+	 */
+	private int posicionDesborde() {
+
+		if (libreDesborde != -1) {
+			int pos = libreDesborde;
+			libreDesborde = siguiente(pos);
+			return pos;
+		}
+
+		if (usadasDesborde == siguientes.length) {
+			int longitud = Math.max(4, siguientes.length * 2);
+			if ((long) inicioDesborde + longitud > Integer.MAX_VALUE - 8)
+				throw new IllegalArgumentException();
+			claves = Arrays.copyOf(claves, inicioDesborde + longitud);
+			valores = Arrays.copyOf(valores, inicioDesborde + longitud);
+			hashes = Arrays.copyOf(hashes, inicioDesborde + longitud);
+			siguientes = Arrays.copyOf(siguientes, longitud);
+		}
+
+		return inicioDesborde + usadasDesborde++;
+	}
+
+	/**
+	 * Comprueba si un numero de cubetas separa un hash nuevo de las claves de su
+	 * cubeta llena, contando las desbordadas, lo bastante para que quepa
+	 *
+	 * @param cubeta        la cubeta llena
+	 * @param hash          el hash nuevo
+	 * @param numeroCubetas el numero de cubetas
+	 * @return true si con ese numero de cubetas caen en la cubeta del hash nuevo
+	 *         menos claves de la llena que su tamaño
+	 */
+	private boolean separables(int cubeta, int hash, int numeroCubetas) {
+
+		int destino = getPosicionCubeta(hash, numeroCubetas);
+		int juntas = 0;
+
+		int inicio = cubeta * tamanoCubeta;
+		for (int i = inicio; i < inicio + ocupadas[cubeta]; i++)
+			if (getPosicionCubeta(hashes[i], numeroCubetas) == destino)
+				juntas++;
+		for (int i = primeraDesbordada(cubeta); i != -1 && juntas < tamanoCubeta; i = siguiente(i))
+			if (getPosicionCubeta(hashes[i], numeroCubetas) == destino)
+				juntas++;
+
+		return juntas < tamanoCubeta;
+	}
+
+	/**
+	 * @param numeroCubeta el numero de cubetas actual
+	 * @return el numero de cubetas que tendra el mapa al crecer
+	 */
+	private int numeroCubetasCrecimiento(int numeroCubeta) {
+		int nuevoNumero = Math.max(numeroCubeta + 1, (int) (numeroCubeta * porcentajeCrecimiento));
+		return potenciaDos ? Dispersion.potenciaDos(nuevoNumero) : nuevoNumero;
+	}
+
+	private void inicializar(int tamanoCubeta, int numeroCubeta) {
+
+		if ((long) tamanoCubeta * numeroCubeta > Integer.MAX_VALUE - 8)
+			throw new IllegalArgumentException();
+
+		this.tamanoCubeta = tamanoCubeta;
+		this.numeroCubeta = numeroCubeta;
+		claves = new Object[tamanoCubeta * numeroCubeta];
+		valores = new Object[tamanoCubeta * numeroCubeta];
+		hashes = new int[tamanoCubeta * numeroCubeta];
+		ocupadas = new int[numeroCubeta];
+		inicioDesborde = tamanoCubeta * numeroCubeta;
+		desborde = null;
+		siguientes = new int[0];
+		usadasDesborde = 0;
+		libreDesborde = -1;
+	}
+
+	/**
+	 * Recoloca las entradas en arrays nuevos usando los hashes guardados. Las
+	 * que no caben en su cubeta nueva se desbordan, de forma que la recolocacion
+	 * nunca vuelve a empezar ni hace crecer el mapa otra vez.
+	 *
+	 * @param numeroCubeta el numero de cubetas
+	 */
+	private void redimensionar(int numeroCubeta) {
+
+		Object[] clavesAnteriores = claves;
+		Object[] valoresAnteriores = valores;
+		int[] hashesAnteriores = hashes;
+		int[] ocupadasAnteriores = ocupadas;
+		int[] desbordeAnterior = desborde;
+		int[] siguientesAnteriores = siguientes;
+		int inicioAnterior = inicioDesborde;
+
+		inicializar(tamanoCubeta, numeroCubeta);
+
+		for (int c = 0; c < ocupadasAnteriores.length; c++) {
+
+			int inicio = c * tamanoCubeta;
+			for (int i = inicio; i < inicio + ocupadasAnteriores[c]; i++) {
+				int hash = hashesAnteriores[i];
+				agregar(getPosicionCubeta(hash, numeroCubeta), clavesAnteriores[i], valoresAnteriores[i], hash);
+			}
+
+			int i = desbordeAnterior == null ? -1 : desbordeAnterior[c];
+			while (i != -1) {
+				int hash = hashesAnteriores[i];
+				agregar(getPosicionCubeta(hash, numeroCubeta), clavesAnteriores[i], valoresAnteriores[i], hash);
+				i = siguientesAnteriores[i - inicioAnterior];
+			}
+		}
+	}
+
+	/**
+	 * ------------------------------------------------------
+	 * OBLIGATORIOS
+	 * ------------------------------------------------------
+	 */
+
+	@Override
+	public int size() {
+		return elementos;
+	}
+
+	/**
+	 * Obtiene una vista de las entradas del mapa. No se copia nada: la vista
+	 * refleja los cambios del mapa y su iterador recorre directamente las
+	 * posiciones ocupadas de cada cubeta.
+	 *
+	 * @return la vista de las entradas
+	 */
+	@Override
+	public Set<Entry<K, V>> entrySet() {
+		if (entradas == null)
+			entradas = new Entradas();
+		return entradas;
+	}
+
+	/**
+	 * Vista de las entradas del mapa
+	 */
+	private class Entradas extends AbstractSet<Entry<K, V>> {
+
+		@Override
+		public int size() {
+			return elementos;
+		}
+
+		@Override
+		public Iterator<Entry<K, V>> iterator() {
+			return new Iterador();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof Entry) || ((Entry<?, ?>) o).getKey() == null)
+				return false;
+			Entry<?, ?> e = (Entry<?, ?>) o;
+			int pos = buscarPosicion(e.getKey(), hash(e.getKey()));
+			return pos != -1 && Objects.equals(valores[pos], e.getValue());
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if (!contains(o))
+				return false;
+			MapaDispersionPlana.this.remove(((Entry<?, ?>) o).getKey());
+			return true;
+		}
+
+		@Override
+		public void clear() {
+			MapaDispersionPlana.this.clear();
+		}
+	}
+
+	/**
+	 * Iterador que recorre las posiciones ocupadas de cada cubeta y despues sus
+	 * desbordadas. Al quitar una entrada de la cubeta las posteriores, que aun
+	 * no se han recorrido, se desplazan una posicion hacia atras y la primera
+	 * desbordada pasa al final, asi que se vuelve a mirar la misma posicion y la
+	 * cadena de desborde se empieza de nuevo.
+	 *
+	 * Falla con ConcurrentModificationException si el mapa cambia por fuera del
+	 * iterador. Cambiar el valor de una clave no cuenta como cambio.
+	 */
+	private class Iterador implements Iterator<Entry<K, V>> {
+
+		/**
+		 * Cubeta que se recorre y siguiente posicion de ella que se examina
+		 */
+		private int cubeta;
+		private int indice;
+		/**
+		 * Si ya se recorre la cadena de desborde de la cubeta, y su siguiente
+		 * posicion o -1
+		 */
+		private boolean enDesborde;
+		private int desbordada;
+		/**
+		 * Posicion de la ultima entrada devuelta, o -1
+		 */
+		private int devuelta = -1;
+		private int modCountEsperado = modCount;
+
+		@Override
+		public boolean hasNext() {
+			while (cubeta < numeroCubeta) {
+				if (!enDesborde) {
+					if (indice < ocupadas[cubeta])
+						return true;
+					enDesborde = true;
+					desbordada = primeraDesbordada(cubeta);
+				}
+				if (desbordada != -1)
+					return true;
+				cubeta++;
+				indice = 0;
+				enDesborde = false;
+			}
+			return false;
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			if (modCount != modCountEsperado)
+				throw new ConcurrentModificationException();
+			if (!hasNext())
+				throw new NoSuchElementException();
+			if (enDesborde) {
+				devuelta = desbordada;
+				desbordada = siguiente(desbordada);
+			} else
+				devuelta = cubeta * tamanoCubeta + indice++;
+			return new Entrada(devuelta);
+		}
+
+		@Override
+		public void remove() {
+			if (devuelta == -1)
+				throw new IllegalStateException();
+			if (modCount != modCountEsperado)
+				throw new ConcurrentModificationException();
+
+			eliminarPosicion(cubeta, devuelta);
+			modCountEsperado = ++modCount;
+			if (devuelta < inicioDesborde) {
+				indice = devuelta - cubeta * tamanoCubeta;
+				enDesborde = false;
+			}
+			devuelta = -1;
+		}
+	}
+
+}
@@ -1,27 +1,128 @@
 package tablasHash;
 
 import java.util.AbstractMap;
-import java.util.HashSet;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 public class MultiHash<K, V> extends AbstractMap<K, V> {
 
 	private int tam;
 	private Nodo<K, V> array[];
-	private final int INIT_SIZE = 10;
-	private final float CRECIMIENTO = 1.5F;
-	private final float MAX_CAP = 0.75F;
-	private String metDispersion = "EXPL";
+	private static final int INIT_SIZE = 10;
+
+	/**
+	 * Ocupacion maxima (contando las posiciones borradas) antes de crecer
+	 */
+	private float factorCarga;
+	/**
+	 * Factor por el que se multiplica el tamaño del array al crecer
+	 */
+	private float factorCrecimiento;
+	/**
+	 * Ocupacion por debajo de la cual se reduce el array (0 para no reducir)
+	 */
+	private float cargaMinima;
+	/**
+	 * Tamaño por debajo del cual no se reduce el array
+	 */
+	private int tamMinimo;
+	/**
+	 * Si el array tiene un tamaño potencia de dos y se indexa con mascara
+	 */
+	private boolean potenciaDos;
+	/**
+	 * Estrategia de exploracion, fija desde la construccion del mapa
+	 */
+	private final EstrategiaExploracion estrategia;
+	/**
+	 * Si las inserciones siguen el esquema Robin Hood
+	 */
+	private final boolean robinHood;
+	/**
+	 * En modo Robin Hood, numero de intento con el que se coloco la entrada de
+	 * cada posicion. Las posiciones borradas conservan el de la entrada eliminada
+	 */
+	private int[] distancias;
+	/**
+	 * Si al redimensionar las entradas se migran poco a poco en cada operacion
+	 * en vez de todas de golpe
+	 */
+	private final boolean incremental;
+	/**
+	 * Posiciones del array anterior que se migran como minimo en cada operacion
+	 */
+	private static final int PASOS_MIGRACION = 4;
+	/**
+	 * En modo incremental, array del que se estan migrando las entradas o null
+	 * si no hay ninguna migracion en curso. Solo se consulta y se vacia, las
+	 * entradas nuevas van siempre al array actual
+	 */
+	private Nodo<K, V> arrayAnterior[];
+	/**
+	 * Siguiente posicion del array anterior que se migra
+	 */
+	private int migradas;
+	/**
+	 * Posiciones del array anterior que se migran en cada operacion, calculadas
+	 * para terminar antes de que el array actual tenga que volver a crecer
+	 */
+	private int pasosMigracion;
+
+	/**
+	 * Estrategias de exploracion disponibles por nombre
+	 */
+	private static final Map<String, EstrategiaExploracion> ESTRATEGIAS = new ConcurrentHashMap<String, EstrategiaExploracion>();
+
+	static {
+		ESTRATEGIAS.put("EXPL", new ExploracionLineal());
+		ESTRATEGIAS.put("CUAD", new ExploracionCuadratica());
+		ESTRATEGIAS.put("COCI", new DesplazamientoCociente());
+		ESTRATEGIAS.put("DOBL", new DobleDispersion());
+	}
+
+	/**
+	 * Marca que ocupa las posiciones borradas para que las busquedas continuen
+	 * la secuencia de dispersion a traves de ellas
+	 */
+	private final Nodo<K, V> BORRADO = new Nodo<K, V>(null, null, 0);
+	private int borrados;
+	private float maxBorrados = 0.25F;
+	/**
+	 * Claves que getAll y putAll procesan a la vez, fase a fase
+	 */
+	private static final int GRUPO_LOTE = 16;
+	/**
+	 * Numero de cambios que mueven o quitan entradas, con el que los iteradores
+	 * detectan que el mapa se ha modificado por fuera de ellos
+	 */
+	private int modCount;
+	/**
+	 * Vista de las entradas, que se crea la primera vez que se pide
+	 */
+	private Set<Entry<K, V>> entradas;
 
 	@SuppressWarnings("hiding")
 	protected class Nodo<K, V> implements Entry<K, V> {
 
 		private K key;
 		private V val;
+		/**
+		 * Hash de la clave, calculado con {@link MultiHash#hash(Object)}
+		 */
+		private final int hash;
 
-		public Nodo(K k, V v) {
+		public Nodo(K k, V v, int h) {
 			key = k;
 			val = v;
+			hash = h;
 		}
 
 		@Override
@@ -49,46 +150,205 @@ public class MultiHash<K, V> extends AbstractMap<K, V> {
 	 * ----------------------------------------------------
 	 */
 	
-	@SuppressWarnings("unchecked")
 	public MultiHash() {
-		// Declare and setup array
-		array = new Nodo[INIT_SIZE];
-		for (int i = 0; i < INIT_SIZE; i++) {
-			array[i] = null;
-		}
-
-		// Setup size
-		tam = 0;
+		this("EXPL");
 	}
 	
-	@SuppressWarnings("unchecked")
 	public MultiHash(String dispersion) {
-		
-		//setup dispersion method
-		metDispersion=dispersion;
-		
-		// Declare and setup array
-		array = new Nodo[INIT_SIZE];
-		for (int i = 0; i < INIT_SIZE; i++) {
-			array[i] = null;
-		}
+		this(dispersion, INIT_SIZE, 0.75F, 1.5F, 0.1F, false);
+	}
 
-		// Setup size
-		tam = 0;
+	public MultiHash(int tam) {
+		this("EXPL", tam, 0.75F, 1.5F, 0.1F, false);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param dispersion  el metodo de dispersion ("EXPL", "CUAD", "COCI", "DOBL"
+	 *                    o uno registrado)
+	 * @param maxBorrados proporcion de posiciones borradas a partir de la cual se
+	 *                    compacta la tabla
+	 */
+	public MultiHash(String dispersion, float maxBorrados) {
+		this(dispersion);
+
+		if (maxBorrados <= 0 || maxBorrados > 1)
+			throw new IllegalArgumentException();
+
+		this.maxBorrados = maxBorrados;
 	}
 
+	/**
+	 * Constructor
+	 * 
+	 * @param dispersion        el metodo de dispersion ("EXPL", "CUAD", "COCI",
+	 *                          "DOBL" o uno registrado)
+	 * @param tam               el tamaño inicial del array
+	 * @param factorCarga       ocupacion maxima antes de crecer, entre 0 y 1
+	 * @param factorCrecimiento factor por el que crece el array, mayor que 1
+	 */
+	public MultiHash(String dispersion, int tam, float factorCarga, float factorCrecimiento) {
+		this(dispersion, tam, factorCarga, factorCrecimiento, 0F);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param dispersion        el metodo de dispersion ("EXPL", "CUAD", "COCI",
+	 *                          "DOBL" o uno registrado)
+	 * @param tam               el tamaño inicial del array
+	 * @param factorCarga       ocupacion maxima antes de crecer, entre 0 y 1
+	 * @param factorCrecimiento factor por el que crece el array, mayor que 1
+	 * @param cargaMinima       ocupacion por debajo de la cual se reduce el
+	 *                          array (0 para no reducirlo nunca). Tiene que ser
+	 *                          menor que factorCarga / factorCrecimiento
+	 */
+	public MultiHash(String dispersion, int tam, float factorCarga, float factorCrecimiento, float cargaMinima) {
+		this(dispersion, tam, factorCarga, factorCrecimiento, cargaMinima, false);
+	}
+	
+	/**
+	 * Constructor
+	 * 
+	 * @param dispersion        el metodo de dispersion ("EXPL", "CUAD", "COCI",
+	 *                          "DOBL" o uno registrado)
+	 * @param tam               el tamaño inicial del array
+	 * @param factorCarga       ocupacion maxima antes de crecer, entre 0 y 1
+	 * @param factorCrecimiento factor por el que crece el array, mayor que 1. En
+	 *                          modo potencia de dos el nuevo tamaño se redondea a
+	 *                          la siguiente potencia
+	 * @param cargaMinima       ocupacion por debajo de la cual se reduce el
+	 *                          array (0 para no reducirlo nunca)
+	 * @param potenciaDos       si el tamaño del array se redondea a potencias de
+	 *                          dos y las posiciones se calculan con mascara sobre
+	 *                          el hash mezclado en vez de con el resto de la
+	 *                          division
+	 */
+	public MultiHash(String dispersion, int tam, float factorCarga, float factorCrecimiento, float cargaMinima,
+			boolean potenciaDos) {
+		this(getEstrategia(dispersion), tam, factorCarga, factorCrecimiento, cargaMinima, potenciaDos, false);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param dispersion el metodo de dispersion ("EXPL", "CUAD", "COCI", "DOBL" o
+	 *                   uno registrado)
+	 * @param robinHood  si las inserciones siguen el esquema Robin Hood
+	 */
+	public MultiHash(String dispersion, boolean robinHood) {
+		this(getEstrategia(dispersion), INIT_SIZE, 0.75F, 1.5F, 0.1F, false, robinHood);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param estrategia la estrategia de exploracion
+	 */
+	public MultiHash(EstrategiaExploracion estrategia) {
+		this(estrategia, INIT_SIZE, 0.75F, 1.5F, 0.1F, false, false);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param estrategia        la estrategia de exploracion
+	 * @param tam               el tamaño inicial del array
+	 * @param factorCarga       ocupacion maxima antes de crecer, entre 0 y 1
+	 * @param factorCrecimiento factor por el que crece el array, mayor que 1. En
+	 *                          modo potencia de dos el nuevo tamaño se redondea a
+	 *                          la siguiente potencia
+	 * @param cargaMinima       ocupacion por debajo de la cual se reduce el
+	 *                          array (0 para no reducirlo nunca). Tiene que ser
+	 *                          menor que factorCarga / factorCrecimiento
+	 * @param potenciaDos       si el tamaño del array se redondea a potencias de
+	 *                          dos y las posiciones se calculan con mascara
+	 * @param robinHood         si las inserciones siguen el esquema Robin Hood:
+	 *                          una clave nueva desplaza a las que estan mas cerca
+	 *                          de su posicion inicial que ella, lo que iguala las
+	 *                          longitudes de sondeo y permite cortar antes las
+	 *                          busquedas sin exito
+	 */
+	public MultiHash(EstrategiaExploracion estrategia, int tam, float factorCarga, float factorCrecimiento,
+			float cargaMinima, boolean potenciaDos, boolean robinHood) {
+		this(estrategia, tam, factorCarga, factorCrecimiento, cargaMinima, potenciaDos, robinHood, false);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param estrategia        la estrategia de exploracion
+	 * @param tam               el tamaño inicial del array
+	 * @param factorCarga       ocupacion maxima antes de crecer, entre 0 y 1
+	 * @param factorCrecimiento factor por el que crece el array, mayor que 1
+	 * @param cargaMinima       ocupacion por debajo de la cual se reduce el
+	 *                          array (0 para no reducirlo nunca)
+	 * @param potenciaDos       si el tamaño del array se redondea a potencias de
+	 *                          dos y las posiciones se calculan con mascara
+	 * @param robinHood         si las inserciones siguen el esquema Robin Hood
+	 * @param incremental       si al redimensionar o compactar se conserva el
+	 *                          array anterior y sus entradas se migran unas pocas
+	 *                          en cada put o remove, de forma que ninguna
+	 *                          operacion tenga que recolocar el mapa entero.
+	 *                          Mientras dura la migracion las busquedas consultan
+	 *                          los dos arrays
+	 */
 	@SuppressWarnings("unchecked")
-	public MultiHash(int tam) {
+	public MultiHash(EstrategiaExploracion estrategia, int tam, float factorCarga, float factorCrecimiento,
+			float cargaMinima, boolean potenciaDos, boolean robinHood, boolean incremental) {
+
+		if (estrategia == null || tam <= 0 || factorCarga <= 0 || factorCarga >= 1 || factorCrecimiento <= 1
+				|| cargaMinima < 0 || cargaMinima >= factorCarga / factorCrecimiento)
+			throw new IllegalArgumentException();
+
+		this.estrategia = estrategia;
+		this.factorCarga = factorCarga;
+		this.factorCrecimiento = factorCrecimiento;
+		this.cargaMinima = cargaMinima;
+		this.potenciaDos = potenciaDos;
+		this.robinHood = robinHood;
+		this.incremental = incremental;
+
 		// Declare and setup array
-		array = new Nodo[tam];
-		for (int i = 0; i < tam; i++) {
-			array[i] = null;
-		}
+		array = new Nodo[potenciaDos ? Dispersion.potenciaDos(tam) : tam];
+		tamMinimo = array.length;
+		if (robinHood)
+			distancias = new int[array.length];
 
 		// Setup size
-		tam = 0;
+		this.tam = 0;
 	}
-	
+
+	/**
+	 * Registra una estrategia de exploracion para poder crear mapas con ella a
+	 * partir de su nombre
+	 * 
+	 * @param nombre     el nombre de la estrategia
+	 * @param estrategia la estrategia
+	 */
+	public static void registrarEstrategia(String nombre, EstrategiaExploracion estrategia) {
+		if (nombre == null || estrategia == null)
+			throw new IllegalArgumentException();
+
+		ESTRATEGIAS.put(nombre, estrategia);
+	}
+
+	/**
+	 * Obtiene una estrategia de exploracion a partir de su nombre
+	 * 
+	 * @param nombre el nombre de la estrategia
+	 * @return la estrategia
+	 * @throws IllegalArgumentException si no hay ninguna estrategia registrada
+	 *                                  con ese nombre
+	 */
+	public static EstrategiaExploracion getEstrategia(String nombre) {
+		EstrategiaExploracion e = nombre == null ? null : ESTRATEGIAS.get(nombre);
+		if (e == null)
+			throw new IllegalArgumentException("Estrategia desconocida: " + nombre);
+		return e;
+	}
+
 	/**
 	 * -----------------------------------------------------
 	 * CLASICOS
@@ -96,116 +356,646 @@ public class MultiHash<K, V> extends AbstractMap<K, V> {
 	 */
 	
 
+	/**
+	 * Obtiene el valor asociado a una clave
+	 * 
+	 * @param key la clave
+	 * @return el valor asociado o null si la clave no existe
+	 */
+	@Override
 	public V get(Object key) {
 
-		// Se comprueba si la clave existe en el mapa
-		if (!this.containsKey(key))
+		// Se busca la clave con un unico sondeo
+		Nodo<K, V> n = buscarNodo(key);
+		if (n == null)
 			return null;
-		
-		//Se busca en todas las posiciones posibles hasta
-		//volver a la inicial
-		int intento=0;
-		int start = dispersion((K)key, intento);
-		int currPos = -1;
-		boolean primeraPasada = false;
-		boolean fin = false;
-		
-		while (!fin) {
 
-			//Se calcula la siguiente posicion de dispersion
-			currPos = dispersion((K)key, intento++);
-			
-			
-			if(start == currPos && primeraPasada)
-				fin = true;
-			
-			//La primera iteracion romperia el bucle
-			//se pone este flag en esta posicion para evitarlo
-			primeraPasada = true;
-
-
-			
-			
-			if (array[currPos].getKey().equals(key)) {
-				return array[currPos].getValue();
-			}	
-		}
-		
-		return null;
+		return n.getValue();
+	}
+
+	/**
+	 * Comprueba si una clave existe en el mapa
+	 * 
+	 * @param key la clave
+	 * @return true si existe
+	 */
+	@Override
+	public boolean containsKey(Object key) {
+		return buscarNodo(key) != null;
 	}
 
 	@Override
 	public V put(K key, V value) {
+		return put(key, value, hash(key));
+	}
+
+	/**
+	 * Inserta un par de clave-valor con el hash calculado de antemano en una
+	 * {@link ClaveDispersada}, sin llamar a hashCode
+	 * 
+	 * @param clave la clave con su hash
+	 * @param value el valor
+	 * @return el valor anterior o null si la clave no existia
+	 */
+	public V put(ClaveDispersada<? extends K> clave, V value) {
+		return put(clave.getClave(), value, clave.hash(potenciaDos));
+	}
+
+	/**
+	 * Obtiene el valor de una clave con el hash calculado de antemano en una
+	 * {@link ClaveDispersada}, sin llamar a hashCode
+	 * 
+	 * @param clave la clave con su hash
+	 * @return el valor asociado o null si la clave no existe
+	 */
+	public V get(ClaveDispersada<?> clave) {
+		int pos = localizar(clave.getClave(), clave.hash(potenciaDos));
+		return pos < 0 ? null : nodo(pos).getValue();
+	}
 
-		// Se almacena el valor antigo
-		V oldValue = get(key);
+	/**
+	 * Inserta un par de clave-valor con el hash de la clave ya calculado
+	 * 
+	 * @param key   la clave
+	 * @param value el valor
+	 * @param hash  el hash de la clave
+	 * @return el valor anterior o null si la clave no existia
+	 */
+	private V put(K key, V value, int hash) {
 
-		if (oldValue != null)
-			// Si la clave existe machacamos con el nuevo valor
-			array[buscarPosicion(key)].setValue(value);
-		else {
+		int pos = localizar(key, hash);
 
-			// insertamos una entrada nueva
-			// ----------------------------
+		// Si la clave existe machacamos con el nuevo valor
+		if (pos >= 0)
+			return actualizar(pos, value);
 
-			// Si el array esta al limite de capacidad hay que redimensionar
-			if (getCapacity() >= MAX_CAP) {
-				redimensionar();
-				put(key, value);
-			} else {
-				
-				
-				int intento=0;
-				int start = dispersion((K)key, intento);
-				int currPos = -1;
-				boolean primeraPasada = false;
-				boolean fin = false;
-				
-				while (!fin) {
-
-					//Se calcula la siguiente posicion de dispersion
-					currPos = dispersion((K)key, intento++);
-					
-					if(start == currPos && primeraPasada)
-						fin = true;
-					
-					//La primera iteracion romperia el bucle
-					//se pone este flag en esta posicion para evitarlo
-					primeraPasada = true;
-					
-					if (array[currPos] == null) {
-						array[currPos] = new Nodo<K, V>(key, value);
-						tam++;
-						break;
-					}	
+		insertar(key, value, hash, ~pos);
+		return null;
+	}
+
+	/**
+	 * Obtiene el valor asociado a una clave o un valor por defecto si la clave
+	 * no existe
+	 * 
+	 * @param key          la clave
+	 * @param defaultValue el valor por defecto
+	 * @return el valor asociado, que puede ser null, o el valor por defecto
+	 */
+	@Override
+	public V getOrDefault(Object key, V defaultValue) {
+		Nodo<K, V> n = buscarNodo(key);
+		return n == null ? defaultValue : n.getValue();
+	}
+
+	/**
+	 * Inserta un par si la clave no existe o tiene valor null, localizando la
+	 * clave una sola vez
+	 * 
+	 * @param key   la clave
+	 * @param value el valor
+	 * @return el valor que tenia la clave o null si no existia
+	 */
+	@Override
+	public V putIfAbsent(K key, V value) {
+
+		int hash = hash(key);
+		int pos = localizar(key, hash);
+		if (pos < 0) {
+			insertar(key, value, hash, ~pos);
+			return null;
+		}
+
+		V actual = nodo(pos).getValue();
+		return actual != null ? actual : actualizar(pos, value);
+	}
+
+	/**
+	 * Calcula el valor de una clave que no existe o tiene valor null,
+	 * localizando la clave una sola vez
+	 * 
+	 * @param key             la clave
+	 * @param mappingFunction la funcion que calcula el valor a partir de la
+	 *                        clave. Si devuelve null no se cambia nada
+	 * @return el valor que queda asociado a la clave
+	 */
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+
+		if (mappingFunction == null)
+			throw new NullPointerException();
+
+		int hash = hash(key);
+		int pos = localizar(key, hash);
+		V actual = pos < 0 ? null : nodo(pos).getValue();
+		if (actual != null)
+			return actual;
+
+		int esperado = modCount;
+		V nuevo = mappingFunction.apply(key);
+		comprobarCambios(esperado);
+
+		return nuevo == null ? null : guardar(key, hash, pos, nuevo);
+	}
+
+	/**
+	 * Recalcula el valor de una clave que existe con valor distinto de null,
+	 * localizando la clave una sola vez
+	 * 
+	 * @param key               la clave
+	 * @param remappingFunction la funcion que calcula el nuevo valor a partir de
+	 *                          la clave y el actual. Si devuelve null la clave se
+	 *                          elimina
+	 * @return el nuevo valor o null si no hay ninguno
+	 */
+	@Override
+	public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+
+		if (remappingFunction == null)
+			throw new NullPointerException();
+
+		int hash = hash(key);
+		int pos = localizar(key, hash);
+		V actual = pos < 0 ? null : nodo(pos).getValue();
+		if (actual == null)
+			return null;
+
+		int esperado = modCount;
+		V nuevo = remappingFunction.apply(key, actual);
+		comprobarCambios(esperado);
+
+		return guardar(key, hash, pos, nuevo);
+	}
+
+	/**
+	 * Recalcula el valor de una clave, localizandola una sola vez
+	 * 
+	 * @param key               la clave
+	 * @param remappingFunction la funcion que calcula el nuevo valor a partir de
+	 *                          la clave y el actual, que es null si la clave no
+	 *                          existe. Si devuelve null la clave se elimina
+	 * @return el nuevo valor o null si no hay ninguno
+	 */
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+
+		if (remappingFunction == null)
+			throw new NullPointerException();
+
+		int hash = hash(key);
+		int pos = localizar(key, hash);
+
+		int esperado = modCount;
+		V nuevo = remappingFunction.apply(key, pos < 0 ? null : nodo(pos).getValue());
+		comprobarCambios(esperado);
+
+		return guardar(key, hash, pos, nuevo);
+	}
+
+	/**
+	 * Combina un valor con el de una clave, localizandola una sola vez
+	 * 
+	 * @param key               la clave
+	 * @param value             el valor que se guarda si la clave no existe o
+	 *                          tiene valor null, o que se combina con el actual
+	 * @param remappingFunction la funcion que combina el valor actual con el
+	 *                          nuevo. Si devuelve null la clave se elimina
+	 * @return el nuevo valor o null si no hay ninguno
+	 */
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+
+		if (value == null || remappingFunction == null)
+			throw new NullPointerException();
+
+		int hash = hash(key);
+		int pos = localizar(key, hash);
+		V actual = pos < 0 ? null : nodo(pos).getValue();
+		if (actual == null)
+			return guardar(key, hash, pos, value);
+
+		int esperado = modCount;
+		V nuevo = remappingFunction.apply(actual, value);
+		comprobarCambios(esperado);
+
+		return guardar(key, hash, pos, nuevo);
+	}
+
+	/**
+	 * Obtiene los valores de un lote de claves. Las claves se procesan en
+	 * grupos y cada grupo avanza por fases: primero se calculan todos los
+	 * hashes, despues se leen seguidas las primeras posiciones de sus
+	 * secuencias de dispersion y despues los nodos. Como ninguna lectura de una
+	 * fase depende de otra de la misma fase, los fallos de cache de las claves
+	 * del grupo se solapan en vez de esperarse uno detras de otro. Al final se
+	 * comparan las claves; las que no estan en el primer intento siguen la
+	 * secuencia normal con el hash ya calculado.
+	 * 
+	 * @param keys las claves
+	 * @param out  el array en el que se deja el valor de cada clave, o null si
+	 *             no existe, en la misma posicion que la clave
+	 */
+	@SuppressWarnings("unchecked")
+	public void getAll(K[] keys, V[] out) {
+
+		if (out.length < keys.length)
+			throw new IllegalArgumentException();
+
+		int[] hashes = new int[GRUPO_LOTE];
+		Nodo<K, V>[] nodos = new Nodo[GRUPO_LOTE];
+
+		for (int inicio = 0; inicio < keys.length; inicio += GRUPO_LOTE) {
+
+			int n = Math.min(GRUPO_LOTE, keys.length - inicio);
+			cargarGrupo(keys, inicio, n, hashes, nodos);
+
+			for (int j = 0; j < n; j++) {
+				Nodo<K, V> nodo = nodos[j];
+				K key = keys[inicio + j];
+				if (nodo == null && arrayAnterior == null)
+					out[inicio + j] = null;
+				else if (nodo != null && nodo != BORRADO && nodo.getKey().equals(key))
+					out[inicio + j] = nodo.getValue();
+				else {
+					int pos = localizar(key, hashes[j]);
+					out[inicio + j] = pos < 0 ? null : nodo(pos).getValue();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Inserta un lote de pares clave-valor. Se adelantan por grupos los
+	 * calculos de hash y las lecturas de las primeras posiciones, como en
+	 * {@link #getAll(Object[], Object[])}, y despues se escribe cada par en
+	 * orden. Una clave repetida en el lote se queda con el ultimo valor.
+	 * 
+	 * @param keys las claves
+	 * @param vals los valores, en la misma posicion que su clave
+	 */
+	@SuppressWarnings("unchecked")
+	public void putAll(K[] keys, V[] vals) {
+
+		if (vals.length < keys.length)
+			throw new IllegalArgumentException();
+
+		int[] hashes = new int[GRUPO_LOTE];
+		Nodo<K, V>[] nodos = new Nodo[GRUPO_LOTE];
+
+		for (int inicio = 0; inicio < keys.length; inicio += GRUPO_LOTE) {
+
+			int n = Math.min(GRUPO_LOTE, keys.length - inicio);
+			cargarGrupo(keys, inicio, n, hashes, nodos);
+
+			// Las escrituras del grupo pueden mover las entradas, pero un nodo
+			// leido antes sigue siendo el de su clave
+			for (int j = 0; j < n; j++) {
+				Nodo<K, V> nodo = nodos[j];
+				K key = keys[inicio + j];
+				if (nodo != null && nodo != BORRADO && nodo.getKey().equals(key)) {
+					nodo.setValue(vals[inicio + j]);
+					continue;
 				}
-				
+
+				put(key, vals[inicio + j], hashes[j]);
 			}
 		}
+	}
+
+	/**
+	 * Primeras fases de un grupo de un lote: calcula los hashes y lee el nodo
+	 * del primer intento de cada clave, todas las lecturas de cada fase
+	 * seguidas
+	 * 
+	 * @param keys   las claves del lote
+	 * @param inicio la primera clave del grupo
+	 * @param n      el numero de claves del grupo
+	 * @param hashes donde se dejan los hashes
+	 * @param nodos  donde se deja el nodo del primer intento de cada clave si
+	 *               tiene su mismo hash, null si la posicion esta vacia o
+	 *               BORRADO si esta borrada o tiene el nodo de otro hash
+	 */
+	private void cargarGrupo(K[] keys, int inicio, int n, int[] hashes, Nodo<K, V>[] nodos) {
+
+		for (int j = 0; j < n; j++)
+			hashes[j] = hash(keys[inicio + j]);
+
+		for (int j = 0; j < n; j++)
+			nodos[j] = array[dispersion(hashes[j], 0)];
+
+		// Se toca cada nodo leyendo su hash para que sus fallos de cache
+		// tambien se solapen
+		for (int j = 0; j < n; j++)
+			if (nodos[j] != null && nodos[j].hash != hashes[j])
+				nodos[j] = BORRADO;
+	}
+
+	/**
+	 * Busca una clave con un solo recorrido de su secuencia de dispersion en el
+	 * array actual y, si no esta y hay una migracion en curso, en el anterior.
+	 * Mientras recorre la secuencia apunta donde se insertaria la clave
+	 * 
+	 * @param key  la clave
+	 * @param hash el hash de la clave
+	 * @return la posicion de la clave en el array actual, la del array anterior
+	 *         mas la longitud del actual, o ~h si no esta. h es la primera
+	 *         posicion vacia o borrada de la secuencia o, en modo Robin Hood, el
+	 *         intento por el que empieza su colocacion. Si la secuencia no
+	 *         alcanza ningun hueco h es la longitud del array
+	 */
+	private int localizar(Object key, int hash) {
+
+		int hueco = array.length;
+
+		if (robinHood) {
+
+			// Se busca la clave hasta una posicion vacia o hasta una entrada
+			// colocada con menos intentos que el actual: si la clave existiera
+			// ya la habria desplazado, asi que no puede estar mas adelante
+			int intento = 0;
+			for (; intento < array.length; intento++) {
+
+				int currPos = dispersion(hash, intento);
+
+				if (array[currPos] == null || distancias[currPos] < intento)
+					break;
+
+				if (array[currPos] != BORRADO && array[currPos].hash == hash && array[currPos].getKey().equals(key))
+					return currPos;
+			}
+			hueco = intento;
+
+		} else {
+
+			// Se recorre la secuencia de dispersion hasta encontrar la clave
+			// o la primera posicion vacia, recordando el primer borrado
+			for (int intento = 0; intento < array.length; intento++) {
+
+				//Se calcula la siguiente posicion de dispersion
+				int currPos = dispersion(hash, intento);
+
+				if (array[currPos] == null) {
+					if (hueco == array.length)
+						hueco = currPos;
+					break;
+				}
+
+				// Las posiciones borradas se pueden reutilizar, pero la clave
+				// puede estar mas adelante en la secuencia
+				if (array[currPos] == BORRADO) {
+					if (hueco == array.length)
+						hueco = currPos;
+					continue;
+				}
+
+				if (array[currPos].hash == hash && array[currPos].getKey().equals(key))
+					return currPos;
+			}
+		}
+
+		// Durante una migracion la clave puede seguir en el array anterior
+		if (arrayAnterior != null) {
+			int anterior = buscarPosicionAnterior(key, hash);
+			if (anterior != -1)
+				return array.length + anterior;
+		}
+
+		return ~hueco;
+	}
+
+	/**
+	 * @param pos una posicion devuelta por {@link #localizar(Object, int)} en
+	 *            la que esta la clave
+	 * @return el nodo de esa posicion
+	 */
+	private Nodo<K, V> nodo(int pos) {
+		return pos < array.length ? array[pos] : arrayAnterior[pos - array.length];
+	}
+
+	/**
+	 * Sustituye el valor de una clave que existe. Si esta en el array anterior
+	 * se aprovecha para avanzar la migracion
+	 * 
+	 * @param pos   la posicion de la clave, devuelta por localizar
+	 * @param value el nuevo valor
+	 * @return el valor anterior
+	 */
+	private V actualizar(int pos, V value) {
+
+		V oldValue = nodo(pos).setValue(value);
+		if (pos >= array.length)
+			migrar(pasosMigracion);
 
 		return oldValue;
 	}
 
-	public V remove(Object key) {
+	/**
+	 * Inserta una entrada nueva en el hueco que encontro su busqueda
+	 * 
+	 * @param key   la clave, que no esta en el mapa
+	 * @param value el valor
+	 * @param hash  el hash de la clave
+	 * @param hueco el hueco devuelto por localizar
+	 */
+	private void insertar(K key, V value, int hash, int hueco) {
+
+		// Si la secuencia de dispersion no alcanza ningun hueco hay que crecer
+		if (hueco == array.length) {
+			redimensionar(tamCrecimiento());
+			put(key, value, hash);
+			return;
+		}
 
-		// Se almacena el valor antigo
-		V value = get(key);
+		if (robinHood) {
+			insertarRobinHood(key, value, hash, hueco);
+			return;
+		}
+
+		// Si ocupar una posicion vacia supera el factor de carga se crece, o
+		// basta con compactar si la mayor parte de la ocupacion son borrados
+		if (array[hueco] == null && (float) (tam + borrados + 1) / array.length > factorCarga) {
+			if ((float) (tam + 1) / array.length > factorCarga)
+				redimensionar(tamCrecimiento());
+			else
+				compactar();
+			put(key, value, hash);
+			return;
+		}
+
+		if (array[hueco] == BORRADO)
+			borrados--;
+
+		array[hueco] = new Nodo<K, V>(key, value, hash);
+		tam++;
+		modCount++;
+
+		migrar(pasosMigracion);
+	}
 
-		// Si la clave existe se elimina la entrada
-		if (value != null) {
+	/**
+	 * Inserta una entrada nueva siguiendo el esquema Robin Hood
+	 * 
+	 * @param key     la clave, que no esta en el mapa
+	 * @param value   el valor
+	 * @param hash    el hash de la clave
+	 * @param intento el intento de su secuencia por el que empieza la colocacion
+	 */
+	private void insertarRobinHood(K key, V value, int hash, int intento) {
 
-			// Se elimina la entrada del array
-			array[buscarPosicion((K) key)] = null;
+		// Se crece o se compacta antes de superar el factor de carga
+		if ((float) (tam + borrados + 1) / array.length > factorCarga) {
+			if ((float) (tam + 1) / array.length > factorCarga)
+				redimensionar(tamCrecimiento());
+			else
+				compactar();
+			put(key, value, hash);
+			return;
+		}
 
-			// Se vuelven a insertar el resto de elemnetos en un nuevo mapa
-			MultiHash<K, V> h = new MultiHash<K, V>(array.length);
-			h.putAll(this);
-			// Se remplaza el array original por el del mapa nuevo
-			this.array = h.array;
+		tam++;
+		modCount++;
+		Nodo<K, V> sinHueco = colocarRobinHood(new Nodo<K, V>(key, value, hash), intento);
 
-			// Se ajusta el tamaño del array
+		// Si alguna entrada desplazada se ha quedado sin hueco se crece y se
+		// vuelve a insertar
+		if (sinHueco != null) {
 			tam--;
+			redimensionar(tamCrecimiento());
+			put(sinHueco.getKey(), sinHueco.getValue(), sinHueco.hash);
 		}
+
+		migrar(pasosMigracion);
+	}
+
+	/**
+	 * Deja una clave ya localizada con el valor calculado: la inserta si no
+	 * existia, cambia su valor si existia o la elimina si el valor es null
+	 * 
+	 * @param key   la clave
+	 * @param hash  el hash de la clave
+	 * @param pos   la posicion devuelta por localizar
+	 * @param value el valor calculado
+	 * @return el valor calculado
+	 */
+	private V guardar(K key, int hash, int pos, V value) {
+
+		if (value == null) {
+			if (pos >= 0)
+				eliminar(pos);
+		} else if (pos < 0)
+			insertar(key, value, hash, ~pos);
+		else
+			actualizar(pos, value);
+
+		return value;
+	}
+
+	/**
+	 * Comprueba que la funcion de un compute o merge no ha cambiado el mapa, lo
+	 * que invalidaria la posicion localizada antes de llamarla
+	 * 
+	 * @param esperado el modCount antes de llamar a la funcion
+	 */
+	private void comprobarCambios(int esperado) {
+		if (modCount != esperado)
+			throw new ConcurrentModificationException();
+	}
+
+	/**
+	 * Coloca un nodo que no esta en la tabla a partir de un intento de su
+	 * secuencia de dispersion. Ocupa la primera posicion vacia, o la primera
+	 * cuya entrada se coloco con menos intentos, en cuyo caso la entrada
+	 * desplazada continua su propia secuencia.
+	 * 
+	 * @param nodo    el nodo a colocar
+	 * @param intento el intento por el que se empieza
+	 * @return el nodo que se ha quedado sin hueco, o null si todos caben
+	 */
+	private Nodo<K, V> colocarRobinHood(Nodo<K, V> nodo, int intento) {
+
+		int hash = nodo.hash;
+
+		for (; intento < array.length; intento++) {
+
+			int currPos = dispersion(hash, intento);
+			Nodo<K, V> ocupante = array[currPos];
+
+			// La posicion no se puede ocupar, se sigue la secuencia
+			if (ocupante != null && distancias[currPos] >= intento)
+				continue;
+
+			int distanciaOcupante = distancias[currPos];
+			array[currPos] = nodo;
+			distancias[currPos] = intento;
+
+			// La posicion estaba libre
+			if (ocupante == null)
+				return null;
+			if (ocupante == BORRADO) {
+				borrados--;
+				return null;
+			}
+
+			// Se continua con la entrada desplazada desde donde estaba
+			nodo = ocupante;
+			intento = distanciaOcupante;
+			hash = nodo.hash;
+		}
+
+		return nodo;
+	}
+
+	@Override
+	public V remove(Object key) {
+
+		// Si la clave no existe no hay nada que eliminar
+		int pos = localizar(key, hash(key));
+		if (pos < 0)
+			return null;
+
+		return eliminar(pos);
+	}
+
+	/**
+	 * Elimina una clave ya localizada
+	 * 
+	 * @param pos la posicion de la clave, devuelta por localizar
+	 * @return el valor que tenia
+	 */
+	private V eliminar(int pos) {
+
+		V value;
+
+		if (pos < array.length) {
+
+			// Se almacena el valor antigo
+			value = array[pos].getValue();
+
+			// Se marca la posicion como borrada para no cortar la secuencia de
+			// dispersion de otras claves
+			array[pos] = BORRADO;
+			borrados++;
+
+		} else {
+
+			// En el array anterior tambien se deja una marca, como al migrar
+			pos -= array.length;
+			value = arrayAnterior[pos].getValue();
+			arrayAnterior[pos] = BORRADO;
+		}
+
+		// Se ajusta el tamaño del array
+		tam--;
+		modCount++;
+
+		// Si han quedado pocas entradas se devuelve memoria, y si hay demasiadas
+		// posiciones borradas se compacta la tabla
+		if (array.length > tamMinimo && getOcupacion() < cargaMinima && tam <= factorCarga * tamReduccion())
+			redimensionar(tamReduccion());
+		else if ((float) borrados / array.length > maxBorrados)
+			compactar();
+
+		migrar(pasosMigracion);
+
 		return value;
 	}
 
@@ -217,10 +1007,19 @@ public class MultiHash<K, V> extends AbstractMap<K, V> {
 
 			if (array[i] == null) {
 				s.append("v[" + i + "]={NULL}\n");
+			} else if (array[i] == BORRADO) {
+				s.append("v[" + i + "]={BORRADO}\n");
 			} else {
 				s.append("v[" + i + "]={" + array[i].getKey() + ", " + array[i].getValue() + "}\n");
 			}
 		}
+
+		if (arrayAnterior != null)
+			for (int i = migradas; i < arrayAnterior.length; i++)
+				if (arrayAnterior[i] != null && arrayAnterior[i] != BORRADO)
+					s.append("anterior[" + i + "]={" + arrayAnterior[i].getKey() + ", "
+							+ arrayAnterior[i].getValue() + "}\n");
+
 		return s.toString();
 	}
 	
@@ -231,45 +1030,320 @@ public class MultiHash<K, V> extends AbstractMap<K, V> {
 	 * ----------------------------------------------------------
 	 **/
 	
-	private float getCapacity() {
-		return (float) (tam / array.length);
+	/**
+	 * Obtiene la ocupacion actual del array
+	 * 
+	 * @return la proporcion de posiciones con entradas, entre 0 y 1
+	 */
+	public float getOcupacion() {
+		return (float) tam / array.length;
+	}
+
+	/**
+	 * Obtiene la proporcion de posiciones marcadas como borradas
+	 * 
+	 * @return la proporcion de posiciones borradas, entre 0 y 1
+	 */
+	public float getOcupacionBorrados() {
+		return (float) borrados / array.length;
+	}
+
+	/**
+	 * Obtiene el mayor numero de posiciones que tiene que visitar una busqueda
+	 * con exito, es decir, la secuencia de dispersion mas larga del array
+	 * actual. Durante una migracion no se cuentan las entradas del anterior
+	 * 
+	 * @return el numero maximo de sondeos
+	 */
+	public int getSondeoMaximo() {
+
+		int maximo = 0;
+
+		for (int i = 0; i < array.length; i++) {
+			if (array[i] != null && array[i] != BORRADO) {
+				int hash = array[i].hash;
+				int intento = 0;
+				while (dispersion(hash, intento) != i)
+					intento++;
+				maximo = Math.max(maximo, intento + 1);
+			}
+		}
+
+		return maximo;
+	}
+
+	/**
+	 * Obtiene el tamaño actual del array
+	 * 
+	 * @return el numero de posiciones del array
+	 */
+	public int getCapacidad() {
+		return array.length;
+	}
+
+	/**
+	 * Tamaño que tendra el array la proxima vez que crezca
+	 * 
+	 * @return
+	 */
+	private int tamCrecimiento() {
+		return tamCrecimiento(array.length);
+	}
+
+	/**
+	 * Tamaño al que crece un array de un tamaño dado
+	 * 
+	 * @param tamActual el tamaño de partida
+	 * @return
+	 */
+	private int tamCrecimiento(int tamActual) {
+		int nuevoTam = Math.max(tamActual + 1, (int) (tamActual * factorCrecimiento));
+		return potenciaDos ? Dispersion.potenciaDos(nuevoTam) : nuevoTam;
+	}
+
+	/**
+	 * Tamaño que tendra el array la proxima vez que se reduzca
+	 * 
+	 * @return
+	 */
+	private int tamReduccion() {
+		int nuevoTam = Math.max(tamMinimo, (int) (array.length / factorCrecimiento));
+		return potenciaDos ? Math.max(tamMinimo, Integer.highestOneBit(nuevoTam)) : nuevoTam;
+	}
+
+	/**
+	 * Elimina las posiciones borradas volviendo a colocar las entradas en una
+	 * tabla del mismo tamaño, de golpe o en modo incremental poco a poco
+	 */
+	private void compactar() {
+		redimensionar(array.length);
+	}
+
+	/**
+	 * Recoloca las entradas existentes en una tabla nueva, descartando las
+	 * posiciones borradas y usando el hash guardado en cada nodo. Si la
+	 * secuencia de dispersion de alguna clave no alcanza ningun hueco se sigue
+	 * creciendo.
+	 * 
+	 * @param nuevoTam el tamaño de la nueva tabla
+	 */
+	private void redimensionar(int nuevoTam) {
+		if (incremental)
+			iniciarMigracion(nuevoTam);
+		else
+			reconstruir(nuevoTam);
+	}
+
+	/**
+	 * Recoloca de golpe todas las entradas, incluidas las que queden en el
+	 * array anterior si hay una migracion en curso
+	 * 
+	 * @param nuevoTam el tamaño de la nueva tabla
+	 */
+	@SuppressWarnings("unchecked")
+	private void reconstruir(int nuevoTam) {
+
+		Nodo<K, V>[] anterior = array;
+		Nodo<K, V>[] pendiente = arrayAnterior;
+		arrayAnterior = null;
+		boolean recolocado = false;
+
+		while (!recolocado) {
+
+			array = new Nodo[nuevoTam];
+			if (robinHood)
+				distancias = new int[nuevoTam];
+			borrados = 0;
+
+			recolocado = recolocar(anterior) && (pendiente == null || recolocar(pendiente));
+
+			nuevoTam = tamCrecimiento(nuevoTam);
+		}
+
+		borrados = 0;
+	}
+
+	/**
+	 * Coloca en el array actual las entradas de otro array
+	 * 
+	 * @param origen el array
+	 * @return false si alguna no alcanza ningun hueco
+	 */
+	private boolean recolocar(Nodo<K, V>[] origen) {
+
+		for (int i = 0; i < origen.length; i++)
+			if (origen[i] != null && origen[i] != BORRADO && colocar(origen[i]) != null)
+				return false;
+
+		return true;
+	}
+
+	/**
+	 * Coloca un nodo que no esta en el array actual desde el principio de su
+	 * secuencia de dispersion
+	 * 
+	 * @param nodo el nodo
+	 * @return el nodo que se ha quedado sin hueco, o null si todos caben
+	 */
+	private Nodo<K, V> colocar(Nodo<K, V> nodo) {
+
+		if (robinHood)
+			return colocarRobinHood(nodo, 0);
+
+		int pos = buscarHueco(nodo.hash);
+		if (pos == -1)
+			return nodo;
+
+		array[pos] = nodo;
+		return null;
+	}
+
+	/**
+	 * Sustituye el array por uno nuevo vacio y conserva el actual como array
+	 * anterior, del que se iran migrando las entradas. Si ya habia una migracion
+	 * en curso se termina antes.
+	 * 
+	 * @param nuevoTam el tamaño del nuevo array
+	 */
+	@SuppressWarnings("unchecked")
+	private void iniciarMigracion(int nuevoTam) {
+
+		migrar(Integer.MAX_VALUE);
+
+		arrayAnterior = array;
+		array = new Nodo[nuevoTam];
+		if (robinHood)
+			distancias = new int[nuevoTam];
+		borrados = 0;
+		migradas = 0;
+
+		// Se reparte la migracion entre las inserciones que caben en el nuevo
+		// array antes de que tenga que volver a crecer
+		int margen = Math.max(1, (int) (factorCarga * nuevoTam) - tam);
+		pasosMigracion = Math.max(PASOS_MIGRACION, arrayAnterior.length / margen + 1);
+	}
+
+	/**
+	 * Mueve al array actual las entradas de las siguientes posiciones del array
+	 * anterior, dejando en su lugar una marca de borrado. Si alguna no alcanza
+	 * ningun hueco se recoloca todo de golpe en un array mayor.
+	 * 
+	 * @param pasos el numero de posiciones a migrar
+	 */
+	private void migrar(int pasos) {
+
+		// Las entradas cambian de array, los iteradores abiertos dejan de valer
+		if (arrayAnterior != null)
+			modCount++;
+
+		for (int i = 0; i < pasos && arrayAnterior != null; i++) {
+
+			// Las posiciones vacias se quedan vacias para no alargar las
+			// busquedas en el array anterior
+			Nodo<K, V> n = arrayAnterior[migradas];
+			if (n != null)
+				arrayAnterior[migradas] = BORRADO;
+			if (++migradas == arrayAnterior.length)
+				arrayAnterior = null;
+
+			Nodo<K, V> sinHueco = n == null || n == BORRADO ? null : colocar(n);
+			while (sinHueco != null) {
+				reconstruir(tamCrecimiento());
+				sinHueco = colocar(sinHueco);
+			}
+		}
 	}
 
-	private void redimensionar() {
-		int nuevoTam = (int) (array.length * CRECIMIENTO);
-		MultiHash<K, V> nuevo = new MultiHash<K, V>(nuevoTam);
-		nuevo.putAll(this);
-		this.array = nuevo.array;
+	/**
+	 * Busca una clave en el array actual y, si hay una migracion en curso, en el
+	 * anterior
+	 * 
+	 * @param key la clave
+	 * @return el nodo de la clave o null si no existe
+	 */
+	private Nodo<K, V> buscarNodo(Object key) {
+
+		int hash = hash(key);
+		int pos = buscarPosicion(key, hash);
+		if (pos != -1)
+			return array[pos];
+
+		if (arrayAnterior != null && (pos = buscarPosicionAnterior(key, hash)) != -1)
+			return arrayAnterior[pos];
+
+		return null;
+	}
+
+	/**
+	 * Busca una clave en el array anterior. Las posiciones migradas o eliminadas
+	 * estan marcadas como borradas y no cortan la busqueda
+	 * 
+	 * @param key  la clave
+	 * @param hash el hash de la clave
+	 * @return la posicion de la clave en el array anterior o -1 si no esta
+	 */
+	private int buscarPosicionAnterior(Object key, int hash) {
+
+		for (int intento = 0; intento < arrayAnterior.length; intento++) {
+
+			int currPos = estrategia.posicion(hash, intento, arrayAnterior.length, potenciaDos);
+			Nodo<K, V> n = arrayAnterior[currPos];
+
+			if (n == null)
+				return -1;
+			if (n != BORRADO && n.hash == hash && n.getKey().equals(key))
+				return currPos;
+		}
+
+		return -1;
 	}
 
-	private int buscarPosicion(K key) {
+	/**
+	 * Busca la primera posicion vacia de la secuencia de dispersion de un hash
+	 * 
+	 * @param hash el hash de la clave
+	 * @return la posicion vacia o -1 si no se alcanza ninguna
+	 */
+	private int buscarHueco(int hash) {
 
-		// Se busca a partir de la siguiente posicion vacia posterior a el en el array
-		
-		int intento=0;
-		int start = dispersion((K)key, intento);
-		int currPos = -1;
-		boolean primeraPasada = false;
-		boolean fin = false;
-		
-		while (!fin) {
+		for (int intento = 0; intento < array.length; intento++) {
+			int currPos = dispersion(hash, intento);
+			if (array[currPos] == null)
+				return currPos;
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Busca la posicion de una clave recorriendo su secuencia de dispersion. La
+	 * busqueda termina en cuanto se encuentra la clave o la primera posicion vacia
+	 * 
+	 * @param key  la clave
+	 * @param hash el hash de la clave
+	 * @return la posicion de la clave o -1 si no existe
+	 */
+	private int buscarPosicion(Object key, int hash) {
+
+		for (int intento = 0; intento < array.length; intento++) {
 
 			//Se calcula la siguiente posicion de dispersion
-			currPos = dispersion((K)key, intento++);
-			
-			
-			if(start == currPos && primeraPasada)
-				fin = true;
-			
-			//La primera iteracion romperia el bucle
-			//se pone este flag en esta posicion para evitarlo
-			primeraPasada = true;
-			
-			if (array[currPos].getKey().equals(key)) {
+			int currPos = dispersion(hash, intento);
+
+			if (array[currPos] == null)
+				return -1;
+
+			// En modo Robin Hood la clave no puede estar despues de una entrada
+			// colocada con menos intentos
+			if (robinHood && distancias[currPos] < intento)
+				return -1;
+
+			// Las posiciones borradas no cortan la busqueda. Solo se compara la
+			// clave si coincide el hash
+			if (array[currPos] != BORRADO && array[currPos].hash == hash && array[currPos].getKey().equals(key))
 				return currPos;
-			}	
 		}
-		
+
 		// No encontrado
 		return -1;
 	}
@@ -281,53 +1355,27 @@ public class MultiHash<K, V> extends AbstractMap<K, V> {
 	 **/
 	
 	
-	private int dispersion(K key, int intento) {
-		
-		int result = -1;
-		
-		switch(metDispersion) {
-			case ("EXPL"):
-				result = exploracionLineal(key, intento);
-			break;
-			case ("CUAD"):
-				result = exploracionCuadratica(key, intento);
-			break;
-			case ("COCI"):
-				result = desplazamientoCociente(key, intento);
-			break;
-			default:
-				result = exploracionLineal(key, intento);
-			break;
-			
-		}
-		
-		return result;
-	}
-	
-	private int exploracionLineal(K key, int intento) {
-		// Se calcula la posicion a partir del hash de la tabla
-		int hash = key.hashCode();
-		return Math.abs((intento + hash) % array.length);
-	}
-	
-	private int exploracionCuadratica(K key, int intento) {
-		// Se calcula la posicion a partir del hash de la tabla
-		int hash = key.hashCode();
-		return Math.abs((intento*intento + hash) % array.length);
+	/**
+	 * Posicion del intento-esimo sondeo de la secuencia de dispersion
+	 * 
+	 * @param hash    el hash de la clave, calculado con {@link #hash(Object)}
+	 * @param intento el numero de sondeo
+	 * @return
+	 */
+	private int dispersion(int hash, int intento) {
+		return estrategia.posicion(hash, intento, array.length, potenciaDos);
 	}
-	
-	private int desplazamientoCociente(K key, int intento) {
-		
-		//(h(k) + i · d(k)) % M
-		int hash = key.hashCode();
-		int d = hash / array.length;
-		int mod = hash % array.length;
-		
-		if (mod == 0) {
-			d = 1;
-		}
-		
-		return Math.abs((intento*d + hash) % array.length);
+
+	/**
+	 * Hash de una clave con el que se recorre su secuencia de dispersion. Se
+	 * guarda en su nodo para no tener que recalcularlo. En el modo potencia de
+	 * dos se mezclan sus bits
+	 * 
+	 * @param key la clave
+	 * @return
+	 */
+	private int hash(Object key) {
+		return potenciaDos ? Dispersion.esparcir(key.hashCode()) : key.hashCode();
 	}
 	
 
@@ -342,15 +1390,147 @@ public class MultiHash<K, V> extends AbstractMap<K, V> {
 		return tam;
 	}
 
+	/**
+	 * Vacia el mapa y vuelve al tamaño minimo del array
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void clear() {
+		array = new Nodo[tamMinimo];
+		if (robinHood)
+			distancias = new int[tamMinimo];
+		arrayAnterior = null;
+		borrados = 0;
+		tam = 0;
+		modCount++;
+	}
+
+	/**
+	 * Obtiene una vista de las entradas del mapa. No se copia nada: la vista
+	 * refleja los cambios del mapa y su iterador recorre directamente el array
+	 * y, durante una migracion, lo que queda del anterior. Las vistas de claves
+	 * y valores de AbstractMap se apoyan en esta, asi que tampoco copian.
+	 * 
+	 * @return la vista de las entradas
+	 */
 	@Override
 	public Set<Entry<K, V>> entrySet() {
+		if (entradas == null)
+			entradas = new Entradas();
+		return entradas;
+	}
 
-		Set<Entry<K, V>> s = new HashSet<Entry<K, V>>();
-		for (int i = 0; i < array.length; i++)
-			if (array[i] != null)
-				s.add(array[i]);
+	/**
+	 * Vista de las entradas del mapa
+	 */
+	private class Entradas extends AbstractSet<Entry<K, V>> {
+
+		@Override
+		public int size() {
+			return tam;
+		}
 
-		return s;
+		@Override
+		public Iterator<Entry<K, V>> iterator() {
+			return new Iterador();
+		}
+
+		@Override
+		public boolean contains(Object o) {
+			if (!(o instanceof Entry) || ((Entry<?, ?>) o).getKey() == null)
+				return false;
+			Entry<?, ?> e = (Entry<?, ?>) o;
+			Nodo<K, V> n = buscarNodo(e.getKey());
+			return n != null && Objects.equals(n.getValue(), e.getValue());
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			if (!contains(o))
+				return false;
+			MultiHash.this.remove(((Entry<?, ?>) o).getKey());
+			return true;
+		}
+
+		@Override
+		public void clear() {
+			MultiHash.this.clear();
+		}
+	}
+
+	/**
+	 * Iterador que devuelve los propios nodos del array, sin crear ningun objeto
+	 * por entrada. Recorre el array actual y despues el anterior saltando las
+	 * posiciones vacias y borradas. Quitar una entrada solo la marca como
+	 * borrada, asi que ninguna otra cambia de posicion.
+	 * 
+	 * Falla con ConcurrentModificationException si el mapa cambia por fuera del
+	 * iterador. Cambiar el valor de una clave no cuenta como cambio, salvo que
+	 * haga avanzar una migracion.
+	 */
+	private class Iterador implements Iterator<Entry<K, V>> {
+
+		private final Nodo<K, V>[] actual = array;
+		private final Nodo<K, V>[] anterior = arrayAnterior;
+		/**
+		 * Numero de posiciones recorridas: las del array actual y despues las
+		 * del anterior
+		 */
+		private final int total = actual.length + (anterior == null ? 0 : anterior.length);
+		/**
+		 * Siguiente posicion del recorrido que se examina
+		 */
+		private int indice;
+		/**
+		 * Posicion del recorrido de la ultima entrada devuelta, o -1
+		 */
+		private int devuelta = -1;
+		private int modCountEsperado = modCount;
+
+		/**
+		 * @param i la posicion del recorrido
+		 * @return el nodo de esa posicion o null si esta vacia o borrada
+		 */
+		private Nodo<K, V> nodo(int i) {
+			Nodo<K, V> n = i < actual.length ? actual[i] : anterior[i - actual.length];
+			return n == BORRADO ? null : n;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (indice < total && nodo(indice) == null)
+				indice++;
+			return indice < total;
+		}
+
+		@Override
+		public Entry<K, V> next() {
+			if (modCount != modCountEsperado)
+				throw new ConcurrentModificationException();
+			if (!hasNext())
+				throw new NoSuchElementException();
+			devuelta = indice;
+			return nodo(indice++);
+		}
+
+		@Override
+		public void remove() {
+			if (devuelta == -1)
+				throw new IllegalStateException();
+			if (modCount != modCountEsperado)
+				throw new ConcurrentModificationException();
+
+			// Se deja la marca de borrado sin compactar, reducir ni migrar, que
+			// reordenarian las entradas que faltan por recorrer
+			if (devuelta < actual.length) {
+				actual[devuelta] = BORRADO;
+				borrados++;
+			} else
+				anterior[devuelta - actual.length] = BORRADO;
+			tam--;
+			modCountEsperado = ++modCount;
+			devuelta = -1;
+		}
 	}
 
 }
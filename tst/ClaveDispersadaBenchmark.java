@@ -0,0 +1,79 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import tablasHash.ClaveDispersada;
+import tablasHash.HashMapArray;
+import tablasHash.MapaDispersionAbierta;
+import tablasHash.MultiHash;
+
+/**
+ * Simula el bucle de un join que busca cada clave de sondeo en tres mapas.
+ * Las claves son listas de enteros, cuyo hashCode recorre toda la lista. Se
+ * compara buscar con get(clave) en cada mapa, que llama tres veces a hashCode,
+ * con crear una ClaveDispersada por clave y buscar con get(ClaveDispersada).
+ *
+ * Se ejecuta con: java ClaveDispersadaBenchmark [numeroClaves] [longitudClave]
+ */
+public class ClaveDispersadaBenchmark {
+
+	static final int RONDAS = 5;
+
+	public static void main(String[] args) {
+
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		int longitud = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+
+		Random r = new Random(42);
+		List<List<Integer>> claves = new ArrayList<List<Integer>>(n);
+		for (int i = 0; i < n; i++) {
+			List<Integer> clave = new ArrayList<Integer>(longitud);
+			for (int j = 0; j < longitud; j++)
+				clave.add(r.nextInt());
+			claves.add(clave);
+		}
+
+		// Los tres mapas comparten la funcion de hash del modo potencia de dos
+		HashMapArray<List<Integer>, Integer> array = new HashMapArray<List<Integer>, Integer>(16, true);
+		MultiHash<List<Integer>, Integer> multi = new MultiHash<List<Integer>, Integer>("EXPL", 16, 0.75F, 1.5F,
+				0.1F, true);
+		MapaDispersionAbierta<List<Integer>, Integer> abierta = new MapaDispersionAbierta<List<Integer>, Integer>(3,
+				16, true, false, 1F);
+		for (int i = 0; i < n; i++) {
+			array.put(claves.get(i), i);
+			if (i % 2 == 0)
+				multi.put(claves.get(i), i);
+			if (i % 3 == 0)
+				abierta.put(claves.get(i), i);
+		}
+
+		System.out.println("Claves: " + n + " listas de " + longitud + " enteros, 3 mapas");
+		System.out.printf("%-24s %12s%n", "busqueda", "ns/clave");
+
+		long mejorGet = Long.MAX_VALUE, mejorClave = Long.MAX_VALUE, control = 0;
+		for (int ronda = 0; ronda < RONDAS; ronda++) {
+
+			long t0 = System.nanoTime();
+			for (List<Integer> clave : claves)
+				control += valor(array.get(clave)) + valor(multi.get(clave)) + valor(abierta.get(clave));
+			long t1 = System.nanoTime();
+			for (List<Integer> clave : claves) {
+				ClaveDispersada<List<Integer>> dispersada = new ClaveDispersada<List<Integer>>(clave);
+				control += valor(array.get(dispersada)) + valor(multi.get(dispersada))
+						+ valor(abierta.get(dispersada));
+			}
+			long t2 = System.nanoTime();
+
+			mejorGet = Math.min(mejorGet, t1 - t0);
+			mejorClave = Math.min(mejorClave, t2 - t1);
+		}
+
+		System.out.printf("%-24s %12.1f%n", "get(clave)", (double) mejorGet / n);
+		System.out.printf("%-24s %12.1f   (%d)%n", "get(ClaveDispersada)", (double) mejorClave / n, control);
+	}
+
+	static long valor(Integer v) {
+		return v == null ? 0 : v;
+	}
+
+}
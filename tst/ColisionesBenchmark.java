@@ -0,0 +1,70 @@
+import java.util.HashMap;
+import java.util.Map;
+
+import tablasHash.MapaDispersionAbierta;
+
+/**
+ * Mide las busquedas cuando todas las claves tienen el mismo hashCode, con
+ * cadenas formadas por bloques "Aa" y "BB". Con el factor de carga todas van a
+ * la misma cubeta, que busca con arbol en vez de recorrer la lista, asi que el
+ * tiempo por busqueda debe crecer de forma logaritmica con el numero de claves.
+ *
+ * Se ejecuta con: java ColisionesBenchmark
+ */
+public class ColisionesBenchmark {
+
+	static final int RONDAS = 5;
+	static final int BUSQUEDAS = 1000000;
+
+	public static void main(String[] args) {
+
+		System.out.printf("%-10s %-24s %12s%n", "claves", "mapa", "get ns/op");
+
+		for (int bloques = 6; bloques <= 14; bloques += 2) {
+
+			String[] claves = colisiones(bloques);
+
+			medir("MapaDispersionAbierta", new MapaDispersionAbierta<String, Integer>(3, 16, false, false, 0.75F),
+					claves);
+			medir("HashMap", new HashMap<String, Integer>(), claves);
+		}
+	}
+
+	/**
+	 * Genera 2^bloques cadenas distintas con el mismo hashCode
+	 */
+	static String[] colisiones(int bloques) {
+
+		String[] claves = new String[1 << bloques];
+		for (int i = 0; i < claves.length; i++) {
+			StringBuilder s = new StringBuilder();
+			for (int b = 0; b < bloques; b++)
+				s.append((i >> b & 1) == 0 ? "Aa" : "BB");
+			claves[i] = s.toString();
+		}
+		return claves;
+	}
+
+	/**
+	 * Se queda con la mejor de varias rondas para descontar el calentamiento.
+	 */
+	static void medir(String nombre, Map<String, Integer> mapa, String[] claves) {
+
+		for (int i = 0; i < claves.length; i++)
+			mapa.put(claves[i], i);
+
+		long mejor = Long.MAX_VALUE;
+		long suma = 0;
+
+		for (int r = 0; r < RONDAS; r++) {
+			long t0 = System.nanoTime();
+			for (int i = 0; i < BUSQUEDAS; i++)
+				suma += mapa.get(claves[(i * 31) & (claves.length - 1)]);
+			mejor = Math.min(mejor, System.nanoTime() - t0);
+		}
+
+		System.out.printf("%-10d %-24s %12.1f%s%n", claves.length, nombre, (double) mejor / BUSQUEDAS,
+				suma == 0 ? " " : "");
+	}
+
+}
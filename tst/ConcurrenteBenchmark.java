@@ -0,0 +1,103 @@
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+import tablasHash.HashMapArrayConcurrente;
+import tablasHash.MapaDispersionAbierta;
+import tablasHash.MapaDispersionConcurrente;
+
+/**
+ * Mide el rendimiento con varios hilos de MapaDispersionAbierta protegido con
+ * Collections.synchronizedMap, de MapaDispersionConcurrente, de
+ * HashMapArrayConcurrente y de ConcurrentHashMap. Cada hilo hace el mismo numero de operaciones sobre claves
+ * al azar de un rango ya cargado, con un porcentaje de escrituras (mitad put,
+ * mitad remove) y el resto get. Se da el total de millones de operaciones por
+ * segundo.
+ *
+ * Se ejecuta con: java ConcurrenteBenchmark [hilos] [porcentajeEscrituras]
+ */
+public class ConcurrenteBenchmark {
+
+	static final int RONDAS = 5;
+	static final int CLAVES = 1 << 20;
+	static final int OPERACIONES = 2000000;
+	static final Integer VALOR = 1;
+
+	public static void main(String[] args) throws InterruptedException {
+
+		int hilos = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+		int escrituras = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+		Integer[] claves = new Integer[CLAVES];
+		for (int i = 0; i < CLAVES; i++)
+			claves[i] = i;
+
+		System.out.println("Hilos: " + hilos + ", escrituras: " + escrituras + "%, procesadores: "
+				+ Runtime.getRuntime().availableProcessors());
+		System.out.printf("%-28s %12s%n", "mapa", "Mops/s");
+
+		medir("synchronizedMap(Abierta)", () -> Collections.synchronizedMap(
+				new MapaDispersionAbierta<Integer, Integer>(8, 16, true, false, 2F)), claves, hilos, escrituras);
+		medir("MapaDispersionConcurrente", () -> new MapaDispersionConcurrente<Integer, Integer>(), claves, hilos,
+				escrituras);
+		medir("HashMapArrayConcurrente", () -> new HashMapArrayConcurrente<Integer, Integer>(), claves, hilos,
+				escrituras);
+		medir("ConcurrentHashMap", () -> new ConcurrentHashMap<Integer, Integer>(), claves, hilos, escrituras);
+	}
+
+	/**
+	 * Se queda con la mejor de varias rondas para descontar el calentamiento.
+	 */
+	static void medir(String nombre, Supplier<Map<Integer, Integer>> fabrica, Integer[] claves, int hilos,
+			int escrituras) throws InterruptedException {
+
+		long mejor = Long.MAX_VALUE;
+
+		for (int r = 0; r < RONDAS; r++) {
+
+			Map<Integer, Integer> mapa = fabrica.get();
+			for (Integer k : claves)
+				mapa.put(k, VALOR);
+
+			CountDownLatch salida = new CountDownLatch(1);
+			Thread[] trabajadores = new Thread[hilos];
+			for (int h = 0; h < hilos; h++) {
+				final int semilla = h * 0x9E3779B9 + r;
+				trabajadores[h] = new Thread(() -> {
+					try {
+						salida.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					int x = semilla | 1;
+					for (int i = 0; i < OPERACIONES; i++) {
+						// xorshift para no compartir un Random entre hilos
+						x ^= x << 13;
+						x ^= x >>> 17;
+						x ^= x << 5;
+						Integer k = claves[x & (CLAVES - 1)];
+						int op = (x >>> 20) % 100;
+						if (op < escrituras / 2)
+							mapa.put(k, VALOR);
+						else if (op < escrituras)
+							mapa.remove(k);
+						else
+							mapa.get(k);
+					}
+				});
+				trabajadores[h].start();
+			}
+
+			long t0 = System.nanoTime();
+			salida.countDown();
+			for (Thread t : trabajadores)
+				t.join();
+			mejor = Math.min(mejor, System.nanoTime() - t0);
+		}
+
+		System.out.printf("%-28s %12.1f%n", nombre, (double) hilos * OPERACIONES / mejor * 1000);
+	}
+
+}
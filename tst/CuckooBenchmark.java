@@ -0,0 +1,103 @@
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import tablasHash.HashMapArray;
+import tablasHash.HashMapCuckoo;
+import tablasHash.HashMapSwiss;
+import tablasHash.MultiHash;
+
+/**
+ * Compara HashMapCuckoo con HashMapArray y MultiHash en dos cargas de trabajo
+ * de solo lectura: una con casi todas las busquedas con acierto y otra con casi
+ * todas con fallo. El cuco visita como mucho dos posiciones en ambos casos,
+ * mientras que en las tablas de exploracion un fallo recorre todo el bloque de
+ * colisiones. HashMapSwiss tambien recorre bloques, pero un fallo casi nunca
+ * llega a leer una clave.
+ *
+ * Se ejecuta con: java CuckooBenchmark [numeroClaves]
+ */
+public class CuckooBenchmark {
+
+	static final int RONDAS = 5;
+	static final Integer VALOR = 1;
+	/**
+	 * Porcentaje de busquedas con acierto de cada carga de trabajo
+	 */
+	static final int[] ACIERTOS = { 90, 10 };
+
+	public static void main(String[] args) {
+
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+
+		Random r = new Random(42);
+		Integer[] claves = new Integer[n];
+		for (int i = 0; i < n; i++)
+			claves[i] = r.nextInt();
+
+		System.out.println("Claves aleatorias: " + n);
+		System.out.printf("%-28s %12s %12s %12s%n", "mapa", "put ns/op", "90% acierto", "10% acierto");
+
+		medir("HashMapArray", () -> new HashMapArray<Integer, Integer>(16, true), claves);
+		medir("MultiHash EXPL", () -> new MultiHash<Integer, Integer>("EXPL", 16, 0.75F, 1.5F, 0.1F, true), claves);
+		medir("MultiHash DOBL", () -> new MultiHash<Integer, Integer>("DOBL", 16, 0.75F, 1.5F, 0.1F, true), claves);
+		medir("MultiHash EXPL Robin Hood", () -> new MultiHash<Integer, Integer>(MultiHash.getEstrategia("EXPL"), 16,
+				0.75F, 1.5F, 0.1F, true, true), claves);
+		medir("HashMapCuckoo", () -> new HashMapCuckoo<Integer, Integer>(16), claves);
+		medir("HashMapSwiss", () -> new HashMapSwiss<Integer, Integer>(16), claves);
+	}
+
+	/**
+	 * Mide la insercion y una secuencia de busquedas para cada carga de trabajo.
+	 * Se queda con la mejor de varias rondas para descontar el calentamiento.
+	 */
+	static void medir(String nombre, Supplier<Map<Integer, Integer>> fabrica, Integer[] claves) {
+
+		Integer[][] busquedas = new Integer[ACIERTOS.length][];
+		for (int c = 0; c < ACIERTOS.length; c++)
+			busquedas[c] = busquedas(claves, ACIERTOS[c]);
+
+		long mejorPut = Long.MAX_VALUE;
+		long[] mejor = new long[ACIERTOS.length];
+		Arrays.fill(mejor, Long.MAX_VALUE);
+		long control = 0;
+
+		for (int r = 0; r < RONDAS; r++) {
+
+			Map<Integer, Integer> mapa = fabrica.get();
+
+			long t0 = System.nanoTime();
+			for (Integer k : claves)
+				mapa.put(k, VALOR);
+			mejorPut = Math.min(mejorPut, System.nanoTime() - t0);
+
+			for (int c = 0; c < ACIERTOS.length; c++) {
+				t0 = System.nanoTime();
+				for (Integer k : busquedas[c])
+					if (mapa.get(k) != null)
+						control++;
+				mejor[c] = Math.min(mejor[c], System.nanoTime() - t0);
+			}
+		}
+
+		System.out.printf("%-28s %12.1f %12.1f %12.1f   (%d)%n", nombre, (double) mejorPut / claves.length,
+				(double) mejor[0] / claves.length, (double) mejor[1] / claves.length, control);
+	}
+
+	/**
+	 * Genera tantas busquedas como claves, con el porcentaje de aciertos dado.
+	 * Los fallos son claves aleatorias que casi con seguridad no estan.
+	 */
+	static Integer[] busquedas(Integer[] claves, int porcentajeAciertos) {
+
+		Random r = new Random(porcentajeAciertos);
+		Integer[] b = new Integer[claves.length];
+		for (int i = 0; i < b.length; i++)
+			b[i] = r.nextInt(100) < porcentajeAciertos ? claves[r.nextInt(claves.length)] : r.nextInt();
+
+		return b;
+	}
+
+}
@@ -0,0 +1,86 @@
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import tablasHash.HashMapArray;
+import tablasHash.MapaDispersionAbierta;
+import tablasHash.MultiHash;
+
+/**
+ * Compara el calculo de posiciones con resto de la division frente al modo
+ * potencia de dos (mascara sobre el hash mezclado) con claves Integer
+ * consecutivas, que con el resto quedan agrupadas en bloques contiguos.
+ *
+ * Se ejecuta con: java DispersionBenchmark [numeroClaves]
+ */
+public class DispersionBenchmark {
+
+	static final int RONDAS = 5;
+	static final Integer VALOR = 1;
+
+	public static void main(String[] args) {
+
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+
+		Integer[] claves = new Integer[n];
+		Integer[] ausentes = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			claves[i] = i;
+			ausentes[i] = n + i;
+		}
+
+		System.out.println("Claves consecutivas: " + n);
+		System.out.printf("%-28s %12s %12s %12s%n", "mapa", "put ns/op", "get ns/op", "fallo ns/op");
+
+		medir("HashMapArray resto", () -> new HashMapArray<Integer, Integer>(16, false), claves, ausentes);
+		medir("HashMapArray mascara", () -> new HashMapArray<Integer, Integer>(16, true), claves, ausentes);
+
+		for (String metodo : new String[] { "EXPL", "CUAD", "COCI" }) {
+			medir("MultiHash " + metodo + " resto",
+					() -> new MultiHash<Integer, Integer>(metodo, 16, 0.75F, 1.5F, 0.1F, false), claves, ausentes);
+			medir("MultiHash " + metodo + " mascara",
+					() -> new MultiHash<Integer, Integer>(metodo, 16, 0.75F, 1.5F, 0.1F, true), claves, ausentes);
+		}
+
+		medir("MapaDispersion resto", () -> new MapaDispersionAbierta<Integer, Integer>(8, 16, false), claves,
+				ausentes);
+		medir("MapaDispersion mascara", () -> new MapaDispersionAbierta<Integer, Integer>(8, 16, true), claves,
+				ausentes);
+	}
+
+	/**
+	 * Mide la insercion, la busqueda con acierto y la busqueda con fallo. Se
+	 * queda con la mejor de varias rondas para descontar el calentamiento.
+	 */
+	static void medir(String nombre, Supplier<Map<Integer, Integer>> fabrica, Integer[] claves,
+			Integer[] ausentes) {
+
+		long mejorPut = Long.MAX_VALUE, mejorGet = Long.MAX_VALUE, mejorFallo = Long.MAX_VALUE;
+		long control = 0;
+
+		for (int r = 0; r < RONDAS; r++) {
+
+			Map<Integer, Integer> mapa = fabrica.get();
+
+			long t0 = System.nanoTime();
+			for (Integer k : claves)
+				mapa.put(k, VALOR);
+			long t1 = System.nanoTime();
+			for (Integer k : claves)
+				control += mapa.get(k);
+			long t2 = System.nanoTime();
+			for (Integer k : ausentes)
+				if (mapa.get(k) != null)
+					control++;
+			long t3 = System.nanoTime();
+
+			mejorPut = Math.min(mejorPut, t1 - t0);
+			mejorGet = Math.min(mejorGet, t2 - t1);
+			mejorFallo = Math.min(mejorFallo, t3 - t2);
+		}
+
+		System.out.printf("%-28s %12.1f %12.1f %12.1f   (%d)%n", nombre, (double) mejorPut / claves.length,
+				(double) mejorGet / claves.length, (double) mejorFallo / ausentes.length, control);
+	}
+
+}
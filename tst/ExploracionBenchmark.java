@@ -0,0 +1,102 @@
+
+import java.util.Random;
+
+import tablasHash.EstrategiaExploracion;
+import tablasHash.MultiHash;
+
+/**
+ * Compara las estrategias de exploracion de MultiHash, incluida una estrategia
+ * propia registrada desde fuera del paquete, con claves aleatorias y con un
+ * factor de carga alto, con y sin insercion Robin Hood. Ademas del tiempo se
+ * muestra la secuencia de sondeo mas larga, que es la que marca la latencia en
+ * el peor caso.
+ *
+ * Se ejecuta con: java ExploracionBenchmark [numeroClaves] [factorCarga]
+ */
+public class ExploracionBenchmark {
+
+	static final int RONDAS = 5;
+	static final Integer VALOR = 1;
+
+	/**
+	 * Ejemplo de estrategia propia: exploracion lineal con paso 3
+	 */
+	static class ExploracionPasoTres implements EstrategiaExploracion {
+
+		@Override
+		public int posicion(int hash, int intento, int longitud, boolean potenciaDos) {
+			if (potenciaDos)
+				return (hash + 3 * intento) & (longitud - 1);
+			return (int) ((Math.abs(hash % longitud) + 3L * intento) % longitud);
+		}
+
+	}
+
+	public static void main(String[] args) {
+
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		float carga = args.length > 1 ? Float.parseFloat(args[1]) : 0.9F;
+
+		MultiHash.registrarEstrategia("PAS3", new ExploracionPasoTres());
+
+		Random r = new Random(42);
+		Integer[] claves = new Integer[n];
+		Integer[] ausentes = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			claves[i] = r.nextInt();
+			ausentes[i] = r.nextInt();
+		}
+
+		System.out.println("Claves aleatorias: " + n + ", factor de carga " + carga);
+		System.out.printf("%-24s %12s %12s %12s %12s%n", "estrategia", "put ns/op", "get ns/op", "fallo ns/op",
+				"sondeo max");
+
+		for (String nombre : new String[] { "EXPL", "CUAD", "COCI", "DOBL", "PAS3" }) {
+			for (boolean potenciaDos : new boolean[] { false, true }) {
+				for (boolean robinHood : new boolean[] { false, true }) {
+					String titulo = nombre + (potenciaDos ? " mascara" : " resto") + (robinHood ? " RH" : "");
+					medir(titulo, nombre, potenciaDos, robinHood, carga, claves, ausentes);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Mide la insercion, la busqueda con acierto y la busqueda con fallo. Se
+	 * queda con la mejor de varias rondas para descontar el calentamiento.
+	 */
+	static void medir(String titulo, String estrategia, boolean potenciaDos, boolean robinHood, float carga,
+			Integer[] claves, Integer[] ausentes) {
+
+		long mejorPut = Long.MAX_VALUE, mejorGet = Long.MAX_VALUE, mejorFallo = Long.MAX_VALUE;
+		long control = 0;
+		int sondeoMaximo = 0;
+
+		for (int r = 0; r < RONDAS; r++) {
+
+			MultiHash<Integer, Integer> mapa = new MultiHash<Integer, Integer>(MultiHash.getEstrategia(estrategia), 16,
+					carga, 2F, 0F, potenciaDos, robinHood);
+
+			long t0 = System.nanoTime();
+			for (Integer k : claves)
+				mapa.put(k, VALOR);
+			long t1 = System.nanoTime();
+			for (Integer k : claves)
+				control += mapa.get(k);
+			long t2 = System.nanoTime();
+			for (Integer k : ausentes)
+				if (mapa.get(k) != null)
+					control++;
+			long t3 = System.nanoTime();
+
+			mejorPut = Math.min(mejorPut, t1 - t0);
+			mejorGet = Math.min(mejorGet, t2 - t1);
+			mejorFallo = Math.min(mejorFallo, t3 - t2);
+			sondeoMaximo = mapa.getSondeoMaximo();
+		}
+
+		System.out.printf("%-24s %12.1f %12.1f %12.1f %12d   (%d)%n", titulo, (double) mejorPut / claves.length,
+				(double) mejorGet / claves.length, (double) mejorFallo / ausentes.length, sondeoMaximo, control);
+	}
+
+}
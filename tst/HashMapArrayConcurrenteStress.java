@@ -0,0 +1,180 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import tablasHash.HashMapArrayConcurrente;
+
+/**
+ * Prueba de estres de HashMapArrayConcurrente, al estilo de JCStress: repite
+ * muchas veces varios escenarios con mapas pequeños, para que los hilos
+ * coincidan con crecimientos a medio copiar, y comprueba en cada repeticion
+ * un invariante que con un fallo de atomicidad no se cumpliria.
+ *
+ * - contador: los hilos suman uno a unas pocas claves con replace(k, viejo,
+ * nuevo) y al final la suma es exactamente la de los incrementos.
+ * - putIfAbsent: cada clave tiene un unico ganador y es el valor que queda.
+ * - lecturas: unas claves cargadas antes nunca dejan de leerse mientras otros
+ * hilos insertan y borran.
+ * - borrados: cada hilo inserta y borra sus claves y el mapa acaba vacio.
+ *
+ * Se ejecuta con: java HashMapArrayConcurrenteStress [hilos] [repeticiones]
+ */
+public class HashMapArrayConcurrenteStress {
+
+	static int hilos;
+	static int fallos;
+
+	public static void main(String[] args) throws InterruptedException {
+
+		hilos = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+		int repeticiones = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+		System.out.println("Hilos: " + hilos + ", repeticiones: " + repeticiones + ", procesadores: "
+				+ Runtime.getRuntime().availableProcessors());
+
+		for (int r = 0; r < repeticiones; r++) {
+			contador();
+			putIfAbsent();
+			lecturas();
+			borrados();
+		}
+
+		System.out.println(fallos == 0 ? "OK" : "FALLOS: " + fallos);
+		if (fallos > 0)
+			System.exit(1);
+	}
+
+	static void contador() throws InterruptedException {
+
+		final int claves = 8;
+		final int incrementos = 2000;
+		HashMapArrayConcurrente<Integer, Integer> mapa = new HashMapArrayConcurrente<Integer, Integer>(2);
+
+		ejecutar(h -> {
+			for (int i = 0; i < incrementos; i++) {
+				Integer k = (i + h) % claves;
+				// Claves de relleno para que el mapa crezca mientras se cuenta
+				mapa.put(1000 + h * incrementos + i, i);
+				while (true) {
+					Integer viejo = mapa.putIfAbsent(k, 1);
+					if (viejo == null || mapa.replace(k, viejo, viejo + 1))
+						break;
+				}
+			}
+		});
+
+		int suma = 0;
+		for (int k = 0; k < claves; k++)
+			suma += mapa.get(k);
+		comprobar("contador", suma == hilos * incrementos);
+	}
+
+	static void putIfAbsent() throws InterruptedException {
+
+		final int claves = 5000;
+		HashMapArrayConcurrente<Integer, Integer> mapa = new HashMapArrayConcurrente<Integer, Integer>(2);
+		AtomicInteger[] ganadores = new AtomicInteger[claves];
+		for (int i = 0; i < claves; i++)
+			ganadores[i] = new AtomicInteger(-1);
+
+		ejecutar(h -> {
+			for (int i = 0; i < claves; i++)
+				if (mapa.putIfAbsent(i, h) == null && !ganadores[i].compareAndSet(-1, h))
+					ganadores[i].set(-2);
+		});
+
+		boolean bien = mapa.size() == claves;
+		for (int i = 0; i < claves; i++)
+			bien &= ganadores[i].get() >= 0 && mapa.get(i) == ganadores[i].get();
+		comprobar("putIfAbsent", bien);
+	}
+
+	static void lecturas() throws InterruptedException {
+
+		final int fijas = 64;
+		HashMapArrayConcurrente<Integer, Integer> mapa = new HashMapArrayConcurrente<Integer, Integer>(2);
+		for (int i = 0; i < fijas; i++)
+			mapa.put(-1 - i, i);
+		AtomicBoolean fin = new AtomicBoolean();
+		AtomicInteger errores = new AtomicInteger();
+
+		Thread lector = new Thread(() -> {
+			while (!fin.get())
+				for (int i = 0; i < fijas; i++) {
+					Integer v = mapa.get(-1 - i);
+					if (v == null || v != i)
+						errores.incrementAndGet();
+				}
+		});
+		lector.start();
+
+		ejecutar(h -> {
+			for (int i = h * 3000; i < (h + 1) * 3000; i++) {
+				mapa.put(i, i);
+				if (i % 3 != 0)
+					mapa.remove(i);
+			}
+		});
+		fin.set(true);
+		lector.join();
+
+		comprobar("lecturas", errores.get() == 0 && mapa.size() == fijas + hilos * 1000);
+	}
+
+	static void borrados() throws InterruptedException {
+
+		HashMapArrayConcurrente<Integer, Integer> mapa = new HashMapArrayConcurrente<Integer, Integer>(2);
+		AtomicInteger errores = new AtomicInteger();
+
+		ejecutar(h -> {
+			for (int i = h * 3000; i < (h + 1) * 3000; i++) {
+				mapa.put(i, i);
+				if (!mapa.remove(i, i))
+					errores.incrementAndGet();
+			}
+		});
+
+		boolean bien = errores.get() == 0 && mapa.size() == 0 && mapa.entrySet().isEmpty();
+		comprobar("borrados", bien);
+	}
+
+	interface Trabajo {
+		void hacer(int hilo);
+	}
+
+	/**
+	 * Arranca todos los hilos a la vez y espera a que terminen
+	 */
+	static void ejecutar(Trabajo trabajo) throws InterruptedException {
+
+		CountDownLatch salida = new CountDownLatch(1);
+		List<Thread> lista = new ArrayList<Thread>();
+		for (int h = 0; h < hilos; h++) {
+			final int hilo = h;
+			Thread t = new Thread(() -> {
+				try {
+					salida.await();
+				} catch (InterruptedException e) {
+					return;
+				}
+				trabajo.hacer(hilo);
+			});
+			lista.add(t);
+			t.start();
+		}
+
+		salida.countDown();
+		for (Thread t : lista)
+			t.join();
+	}
+
+	static void comprobar(String escenario, boolean bien) {
+		if (!bien) {
+			fallos++;
+			System.out.println("Falla " + escenario);
+		}
+	}
+
+}
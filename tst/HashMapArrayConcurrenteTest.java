@@ -0,0 +1,260 @@
+import static org.junit.Assert.*;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import tablasHash.HashMapArrayConcurrente;
+
+public class HashMapArrayConcurrenteTest {
+
+	HashMapArrayConcurrente<Integer, String> mapa;
+
+	String[] valores = { "cero", "uno", "dos", "tres", "cuatro", "cinco", "seis", "siete", "ocho", "nueve" };
+
+	@Before
+	public void setUp() throws Exception {
+		mapa = new HashMapArrayConcurrente<Integer, String>(2);
+	}
+
+	/**
+	 * Se comprueban las operaciones basicas y las de ConcurrentMap con un solo
+	 * hilo, incluyendo el crecimiento.
+	 */
+	@Test
+	public void testOperaciones() {
+
+		for (int i = 0; i < 1000; i++) {
+			assertNull(mapa.put(i, valores[i % 10]));
+		}
+		assertEquals(1000, mapa.size());
+		assertTrue(mapa.getCapacidad() >= 2000);
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(valores[i % 10], mapa.get(i));
+		}
+
+		assertEquals(valores[5], mapa.put(5, "otro"));
+		assertEquals("otro", mapa.putIfAbsent(5, "nada"));
+		assertNull(mapa.putIfAbsent(1000, "nuevo"));
+		assertEquals(1001, mapa.size());
+
+		assertFalse(mapa.replace(5, "cinco", "x"));
+		assertTrue(mapa.replace(5, "otro", "x"));
+		assertEquals("x", mapa.replace(5, "y"));
+		assertNull(mapa.replace(2000, "y"));
+
+		assertFalse(mapa.remove(5, "x"));
+		assertTrue(mapa.remove(5, "y"));
+		assertEquals(valores[7], mapa.remove(7));
+		assertNull(mapa.remove(7));
+		assertEquals(999, mapa.size());
+		assertTrue(mapa.containsValue("nuevo"));
+		assertFalse(mapa.containsKey(5));
+		assertNull(mapa.putIfAbsent(7, "siete"));
+
+		assertEquals(1000, mapa.entrySet().size());
+
+		mapa.clear();
+		assertEquals(0, mapa.size());
+		assertNull(mapa.get(1));
+	}
+
+	/**
+	 * Se comprueba que al borrar y volver a insertar las mismas claves el mapa
+	 * no crece sin limite por las posiciones de claves eliminadas.
+	 */
+	@Test
+	public void testBorrados() {
+
+		for (int i = 0; i < 100000; i++) {
+			assertNull(mapa.put(i, valores[i % 10]));
+			assertEquals(valores[i % 10], mapa.remove(i));
+		}
+		assertEquals(0, mapa.size());
+		assertTrue(mapa.getCapacidad() <= 64);
+	}
+
+	/**
+	 * Se comprueba que no se admiten valores null.
+	 */
+	@Test(expected = NullPointerException.class)
+	public void testValorNull() {
+		mapa.put(1, null);
+	}
+
+	/**
+	 * Varios hilos insertan rangos distintos mientras otros leen claves que ya
+	 * estaban. Ninguna lectura puede fallar aunque el mapa crezca a la vez, y al
+	 * final estan todas las claves.
+	 */
+	@Test
+	public void testConcurrente() throws InterruptedException {
+
+		for (int i = 0; i < 100; i++)
+			mapa.put(-1 - i, valores[i % 10]);
+
+		AtomicBoolean fin = new AtomicBoolean();
+		AtomicInteger fallos = new AtomicInteger();
+		List<Thread> escritores = new ArrayList<Thread>();
+		List<Thread> lectores = new ArrayList<Thread>();
+
+		for (int h = 0; h < 4; h++) {
+			final int base = h * 20000;
+			escritores.add(new Thread(() -> {
+				for (int i = base; i < base + 20000; i++) {
+					mapa.put(i, valores[i % 10]);
+					if (i % 2 == 0)
+						mapa.remove(i);
+				}
+			}));
+			lectores.add(new Thread(() -> {
+				while (!fin.get())
+					for (int i = 0; i < 100; i++)
+						if (!valores[i % 10].equals(mapa.get(-1 - i)))
+							fallos.incrementAndGet();
+			}));
+		}
+
+		for (Thread t : lectores)
+			t.start();
+		for (Thread t : escritores)
+			t.start();
+		for (Thread t : escritores)
+			t.join();
+		fin.set(true);
+		for (Thread t : lectores)
+			t.join();
+
+		assertEquals(0, fallos.get());
+		assertEquals(40100, mapa.size());
+		for (int i = 0; i < 80000; i++) {
+			assertEquals(i % 2 == 0 ? null : valores[i % 10], mapa.get(i));
+		}
+	}
+
+	/**
+	 * Varios hilos compiten por las mismas claves con putIfAbsent mientras el
+	 * mapa crece. Cada clave tiene que quedarse con un unico ganador, el que
+	 * recibio null.
+	 */
+	@Test
+	public void testPutIfAbsentConcurrente() throws InterruptedException {
+
+		final int claves = 20000;
+		String[][] ganadores = new String[4][claves];
+		List<Thread> hilos = new ArrayList<Thread>();
+
+		for (int h = 0; h < 4; h++) {
+			final String[] propios = ganadores[h];
+			final String nombre = valores[h];
+			hilos.add(new Thread(() -> {
+				for (int i = 0; i < claves; i++)
+					if (mapa.putIfAbsent(i, nombre) == null)
+						propios[i] = nombre;
+			}));
+		}
+
+		for (Thread t : hilos)
+			t.start();
+		for (Thread t : hilos)
+			t.join();
+
+		assertEquals(claves, mapa.size());
+		for (int i = 0; i < claves; i++) {
+			String ganador = null;
+			for (int h = 0; h < 4; h++)
+				if (ganadores[h][i] != null) {
+					assertNull(ganador);
+					ganador = ganadores[h][i];
+				}
+			assertEquals(ganador, mapa.get(i));
+		}
+	}
+
+	/**
+	 * Se comprueba que la vista de las entradas refleja el mapa: su iterador y
+	 * las vistas de claves y valores quitan pares, y el iterador no quita una
+	 * clave cuyo valor ha cambiado despues de leerla.
+	 */
+	@Test
+	public void testEntradas_Vista() {
+
+		for (int i = 0; i < 100; i++) {
+			mapa.put(i, valores[i % 10]);
+		}
+
+		Set<Integer> vistas = new HashSet<Integer>();
+		Iterator<Entry<Integer, String>> it = mapa.entrySet().iterator();
+		while (it.hasNext()) {
+			Entry<Integer, String> entrada = it.next();
+			assertTrue(vistas.add(entrada.getKey()));
+			if (entrada.getKey() == 1) {
+				mapa.put(1, "otro");
+				it.remove();
+			} else if (entrada.getKey() % 2 == 0)
+				it.remove();
+			else if (entrada.getKey() % 3 == 0)
+				entrada.setValue("x");
+		}
+
+		assertEquals(100, vistas.size());
+		assertEquals(50, mapa.size());
+		assertEquals("otro", mapa.get(1));
+		assertEquals("x", mapa.get(3));
+		assertNull(mapa.get(2));
+
+		assertTrue(mapa.keySet().remove(5));
+		assertFalse(mapa.keySet().remove(4));
+		assertTrue(mapa.entrySet().remove(new SimpleEntry<Integer, String>(7, valores[7])));
+		assertFalse(mapa.entrySet().remove(new SimpleEntry<Integer, String>(11, "x")));
+		assertTrue(mapa.values().removeIf(v -> v.equals("x")));
+		assertEquals(31, mapa.size());
+
+		mapa.entrySet().clear();
+		assertTrue(mapa.isEmpty());
+	}
+
+	/**
+	 * Se recorre el mapa mientras otro hilo inserta, elimina y vuelve a
+	 * insertar claves y lo hace crecer. El iterador no falla, no repite ninguna
+	 * clave aunque este en varias tablas y ve todas las que habia al empezar.
+	 */
+	@Test
+	public void testEntradas_Concurrente() throws InterruptedException {
+
+		for (int i = 0; i < 1000; i++)
+			mapa.put(-1 - i, valores[i % 10]);
+
+		Thread escritor = new Thread(() -> {
+			for (int i = 0; i < 100000; i++) {
+				mapa.put(i, valores[i % 10]);
+				if (i % 2 == 0) {
+					mapa.remove(i);
+					mapa.put(i, valores[i % 10]);
+				}
+			}
+		});
+		escritor.start();
+
+		for (int vuelta = 0; vuelta < 20; vuelta++) {
+			Set<Integer> vistas = new HashSet<Integer>();
+			for (Integer clave : mapa.keySet())
+				assertTrue(vistas.add(clave));
+			for (int i = 0; i < 1000; i++)
+				assertTrue(vistas.contains(-1 - i));
+		}
+
+		escritor.join();
+		assertEquals(101000, mapa.size());
+	}
+
+}
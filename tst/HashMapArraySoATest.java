@@ -0,0 +1,185 @@
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tablasHash.HashMapArraySoA;
+
+public class HashMapArraySoATest {
+
+	HashMapArraySoA<Integer, String> mapa;
+
+	String[] valores = { "cero", "uno", "dos", "tres", "cuatro", "cinco", "seis", "siete", "ocho", "nueve" };
+
+	@Before
+	public void setUp() throws Exception {
+		mapa = new HashMapArraySoA<Integer, String>(10);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		mapa.clear();
+	}
+
+	/**
+	 * Se comprueba el almacenamiento correcto de claves y valores y la
+	 * actualizacion de una clave existente.
+	 */
+	@Test
+	public void testPut() {
+
+		for (int i = 0; i <= 5; i++) {
+			assertEquals(null, mapa.put(i, valores[i]));
+		}
+
+		assertEquals(valores[3], mapa.put(3, "otro"));
+		assertEquals("otro", mapa.get(3));
+		assertEquals(6, mapa.size());
+
+	}
+
+	/**
+	 * Se comprueba que tras eliminar una clave de un bloque de colisiones el
+	 * resto de claves del bloque siguen siendo accesibles.
+	 */
+	@Test
+	public void testRemove_Colisiones() {
+
+		// Todas las claves caen en la posicion 2
+		for (int i = 0; i < 4; i++) {
+			mapa.put(2 + 10 * i, valores[i]);
+		}
+		mapa.put(4, valores[4]);
+
+		assertEquals(valores[0], mapa.remove(2));
+		assertNull(mapa.get(2));
+
+		for (int i = 1; i < 4; i++) {
+			assertEquals(valores[i], mapa.get(2 + 10 * i));
+		}
+		assertEquals(valores[4], mapa.get(4));
+		assertEquals(4, mapa.size());
+
+	}
+
+	/**
+	 * Se comprueba la eliminacion cuando el bloque de colisiones da la vuelta al
+	 * final del array.
+	 */
+	@Test
+	public void testRemove_Circular() {
+
+		// Todas las claves caen en la ultima posicion
+		for (int i = 0; i < 4; i++) {
+			mapa.put(9 + 10 * i, valores[i]);
+		}
+		mapa.put(1, valores[5]);
+
+		assertEquals(valores[1], mapa.remove(19));
+		assertEquals(valores[0], mapa.remove(9));
+
+		assertEquals(valores[2], mapa.get(29));
+		assertEquals(valores[3], mapa.get(39));
+		assertEquals(valores[5], mapa.get(1));
+		assertTrue(mapa.keySet().containsAll(Arrays.asList(29, 39, 1)));
+		assertEquals(3, mapa.size());
+
+		assertNull(mapa.remove(9));
+		assertEquals(3, mapa.size());
+
+	}
+
+	/**
+	 * Se comprueba que el array crece al superar el factor de carga y que se
+	 * reduce de nuevo tras eliminar la mayoria de las entradas.
+	 */
+	@Test
+	public void testRedimension() {
+
+		for (int i = 0; i < 100; i++) {
+			mapa.put(i, valores[i % 10]);
+			assertTrue(mapa.getOcupacion() <= 0.75F);
+		}
+		assertTrue(mapa.getCapacidad() > 100);
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals(valores[i % 10], mapa.remove(i));
+		}
+		assertEquals(0, mapa.size());
+		assertEquals(10, mapa.getCapacidad());
+
+	}
+
+	/**
+	 * Se comprueba que el iterador de las entradas permite eliminarlas sin
+	 * saltarse ni repetir ninguna, aunque el bloque de colisiones de la vuelta
+	 * al array se desplace hacia atras, y que una entrada quitada conserva su
+	 * clave y su valor.
+	 */
+	@Test
+	public void testIterador_Remove() {
+
+		// Las claves caen en la posicion 8 y el bloque continua en 0, 1 y 2
+		for (int i = 0; i < 4; i++) {
+			mapa.put(8 + 10 * i, valores[i]);
+		}
+		mapa.put(9, valores[9]);
+
+		Set<Integer> vistas = new HashSet<Integer>();
+		Iterator<Entry<Integer, String>> it = mapa.entrySet().iterator();
+		while (it.hasNext()) {
+			Entry<Integer, String> entrada = it.next();
+			assertTrue(vistas.add(entrada.getKey()));
+			if (entrada.getKey() % 20 == 8) {
+				String valor = entrada.getValue();
+				it.remove();
+				assertEquals(valor, entrada.getValue());
+				assertTrue(entrada.getKey() % 20 == 8);
+			}
+		}
+
+		assertEquals(5, vistas.size());
+		assertEquals(3, mapa.size());
+		assertNull(mapa.get(8));
+		assertNull(mapa.get(28));
+		assertEquals(valores[1], mapa.get(18));
+		assertEquals(valores[3], mapa.get(38));
+		assertEquals(valores[9], mapa.get(9));
+
+		// Las vistas de claves y valores tambien reflejan el mapa
+		assertTrue(mapa.keySet().remove(18));
+		assertTrue(mapa.values().remove(valores[9]));
+		assertEquals(1, mapa.size());
+		assertEquals(valores[3], mapa.get(38));
+
+		mapa.clear();
+		assertEquals(0, mapa.size());
+		assertNull(mapa.get(38));
+
+	}
+
+	/**
+	 * Se comprueba que el iterador falla si se inserta una clave mientras se
+	 * recorre el mapa.
+	 */
+	@Test(expected = ConcurrentModificationException.class)
+	public void testIterador_FallaRapido() {
+
+		for (int i = 0; i < 5; i++) {
+			mapa.put(i, valores[i]);
+		}
+
+		for (Integer clave : mapa.keySet()) {
+			mapa.put(clave + 100, valores[clave]);
+		}
+
+	}
+
+}
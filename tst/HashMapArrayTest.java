@@ -0,0 +1,303 @@
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tablasHash.ClaveDispersada;
+import tablasHash.HashMapArray;
+
+public class HashMapArrayTest {
+
+	HashMapArray<Integer, String> mapa;
+
+	String[] valores = { "cero", "uno", "dos", "tres", "cuatro", "cinco", "seis", "siete", "ocho", "nueve" };
+
+	@Before
+	public void setUp() throws Exception {
+		mapa = new HashMapArray<Integer, String>(10);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		mapa.clear();
+	}
+
+	/**
+	 * Se comprueba el almacenamiento correcto de claves y valores y la
+	 * actualizacion de una clave existente.
+	 */
+	@Test
+	public void testPut() {
+
+		for (int i = 0; i <= 5; i++) {
+			assertEquals(null, mapa.put(i, valores[i]));
+		}
+
+		assertEquals(valores[3], mapa.put(3, "otro"));
+		assertEquals("otro", mapa.get(3));
+		assertEquals(6, mapa.size());
+
+	}
+
+	/**
+	 * Se comprueba que tras eliminar una clave de un bloque de colisiones el
+	 * resto de claves del bloque siguen siendo accesibles.
+	 */
+	@Test
+	public void testRemove_Colisiones() {
+
+		// Todas las claves caen en la posicion 2
+		for (int i = 0; i < 4; i++) {
+			mapa.put(2 + 10 * i, valores[i]);
+		}
+		mapa.put(4, valores[4]);
+
+		assertEquals(valores[0], mapa.remove(2));
+		assertNull(mapa.get(2));
+
+		for (int i = 1; i < 4; i++) {
+			assertEquals(valores[i], mapa.get(2 + 10 * i));
+		}
+		assertEquals(valores[4], mapa.get(4));
+		assertEquals(4, mapa.size());
+
+	}
+
+	/**
+	 * Se comprueba la eliminacion cuando el bloque de colisiones da la vuelta al
+	 * final del array.
+	 */
+	@Test
+	public void testRemove_Circular() {
+
+		// Todas las claves caen en la ultima posicion
+		for (int i = 0; i < 4; i++) {
+			mapa.put(9 + 10 * i, valores[i]);
+		}
+		mapa.put(1, valores[5]);
+
+		assertEquals(valores[1], mapa.remove(19));
+		assertEquals(valores[0], mapa.remove(9));
+
+		assertEquals(valores[2], mapa.get(29));
+		assertEquals(valores[3], mapa.get(39));
+		assertEquals(valores[5], mapa.get(1));
+		assertTrue(mapa.keySet().containsAll(Arrays.asList(29, 39, 1)));
+		assertEquals(3, mapa.size());
+
+		assertNull(mapa.remove(9));
+		assertEquals(3, mapa.size());
+
+	}
+
+	/**
+	 * Se comprueba que el array crece al superar el factor de carga y que se
+	 * reduce de nuevo tras eliminar la mayoria de las entradas.
+	 */
+	@Test
+	public void testRedimension() {
+
+		for (int i = 0; i < 100; i++) {
+			mapa.put(i, valores[i % 10]);
+			assertTrue(mapa.getOcupacion() <= 0.75F);
+		}
+		assertTrue(mapa.getCapacidad() > 100);
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals(valores[i % 10], mapa.remove(i));
+		}
+		assertEquals(0, mapa.size());
+		assertEquals(10, mapa.getCapacidad());
+
+	}
+
+	/**
+	 * Se comprueba que en modo incremental todas las claves siguen accesibles
+	 * mientras se migran las entradas al crecer y al reducirse el array.
+	 */
+	@Test
+	public void testRedimensionIncremental() {
+
+		HashMapArray<Integer, String> incremental = new HashMapArray<Integer, String>(10, 0.75F, 1.5F, 0.1F, false,
+				true);
+
+		for (int i = 0; i < 1000; i++) {
+			assertNull(incremental.put(i, valores[i % 10]));
+			assertTrue(incremental.getOcupacion() <= 0.75F);
+			assertEquals(valores[0], incremental.get(0));
+			assertEquals(valores[i / 2 % 10], incremental.get(i / 2));
+		}
+		assertEquals(1000, incremental.size());
+		assertEquals(1000, incremental.entrySet().size());
+
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(valores[i % 10], incremental.remove(i));
+			assertNull(incremental.get(i));
+			if (i < 999)
+				assertEquals(valores[(i + 1) % 10], incremental.get(i + 1));
+		}
+		assertEquals(0, incremental.size());
+
+	}
+
+	/**
+	 * Se comprueba que el iterador de las entradas permite eliminarlas sin
+	 * saltarse ni repetir ninguna, aunque el bloque de colisiones de la vuelta
+	 * al array y las siguientes se desplacen hacia atras.
+	 */
+	@Test
+	public void testIterador_Remove() {
+
+		// Las claves caen en la posicion 8 y el bloque continua en 0, 1 y 2
+		for (int i = 0; i < 4; i++) {
+			mapa.put(8 + 10 * i, valores[i]);
+		}
+		mapa.put(9, valores[9]);
+
+		Set<Integer> vistas = new HashSet<Integer>();
+		Iterator<Entry<Integer, String>> it = mapa.entrySet().iterator();
+		while (it.hasNext()) {
+			Entry<Integer, String> entrada = it.next();
+			assertTrue(vistas.add(entrada.getKey()));
+			if (entrada.getKey() % 20 == 8)
+				it.remove();
+		}
+
+		assertEquals(5, vistas.size());
+		assertEquals(3, mapa.size());
+		assertNull(mapa.get(8));
+		assertNull(mapa.get(28));
+		assertEquals(valores[1], mapa.get(18));
+		assertEquals(valores[3], mapa.get(38));
+		assertEquals(valores[9], mapa.get(9));
+
+		// Las vistas de claves y valores tambien reflejan el mapa
+		assertTrue(mapa.keySet().remove(18));
+		assertTrue(mapa.values().remove(valores[9]));
+		assertEquals(1, mapa.size());
+		assertEquals(valores[3], mapa.get(38));
+
+	}
+
+	/**
+	 * Se comprueba que el iterador falla si se inserta una clave mientras se
+	 * recorre el mapa.
+	 */
+	@Test(expected = ConcurrentModificationException.class)
+	public void testIterador_FallaRapido() {
+
+		for (int i = 0; i < 5; i++) {
+			mapa.put(i, valores[i]);
+		}
+
+		for (Integer clave : mapa.keySet()) {
+			mapa.put(clave + 100, valores[clave]);
+		}
+
+	}
+
+	/**
+	 * Se comprueban los metodos que leen y escriben una clave con una sola
+	 * busqueda: contadores con merge, computeIfAbsent, computeIfPresent,
+	 * compute, putIfAbsent y getOrDefault.
+	 */
+	@Test
+	public void testCompute() {
+
+		HashMapArray<Integer, Integer> contador = new HashMapArray<Integer, Integer>(10);
+		for (int i = 0; i < 100; i++) {
+			contador.merge(i % 7, 1, Integer::sum);
+		}
+		assertEquals(7, contador.size());
+		assertEquals(Integer.valueOf(15), contador.get(0));
+		assertEquals(Integer.valueOf(14), contador.get(6));
+
+		assertEquals(Integer.valueOf(15), contador.computeIfAbsent(0, clave -> -1));
+		assertEquals(Integer.valueOf(-1), contador.computeIfAbsent(7, clave -> -1));
+		assertNull(contador.computeIfAbsent(8, clave -> null));
+		assertFalse(contador.containsKey(8));
+
+		assertNull(contador.computeIfPresent(8, (clave, valor) -> valor + 1));
+		assertEquals(Integer.valueOf(16), contador.computeIfPresent(0, (clave, valor) -> valor + 1));
+		assertNull(contador.computeIfPresent(7, (clave, valor) -> null));
+		assertFalse(contador.containsKey(7));
+
+		assertEquals(Integer.valueOf(1), contador.compute(9, (clave, valor) -> valor == null ? 1 : valor + 1));
+		assertNull(contador.compute(9, (clave, valor) -> null));
+		assertNull(contador.merge(1, 0, (actual, valor) -> null));
+		assertFalse(contador.containsKey(1));
+
+		assertEquals(Integer.valueOf(16), contador.putIfAbsent(0, 0));
+		assertNull(contador.putIfAbsent(1, 0));
+		assertEquals(Integer.valueOf(-2), contador.getOrDefault(20, -2));
+		assertEquals(Integer.valueOf(0), contador.getOrDefault(1, -2));
+		assertEquals(7, contador.size());
+
+	}
+
+	/**
+	 * Se comprueba que getAll y putAll dan el mismo resultado que get y put
+	 * clave a clave, con colisiones, claves ausentes, claves repetidas en el
+	 * lote y redimensiones en mitad del lote.
+	 */
+	@Test
+	public void testLotes() {
+
+		Integer[] claves = new Integer[50];
+		String[] lote = new String[50];
+		for (int i = 0; i < 50; i++) {
+			claves[i] = i % 40 * 10;
+			lote[i] = valores[i % 10];
+		}
+
+		mapa.putAll(claves, lote);
+		assertEquals(40, mapa.size());
+		assertEquals(valores[(40 + 5) % 10], mapa.get(50));
+		assertEquals(valores[39 % 10], mapa.get(390));
+
+		Integer[] buscadas = { 0, 5, 50, 390, 400, 10 };
+		String[] salida = new String[buscadas.length];
+		mapa.getAll(buscadas, salida);
+		for (int i = 0; i < buscadas.length; i++) {
+			assertEquals(mapa.get(buscadas[i]), salida[i]);
+		}
+		assertNull(salida[1]);
+		assertNull(salida[4]);
+
+	}
+
+	/**
+	 * Se comprueba que una clave con el hash calculado de antemano sirve para
+	 * leer y escribir en mapas con y sin mezcla de bits del hash.
+	 */
+	@Test
+	public void testClaveDispersada() {
+
+		HashMapArray<Integer, String> potencia = new HashMapArray<Integer, String>(4, true);
+		for (int i = 0; i < 10; i++) {
+			mapa.put(i * 10, valores[i]);
+			potencia.put(i * 10, valores[i]);
+		}
+
+		for (int i = 0; i < 10; i++) {
+			ClaveDispersada<Integer> clave = new ClaveDispersada<Integer>(i * 10);
+			assertEquals(valores[i], mapa.get(clave));
+			assertEquals(valores[i], potencia.get(clave));
+			assertEquals(valores[i], potencia.put(clave, "otro"));
+		}
+		assertNull(mapa.get(new ClaveDispersada<Integer>(5)));
+		assertNull(mapa.put(new ClaveDispersada<Integer>(5), "nuevo"));
+		assertEquals("nuevo", mapa.get(5));
+		assertEquals("otro", potencia.get(30));
+		assertEquals(11, mapa.size());
+
+	}
+
+}
@@ -0,0 +1,183 @@
+import static org.junit.Assert.*;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tablasHash.HashMapCuckoo;
+
+public class HashMapCuckooTest {
+
+	HashMapCuckoo<Integer, String> mapa;
+
+	String[] valores = { "cero", "uno", "dos", "tres", "cuatro", "cinco", "seis", "siete", "ocho", "nueve" };
+
+	/**
+	 * Clave con un hashCode que se repite cada diez valores
+	 */
+	static class ClaveRepetida {
+
+		final int valor;
+
+		ClaveRepetida(int valor) {
+			this.valor = valor;
+		}
+
+		@Override
+		public int hashCode() {
+			return valor / 10;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof ClaveRepetida && ((ClaveRepetida) o).valor == valor;
+		}
+
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		mapa = new HashMapCuckoo<Integer, String>(4);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		mapa.clear();
+	}
+
+	/**
+	 * Se comprueba el almacenamiento correcto de claves y valores y la
+	 * actualizacion de una clave existente.
+	 */
+	@Test
+	public void testPut() {
+
+		for (int i = 0; i <= 5; i++) {
+			assertEquals(null, mapa.put(i, valores[i]));
+		}
+
+		assertEquals(valores[3], mapa.put(3, "otro"));
+		assertEquals("otro", mapa.get(3));
+		assertEquals(6, mapa.size());
+
+	}
+
+	/**
+	 * Se comprueba que la tabla crece sin superar el factor de carga y que todas
+	 * las claves siguen accesibles tras las expulsiones y reconstrucciones.
+	 */
+	@Test
+	public void testRedimension() {
+
+		for (int i = 0; i < 1000; i++) {
+			mapa.put(i, valores[i % 10]);
+			assertTrue(mapa.getOcupacion() <= 0.45F);
+		}
+
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(valores[i % 10], mapa.get(i));
+		}
+		assertNull(mapa.get(1000));
+
+		for (int i = 0; i < 1000; i += 2) {
+			assertEquals(valores[i % 10], mapa.remove(i));
+		}
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i % 2 == 0 ? null : valores[i % 10], mapa.get(i));
+		}
+		assertEquals(500, mapa.size());
+
+	}
+
+	/**
+	 * Se comprueba que las claves que comparten hashCode, y que por tanto no
+	 * caben en sus dos posiciones con ninguna funcion hash, no se pierden.
+	 */
+	@Test
+	public void testHashRepetido() {
+
+		HashMapCuckoo<ClaveRepetida, String> repetidas = new HashMapCuckoo<ClaveRepetida, String>();
+
+		for (int i = 0; i < 100; i++) {
+			assertNull(repetidas.put(new ClaveRepetida(i), valores[i % 10]));
+		}
+		assertEquals(100, repetidas.size());
+		assertEquals(100, repetidas.entrySet().size());
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals(valores[i % 10], repetidas.get(new ClaveRepetida(i)));
+		}
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals(valores[i % 10], repetidas.remove(new ClaveRepetida(i)));
+		}
+		assertEquals(0, repetidas.size());
+
+	}
+
+
+	/**
+	 * Se comprueba que la vista de las entradas refleja el mapa: su iterador
+	 * quita entradas de los dos arrays y de la lista de desbordamiento sin
+	 * saltarse ni repetir ninguna, y clear vacia el mapa.
+	 */
+	@Test
+	public void testEntradas_Vista() {
+
+		HashMapCuckoo<ClaveRepetida, String> repetidas = new HashMapCuckoo<ClaveRepetida, String>();
+		for (int i = 0; i < 100; i++) {
+			repetidas.put(new ClaveRepetida(i), valores[i % 10]);
+		}
+
+		Set<Integer> vistas = new HashSet<Integer>();
+		Iterator<Entry<ClaveRepetida, String>> it = repetidas.entrySet().iterator();
+		while (it.hasNext()) {
+			Entry<ClaveRepetida, String> entrada = it.next();
+			assertTrue(vistas.add(entrada.getKey().valor));
+			if (entrada.getKey().valor % 2 == 0)
+				it.remove();
+		}
+
+		assertEquals(100, vistas.size());
+		assertEquals(50, repetidas.size());
+		for (int i = 0; i < 100; i++) {
+			assertEquals(i % 2 == 0 ? null : valores[i % 10], repetidas.get(new ClaveRepetida(i)));
+		}
+
+		// Las vistas de claves y valores tambien reflejan el mapa
+		assertTrue(repetidas.keySet().remove(new ClaveRepetida(1)));
+		assertFalse(repetidas.keySet().remove(new ClaveRepetida(2)));
+		assertEquals(49, repetidas.size());
+
+		repetidas.clear();
+		assertEquals(0, repetidas.size());
+		assertTrue(repetidas.isEmpty());
+		assertNull(repetidas.get(new ClaveRepetida(3)));
+		assertNull(repetidas.put(new ClaveRepetida(3), valores[3]));
+		assertEquals(valores[3], repetidas.get(new ClaveRepetida(3)));
+
+	}
+
+	/**
+	 * Se comprueba que el iterador falla si se inserta una clave mientras se
+	 * recorre el mapa.
+	 */
+	@Test(expected = ConcurrentModificationException.class)
+	public void testIterador_FallaRapido() {
+
+		for (int i = 0; i < 5; i++) {
+			mapa.put(i, valores[i]);
+		}
+
+		for (Integer clave : mapa.keySet()) {
+			mapa.put(clave + 100, valores[clave]);
+		}
+
+	}
+
+}
@@ -0,0 +1,235 @@
+import static org.junit.Assert.*;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tablasHash.HashMapSwiss;
+
+public class HashMapSwissTest {
+
+	HashMapSwiss<Integer, String> mapa;
+
+	String[] valores = { "cero", "uno", "dos", "tres", "cuatro", "cinco", "seis", "siete", "ocho", "nueve" };
+
+	@Before
+	public void setUp() throws Exception {
+		mapa = new HashMapSwiss<Integer, String>(8);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		mapa.clear();
+	}
+
+	/**
+	 * Se comprueba el almacenamiento correcto de claves y valores y la
+	 * actualizacion de una clave existente.
+	 */
+	@Test
+	public void testPut() {
+
+		for (int i = 0; i <= 5; i++) {
+			assertEquals(null, mapa.put(i, valores[i]));
+		}
+
+		assertEquals(valores[3], mapa.put(3, "otro"));
+		assertEquals("otro", mapa.get(3));
+		assertEquals(6, mapa.size());
+
+	}
+
+	/**
+	 * Se comprueba que la tabla crece sin superar el factor de carga y que las
+	 * claves siguen accesibles tras eliminar la mitad.
+	 */
+	@Test
+	public void testRedimension() {
+
+		for (int i = 0; i < 1000; i++) {
+			mapa.put(i, valores[i % 10]);
+			assertTrue(mapa.getOcupacion() <= 0.875F);
+		}
+		assertTrue(mapa.getCapacidad() >= 1024);
+
+		for (int i = 0; i < 1000; i += 2) {
+			assertEquals(valores[i % 10], mapa.remove(i));
+		}
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(i % 2 == 0 ? null : valores[i % 10], mapa.get(i));
+		}
+		assertEquals(500, mapa.size());
+
+	}
+
+	/**
+	 * Se comprueba que las posiciones borradas se reutilizan y que una insercion
+	 * y eliminacion alternadas no hacen crecer la tabla.
+	 */
+	@Test
+	public void testPutRemove_Alternados() {
+
+		for (int i = 0; i < 4; i++) {
+			mapa.put(i, valores[i]);
+		}
+
+		for (int i = 4; i < 10000; i++) {
+			mapa.put(i, valores[i % 10]);
+			assertEquals(valores[(i - 4) % 10], mapa.remove(i - 4));
+			assertEquals(4, mapa.size());
+		}
+
+		assertEquals(8, mapa.getCapacidad());
+		for (int i = 9996; i < 10000; i++) {
+			assertEquals(valores[i % 10], mapa.get(i));
+		}
+
+	}
+
+	/**
+	 * Se comprueba que la vista de las entradas refleja el mapa: su iterador
+	 * quita entradas sin saltarse ni repetir ninguna, las entradas escriben en
+	 * el mapa y clear lo vacia.
+	 */
+	@Test
+	public void testEntradas_Vista() {
+
+		for (int i = 0; i < 100; i++) {
+			mapa.put(i, valores[i % 10]);
+		}
+
+		Set<Integer> vistas = new HashSet<Integer>();
+		Iterator<Entry<Integer, String>> it = mapa.entrySet().iterator();
+		while (it.hasNext()) {
+			Entry<Integer, String> entrada = it.next();
+			assertTrue(vistas.add(entrada.getKey()));
+			if (entrada.getKey() % 2 == 0)
+				it.remove();
+			else if (entrada.getKey() % 3 == 0)
+				entrada.setValue("otro");
+		}
+
+		assertEquals(100, vistas.size());
+		assertEquals(50, mapa.size());
+		for (int i = 0; i < 100; i++) {
+			String esperado = i % 2 == 0 ? null : i % 3 == 0 ? "otro" : valores[i % 10];
+			assertEquals(esperado, mapa.get(i));
+		}
+
+		// Las vistas de claves y valores tambien reflejan el mapa
+		assertTrue(mapa.keySet().remove(1));
+		assertFalse(mapa.keySet().remove(2));
+		assertTrue(mapa.values().remove("otro"));
+		assertEquals(48, mapa.size());
+
+		mapa.clear();
+		assertEquals(0, mapa.size());
+		assertNull(mapa.get(5));
+		assertNull(mapa.put(5, valores[5]));
+		assertEquals(valores[5], mapa.get(5));
+
+	}
+
+	/**
+	 * Se comprueba que al crecer se usan los hashes guardados y no se vuelve a
+	 * llamar a hashCode.
+	 */
+	@Test
+	public void testRedimension_SinHashCode() {
+
+		HashMapSwiss<ClaveContada, Integer> contadas = new HashMapSwiss<ClaveContada, Integer>(8);
+		ClaveContada[] claves = new ClaveContada[1000];
+		for (int i = 0; i < claves.length; i++) {
+			claves[i] = new ClaveContada(i);
+			contadas.put(claves[i], i);
+		}
+
+		assertTrue(contadas.getCapacidad() >= 1024);
+		for (int i = 0; i < claves.length; i++) {
+			assertEquals(1, claves[i].llamadas);
+			assertEquals(Integer.valueOf(i), contadas.get(claves[i]));
+		}
+
+	}
+
+	/**
+	 * Clave que cuenta las llamadas a hashCode
+	 */
+	static class ClaveContada {
+
+		final int valor;
+		int llamadas;
+
+		ClaveContada(int valor) {
+			this.valor = valor;
+		}
+
+		@Override
+		public int hashCode() {
+			llamadas++;
+			return valor;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof ClaveContada && ((ClaveContada) o).valor == valor;
+		}
+
+	}
+
+	/**
+	 * Se comprueba que una entrada conservada despues de que el mapa crezca o de
+	 * quitarla no lee ni escribe el valor de otra clave que ocupe su posicion.
+	 */
+	@Test
+	public void testEntrada_Obsoleta() {
+
+		mapa.put(0, valores[0]);
+		Entry<Integer, String> entrada = mapa.entrySet().iterator().next();
+
+		for (int i = 1; i < 200; i++) {
+			mapa.put(i, valores[i % 10]);
+		}
+		assertEquals(valores[0], entrada.getValue());
+		entrada.setValue("otro");
+		for (int i = 1; i < 200; i++) {
+			assertEquals(valores[i % 10], mapa.get(i));
+		}
+
+		Iterator<Entry<Integer, String>> it = mapa.entrySet().iterator();
+		Entry<Integer, String> quitada = it.next();
+		Integer clave = quitada.getKey();
+		String valor = quitada.getValue();
+		it.remove();
+		mapa.put(1000, "nuevo");
+		assertEquals(clave, quitada.getKey());
+		assertEquals(valor, quitada.getValue());
+		assertEquals(valor, quitada.setValue("x"));
+		assertEquals("nuevo", mapa.get(1000));
+		assertFalse(mapa.containsValue("x"));
+
+	}
+
+	/**
+	 * Se comprueba que el iterador falla si se inserta una clave mientras se
+	 * recorre el mapa.
+	 */
+	@Test(expected = ConcurrentModificationException.class)
+	public void testIterador_FallaRapido() {
+
+		for (int i = 0; i < 5; i++) {
+			mapa.put(i, valores[i]);
+		}
+
+		for (Integer clave : mapa.keySet()) {
+			mapa.put(clave + 100, valores[clave]);
+		}
+
+	}
+
+}
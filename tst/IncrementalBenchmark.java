@@ -0,0 +1,78 @@
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import tablasHash.HashMapArray;
+import tablasHash.MapaDispersionAbierta;
+import tablasHash.MultiHash;
+
+/**
+ * Compara la redimension de golpe con la incremental y, en
+ * MapaDispersionAbierta, con la dispersion lineal. Se mide el tiempo de la
+ * insercion mas lenta, que en el modo normal es la que provoca el crecimiento
+ * y recoloca todo el mapa, junto con el tiempo medio por insercion.
+ *
+ * Se ejecuta con: java IncrementalBenchmark [numeroClaves]
+ */
+public class IncrementalBenchmark {
+
+	static final int RONDAS = 3;
+	static final Integer VALOR = 1;
+
+	public static void main(String[] args) {
+
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+
+		Integer[] claves = new Integer[n];
+		for (int i = 0; i < n; i++)
+			claves[i] = i;
+
+		System.out.println("Claves consecutivas: " + n);
+		System.out.printf("%-32s %12s %14s%n", "mapa", "put ns/op", "put maximo ms");
+
+		medir("HashMapArray", () -> new HashMapArray<Integer, Integer>(16, 0.75F, 2F, 0F, true, false), claves);
+		medir("HashMapArray incremental", () -> new HashMapArray<Integer, Integer>(16, 0.75F, 2F, 0F, true, true),
+				claves);
+		medir("MultiHash", () -> new MultiHash<Integer, Integer>(MultiHash.getEstrategia("EXPL"), 16, 0.75F, 2F, 0F,
+				true, false, false), claves);
+		medir("MultiHash incremental", () -> new MultiHash<Integer, Integer>(MultiHash.getEstrategia("EXPL"), 16,
+				0.75F, 2F, 0F, true, false, true), claves);
+		medir("MapaDispersion", () -> new MapaDispersionAbierta<Integer, Integer>(8, 16, true, false), claves);
+		medir("MapaDispersion incremental", () -> new MapaDispersionAbierta<Integer, Integer>(8, 16, true, true),
+				claves);
+		medir("MapaDispersion lineal", () -> new MapaDispersionAbierta<Integer, Integer>(8, 16, true, false, 0F, true),
+				claves);
+		medir("MapaDispersion lineal carga 4", () -> new MapaDispersionAbierta<Integer, Integer>(8, 16, true, false,
+				4F, true), claves);
+	}
+
+	/**
+	 * Mide cada insercion por separado y se queda con la mejor de varias rondas
+	 * para descontar el calentamiento.
+	 */
+	static void medir(String nombre, Supplier<Map<Integer, Integer>> fabrica, Integer[] claves) {
+
+		long mejorTotal = Long.MAX_VALUE, mejorMaximo = Long.MAX_VALUE;
+
+		for (int r = 0; r < RONDAS; r++) {
+
+			Map<Integer, Integer> mapa = fabrica.get();
+			long total = 0, maximo = 0;
+
+			for (Integer k : claves) {
+				long t0 = System.nanoTime();
+				mapa.put(k, VALOR);
+				long t = System.nanoTime() - t0;
+				total += t;
+				maximo = Math.max(maximo, t);
+			}
+
+			mejorTotal = Math.min(mejorTotal, total);
+			mejorMaximo = Math.min(mejorMaximo, maximo);
+		}
+
+		System.out.printf("%-32s %12.1f %14.2f%n", nombre, (double) mejorTotal / claves.length,
+				mejorMaximo / 1e6);
+	}
+
+}
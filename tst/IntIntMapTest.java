@@ -0,0 +1,87 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import tablasHash.IntIntMap;
+import tablasHash.LongLongMap;
+
+public class IntIntMapTest {
+
+	String[] metodos = { "EXPL", "CUAD", "COCI", "DOBL" };
+
+	/**
+	 * Se comprueba con todas las estrategias que las claves siguen accesibles
+	 * tras crecer y tras eliminar la mitad.
+	 */
+	@Test
+	public void testPutRemove() {
+
+		for (String metodo : metodos) {
+			IntIntMap mapa = new IntIntMap(metodo, 4, 0.75F, 2F, true);
+
+			for (int i = 1; i <= 1000; i++) {
+				assertEquals(IntIntMap.AUSENTE, mapa.put(i, i * 10));
+			}
+			assertEquals(10, mapa.put(1, 11));
+
+			for (int i = 2; i <= 1000; i += 2) {
+				assertEquals(i * 10, mapa.remove(i));
+			}
+			for (int i = 3; i <= 1000; i += 2) {
+				assertEquals(i * 10, mapa.get(i));
+			}
+			assertFalse(mapa.containsKey(2));
+			assertEquals(-1, mapa.getOrDefault(2, -1));
+			assertEquals(500, mapa.size());
+		}
+	}
+
+	/**
+	 * Se comprueba que las claves que coinciden con los centinelas de posicion
+	 * vacia y borrada se guardan como cualquier otra.
+	 */
+	@Test
+	public void testClavesCentinela() {
+
+		IntIntMap mapa = new IntIntMap();
+
+		assertFalse(mapa.containsKey(0));
+		assertEquals(IntIntMap.AUSENTE, mapa.put(0, 5));
+		assertEquals(IntIntMap.AUSENTE, mapa.put(Integer.MIN_VALUE, 6));
+		mapa.put(1, 7);
+
+		assertEquals(5, mapa.get(0));
+		assertEquals(6, mapa.get(Integer.MIN_VALUE));
+		assertEquals(3, mapa.size());
+
+		assertEquals(5, mapa.remove(0));
+		assertFalse(mapa.containsKey(0));
+		assertEquals(2, mapa.size());
+
+		mapa.clear();
+		assertTrue(mapa.isEmpty());
+	}
+
+	/**
+	 * Se comprueba que LongLongMap distingue claves con las mismas mitades en
+	 * distinto orden, que pliegan al mismo hash.
+	 */
+	@Test
+	public void testLongLongMap() {
+
+		LongLongMap mapa = new LongLongMap("DOBL");
+
+		for (long i = 1; i <= 500; i++) {
+			mapa.put(i << 32 | (i + 1), i);
+			mapa.put((i + 1) << 32 | i, -i);
+		}
+		mapa.put(Long.MIN_VALUE, 1);
+
+		for (long i = 1; i <= 500; i++) {
+			assertEquals(i, mapa.get(i << 32 | (i + 1)));
+			assertEquals(-i, mapa.get((i + 1) << 32 | i));
+		}
+		assertEquals(1, mapa.get(Long.MIN_VALUE));
+		assertEquals(1001, mapa.size());
+	}
+
+}
@@ -0,0 +1,114 @@
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import tablasHash.LongLongMap;
+
+public class LongLongMapTest {
+
+	String[] metodos = { "EXPL", "CUAD", "COCI", "DOBL" };
+
+	/**
+	 * Mitad baja comun de las claves que solo se diferencian en los bits altos
+	 */
+	static final long BAJOS = 1 << 20;
+
+	/**
+	 * Se comprueba con todas las estrategias que las claves siguen accesibles
+	 * tras crecer y tras eliminar la mitad.
+	 */
+	@Test
+	public void testPutRemove() {
+
+		for (String metodo : metodos) {
+			for (boolean potenciaDos : new boolean[] { false, true }) {
+				LongLongMap mapa = new LongLongMap(metodo, 4, 0.75F, 2F, potenciaDos);
+
+				for (long i = 1; i <= 1000; i++) {
+					assertEquals(LongLongMap.AUSENTE, mapa.put(i, i * 10));
+				}
+				assertEquals(10, mapa.put(1, 11));
+
+				for (long i = 2; i <= 1000; i += 2) {
+					assertEquals(i * 10, mapa.remove(i));
+				}
+				for (long i = 3; i <= 1000; i += 2) {
+					assertEquals(i * 10, mapa.get(i));
+				}
+				assertFalse(mapa.containsKey(2));
+				assertEquals(-1, mapa.getOrDefault(2, -1));
+				assertEquals(500, mapa.size());
+			}
+		}
+	}
+
+	/**
+	 * Se comprueba que las claves que coinciden con los centinelas de posicion
+	 * vacia y borrada (0 y Long.MIN_VALUE) se guardan como cualquier otra.
+	 */
+	@Test
+	public void testClavesCentinela() {
+
+		LongLongMap mapa = new LongLongMap();
+
+		assertFalse(mapa.containsKey(0));
+		assertFalse(mapa.containsKey(Long.MIN_VALUE));
+		assertEquals(LongLongMap.AUSENTE, mapa.put(0, 5));
+		assertEquals(LongLongMap.AUSENTE, mapa.put(Long.MIN_VALUE, 6));
+		mapa.put(1, 7);
+
+		assertEquals(5, mapa.get(0));
+		assertEquals(6, mapa.get(Long.MIN_VALUE));
+		assertEquals(6, mapa.put(Long.MIN_VALUE, 8));
+		assertEquals(3, mapa.size());
+
+		assertEquals(5, mapa.remove(0));
+		assertFalse(mapa.containsKey(0));
+		assertEquals(LongLongMap.AUSENTE, mapa.remove(0));
+		assertEquals(8, mapa.remove(Long.MIN_VALUE));
+		assertFalse(mapa.containsKey(Long.MIN_VALUE));
+		assertEquals(1, mapa.size());
+		assertEquals(7, mapa.get(1));
+
+		mapa.put(0, 9);
+		mapa.clear();
+		assertTrue(mapa.isEmpty());
+		assertFalse(mapa.containsKey(0));
+	}
+
+	/**
+	 * Se comprueba que se distinguen claves que solo se diferencian en los 32
+	 * bits altos, y claves con las mismas mitades en distinto orden, que pliegan
+	 * al mismo hash.
+	 */
+	@Test
+	public void testBitsAltos() {
+
+		for (String metodo : metodos) {
+			LongLongMap mapa = new LongLongMap(metodo);
+
+			for (long i = 1; i <= 500; i++) {
+				mapa.put(i << 32 | BAJOS, i);
+				mapa.put(i << 32 | (i + 1), -i);
+				mapa.put((i + 1) << 32 | i, 2 * i);
+			}
+			mapa.put(BAJOS, 1000);
+
+			for (long i = 1; i <= 500; i++) {
+				assertEquals(i, mapa.get(i << 32 | BAJOS));
+				assertEquals(-i, mapa.get(i << 32 | (i + 1)));
+				assertEquals(2 * i, mapa.get((i + 1) << 32 | i));
+			}
+			assertEquals(1000, mapa.get(BAJOS));
+			assertEquals(1501, mapa.size());
+
+			for (long i = 1; i <= 500; i += 2) {
+				assertEquals(i, mapa.remove(i << 32 | BAJOS));
+			}
+			for (long i = 1; i <= 500; i++) {
+				assertEquals(i % 2 == 0, mapa.containsKey(i << 32 | BAJOS));
+			}
+			assertEquals(1000, mapa.get(BAJOS));
+		}
+	}
+
+}
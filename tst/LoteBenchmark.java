@@ -0,0 +1,114 @@
+import java.util.Map;
+import java.util.Random;
+
+import tablasHash.HashMapArray;
+import tablasHash.MapaDispersionAbierta;
+import tablasHash.MultiHash;
+
+/**
+ * Compara las busquedas y escrituras por lotes (getAll y putAll) con un bucle
+ * de get y put clave a clave. Los lotes son de claves existentes en orden
+ * aleatorio sobre un mapa mucho mayor que la cache, de forma que casi cada
+ * clave es un fallo de cache y se ve si las fases por grupos los solapan.
+ *
+ * Se ejecuta con: java LoteBenchmark [numeroClaves] [tamañoLote]
+ */
+public class LoteBenchmark {
+
+	static final int RONDAS = 5;
+
+	public static void main(String[] args) {
+
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+		int lote = args.length > 1 ? Integer.parseInt(args[1]) : 256;
+
+		Integer[] claves = new Integer[n];
+		for (int i = 0; i < n; i++)
+			claves[i] = i * 7919;
+
+		// Lotes de claves existentes en orden aleatorio
+		Random r = new Random(42);
+		Integer[][] lotes = new Integer[n / lote][lote];
+		for (Integer[] l : lotes)
+			for (int i = 0; i < lote; i++)
+				l[i] = claves[r.nextInt(n)];
+
+		System.out.println("Claves: " + n + ", lotes de " + lote);
+		System.out.printf("%-24s %10s %10s %10s %10s%n", "mapa", "get ns", "getAll ns", "put ns", "putAll ns");
+
+		HashMapArray<Integer, Integer> array = new HashMapArray<Integer, Integer>(16, true);
+		medir("HashMapArray", array, array::getAll, array::putAll, claves, lotes);
+
+		MultiHash<Integer, Integer> multi = new MultiHash<Integer, Integer>("EXPL", 16, 0.75F, 1.5F, 0.1F, true);
+		medir("MultiHash", multi, multi::getAll, multi::putAll, claves, lotes);
+
+		MapaDispersionAbierta<Integer, Integer> abierta = new MapaDispersionAbierta<Integer, Integer>(3, 16, true,
+				false, 1F);
+		medir("MapaDispersionAbierta", abierta, abierta::getAll, abierta::putAll, claves, lotes);
+	}
+
+	/**
+	 * Llena el mapa y mide, en ns por clave, un bucle de get, getAll, un bucle
+	 * de put y putAll sobre los mismos lotes. Se queda con la mejor de varias
+	 * rondas para descontar el calentamiento.
+	 */
+	static void medir(String nombre, Map<Integer, Integer> mapa, Lectura getAll, Escritura putAll, Integer[] claves,
+			Integer[][] lotes) {
+
+		for (Integer k : claves)
+			mapa.put(k, k);
+
+		int lote = lotes[0].length;
+		Integer[] salida = new Integer[lote];
+		long mejorGet = Long.MAX_VALUE, mejorGetAll = Long.MAX_VALUE;
+		long mejorPut = Long.MAX_VALUE, mejorPutAll = Long.MAX_VALUE;
+		long control = 0;
+
+		for (int r = 0; r < RONDAS; r++) {
+
+			long t0 = System.nanoTime();
+			for (Integer[] l : lotes) {
+				for (int i = 0; i < lote; i++)
+					salida[i] = mapa.get(l[i]);
+				control += salida[lote - 1];
+			}
+			long t1 = System.nanoTime();
+			for (Integer[] l : lotes) {
+				getAll.getAll(l, salida);
+				control += salida[lote - 1];
+			}
+			long t2 = System.nanoTime();
+			for (Integer[] l : lotes)
+				for (int i = 0; i < lote; i++)
+					mapa.put(l[i], l[i]);
+			long t3 = System.nanoTime();
+			for (Integer[] l : lotes)
+				putAll.putAll(l, l);
+			long t4 = System.nanoTime();
+
+			mejorGet = Math.min(mejorGet, t1 - t0);
+			mejorGetAll = Math.min(mejorGetAll, t2 - t1);
+			mejorPut = Math.min(mejorPut, t3 - t2);
+			mejorPutAll = Math.min(mejorPutAll, t4 - t3);
+		}
+
+		double total = (double) lotes.length * lote;
+		System.out.printf("%-24s %10.1f %10.1f %10.1f %10.1f   (%d)%n", nombre, mejorGet / total, mejorGetAll / total,
+				mejorPut / total, mejorPutAll / total, control + mapa.size());
+	}
+
+	/**
+	 * getAll de un mapa
+	 */
+	interface Lectura {
+		void getAll(Integer[] claves, Integer[] valores);
+	}
+
+	/**
+	 * putAll de un mapa
+	 */
+	interface Escritura {
+		void putAll(Integer[] claves, Integer[] valores);
+	}
+
+}
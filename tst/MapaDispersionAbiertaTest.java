@@ -1,12 +1,20 @@
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import tablasHash.ClaveDispersada;
 import tablasHash.MapaDispersionAbierta;
 
 public class MapaDispersionAbiertaTest {
@@ -147,6 +155,475 @@ public class MapaDispersionAbiertaTest {
 
 	}
 
+	/**
+	 * Se comprueba containsKey, containsValue y size, tambien con valores null y
+	 * en mitad de una migracion incremental.
+	 */
+	@Test
+	public void testContains() {
+
+		MapaDispersionAbierta<Integer, String> incremental = new MapaDispersionAbierta<Integer, String>(3, 5, false,
+				true);
+
+		for (MapaDispersionAbierta<Integer, String> m : Arrays.asList(mapa, incremental)) {
+
+			for (int i = 0; i < 40; i++) {
+				m.put(i, i == 13 ? null : valores[i % 10]);
+				assertEquals(i + 1, m.size());
+			}
+
+			for (int i = 0; i < 40; i++) {
+				assertTrue(m.containsKey(i));
+			}
+			assertFalse(m.containsKey(40));
+			assertTrue(m.containsValue(valores[9]));
+			assertTrue(m.containsValue(null));
+			assertFalse(m.containsValue("otro"));
+
+			m.remove(13);
+			assertFalse(m.containsKey(13));
+			assertFalse(m.containsValue(null));
+			m.remove(13);
+			assertEquals(39, m.size());
+
+			m.clear();
+			assertEquals(0, m.size());
+			assertFalse(m.containsKey(0));
+		}
+
+	}
+
+	/**
+	 * Se comprueba que con factor de carga el mapa crece con el numero de
+	 * elementos y no con las colisiones: las claves con el mismo hash se quedan
+	 * en una cubeta larga sin que el contenedor crezca sin limite.
+	 */
+	@Test
+	public void testPut_FactorCarga() {
+
+		MapaDispersionAbierta<Object, String> carga = new MapaDispersionAbierta<Object, String>(3, 5, false, false,
+				0.75F);
+
+		for (int i = 0; i < 100; i++) {
+			assertNull(carga.put(i, valores[i % 10]));
+			assertTrue(carga.getCargaMedia() <= 0.75F);
+		}
+		assertEquals(100, carga.size());
+		for (int i = 0; i < 100; i++) {
+			assertEquals(valores[i % 10], carga.get(i));
+		}
+
+		int cubetas = carga.getNumeroCubetas();
+		for (int i = 0; i < 20; i++) {
+			assertNull(carga.put(new Colision(i), valores[i % 10]));
+		}
+		assertEquals(120, carga.size());
+		assertTrue(carga.getLongitudMaximaCubeta() >= 20);
+		assertTrue(carga.getNumeroCubetas() < 2 * cubetas);
+		assertEquals(valores[7], carga.get(new Colision(7)));
+
+		int[] histograma = carga.getHistogramaCubetas();
+		assertEquals(carga.getLongitudMaximaCubeta() + 1, histograma.length);
+		int total = 0, elementos = 0;
+		for (int i = 0; i < histograma.length; i++) {
+			total += histograma[i];
+			elementos += i * histograma[i];
+		}
+		assertEquals(carga.getNumeroCubetas(), total);
+		assertEquals(120, elementos);
+
+	}
+
+	/**
+	 * Se comprueba que una cubeta con muchas claves del mismo hash, que pasa a
+	 * buscar con arbol, encuentra y borra bien las claves, tanto Comparable
+	 * (cadenas formadas con "Aa" y "BB", que tienen el mismo hashCode) como no
+	 * Comparable, y que vuelve a lista al vaciarse.
+	 */
+	@Test
+	public void testPut_CubetaArbol() {
+
+		MapaDispersionAbierta<Object, Integer> carga = new MapaDispersionAbierta<Object, Integer>(3, 5, false, false,
+				0.75F);
+
+		List<Object> claves = new ArrayList<Object>();
+		for (int i = 0; i < 1024; i++) {
+			StringBuilder cadena = new StringBuilder();
+			for (int b = 0; b < 10; b++)
+				cadena.append((i >> b & 1) == 0 ? "Aa" : "BB");
+			claves.add(cadena.toString());
+		}
+		for (int i = 0; i < 50; i++)
+			claves.add(new Colision(i));
+		assertEquals(claves.get(0).hashCode(), claves.get(1023).hashCode());
+
+		for (int i = 0; i < claves.size(); i++) {
+			assertNull(carga.put(claves.get(i), i));
+		}
+		assertTrue(carga.getLongitudMaximaCubeta() >= 1024);
+		for (int i = 0; i < claves.size(); i++) {
+			assertEquals(Integer.valueOf(i), carga.get(claves.get(i)));
+		}
+		assertNull(carga.get("AaAaAaAaAaAaAaAaAaBC"));
+		assertNull(carga.get(new Colision(50)));
+
+		for (int i = 0; i < claves.size(); i += 2) {
+			assertEquals(Integer.valueOf(i), carga.remove(claves.get(i)));
+		}
+		for (int i = 0; i < claves.size(); i++) {
+			assertEquals(i % 2 == 0 ? null : Integer.valueOf(i), carga.get(claves.get(i)));
+		}
+
+		for (int i = 1; i < claves.size(); i += 2) {
+			assertEquals(Integer.valueOf(i), carga.remove(claves.get(i)));
+		}
+		assertEquals(0, carga.size());
+		assertNull(carga.put(claves.get(3), 3));
+		assertEquals(Integer.valueOf(3), carga.get(claves.get(3)));
+
+	}
+
+	/**
+	 * Clave cuyo hash es siempre el mismo
+	 */
+	static class Colision {
+
+		final int id;
+
+		Colision(int id) {
+			this.id = id;
+		}
+
+		@Override
+		public int hashCode() {
+			return -1;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Colision && ((Colision) o).id == id;
+		}
+	}
+
+	/**
+	 * Se comprueba que con dispersion lineal el contenedor crece de cubeta en
+	 * cubeta y sigue encontrando todas las claves, tanto creciendo al llenarse
+	 * una cubeta como con factor de carga.
+	 */
+	@Test
+	public void testPut_Lineal() {
+
+		for (float factorCarga : new float[] { 0F, 2F }) {
+			for (boolean potenciaDos : new boolean[] { false, true }) {
+
+				MapaDispersionAbierta<Integer, String> lineal = new MapaDispersionAbierta<Integer, String>(3, 5,
+						potenciaDos, false, factorCarga, true);
+
+				int cubetas = lineal.getNumeroCubetas();
+				for (int i = 0; i < 1000; i++) {
+					assertNull(lineal.put(i * 7 - 500, valores[i % 10]));
+					assertTrue(lineal.getNumeroCubetas() - cubetas <= 1);
+					cubetas = lineal.getNumeroCubetas();
+				}
+				assertEquals(1000, lineal.size());
+				assertTrue(lineal.getNumeroCubetas() > 100);
+				if (factorCarga > 0)
+					assertTrue(lineal.getCargaMedia() <= factorCarga);
+
+				for (int i = 0; i < 1000; i++) {
+					assertEquals(valores[i % 10], lineal.get(i * 7 - 500));
+				}
+				assertNull(lineal.get(1));
+
+				for (int i = 0; i < 1000; i += 2) {
+					assertEquals(valores[i % 10], lineal.remove(i * 7 - 500));
+				}
+				assertEquals(500, lineal.size());
+				for (int i = 1; i < 1000; i += 2) {
+					assertTrue(lineal.containsKey(i * 7 - 500));
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Se comprueba que la redimension repartida en paralelo coloca todas las
+	 * entradas, tanto con resto de la division como con mascara.
+	 */
+	@Test
+	public void testPut_RedimensionParalela() {
+
+		ForkJoinPool pool = new ForkJoinPool(4);
+
+		for (boolean potenciaDos : new boolean[] { false, true }) {
+
+			MapaDispersionAbierta<Integer, String> paralelo = new MapaDispersionAbierta<Integer, String>(3, 5,
+					potenciaDos);
+			paralelo.setUmbralRedimensionParalela(0, pool);
+
+			for (int i = 0; i < 5000; i++) {
+				assertNull(paralelo.put(i, valores[i % 10]));
+			}
+			assertEquals(5000, paralelo.size());
+			assertTrue(paralelo.getNumeroCubetas() > 5);
+			for (int i = 0; i < 5000; i++) {
+				assertEquals(valores[i % 10], paralelo.get(i));
+			}
+
+			assertEquals(valores[5], paralelo.remove(5));
+			assertNull(paralelo.get(5));
+			assertEquals(4999, paralelo.size());
+		}
+
+		pool.shutdown();
+
+	}
+
+	/**
+	 * Se comprueba que en modo incremental las claves siguen accesibles mientras
+	 * se migran las cubetas al contenedor nuevo.
+	 */
+	@Test
+	public void testPut_Incremental() {
+
+		MapaDispersionAbierta<Integer, String> incremental = new MapaDispersionAbierta<Integer, String>(3, 5, false,
+				true);
+
+		for (int i = 0; i < 100; i++) {
+			assertNull(incremental.put(i, valores[i % 10]));
+			for (int j = 0; j <= i; j++) {
+				assertEquals(valores[j % 10], incremental.get(j));
+			}
+		}
+		assertEquals(100, incremental.size());
+		assertTrue(incremental.getNumeroCubetas() > 5);
+
+		assertEquals(valores[5], incremental.put(5, "otro"));
+		assertEquals("otro", incremental.get(5));
+		assertEquals(valores[7], incremental.remove(7));
+		assertNull(incremental.get(7));
+		assertEquals(99, incremental.size());
+
+	}
+
+
+	/**
+	 * Se comprueba que el iterador de las entradas permite modificarlas y
+	 * eliminarlas, tambien en una cubeta larga indexada con arbol, y que cada
+	 * entrada es un objeto distinto que se puede conservar.
+	 */
+	@Test
+	public void testIterador_Remove() {
+
+		// Todas las claves caen en la cubeta 0, que pasa a tener arbol
+		MapaDispersionAbierta<Integer, String> largo = new MapaDispersionAbierta<Integer, String>(3, 5, false, false,
+				20F);
+		for (int i = 0; i < 20; i++) {
+			largo.put(i * 5, valores[i % 10]);
+		}
+
+		int recorridas = 0;
+		Iterator<Entry<Integer, String>> it = largo.entrySet().iterator();
+		while (it.hasNext()) {
+			Entry<Integer, String> entrada = it.next();
+			recorridas++;
+			if (entrada.getKey() % 10 == 0) {
+				Integer clave = entrada.getKey();
+				it.remove();
+				assertEquals(clave, entrada.getKey());
+			} else
+				assertEquals(valores[entrada.getKey() / 5 % 10], entrada.setValue("otro"));
+		}
+
+		assertEquals(20, recorridas);
+		assertEquals(10, largo.size());
+		for (int i = 0; i < 20; i++) {
+			assertEquals(i % 2 == 0 ? null : "otro", largo.get(i * 5));
+		}
+
+		Object[] copia = largo.entrySet().toArray();
+		assertEquals(10, new HashSet<Object>(Arrays.asList(copia)).size());
+
+		// Las entradas conservadas no se pisan entre si y siguen escribiendo en
+		// el mapa aunque este cambie despues
+		List<Entry<Integer, String>> entradas = new ArrayList<Entry<Integer, String>>(largo.entrySet());
+		Set<Integer> claves = new HashSet<Integer>();
+		for (Entry<Integer, String> entrada : entradas) {
+			assertTrue(claves.add(entrada.getKey()));
+		}
+		assertEquals(Integer.valueOf(95), Collections.max(entradas, Entry.comparingByKey()).getKey());
+
+		largo.remove(5);
+		for (Entry<Integer, String> entrada : entradas) {
+			entrada.setValue("fin" + entrada.getKey());
+		}
+		assertNull(largo.get(5));
+		assertEquals(9, largo.size());
+		assertEquals("fin15", largo.get(15));
+		assertEquals("fin95", largo.get(95));
+
+	}
+
+	/**
+	 * Se comprueba que el iterador falla si se inserta una clave mientras se
+	 * recorre el mapa.
+	 */
+	@Test(expected = ConcurrentModificationException.class)
+	public void testIterador_FallaRapido() {
+
+		testPut_Espacio();
+
+		for (Entry<Integer, String> entrada : mapa.entrySet()) {
+			mapa.put(entrada.getKey() + 100, entrada.getValue());
+		}
+
+	}
+
+	/**
+	 * Se comprueban los metodos que leen y escriben una clave con una sola
+	 * busqueda, tambien mientras se migran las cubetas en modo incremental.
+	 */
+	@Test
+	public void testCompute() {
+
+		MapaDispersionAbierta<Integer, Integer> contador = new MapaDispersionAbierta<Integer, Integer>(3, 5, false,
+				true);
+		for (int i = 0; i < 1000; i++) {
+			contador.merge(i % 100, 1, Integer::sum);
+		}
+		assertEquals(100, contador.size());
+		for (int i = 0; i < 100; i++) {
+			assertEquals(Integer.valueOf(10), contador.get(i));
+		}
+
+		assertEquals(Integer.valueOf(10), contador.computeIfAbsent(5, clave -> -1));
+		assertEquals(Integer.valueOf(-1), contador.computeIfAbsent(100, clave -> -1));
+		assertNull(contador.computeIfPresent(101, (clave, valor) -> 0));
+		assertNull(contador.computeIfPresent(100, (clave, valor) -> null));
+		assertEquals(Integer.valueOf(11), contador.compute(5, (clave, valor) -> valor + 1));
+		assertNull(contador.compute(6, (clave, valor) -> null));
+		assertNull(contador.merge(7, 1, (actual, valor) -> null));
+		assertEquals(Integer.valueOf(11), contador.putIfAbsent(5, 0));
+		assertNull(contador.putIfAbsent(6, 0));
+		assertEquals(Integer.valueOf(-2), contador.getOrDefault(7, -2));
+		assertEquals(99, contador.size());
+
+	}
+
+	/**
+	 * Se comprueba que getAll y putAll dan el mismo resultado que get y put
+	 * clave a clave mientras se migran las cubetas en modo incremental.
+	 */
+	@Test
+	public void testLotes() {
+
+		MapaDispersionAbierta<Integer, Integer> incremental = new MapaDispersionAbierta<Integer, Integer>(3, 5, false,
+				true);
+		Integer[] claves = new Integer[100];
+		for (int i = 0; i < 100; i++) {
+			claves[i] = i;
+		}
+		incremental.putAll(claves, claves);
+		assertEquals(100, incremental.size());
+
+		Integer[] buscadas = new Integer[150];
+		Integer[] salida = new Integer[150];
+		for (int i = 0; i < 150; i++) {
+			buscadas[i] = 149 - i;
+		}
+		incremental.getAll(buscadas, salida);
+		for (int i = 0; i < 150; i++) {
+			assertEquals(buscadas[i] < 100 ? buscadas[i] : null, salida[i]);
+		}
+
+	}
+
+	/**
+	 * Se comprueba que una clave con el hash calculado de antemano sirve para
+	 * leer y escribir en mapas con y sin mascara.
+	 */
+	@Test
+	public void testClaveDispersada() {
+
+		testPut_Espacio();
+		MapaDispersionAbierta<Integer, String> potencia = new MapaDispersionAbierta<Integer, String>(3, 4, true);
+		for (int i = 0; i <= 9; i++) {
+			potencia.put(new ClaveDispersada<Integer>(i), valores[i]);
+		}
+
+		for (int i = 0; i <= 9; i++) {
+			ClaveDispersada<Integer> clave = new ClaveDispersada<Integer>(i);
+			assertEquals(valores[i], mapa.get(clave));
+			assertEquals(valores[i], potencia.get(clave));
+			assertEquals(valores[i], potencia.get(i));
+		}
+		assertNull(mapa.get(new ClaveDispersada<Integer>(10)));
+		assertEquals(10, potencia.size());
+
+	}
+
+	/**
+	 * Se comprueba que putAll deja lo mismo que put clave a clave cuando el lote
+	 * repite claves y sus escrituras hacen crecer o dividir el contenedor.
+	 */
+	@Test
+	public void testPutAll_Repetidas() {
+
+		List<MapaDispersionAbierta<Integer, Integer>> mapas = new ArrayList<MapaDispersionAbierta<Integer, Integer>>();
+		mapas.add(new MapaDispersionAbierta<Integer, Integer>(2, 3));
+		mapas.add(new MapaDispersionAbierta<Integer, Integer>(2, 2, true, true));
+		mapas.add(new MapaDispersionAbierta<Integer, Integer>(2, 3, false, false, 0F, true));
+
+		Integer[] claves = new Integer[600];
+		Integer[] valores = new Integer[600];
+		for (int i = 0; i < claves.length; i++) {
+			claves[i] = i % 200;
+			valores[i] = i;
+		}
+
+		for (MapaDispersionAbierta<Integer, Integer> mapa : mapas) {
+			mapa.putAll(claves, valores);
+			assertEquals(200, mapa.size());
+			for (int i = 0; i < 200; i++)
+				assertEquals(Integer.valueOf(i + 400), mapa.get(i));
+		}
+
+	}
+
+
+	/**
+	 * Se comprueba que en modo incremental la migracion termina antes de que el
+	 * contenedor nuevo tenga que volver a crecer, aunque quepan pocas inserciones
+	 * entre un crecimiento y el siguiente.
+	 */
+	@Test
+	public void testMigracion_TerminaAntesDeCrecer() {
+
+		MapaDispersionAbierta<Integer, Integer> incremental = new MapaDispersionAbierta<Integer, Integer>(3, 5, false,
+				true, 0.5F);
+		int crecimientos = 0;
+		for (int i = 0; i < 5000; i++) {
+
+			int cubetas = incremental.getNumeroCubetas();
+			int migrados = 0;
+			int[] histograma = incremental.getHistogramaCubetas();
+			for (int j = 0; j < histograma.length; j++)
+				migrados += j * histograma[j];
+
+			incremental.put(i, i);
+			if (incremental.getNumeroCubetas() != cubetas) {
+				crecimientos++;
+				assertEquals(i, migrados);
+			}
+		}
+
+		assertTrue(crecimientos > 5);
+		assertEquals(5000, incremental.size());
+
+	}
+
+
 	// TODO - Completar los tests probando las situaciones extremas
 	// TODO - Probar a introducir otras clases (p.ej. las de profesor / alumno ...)
 }
@@ -0,0 +1,357 @@
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import tablasHash.MapaDispersionPlana;
+
+public class MapaDispersionPlanaTest {
+
+	MapaDispersionPlana<Integer, String> mapa;
+
+	String[] valores = { "cero", "uno", "dos", "tres", "cuatro", "cinco", "seis", "siete", "ocho", "nueve" };
+
+	@Before
+	public void setUp() throws Exception {
+		mapa = new MapaDispersionPlana<Integer, String>(3, 5);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		mapa.clear();
+	}
+
+	/**
+	 * Se comprueba el almacenamiento correcto de claves y valores. Se comprueba
+	 * también el tamaño del mapa y el numero de entradas registradas.
+	 */
+	@Test
+	public void testPut_Espacio() {
+
+		for (int i = 0; i <= 9; i++) {
+			assertEquals(null, mapa.put(i, valores[i]));
+		}
+
+		assertTrue(mapa.keySet().containsAll(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9)));
+
+		assertEquals(10, mapa.size());
+		assertEquals(5, mapa.getNumeroCubetas());
+
+	}
+
+	/**
+	 * Se comprueba el almacenamiento correcto de claves y valores en el caso de
+	 * necesitar un redimensionamiento de la tabla mientras se almacena. Se
+	 * comprueba también el tamaño del mapa y el numero de entradas registradas.
+	 */
+	@Test
+	public void testPut_SinEspacio() {
+
+		for (int i = 0; i < 16; i++) {
+			assertEquals(null, mapa.put(i, valores[i % 10]));
+		}
+
+		assertTrue(mapa.keySet().containsAll(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15)));
+
+		assertEquals(16, mapa.size());
+		assertEquals(7, mapa.getNumeroCubetas());
+
+	}
+
+	/**
+	 * Se comprueba que en el caso de almacenar un par-valor de una clave que ya
+	 * existe en el mapa se actualizan correctamente los valores.
+	 */
+	@Test
+	public void testPut_Sobreescribir() {
+
+		testPut_Espacio();
+
+		assertEquals(valores[5], mapa.put(5, "otro"));
+
+		assertTrue(mapa.keySet().containsAll(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8)));
+		assertFalse(mapa.values().contains(valores[5]));
+		assertEquals("otro", mapa.get(5));
+
+		assertEquals(10, mapa.size());
+		assertEquals(5, mapa.getNumeroCubetas());
+
+	}
+
+	/**
+	 * Se comprueba la eliminacion de claves y valores en función de la búsqueda por
+	 * clave.
+	 */
+	@Test
+	public void testRemove() {
+
+		testPut_Espacio();
+
+		assertEquals(valores[2], mapa.remove(2));
+		assertFalse(mapa.keySet().contains(2));
+		assertFalse(mapa.values().contains(valores[2]));
+
+		assertEquals(9, mapa.size());
+		assertEquals(5, mapa.getNumeroCubetas());
+
+	}
+
+	/**
+	 * Se comprueba la correcta recuperación del conjunto de pares clave-valor
+	 * almacenados.
+	 */
+	@Test
+	public void testEntrySet() {
+
+		testPut_Espacio();
+
+		Set<Entry<Integer, String>> conjunto = mapa.entrySet();
+		for (Entry<Integer, String> entrada : conjunto) {
+			Integer clave = entrada.getKey();
+			assertEquals(valores[clave], entrada.getValue());
+		}
+
+	}
+
+	/**
+	 * Se comprueba que la vista de las entradas refleja el mapa: su iterador
+	 * quita entradas sin saltarse ni repetir ninguna aunque las siguientes de la
+	 * cubeta se desplacen, una entrada quitada conserva su clave, y clear vacia
+	 * el mapa.
+	 */
+	@Test
+	public void testEntrySet_Vista() {
+
+		for (int i = 0; i < 100; i++) {
+			mapa.put(i, valores[i % 10]);
+		}
+
+		Set<Integer> vistas = new HashSet<Integer>();
+		Iterator<Entry<Integer, String>> it = mapa.entrySet().iterator();
+		while (it.hasNext()) {
+			Entry<Integer, String> entrada = it.next();
+			assertTrue(vistas.add(entrada.getKey()));
+			if (entrada.getKey() % 2 == 0) {
+				Integer clave = entrada.getKey();
+				it.remove();
+				assertEquals(clave, entrada.getKey());
+			} else if (entrada.getKey() % 3 == 0)
+				entrada.setValue("otro");
+		}
+
+		assertEquals(100, vistas.size());
+		assertEquals(50, mapa.size());
+		for (int i = 0; i < 100; i++) {
+			String esperado = i % 2 == 0 ? null : i % 3 == 0 ? "otro" : valores[i % 10];
+			assertEquals(esperado, mapa.get(i));
+		}
+
+		assertTrue(mapa.keySet().remove(1));
+		assertFalse(mapa.keySet().remove(2));
+		assertEquals(49, mapa.size());
+
+		mapa.entrySet().clear();
+		assertTrue(mapa.isEmpty());
+		assertNull(mapa.get(3));
+
+	}
+
+	/**
+	 * Se comprueba que el iterador falla si se inserta una clave mientras se
+	 * recorre el mapa.
+	 */
+	@Test(expected = ConcurrentModificationException.class)
+	public void testIterador_FallaRapido() {
+
+		testPut_Espacio();
+
+		for (Integer clave : mapa.keySet()) {
+			mapa.put(clave + 100, valores[clave]);
+		}
+
+	}
+
+	/**
+	 * Se comprueba a recuperar los valores a partir de sus claves tras haber
+	 * realizado una inserción sin necesidad de redimension.
+	 */
+	@Test
+	public void testGet_Espacio() {
+
+		testPut_Espacio();
+
+		for (int i = 0; i < 9; i++) {
+			assertEquals(valores[i], mapa.get(i));
+		}
+
+	}
+
+	/**
+	 * Se comprueba a recuperar los valores a partir de sus claves tras haber
+	 * realizado una inserción con necesidad de redimension.
+	 */
+	@Test
+	public void testGet_SinEspacio() {
+
+		testPut_SinEspacio();
+
+		for (int i = 0; i < 9; i++) {
+			assertEquals(valores[i % 10], mapa.get(i));
+		}
+
+	}
+
+	/**
+	 * Se comprueba que cuando una cubeta llena solo tiene claves con el mismo
+	 * hash las que no caben se desbordan, sin crecer ni el numero de cubetas ni
+	 * su tamaño.
+	 */
+	@Test
+	public void testPut_MismoHash() {
+
+		MapaDispersionPlana<Object, Integer> plana = new MapaDispersionPlana<Object, Integer>(3, 5);
+
+		for (int i = 0; i < 20; i++) {
+			assertNull(plana.put(new Colision(i), i));
+		}
+		assertEquals(20, plana.size());
+		assertEquals(5, plana.getNumeroCubetas());
+		assertEquals(3, plana.getTamanoCubeta());
+		for (int i = 0; i < 20; i++) {
+			assertEquals(Integer.valueOf(i), plana.get(new Colision(i)));
+		}
+
+		assertEquals(Integer.valueOf(4), plana.remove(new Colision(4)));
+		assertNull(plana.get(new Colision(4)));
+		assertEquals(Integer.valueOf(19), plana.get(new Colision(19)));
+		assertEquals(19, plana.size());
+
+	}
+
+	/**
+	 * Se comprueba que las claves con hashes opuestos (h y -h) o que solo se
+	 * diferencian en el bit de signo no hacen crecer el mapa sin fin: cuando
+	 * mas cubetas no las separan se desbordan.
+	 */
+	@Test
+	public void testPut_HashOpuestos() {
+
+		int[] hashes = { 1, 1, -1, -1, 0, 0, Integer.MIN_VALUE, Integer.MIN_VALUE };
+
+		for (boolean potenciaDos : new boolean[] { false, true }) {
+			MapaDispersionPlana<Object, Integer> plana = new MapaDispersionPlana<Object, Integer>(1, 2, potenciaDos);
+
+			for (int i = 0; i < hashes.length; i++) {
+				assertNull(plana.put(new ClaveHash(i, hashes[i]), i));
+			}
+			assertEquals(hashes.length, plana.size());
+			assertTrue(plana.getTamanoCubeta() * plana.getNumeroCubetas() <= 64);
+			for (int i = 0; i < hashes.length; i++) {
+				assertEquals(Integer.valueOf(i), plana.get(new ClaveHash(i, hashes[i])));
+			}
+
+			assertEquals(Integer.valueOf(2), plana.remove(new ClaveHash(2, -1)));
+			assertNull(plana.get(new ClaveHash(2, -1)));
+			assertEquals(Integer.valueOf(3), plana.get(new ClaveHash(3, -1)));
+			assertEquals(hashes.length - 1, plana.size());
+		}
+
+	}
+
+	/**
+	 * Se comprueba que un grupo de claves con el mismo hash en un mapa grande
+	 * solo ocupa sus entradas en la zona de desborde, y que el iterador recorre
+	 * y quita las desbordadas sin saltarse ni repetir ninguna.
+	 */
+	@Test
+	public void testPut_Desborde() {
+
+		MapaDispersionPlana<Object, Integer> plana = new MapaDispersionPlana<Object, Integer>();
+
+		for (int i = 0; i < 20000; i++) {
+			assertNull(plana.put(i, i));
+		}
+		int posiciones = plana.getTamanoCubeta() * plana.getNumeroCubetas();
+		for (int i = 0; i < 200; i++) {
+			assertNull(plana.put(new Colision(i), i));
+		}
+		assertEquals(20200, plana.size());
+		assertEquals(3, plana.getTamanoCubeta());
+		assertTrue(plana.getTamanoCubeta() * plana.getNumeroCubetas() <= 3 * posiciones);
+		for (int i = 0; i < 200; i++) {
+			assertEquals(Integer.valueOf(i), plana.get(new Colision(i)));
+		}
+
+		Set<Object> vistas = new HashSet<Object>();
+		Iterator<Entry<Object, Integer>> it = plana.entrySet().iterator();
+		while (it.hasNext()) {
+			Entry<Object, Integer> entrada = it.next();
+			assertTrue(vistas.add(entrada.getKey()));
+			if (entrada.getValue() % 2 == 0)
+				it.remove();
+		}
+
+		assertEquals(20200, vistas.size());
+		assertEquals(10100, plana.size());
+		for (int i = 0; i < 200; i++) {
+			assertEquals(i % 2 == 0 ? null : Integer.valueOf(i), plana.get(new Colision(i)));
+		}
+		assertTrue(plana.containsValue(199));
+
+	}
+
+	/**
+	 * Clave cuyo hash es siempre el mismo
+	 */
+	static class Colision {
+
+		final int id;
+
+		Colision(int id) {
+			this.id = id;
+		}
+
+		@Override
+		public int hashCode() {
+			return -1;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof Colision && ((Colision) o).id == id;
+		}
+	}
+
+
+	/**
+	 * Clave con un hash cualquiera
+	 */
+	static class ClaveHash {
+
+		final int id;
+		final int hash;
+
+		ClaveHash(int id, int hash) {
+			this.id = id;
+			this.hash = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof ClaveHash && ((ClaveHash) o).id == id;
+		}
+	}
+
+}
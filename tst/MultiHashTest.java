@@ -0,0 +1,431 @@
+
+import static org.junit.Assert.*;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import org.junit.Test;
+import tablasHash.ClaveDispersada;
+import tablasHash.DobleDispersion;
+import tablasHash.EstrategiaExploracion;
+import tablasHash.MultiHash;
+
+public class MultiHashTest {
+
+	String[] metodos = { "EXPL", "CUAD", "COCI", "DOBL" };
+
+	/**
+	 * Se comprueba que las claves que colisionan siguen siendo accesibles tras
+	 * eliminar las que las preceden en la secuencia de dispersion.
+	 */
+	@Test
+	public void testRemove_Colisiones() {
+
+		for (String metodo : metodos) {
+
+			MultiHash<Integer, Integer> mapa = new MultiHash<Integer, Integer>(metodo);
+
+			// Todas las claves caen en la posicion 3
+			for (int i = 0; i < 5; i++) {
+				assertNull(mapa.put(3 + 10 * i, i));
+			}
+
+			assertEquals(Integer.valueOf(0), mapa.remove(3));
+			assertEquals(Integer.valueOf(1), mapa.remove(13));
+			assertNull(mapa.remove(13));
+
+			for (int i = 2; i < 5; i++) {
+				assertEquals(metodo, Integer.valueOf(i), mapa.get(3 + 10 * i));
+			}
+			assertFalse(mapa.containsKey(3));
+			assertEquals(3, mapa.size());
+
+			// Se reinserta una clave eliminada sin duplicar la existente
+			assertNull(mapa.put(13, 10));
+			assertEquals(Integer.valueOf(2), mapa.put(23, 20));
+			assertEquals(Integer.valueOf(10), mapa.get(13));
+			assertEquals(4, mapa.size());
+		}
+
+	}
+
+	/**
+	 * Se comprueba que una serie larga de inserciones y borrados mantiene el
+	 * contenido del mapa.
+	 */
+	@Test
+	public void testPutRemove_Alternados() {
+
+		for (String metodo : metodos) {
+
+			MultiHash<Integer, Integer> mapa = new MultiHash<Integer, Integer>(metodo, 0.1F);
+
+			for (int i = 0; i < 1000; i++) {
+				mapa.put(i, i);
+				if (i % 3 == 0)
+					assertEquals(Integer.valueOf(i / 3), mapa.remove(i / 3));
+			}
+
+			for (int i = 0; i < 1000; i++) {
+				boolean borrada = i <= 333;
+				assertEquals(metodo + " " + i, borrada ? null : Integer.valueOf(i), mapa.get(i));
+			}
+			assertEquals(666, mapa.size());
+		}
+
+	}
+
+	/**
+	 * Se comprueba que una estrategia registrada desde fuera se usa al crear el
+	 * mapa por su nombre.
+	 */
+	@Test
+	public void testRegistrarEstrategia() {
+
+		final int[] sondeos = { 0 };
+
+		MultiHash.registrarEstrategia("PRUEBA", new EstrategiaExploracion() {
+			@Override
+			public int posicion(int hash, int intento, int longitud, boolean potenciaDos) {
+				sondeos[0]++;
+				return (Math.abs(hash % longitud) + intento) % longitud;
+			}
+		});
+
+		MultiHash<Integer, Integer> mapa = new MultiHash<Integer, Integer>("PRUEBA");
+		for (int i = 0; i < 50; i++) {
+			mapa.put(i * 7, i);
+		}
+		for (int i = 0; i < 50; i++) {
+			assertEquals(Integer.valueOf(i), mapa.get(i * 7));
+		}
+
+		assertTrue(sondeos[0] >= 100);
+
+	}
+
+	/**
+	 * Se comprueba que pedir una estrategia que no esta registrada es un error y
+	 * no se cambia en silencio por la exploracion lineal.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testEstrategiaDesconocida() {
+		new MultiHash<Integer, Integer>("NOEXISTE");
+	}
+
+	/**
+	 * Se comprueba que la doble dispersion en modo modulo visita todas las
+	 * posiciones de una tabla cuyo tamano no es primo, de modo que se puede
+	 * llenar entera sin que ninguna insercion se quede sin hueco.
+	 */
+	@Test
+	public void testDobleDispersion_TamanoCompuesto() {
+
+		DobleDispersion dispersion = new DobleDispersion();
+		for (int longitud : new int[] { 12, 15, 16, 36, 100 }) {
+			for (int hash = -500; hash < 500; hash++) {
+				boolean[] visitadas = new boolean[longitud];
+				int total = 0;
+				for (int intento = 0; intento < longitud; intento++) {
+					int posicion = dispersion.posicion(hash, intento, longitud, false);
+					if (!visitadas[posicion]) {
+						visitadas[posicion] = true;
+						total++;
+					}
+				}
+				assertEquals(longitud, total);
+			}
+		}
+
+	}
+
+	/**
+	 * Se comprueba que la doble dispersion da la misma secuencia aunque se
+	 * alternen sondeos de claves y tablas distintas, que no pueden reutilizar el
+	 * paso guardado de la anterior.
+	 */
+	@Test
+	public void testDobleDispersion_Alternada() {
+
+		DobleDispersion dispersion = new DobleDispersion();
+		int[][] esperadas = new int[4][20];
+		int[] hashes = { 7, -7, 123456, 7 };
+		int[] longitudes = { 12, 12, 64, 64 };
+		boolean[] potencias = { false, false, true, true };
+		for (int k = 0; k < 4; k++)
+			for (int intento = 0; intento < 20; intento++)
+				esperadas[k][intento] = new DobleDispersion().posicion(hashes[k], intento, longitudes[k], potencias[k]);
+
+		for (int intento = 0; intento < 20; intento++)
+			for (int k = 0; k < 4; k++)
+				assertEquals(esperadas[k][intento],
+						dispersion.posicion(hashes[k], intento, longitudes[k], potencias[k]));
+
+	}
+
+	/**
+	 * Se comprueba que el modo Robin Hood mantiene el contenido del mapa con
+	 * inserciones y borrados alternados, y que acorta la secuencia de sondeo mas
+	 * larga.
+	 */
+	@Test
+	public void testRobinHood() {
+
+		for (String metodo : metodos) {
+
+			MultiHash<Integer, Integer> normal = new MultiHash<Integer, Integer>(metodo);
+			MultiHash<Integer, Integer> mapa = new MultiHash<Integer, Integer>(metodo, true);
+
+			for (int i = 0; i < 1000; i++) {
+				normal.put(i * 37, i);
+				assertNull(mapa.put(i * 37, i));
+				if (i % 3 == 0)
+					assertEquals(Integer.valueOf(i / 3), mapa.remove(i / 3 * 37));
+			}
+
+			for (int i = 0; i < 1000; i++) {
+				boolean borrada = i <= 333;
+				assertEquals(metodo + " " + i, borrada ? null : Integer.valueOf(i), mapa.get(i * 37));
+			}
+			assertEquals(666, mapa.size());
+			assertTrue(mapa.getSondeoMaximo() <= normal.getSondeoMaximo());
+		}
+
+	}
+
+	/**
+	 * Se comprueba que en modo incremental todas las claves siguen accesibles
+	 * mientras se migran las entradas, con y sin Robin Hood.
+	 */
+	@Test
+	public void testRedimensionIncremental() {
+
+		for (String metodo : metodos) {
+			for (boolean robinHood : new boolean[] { false, true }) {
+
+				MultiHash<Integer, Integer> mapa = new MultiHash<Integer, Integer>(MultiHash.getEstrategia(metodo), 10,
+						0.75F, 1.5F, 0.1F, false, robinHood, true);
+
+				for (int i = 0; i < 1000; i++) {
+					assertNull(mapa.put(i * 37, i));
+					assertEquals(metodo, Integer.valueOf(0), mapa.get(0));
+					assertEquals(metodo, Integer.valueOf(i / 2), mapa.get(i / 2 * 37));
+				}
+				assertEquals(1000, mapa.size());
+				assertEquals(1000, mapa.entrySet().size());
+
+				for (int i = 0; i < 1000; i += 2) {
+					assertEquals(Integer.valueOf(i), mapa.remove(i * 37));
+				}
+				for (int i = 0; i < 1000; i++) {
+					assertEquals(metodo, i % 2 == 0 ? null : Integer.valueOf(i), mapa.get(i * 37));
+				}
+				assertEquals(500, mapa.size());
+			}
+		}
+
+	}
+
+	/**
+	 * Se comprueba que el iterador de las entradas permite eliminarlas mientras
+	 * se recorre el mapa y que las demas siguen accesibles.
+	 */
+	@Test
+	public void testIterador_Remove() {
+
+		for (String metodo : metodos) {
+			for (boolean robinHood : new boolean[] { false, true }) {
+
+				MultiHash<Integer, Integer> mapa = new MultiHash<Integer, Integer>(metodo, robinHood);
+				for (int i = 0; i < 100; i++) {
+					mapa.put(i * 10, i);
+				}
+
+				int recorridas = 0;
+				Iterator<Entry<Integer, Integer>> it = mapa.entrySet().iterator();
+				while (it.hasNext()) {
+					Entry<Integer, Integer> entrada = it.next();
+					recorridas++;
+					if (entrada.getValue() % 2 == 0)
+						it.remove();
+					else
+						entrada.setValue(-entrada.getValue());
+				}
+
+				assertEquals(100, recorridas);
+				assertEquals(50, mapa.size());
+				for (int i = 0; i < 100; i++) {
+					assertEquals(metodo, i % 2 == 0 ? null : Integer.valueOf(-i), mapa.get(i * 10));
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Se comprueba que el iterador falla si se elimina una clave mientras se
+	 * recorre el mapa.
+	 */
+	@Test(expected = ConcurrentModificationException.class)
+	public void testIterador_FallaRapido() {
+
+		MultiHash<Integer, Integer> mapa = new MultiHash<Integer, Integer>();
+		for (int i = 0; i < 5; i++) {
+			mapa.put(i, i);
+		}
+
+		for (Integer valor : mapa.values()) {
+			mapa.remove(valor);
+		}
+
+	}
+
+	/**
+	 * Se comprueban los metodos que leen y escriben una clave con una sola
+	 * busqueda con todas las estrategias, tambien con claves borradas en la
+	 * secuencia de dispersion.
+	 */
+	@Test
+	public void testCompute() {
+
+		for (String metodo : metodos) {
+			for (boolean robinHood : new boolean[] { false, true }) {
+
+				MultiHash<Integer, Integer> contador = new MultiHash<Integer, Integer>(metodo, robinHood);
+				for (int i = 0; i < 1000; i++) {
+					contador.merge(i % 50, 1, Integer::sum);
+					if (i % 3 == 0)
+						contador.computeIfPresent(i % 50, (clave, valor) -> valor > 10 ? null : valor);
+				}
+				for (int i = 0; i < 50; i++) {
+					assertEquals(metodo, contador.get(i), contador.getOrDefault(i, -1));
+					assertTrue(metodo, contador.getOrDefault(i, 0) <= 20);
+				}
+
+				for (int i = 0; i < 100; i++) {
+					Integer anterior = contador.get(i);
+					assertEquals(metodo, anterior == null ? Integer.valueOf(-i) : anterior,
+							contador.computeIfAbsent(i, clave -> -clave));
+					assertEquals(metodo, anterior == null ? Integer.valueOf(-i) : anterior, contador.putIfAbsent(i, 0));
+					contador.compute(i, (clave, valor) -> clave % 2 == 0 ? null : valor);
+				}
+				assertEquals(50, contador.size());
+				assertFalse(contador.containsKey(2));
+				assertEquals(Integer.valueOf(-51), contador.get(51));
+			}
+		}
+
+	}
+
+	/**
+	 * Se comprueba que getAll y putAll dan el mismo resultado que get y put
+	 * clave a clave con todas las estrategias, tambien con posiciones borradas.
+	 */
+	@Test
+	public void testLotes() {
+
+		for (String metodo : metodos) {
+			for (boolean robinHood : new boolean[] { false, true }) {
+
+				MultiHash<Integer, Integer> mapa = new MultiHash<Integer, Integer>(metodo, robinHood);
+				Integer[] claves = new Integer[100];
+				for (int i = 0; i < 100; i++) {
+					claves[i] = i * 10;
+				}
+				mapa.putAll(claves, claves);
+				for (int i = 0; i < 100; i += 3) {
+					mapa.remove(i * 10);
+				}
+
+				Integer[] buscadas = new Integer[200];
+				Integer[] salida = new Integer[200];
+				for (int i = 0; i < 200; i++) {
+					buscadas[i] = i * 5;
+				}
+				mapa.getAll(buscadas, salida);
+				for (int i = 0; i < 200; i++) {
+					assertEquals(metodo, mapa.get(buscadas[i]), salida[i]);
+					assertEquals(metodo, i % 2 == 0 && i % 6 != 0 ? buscadas[i] : null, salida[i]);
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * Se comprueba que una clave con el hash calculado de antemano sirve para
+	 * leer y escribir con todas las estrategias.
+	 */
+	@Test
+	public void testClaveDispersada() {
+
+		for (String metodo : metodos) {
+
+			MultiHash<Integer, Integer> mapa = new MultiHash<Integer, Integer>(metodo);
+			for (int i = 0; i < 100; i += 2) {
+				assertNull(mapa.put(new ClaveDispersada<Integer>(i), i));
+			}
+			for (int i = 0; i < 100; i++) {
+				assertEquals(metodo, i % 2 == 0 ? Integer.valueOf(i) : null,
+						mapa.get(new ClaveDispersada<Integer>(i)));
+			}
+			assertEquals(Integer.valueOf(4), mapa.put(new ClaveDispersada<Integer>(4), -4));
+			assertEquals(Integer.valueOf(-4), mapa.get(4));
+			assertEquals(50, mapa.size());
+		}
+
+	}
+
+
+	/**
+	 * Se comprueba que insertar con una clave dispersada no vuelve a llamar a
+	 * hashCode aunque la insercion haga crecer el array, con y sin Robin Hood.
+	 */
+	@Test
+	public void testClaveDispersada_Crecimiento() {
+
+		for (String metodo : metodos) {
+			for (boolean robinHood : new boolean[] { false, true }) {
+
+				MultiHash<ClaveContada, Integer> mapa = new MultiHash<ClaveContada, Integer>(metodo, robinHood);
+				ClaveContada[] claves = new ClaveContada[500];
+				for (int i = 0; i < claves.length; i++) {
+					claves[i] = new ClaveContada(i);
+					assertNull(mapa.put(new ClaveDispersada<ClaveContada>(claves[i]), i));
+				}
+
+				assertEquals(claves.length, mapa.size());
+				for (int i = 0; i < claves.length; i++)
+					assertEquals(metodo, 1, claves[i].llamadas);
+			}
+		}
+
+	}
+
+	/**
+	 * Clave que cuenta las llamadas a hashCode
+	 */
+	static class ClaveContada {
+
+		final int valor;
+		int llamadas;
+
+		ClaveContada(int valor) {
+			this.valor = valor;
+		}
+
+		@Override
+		public int hashCode() {
+			llamadas++;
+			return valor;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			return o instanceof ClaveContada && ((ClaveContada) o).valor == valor;
+		}
+
+	}
+
+}
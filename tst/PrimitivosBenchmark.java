@@ -0,0 +1,96 @@
+
+import tablasHash.IntIntMap;
+import tablasHash.MultiHash;
+
+/**
+ * Compara IntIntMap con MultiHash de Integer a Integer usando la misma
+ * estrategia de exploracion. Ademas del tiempo de put y get se estima la
+ * memoria por entrada con la diferencia del heap usado antes y despues de
+ * llenar el mapa.
+ *
+ * Se ejecuta con: java PrimitivosBenchmark [numeroClaves]
+ */
+public class PrimitivosBenchmark {
+
+	static final int RONDAS = 5;
+
+	public static void main(String[] args) {
+
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+		System.out.println("Claves consecutivas: " + n);
+		System.out.printf("%-28s %12s %12s %12s%n", "mapa", "put ns/op", "get ns/op", "bytes/entrada");
+
+		for (String metodo : new String[] { "EXPL", "DOBL" }) {
+			medirMultiHash(metodo, n);
+			medirIntIntMap(metodo, n);
+		}
+	}
+
+	static void medirMultiHash(String metodo, int n) {
+
+		long mejorPut = Long.MAX_VALUE, mejorGet = Long.MAX_VALUE, memoria = 0;
+		long control = 0;
+
+		for (int r = 0; r < RONDAS; r++) {
+
+			long antes = heapUsado();
+			MultiHash<Integer, Integer> mapa = new MultiHash<Integer, Integer>(metodo, 16, 0.75F, 2F, 0F, true);
+
+			long t0 = System.nanoTime();
+			for (int i = 0; i < n; i++)
+				mapa.put(i, i);
+			long t1 = System.nanoTime();
+			for (int i = 0; i < n; i++)
+				control += mapa.get(i);
+			long t2 = System.nanoTime();
+
+			memoria = heapUsado() - antes;
+			mejorPut = Math.min(mejorPut, t1 - t0);
+			mejorGet = Math.min(mejorGet, t2 - t1);
+			control += mapa.size();
+		}
+
+		System.out.printf("%-28s %12.1f %12.1f %12.1f   (%d)%n", "MultiHash " + metodo, (double) mejorPut / n,
+				(double) mejorGet / n, (double) memoria / n, control);
+	}
+
+	static void medirIntIntMap(String metodo, int n) {
+
+		long mejorPut = Long.MAX_VALUE, mejorGet = Long.MAX_VALUE, memoria = 0;
+		long control = 0;
+
+		for (int r = 0; r < RONDAS; r++) {
+
+			long antes = heapUsado();
+			IntIntMap mapa = new IntIntMap(metodo, 16, 0.75F, 2F, true);
+
+			long t0 = System.nanoTime();
+			for (int i = 0; i < n; i++)
+				mapa.put(i, i);
+			long t1 = System.nanoTime();
+			for (int i = 0; i < n; i++)
+				control += mapa.get(i);
+			long t2 = System.nanoTime();
+
+			memoria = heapUsado() - antes;
+			mejorPut = Math.min(mejorPut, t1 - t0);
+			mejorGet = Math.min(mejorGet, t2 - t1);
+			control += mapa.size();
+		}
+
+		System.out.printf("%-28s %12.1f %12.1f %12.1f   (%d)%n", "IntIntMap " + metodo, (double) mejorPut / n,
+				(double) mejorGet / n, (double) memoria / n, control);
+	}
+
+	/**
+	 * Memoria del heap en uso tras pedir una recoleccion
+	 */
+	static long heapUsado() {
+		Runtime rt = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++)
+			System.gc();
+		return rt.totalMemory() - rt.freeMemory();
+	}
+
+}
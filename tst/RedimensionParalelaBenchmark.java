@@ -0,0 +1,64 @@
+import java.util.concurrent.ForkJoinPool;
+
+import tablasHash.MapaDispersionAbierta;
+
+/**
+ * Compara el tiempo de llenar un MapaDispersionAbierta grande redimensionando
+ * en un solo hilo o repartiendo las redimensiones grandes en el ForkJoinPool. Tambien mide la insercion mas lenta, que es la que provoca la ultima
+ * redimension, la mas grande.
+ *
+ * Se ejecuta con: java RedimensionParalelaBenchmark [numeroClaves] [hilos]
+ */
+public class RedimensionParalelaBenchmark {
+
+	static final int RONDAS = 5;
+	static final Integer VALOR = 1;
+
+	public static void main(String[] args) {
+
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+		int hilos = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		ForkJoinPool pool = new ForkJoinPool(hilos);
+
+		Integer[] claves = new Integer[n];
+		for (int i = 0; i < n; i++)
+			claves[i] = i;
+
+		System.out.println("Claves consecutivas: " + n + ", hilos: " + hilos);
+		System.out.printf("%-24s %12s %16s%n", "redimension", "llenado ms", "put maximo ms");
+
+		medir("secuencial", Integer.MAX_VALUE, pool, claves);
+		medir("paralela", 1 << 16, pool, claves);
+
+		pool.shutdown();
+	}
+
+	/**
+	 * Se queda con la mejor de varias rondas para descontar el calentamiento.
+	 */
+	static void medir(String nombre, int umbral, ForkJoinPool pool, Integer[] claves) {
+
+		long mejorTotal = Long.MAX_VALUE, mejorMaximo = Long.MAX_VALUE;
+
+		for (int r = 0; r < RONDAS; r++) {
+
+			MapaDispersionAbierta<Integer, Integer> mapa = new MapaDispersionAbierta<Integer, Integer>(8, 16, true);
+			mapa.setUmbralRedimensionParalela(umbral, pool);
+			long maximo = 0;
+
+			long inicio = System.nanoTime();
+			for (Integer k : claves) {
+				long t0 = System.nanoTime();
+				mapa.put(k, VALOR);
+				maximo = Math.max(maximo, System.nanoTime() - t0);
+			}
+			long total = System.nanoTime() - inicio;
+
+			mejorTotal = Math.min(mejorTotal, total);
+			mejorMaximo = Math.min(mejorMaximo, maximo);
+		}
+
+		System.out.printf("%-24s %12.1f %16.2f%n", nombre, mejorTotal / 1e6, mejorMaximo / 1e6);
+	}
+
+}
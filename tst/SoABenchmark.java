@@ -0,0 +1,89 @@
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import tablasHash.HashMapArray;
+import tablasHash.HashMapArraySoA;
+
+/**
+ * Compara HashMapArray con su variante de arrays paralelos HashMapArraySoA.
+ * Ademas del tiempo de put, get con acierto y get con fallo se estima la
+ * memoria por entrada con la diferencia del heap usado antes y despues de
+ * llenar el mapa, sin contar las claves y valores, que se crean antes.
+ *
+ * Se ejecuta con: java SoABenchmark [numeroClaves]
+ */
+public class SoABenchmark {
+
+	static final int RONDAS = 5;
+	static final Integer VALOR = 1;
+
+	public static void main(String[] args) {
+
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 2000000;
+
+		Integer[] claves = new Integer[n];
+		Integer[] ausentes = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			claves[i] = i;
+			ausentes[i] = n + i;
+		}
+
+		System.out.println("Claves consecutivas: " + n);
+		System.out.printf("%-28s %12s %12s %12s %12s%n", "mapa", "put ns/op", "get ns/op", "fallo ns/op",
+				"bytes/entrada");
+
+		medir("HashMapArray", () -> new HashMapArray<Integer, Integer>(16, true), claves, ausentes);
+		medir("HashMapArraySoA", () -> new HashMapArraySoA<Integer, Integer>(16, true), claves, ausentes);
+	}
+
+	/**
+	 * Mide la insercion, la busqueda con acierto y la busqueda con fallo. Se
+	 * queda con la mejor de varias rondas para descontar el calentamiento.
+	 */
+	static void medir(String nombre, Supplier<Map<Integer, Integer>> fabrica, Integer[] claves,
+			Integer[] ausentes) {
+
+		long mejorPut = Long.MAX_VALUE, mejorGet = Long.MAX_VALUE, mejorFallo = Long.MAX_VALUE, memoria = 0;
+		long control = 0;
+
+		for (int r = 0; r < RONDAS; r++) {
+
+			long antes = heapUsado();
+			Map<Integer, Integer> mapa = fabrica.get();
+
+			long t0 = System.nanoTime();
+			for (Integer k : claves)
+				mapa.put(k, VALOR);
+			long t1 = System.nanoTime();
+			for (Integer k : claves)
+				control += mapa.get(k);
+			long t2 = System.nanoTime();
+			for (Integer k : ausentes)
+				if (mapa.get(k) != null)
+					control++;
+			long t3 = System.nanoTime();
+
+			memoria = heapUsado() - antes;
+			mejorPut = Math.min(mejorPut, t1 - t0);
+			mejorGet = Math.min(mejorGet, t2 - t1);
+			mejorFallo = Math.min(mejorFallo, t3 - t2);
+			control += mapa.size();
+		}
+
+		System.out.printf("%-28s %12.1f %12.1f %12.1f %12.1f   (%d)%n", nombre, (double) mejorPut / claves.length,
+				(double) mejorGet / claves.length, (double) mejorFallo / ausentes.length,
+				(double) memoria / claves.length, control);
+	}
+
+	/**
+	 * Memoria del heap en uso tras pedir una recoleccion
+	 */
+	static long heapUsado() {
+		Runtime rt = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++)
+			System.gc();
+		return rt.totalMemory() - rt.freeMemory();
+	}
+
+}